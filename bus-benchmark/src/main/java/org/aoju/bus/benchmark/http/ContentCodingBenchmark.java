@@ -0,0 +1,139 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.benchmark.http;
+
+import org.aoju.bus.core.io.Buffer;
+import org.aoju.bus.core.io.GzipSource;
+import org.aoju.bus.core.io.InflaterSource;
+import org.aoju.bus.core.io.Source;
+import org.aoju.bus.http.metric.http.ContentCodings;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * 内容编码的解压与压缩
+ * <p>
+ * 对比池化{@link Inflater}的内置编码与每次新建解压器的方式解码响应体,以及压缩请求体的耗时;
+ * 多线程竞争时使用 {@code -t} 指定线程数
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentCodingBenchmark {
+
+    @Param({"1024", "65536"})
+    public int size;
+
+    private byte[] raw;
+
+    private byte[] gzip;
+
+    private byte[] deflate;
+
+    @Setup
+    public void setup() throws IOException {
+        // 类似 JSON 的响应体,重复字段名加随机值,压缩率与真实接口接近
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(size + 64);
+        while (builder.length() < size) {
+            builder.append("{\"id\":").append(random.nextInt(1000000))
+                    .append(",\"name\":\"user").append(random.nextInt(10000))
+                    .append("\",\"score\":").append(random.nextDouble()).append("},");
+        }
+        raw = builder.substring(0, size).getBytes(StandardCharsets.UTF_8);
+        gzip = compress(new ByteArrayOutputStream(), true);
+        deflate = compress(new ByteArrayOutputStream(), false);
+    }
+
+    private byte[] compress(ByteArrayOutputStream bytes, boolean gzip) throws IOException {
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : new DeflaterOutputStream(bytes)) {
+            out.write(raw);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static long drain(Source source) throws IOException {
+        Buffer sink = new Buffer();
+        long total = 0;
+        try {
+            for (long read; (read = source.read(sink, 8192)) != -1; ) {
+                total += read;
+                sink.clear();
+            }
+        } finally {
+            source.close();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long gzipPooled() throws IOException {
+        return drain(ContentCodings.GZIP.decode(new Buffer().write(gzip)));
+    }
+
+    @Benchmark
+    public long gzipUnpooled() throws IOException {
+        return drain(new GzipSource(new Buffer().write(gzip)));
+    }
+
+    @Benchmark
+    public long deflatePooled() throws IOException {
+        return drain(ContentCodings.DEFLATE.decode(new Buffer().write(deflate)));
+    }
+
+    @Benchmark
+    public long deflateUnpooled() throws IOException {
+        return drain(new InflaterSource(new Buffer().write(deflate), new Inflater()));
+    }
+
+    @Benchmark
+    public long gzipEncode() throws IOException {
+        Buffer sink = new Buffer();
+        ContentCodings.GZIP.encode(new Buffer().write(raw), sink);
+        return sink.size();
+    }
+
+    @Benchmark
+    public int gzipEncodeStream() throws IOException {
+        return compress(new ByteArrayOutputStream(size / 2), true).length;
+    }
+
+}
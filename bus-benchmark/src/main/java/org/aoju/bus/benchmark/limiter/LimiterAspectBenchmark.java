@@ -0,0 +1,188 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.benchmark.limiter;
+
+import org.aoju.bus.limiter.Handler;
+import org.aoju.bus.limiter.Resolver;
+import org.aoju.bus.limiter.annotation.Lock;
+import org.aoju.bus.limiter.intercept.LimiterInterceptor;
+import org.aoju.bus.limiter.resource.DefaultLimitedResourceSource;
+import org.aoju.bus.limiter.support.lock.LockAnnotationParser;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 限制器切面自身的开销
+ * <p>
+ * 使用总是放行的锁,测量无注解方法、默认key、字面量key与SpEL key四种情况下每次调用的耗时
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LimiterAspectBenchmark {
+
+    private LimiterInterceptor interceptor;
+
+    private Invocation plain;
+
+    private Invocation defaultKey;
+
+    private Invocation literalKey;
+
+    private Invocation spelKey;
+
+    @Setup
+    public void setup() throws Exception {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("noopLock", new NoopLock());
+        beanFactory.addBean("defaultFallbackResolver", (Resolver<Object>) (method, clazz, args, resource, target) -> null);
+        beanFactory.addBean("defaultErrorHandler", (Handler) (throwable, context) -> false);
+
+        interceptor = new LimiterInterceptor();
+        interceptor.setBeanFactory(beanFactory);
+        interceptor.setLimitedResourceSource(new DefaultLimitedResourceSource(new LockAnnotationParser()));
+        interceptor.afterSingletonsInstantiated();
+
+        Service service = new Service();
+        plain = new Invocation(service, Service.class.getMethod("plain"), new Object[0], service::plain);
+        defaultKey = new Invocation(service, Service.class.getMethod("defaultKey"), new Object[0], service::defaultKey);
+        literalKey = new Invocation(service, Service.class.getMethod("literalKey"), new Object[0], service::literalKey);
+        Object[] args = {"user-42"};
+        spelKey = new Invocation(service, Service.class.getMethod("spelKey", String.class), args, () -> service.spelKey("user-42"));
+    }
+
+    @Benchmark
+    public Object plain() throws Throwable {
+        return interceptor.invoke(plain);
+    }
+
+    @Benchmark
+    public Object defaultKey() throws Throwable {
+        return interceptor.invoke(defaultKey);
+    }
+
+    @Benchmark
+    public Object literalKey() throws Throwable {
+        return interceptor.invoke(literalKey);
+    }
+
+    @Benchmark
+    public Object spelKey() throws Throwable {
+        return interceptor.invoke(spelKey);
+    }
+
+    public static class Service {
+
+        public Object plain() {
+            return this;
+        }
+
+        @Lock(limiter = "noopLock")
+        public Object defaultKey() {
+            return this;
+        }
+
+        @Lock(limiter = "noopLock", key = "'fixed'")
+        public Object literalKey() {
+            return this;
+        }
+
+        @Lock(limiter = "noopLock", key = "#id")
+        public Object spelKey(String id) {
+            return id;
+        }
+    }
+
+    static class NoopLock extends org.aoju.bus.limiter.support.lock.Lock {
+
+        @Override
+        public boolean lock(Object key) {
+            return true;
+        }
+
+        @Override
+        public void unlock(Object key) {
+        }
+
+        @Override
+        public String getLimiterName() {
+            return "noopLock";
+        }
+    }
+
+    static class Invocation implements MethodInvocation {
+
+        private final Object target;
+        private final Method method;
+        private final Object[] args;
+        private final Supplier<Object> body;
+
+        Invocation(Object target, Method method, Object[] args, Supplier<Object> body) {
+            this.target = target;
+            this.method = method;
+            this.args = args;
+            this.body = body;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return args;
+        }
+
+        @Override
+        public Object proceed() {
+            return body.get();
+        }
+
+        @Override
+        public Object getThis() {
+            return target;
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return method;
+        }
+    }
+
+}
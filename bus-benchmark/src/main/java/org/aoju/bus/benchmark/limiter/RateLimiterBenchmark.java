@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.benchmark.limiter;
+
+import org.aoju.bus.limiter.annotation.RateLimiter.Algorithm;
+import org.aoju.bus.limiter.support.rate.jdk.JdkRateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JdkRateLimiter在64线程下的基准:所有线程竞争同一个键,或分散到大量键
+ * <p>
+ * rate为1e9时几乎全部放行,测量CAS更新路径;rate为1000时几乎全部拒绝,测量只读路径
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 4096;
+    private static final long CAPACITY = 1000;
+
+    @Param({"TOKEN_BUCKET", "SLIDING_WINDOW_LOG", "SLIDING_WINDOW_COUNTER"})
+    private Algorithm algorithm;
+
+    @Param({"1000", "1000000000"})
+    private double rate;
+
+    private JdkRateLimiter limiter;
+
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        limiter = new JdkRateLimiter("benchmark", 10, TimeUnit.MINUTES);
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "api-key-" + i;
+        }
+    }
+
+    @Benchmark
+    public boolean hotKey() {
+        return limiter.acquire(keys[0], rate, CAPACITY, algorithm);
+    }
+
+    @Benchmark
+    public boolean manyKeys() {
+        return limiter.acquire(keys[ThreadLocalRandom.current().nextInt(KEYS)], rate, CAPACITY, algorithm);
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.benchmark.pager;
+
+import org.aoju.bus.pager.PageContext;
+import org.aoju.bus.pager.plugin.PageInterceptor;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分页拦截器自身的开销
+ * <p>
+ * 执行器不访问数据库,直接返回结果,测量开启与关闭 SQL 缓存时一次分页查询（count + 分页）和带排序的分页查询的耗时
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageInterceptorBenchmark {
+
+    private static final String SQL = "SELECT u.id, u.name, u.email, o.total FROM t_user u "
+            + "LEFT JOIN t_order o ON o.user_id = u.id "
+            + "WHERE u.status = ? AND u.created > ? AND o.total > ? ORDER BY u.created DESC";
+
+    @Param({"true", "false"})
+    public boolean sqlCache;
+
+    private PageInterceptor interceptor;
+
+    private Executor executor;
+
+    private Method query;
+
+    private MappedStatement ms;
+
+    @Setup
+    public void setup() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("helperDialect", "mysql");
+        properties.setProperty("sqlCache", String.valueOf(sqlCache));
+        interceptor = new PageInterceptor();
+        interceptor.setProperties(properties);
+
+        Configuration configuration = new Configuration();
+        List<ResultMap> resultMaps = Collections.singletonList(
+                new ResultMap.Builder(configuration, "bench.select-Inline", HashMap.class, new ArrayList<>()).build());
+        ms = new MappedStatement.Builder(configuration, "bench.select",
+                new StaticSqlSource(configuration, SQL), SqlCommandType.SELECT).resultMaps(resultMaps).build();
+
+        List<Object> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new HashMap<>());
+        }
+        List<Long> count = Collections.singletonList(100L);
+        executor = (Executor) Proxy.newProxyInstance(Executor.class.getClassLoader(), new Class<?>[]{Executor.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "createCacheKey":
+                            return new CacheKey();
+                        case "query":
+                            return ((MappedStatement) args[0]).getId().endsWith("_COUNT") ? count : rows;
+                        default:
+                            return null;
+                    }
+                });
+        query = Executor.class.getMethod("query", MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class);
+    }
+
+    @Benchmark
+    public Object page() throws Throwable {
+        PageContext.startPage(3, 10);
+        return interceptor.intercept(new Invocation(executor, query,
+                new Object[]{ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER}));
+    }
+
+    @Benchmark
+    public Object pageOrderBy() throws Throwable {
+        PageContext.startPage(3, 10, "u.name ASC");
+        return interceptor.intercept(new Invocation(executor, query,
+                new Object[]{ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER}));
+    }
+
+}
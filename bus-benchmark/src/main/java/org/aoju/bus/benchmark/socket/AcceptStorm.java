@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.benchmark.socket;
+
+import org.aoju.bus.socket.origin.AioQuickServer;
+import org.aoju.bus.socket.origin.AioSession;
+import org.aoju.bus.socket.origin.Message;
+import org.aoju.bus.socket.origin.StateMachine;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 集中重连压测：多个线程同时发起大量回环连接,统计服务端的接收速率及连接在监听器间的分布
+ *
+ * <pre>
+ * ulimit -n 200000
+ * java -cp benchmarks.jar org.aoju.bus.benchmark.socket.AcceptStorm --connections=50000 --acceptors=4 --threads=8
+ * </pre>
+ * <p>
+ * 客户端与服务端位于同一进程,每个连接占用两个文件句柄,连接数较大时需调大ulimit及net.ipv4.ip_local_port_range
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class AcceptStorm {
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = new LoadOptions(args);
+        AtomicInteger online = new AtomicInteger();
+        AioQuickServer<Object> server = new AioQuickServer<>(options.port(), (buffer, session) -> {
+            buffer.position(buffer.limit());
+            return null;
+        }, new Message<Object>() {
+            @Override
+            public void process(AioSession<Object> session, Object msg) {
+            }
+
+            @Override
+            public void stateEvent(AioSession<Object> session, StateMachine state, Throwable throwable) {
+                if (state == StateMachine.NEW_SESSION) {
+                    online.incrementAndGet();
+                } else if (state == StateMachine.SESSION_CLOSED) {
+                    online.decrementAndGet();
+                }
+            }
+
+            @Override
+            public void join(String group, AioSession<Object> session) {
+            }
+
+            @Override
+            public void remove(String group, AioSession<Object> session) {
+            }
+
+            @Override
+            public void remove(AioSession<Object> session) {
+            }
+
+            @Override
+            public void writeToGroup(String group, byte[] t) {
+            }
+        }).setAcceptorNum(options.acceptors()).setReadBufferSize(64);
+        server.setThreadNum(Math.max(2, options.threads()));
+        server.setBannerEnabled(false);
+        server.start();
+
+        InetSocketAddress address = new InetSocketAddress(options.host(), options.port());
+        ExecutorService executor = Executors.newFixedThreadPool(options.connectThreads());
+        System.out.println("accept storm: connections=" + options.connections() + " acceptors=" + options.acceptors()
+                + " threads=" + options.threads() + " connectThreads=" + options.connectThreads());
+        try {
+            for (int round = 1; round <= options.rounds(); round++) {
+                long before = accepted(server);
+                List<SocketChannel> channels = new CopyOnWriteArrayList<>();
+                long start = System.nanoTime();
+                List<Future<?>> futures = new ArrayList<>();
+                int perThread = (options.connections() + options.connectThreads() - 1) / options.connectThreads();
+                for (int t = 0; t < options.connectThreads(); t++) {
+                    int count = Math.min(perThread, options.connections() - t * perThread);
+                    futures.add(executor.submit(() -> {
+                        List<SocketChannel> local = new ArrayList<>(count);
+                        for (int i = 0; i < count; i++) {
+                            local.add(SocketChannel.open(address));
+                        }
+                        channels.addAll(local);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                long target = before + options.connections();
+                while (accepted(server) < target && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(60)) {
+                    TimeUnit.MILLISECONDS.sleep(1);
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                long count = accepted(server) - before;
+                System.out.println(String.format("round %d: accepted=%d in %.3fs, %.0f conn/s, online=%d, distribution=%s",
+                        round, count, seconds, count / seconds, online.get(), Arrays.toString(server.getAcceptDistribution())));
+                // 模拟发布后的集中断开与重连
+                for (SocketChannel channel : channels) {
+                    close(channel);
+                }
+                long closeStart = System.nanoTime();
+                while (online.get() > 0 && System.nanoTime() - closeStart < TimeUnit.SECONDS.toNanos(30)) {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            server.shutdown();
+        }
+        System.exit(0);
+    }
+
+    private static long accepted(AioQuickServer<?> server) {
+        long total = 0;
+        for (long count : server.getAcceptDistribution()) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static void close(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+}
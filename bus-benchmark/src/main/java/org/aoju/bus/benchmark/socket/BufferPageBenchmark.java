@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.benchmark.socket;
+
+import org.aoju.bus.core.io.BufferPage;
+import org.aoju.bus.core.io.BufferPool;
+import org.aoju.bus.core.io.VirtualBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BufferPage申请与回收的微基准
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BufferPageBenchmark {
+
+    @Param({"64", "1024", "4096"})
+    private int size;
+
+    @Param({"true", "false"})
+    private boolean direct;
+
+    private BufferPage page;
+
+    @Setup
+    public void setup() {
+        page = new BufferPool(4 * 1024 * 1024, 1, direct).allocateBufferPage();
+    }
+
+    @Benchmark
+    public VirtualBuffer allocateAndClean() {
+        VirtualBuffer buffer = page.allocate(size);
+        buffer.clean();
+        return buffer;
+    }
+
+    /**
+     * 多个线程共享同一内存页时的竞争开销
+     */
+    @Benchmark
+    @Threads(4)
+    public VirtualBuffer allocateAndCleanContended() {
+        VirtualBuffer buffer = page.allocate(size);
+        buffer.clean();
+        return buffer;
+    }
+
+    /**
+     * 持有多个缓冲区后再统一回收,模拟写队列积压
+     */
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public void allocateBatch() {
+        VirtualBuffer[] buffers = new VirtualBuffer[16];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = page.allocate(size);
+        }
+        for (VirtualBuffer buffer : buffers) {
+            buffer.clean();
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.benchmark.socket;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 回环压测入口,支持origin(AIO)与netty(WebSocket)两种通信栈的echo与pubsub场景
+ *
+ * <pre>
+ * java -cp benchmarks.jar org.aoju.bus.benchmark.socket.LoadGenerator --stack=origin --mode=echo --connections=200 --size=256
+ * </pre>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @see LoadOptions
+ * @since JDK 1.8+
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = new LoadOptions(args);
+        LoadStats stats = new LoadStats();
+        LoadScenario scenario;
+        if ("origin".equals(options.stack())) {
+            scenario = new OriginLoad(options, stats);
+        } else if ("netty".equals(options.stack())) {
+            scenario = new NettyLoad(options, stats);
+        } else {
+            throw new IllegalArgumentException("unknown stack: " + options.stack());
+        }
+        System.out.println("load start: " + options);
+        scenario.start();
+        try {
+            TimeUnit.SECONDS.sleep(options.warmup());
+            stats.reset();
+            for (int i = 0; i < options.duration(); i++) {
+                TimeUnit.SECONDS.sleep(1);
+                if ((i + 1) % 10 == 0 && i + 1 < options.duration()) {
+                    System.out.println("[" + (i + 1) + "s] " + stats.report());
+                }
+            }
+            System.out.println("result: " + stats.report());
+        } finally {
+            scenario.stop();
+        }
+        System.exit(0);
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.benchmark.socket;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 压测参数,格式为--name=value
+ *
+ * <pre>
+ * --stack=origin|netty     压测的通信栈,默认origin
+ * --mode=echo|pubsub       压测场景,默认echo
+ * --host=127.0.0.1         服务地址,未指定--external时在本进程内启动服务
+ * --port=18080             服务端口
+ * --connections=100        连接数
+ * --size=128               消息大小,字节,不小于8
+ * --threads=4              服务端与客户端各自的I/O线程数
+ * --pipeline=1             echo场景下每个连接同时在途的消息数
+ * --rate=1000              pubsub场景下每秒发布的消息数
+ * --warmup=5               预热时长,秒
+ * --duration=30            统计时长,秒
+ * --external=false         是否连接外部已启动的服务
+ * --acceptors=1            AcceptStorm中服务端的监听器数量
+ * --rounds=3               AcceptStorm中集中重连的轮数
+ * --connectThreads=8       AcceptStorm中发起连接的线程数
+ * </pre>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class LoadOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    public LoadOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("unknown argument: " + arg);
+            }
+            int index = arg.indexOf('=');
+            if (index < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, index), arg.substring(index + 1));
+            }
+        }
+        if (size() < 8) {
+            throw new IllegalArgumentException("size must >= 8");
+        }
+    }
+
+    private String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    private int getInt(String name, int defaultValue) {
+        return Integer.parseInt(get(name, String.valueOf(defaultValue)));
+    }
+
+    public String stack() {
+        return get("stack", "origin");
+    }
+
+    public String mode() {
+        return get("mode", "echo");
+    }
+
+    public String host() {
+        return get("host", "127.0.0.1");
+    }
+
+    public int port() {
+        return getInt("port", 18080);
+    }
+
+    public int connections() {
+        return getInt("connections", 100);
+    }
+
+    public int size() {
+        return getInt("size", 128);
+    }
+
+    public int threads() {
+        return getInt("threads", 4);
+    }
+
+    public int pipeline() {
+        return getInt("pipeline", 1);
+    }
+
+    public int rate() {
+        return getInt("rate", 1000);
+    }
+
+    public int warmup() {
+        return getInt("warmup", 5);
+    }
+
+    public int duration() {
+        return getInt("duration", 30);
+    }
+
+    public boolean external() {
+        return Boolean.parseBoolean(get("external", "false"));
+    }
+
+    public int acceptors() {
+        return getInt("acceptors", 1);
+    }
+
+    public int rounds() {
+        return getInt("rounds", 3);
+    }
+
+    public int connectThreads() {
+        return getInt("connectThreads", 8);
+    }
+
+    @Override
+    public String toString() {
+        return "stack=" + stack() + " mode=" + mode() + " connections=" + connections() + " size=" + size()
+                + " threads=" + threads() + " pipeline=" + pipeline() + " rate=" + rate();
+    }
+
+}
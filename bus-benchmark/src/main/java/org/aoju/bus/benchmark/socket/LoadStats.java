@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.benchmark.socket;
+
+import org.aoju.bus.core.math.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 压测统计：消息数、字节数及端到端延迟
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class LoadStats {
+
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final Histogram histogram = new Histogram(5);
+    private volatile long startTime = System.nanoTime();
+
+    /**
+     * 记录一条已收到的消息
+     *
+     * @param sentNanos 消息发出时的System.nanoTime()
+     * @param size      消息字节数
+     */
+    public void record(long sentNanos, int size) {
+        histogram.record(System.nanoTime() - sentNanos);
+        messages.incrementAndGet();
+        bytes.addAndGet(size);
+    }
+
+    /**
+     * 清空统计,用于结束预热
+     */
+    public void reset() {
+        histogram.reset();
+        messages.set(0);
+        bytes.set(0);
+        startTime = System.nanoTime();
+    }
+
+    public String report() {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        return String.format("messages=%d throughput=%.0f msg/s %.2f MB/s latency[%s]",
+                messages.get(), messages.get() / seconds, bytes.get() / seconds / (1024 * 1024), summary(histogram.snapshot()));
+    }
+
+    /**
+     * 输出常用百分位,单位微秒
+     *
+     * @param snapshot 延迟快照
+     * @return 描述
+     */
+    private static String summary(Histogram.Snapshot snapshot) {
+        return String.format("p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus",
+                micros(snapshot.percentile(50)), micros(snapshot.percentile(90)), micros(snapshot.percentile(99)),
+                micros(snapshot.percentile(99.9)), micros(snapshot.max()));
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.benchmark.socket;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.websocketx.*;
+import org.aoju.bus.socket.netty.EventHandler;
+import org.aoju.bus.socket.netty.MessagePublisher;
+import org.aoju.bus.socket.netty.NettyConsts;
+import org.aoju.bus.socket.netty.SocketService;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * netty(WebSocket)通信栈压测
+ * <p>
+ * 消息内容为"发送时的System.nanoTime()|填充字符"；echo场景通过message事件由主题处理器原样返回,
+ * pubsub场景在本进程内通过{@link MessagePublisher}按固定速率发布给全部订阅连接
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class NettyLoad implements LoadScenario {
+
+    private static final String TOPIC = "bench";
+    /**
+     * 订阅确认,由主题处理器的onSubscribe返回
+     */
+    private static final String ACK = "\"ok\"";
+
+    private final LoadOptions options;
+    private final LoadStats stats;
+    private final List<Channel> channels = new ArrayList<>();
+    private EventLoopGroup group;
+    private CountDownLatch subscribed;
+    private volatile boolean running = true;
+    private Thread publisher;
+
+    public NettyLoad(LoadOptions options, LoadStats stats) {
+        this.options = options;
+        this.stats = stats;
+    }
+
+    @Override
+    public void start() throws Exception {
+        boolean echo = "echo".equals(options.mode());
+        if (!options.external()) {
+            startServer();
+        }
+        URI uri = new URI("ws://" + options.host() + ":" + options.port() + NettyConsts.END_POINT);
+        subscribed = new CountDownLatch(options.connections());
+        group = new NioEventLoopGroup(options.threads());
+        Bootstrap bootstrap = new Bootstrap().group(group).channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new io.netty.channel.ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(new HttpClientCodec(), new HttpObjectAggregator(65536),
+                                new WebSocketClientProtocolHandler(WebSocketClientHandshakerFactory.newHandshaker(
+                                        uri, WebSocketVersion.V13, null, false, new DefaultHttpHeaders(), 65536)),
+                                new ClientHandler(echo));
+                    }
+                });
+        for (int i = 0; i < options.connections(); i++) {
+            channels.add(bootstrap.connect(options.host(), options.port()).sync().channel());
+        }
+        if (!subscribed.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("subscribe timeout, pending:" + subscribed.getCount());
+        }
+        if (!echo) {
+            publisher = new Thread(this::publish, "bus-benchmark:Publisher");
+            publisher.start();
+        }
+    }
+
+    /**
+     * 在本进程内启动WebSocket服务,并注册原样返回消息的主题处理器
+     */
+    private void startServer() throws InterruptedException {
+        SocketService.addHandler(TOPIC, new EventHandler() {
+            @Override
+            public String onSubscribe(String topic, String data) {
+                return "ok";
+            }
+
+            @Override
+            public String onMessage(String topic, String data) {
+                return data;
+            }
+
+            @Override
+            public String onCancel(String topic, String data) {
+                return null;
+            }
+        });
+        Thread server = new Thread(() -> SocketService.start(options.port(), 1, options.threads()), "bus-benchmark:Server");
+        server.setDaemon(true);
+        server.start();
+        for (int i = 0; i < 100; i++) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(options.host(), options.port()), 100);
+                return;
+            } catch (Exception e) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+        throw new IllegalStateException("server not started on port " + options.port());
+    }
+
+    private String payload() {
+        StringBuilder builder = new StringBuilder(options.size()).append(System.nanoTime()).append('|');
+        while (builder.length() < options.size()) {
+            builder.append('x');
+        }
+        return builder.toString();
+    }
+
+    private void send(Channel channel) {
+        channel.writeAndFlush(new TextWebSocketFrame("{\"e\":\"" + NettyConsts.MESSAGE + "\",\"t\":[\"" + TOPIC + "\"],\"d\":\"" + payload() + "\"}"));
+    }
+
+    /**
+     * 按固定速率发布消息
+     */
+    private void publish() {
+        long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, options.rate());
+        long next = System.nanoTime();
+        while (running) {
+            MessagePublisher.publish(TOPIC, payload());
+            next += interval;
+            long delay = next - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Channel channel : channels) {
+            channel.close();
+        }
+        if (group != null) {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 客户端消息处理：握手完成后订阅主题,收到消息后记录延迟
+     */
+    private class ClientHandler extends SimpleChannelInboundHandler<TextWebSocketFrame> {
+
+        private final boolean echo;
+
+        ClientHandler(boolean echo) {
+            this.echo = echo;
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+            if (evt == WebSocketClientProtocolHandler.ClientHandshakeStateEvent.HANDSHAKE_COMPLETE) {
+                ctx.writeAndFlush(new TextWebSocketFrame("{\"e\":\"" + NettyConsts.SUBSCRIBE + "\",\"t\":[\"" + TOPIC + "\"]}"));
+            }
+            super.userEventTriggered(ctx, evt);
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, TextWebSocketFrame frame) {
+            String text = frame.text();
+            if (ACK.equals(text)) {
+                subscribed.countDown();
+                if (echo) {
+                    for (int i = 0; i < options.pipeline(); i++) {
+                        send(ctx.channel());
+                    }
+                }
+                return;
+            }
+            int start = text.startsWith("\"") ? 1 : 0;
+            int end = text.indexOf('|', start);
+            if (end < 0) {
+                // 心跳等非压测消息
+                return;
+            }
+            stats.record(Long.parseLong(text.substring(start, end)), text.length());
+            if (echo && running) {
+                send(ctx.channel());
+            }
+        }
+    }
+
+}
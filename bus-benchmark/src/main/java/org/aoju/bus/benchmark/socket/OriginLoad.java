@@ -0,0 +1,265 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.benchmark.socket;
+
+import org.aoju.bus.core.io.BufferPool;
+import org.aoju.bus.socket.origin.*;
+import org.aoju.bus.socket.origin.plugins.LengthFieldProtocol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * origin(AIO)通信栈压测
+ * <p>
+ * 消息格式为4字节长度头加内容,内容前8字节为发送时的System.nanoTime()；
+ * echo场景由服务端原样返回,pubsub场景由发布连接发出后服务端编码一次群发给全部订阅连接
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class OriginLoad implements LoadScenario {
+
+    /**
+     * pubsub场景下订阅连接发送的首帧内容
+     */
+    private static final byte SUBSCRIBE = 'S';
+    /**
+     * pubsub场景下发布连接发送的首帧内容
+     */
+    private static final byte PUBLISH = 'P';
+
+    private final LoadOptions options;
+    private final LoadStats stats;
+    private final List<AioQuickClient<ByteBuffer>> clients = new ArrayList<>();
+    private AioQuickServer<ByteBuffer> server;
+    private AsynchronousChannelGroup group;
+    /**
+     * 全部客户端连接共享的内存池
+     */
+    private BufferPool bufferPool;
+    private volatile boolean running = true;
+    private Thread publisher;
+
+    public OriginLoad(LoadOptions options, LoadStats stats) {
+        this.options = options;
+        this.stats = stats;
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (!options.external()) {
+            server = new AioQuickServer<>(options.port(), protocol(), new ServerMessage(options.mode()));
+            server.setThreadNum(Math.max(2, options.threads()));
+            server.setBannerEnabled(false);
+            server.start();
+        }
+        group = AsynchronousChannelGroup.withFixedThreadPool(options.threads(), Executors.defaultThreadFactory());
+        bufferPool = new BufferPool(1024 * 1024, options.threads(), true);
+        boolean echo = "echo".equals(options.mode());
+        for (int i = 0; i < options.connections(); i++) {
+            AioQuickClient<ByteBuffer> client = new AioQuickClient<>(options.host(), options.port(), protocol(), new ClientMessage(echo)).setBufferPagePool(bufferPool);
+            AioSession<ByteBuffer> session = client.start(group);
+            clients.add(client);
+            if (echo) {
+                for (int j = 0; j < options.pipeline(); j++) {
+                    send(session);
+                }
+            } else {
+                command(session, SUBSCRIBE);
+            }
+        }
+        if (!echo) {
+            AioQuickClient<ByteBuffer> client = new AioQuickClient<>(options.host(), options.port(), protocol(), new ClientMessage(false)).setBufferPagePool(bufferPool);
+            AioSession<ByteBuffer> session = client.start(group);
+            clients.add(client);
+            command(session, PUBLISH);
+            publisher = new Thread(() -> publish(session), "bus-benchmark:Publisher");
+            publisher.start();
+        }
+    }
+
+    private LengthFieldProtocol protocol() {
+        return new LengthFieldProtocol(4, Math.max(1024, options.size() + 4));
+    }
+
+    /**
+     * 按固定速率发布消息
+     */
+    private void publish(AioSession<ByteBuffer> session) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, options.rate());
+        long next = System.nanoTime();
+        while (running && !session.isInvalid()) {
+            send(session);
+            next += interval;
+            long delay = next - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+        }
+    }
+
+    private void send(AioSession<ByteBuffer> session) {
+        byte[] frame = new byte[4 + options.size()];
+        ByteBuffer.wrap(frame).putInt(options.size()).putLong(System.nanoTime());
+        try {
+            session.writeBuffer().writeAndFlush(frame);
+        } catch (IOException e) {
+            session.close();
+        }
+    }
+
+    private static void command(AioSession<ByteBuffer> session, byte command) throws IOException {
+        session.writeBuffer().writeAndFlush(new byte[]{0, 0, 0, 1, command});
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (AioQuickClient<ByteBuffer> client : clients) {
+            client.shutdownNow();
+        }
+        if (group != null) {
+            group.shutdown();
+        }
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * 客户端消息处理：记录延迟,echo场景下继续发送下一条
+     */
+    private class ClientMessage extends BaseMessage {
+
+        private final boolean echo;
+
+        ClientMessage(boolean echo) {
+            this.echo = echo;
+        }
+
+        @Override
+        public void process(AioSession<ByteBuffer> session, ByteBuffer frame) {
+            stats.record(frame.getLong(frame.position()), frame.remaining() + 4);
+            if (echo && running) {
+                send(session);
+            }
+        }
+    }
+
+    /**
+     * 服务端消息处理
+     */
+    private static class ServerMessage extends BaseMessage {
+
+        private final boolean echo;
+        private final Set<AioSession<ByteBuffer>> subscribers = ConcurrentHashMap.newKeySet();
+
+        ServerMessage(String mode) {
+            this.echo = "echo".equals(mode);
+        }
+
+        @Override
+        public void process(AioSession<ByteBuffer> session, ByteBuffer frame) {
+            if (frame.remaining() == 1) {
+                if (frame.get(frame.position()) == SUBSCRIBE) {
+                    subscribers.add(session);
+                }
+                return;
+            }
+            // 切片仅在本次处理期间有效,需复制
+            byte[] data = new byte[4 + frame.remaining()];
+            ByteBuffer.wrap(data).putInt(frame.remaining()).put(frame);
+            if (echo) {
+                try {
+                    session.writeBuffer().write(data);
+                } catch (IOException e) {
+                    session.close();
+                }
+                return;
+            }
+            ByteBuffer payload = ByteBuffer.wrap(data).asReadOnlyBuffer();
+            for (AioSession<ByteBuffer> subscriber : subscribers) {
+                if (subscriber.isInvalid()) {
+                    subscribers.remove(subscriber);
+                } else if (!subscriber.writeBuffer().offer(payload.duplicate())) {
+                    try {
+                        subscriber.writeBuffer().write(data);
+                    } catch (IOException e) {
+                        subscriber.close();
+                    }
+                }
+            }
+            for (AioSession<ByteBuffer> subscriber : subscribers) {
+                if (!subscriber.isInvalid()) {
+                    subscriber.writeBuffer().flush();
+                }
+            }
+        }
+
+        @Override
+        public void stateEvent(AioSession<ByteBuffer> session, StateMachine state, Throwable throwable) {
+            if (state == StateMachine.SESSION_CLOSED) {
+                subscribers.remove(session);
+            }
+        }
+    }
+
+    /**
+     * 压测不使用群组功能
+     */
+    private abstract static class BaseMessage implements Message<ByteBuffer> {
+
+        @Override
+        public void stateEvent(AioSession<ByteBuffer> session, StateMachine state, Throwable throwable) {
+        }
+
+        @Override
+        public void join(String group, AioSession<ByteBuffer> session) {
+        }
+
+        @Override
+        public void remove(String group, AioSession<ByteBuffer> session) {
+        }
+
+        @Override
+        public void remove(AioSession<ByteBuffer> session) {
+        }
+
+        @Override
+        public void writeToGroup(String group, byte[] t) {
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.benchmark.socket;
+
+import org.aoju.bus.core.io.EventFactory;
+import org.aoju.bus.core.io.RingBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RingBuffer读写的微基准,对应TcpReadHandler中读事件的排队与消费
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RingBufferBenchmark {
+
+    @Param({"1024", "4096"})
+    private int capacity;
+
+    private RingBuffer<long[]> ringBuffer;
+
+    @Setup
+    public void setup() {
+        ringBuffer = new RingBuffer<>(capacity, new EventFactory<long[]>() {
+            @Override
+            public long[] newInstance() {
+                return new long[1];
+            }
+
+            @Override
+            public void restEntity(long[] entity) {
+                entity[0] = 0;
+            }
+        });
+    }
+
+    /**
+     * 同一线程写入后立即读取
+     */
+    @Benchmark
+    @Group("roundTrip")
+    @GroupThreads(1)
+    public long roundTrip() throws InterruptedException {
+        int write = ringBuffer.nextWriteIndex();
+        ringBuffer.get(write)[0] = write;
+        ringBuffer.publishWriteIndex(write);
+        int read = ringBuffer.tryNextReadIndex();
+        long value = ringBuffer.get(read)[0];
+        ringBuffer.publishReadIndex(read);
+        return value;
+    }
+
+    /**
+     * 单生产者单消费者
+     */
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void produce() throws InterruptedException {
+        int index = ringBuffer.tryNextWriteIndex();
+        if (index >= 0) {
+            ringBuffer.get(index)[0] = index;
+            ringBuffer.publishWriteIndex(index);
+        }
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void consume(Blackhole blackhole) {
+        int index = ringBuffer.tryNextReadIndex();
+        if (index >= 0) {
+            blackhole.consume(ringBuffer.get(index)[0]);
+            ringBuffer.publishReadIndex(index);
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.origin;
+
+import org.aoju.bus.core.io.BufferPage;
+import org.aoju.bus.core.io.BufferPool;
+import org.aoju.bus.core.io.VirtualBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WriteBuffer写入与出队的微基准
+ * <p>
+ * WriteBuffer的构造方法仅对同包可见,故该基准位于org.aoju.bus.socket.origin包下；
+ * 刷新回调直接在调用线程中出队并回收缓冲区,模拟通道写出无阻塞的情况
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBufferBenchmark {
+
+    @Param({"16", "256", "4096"})
+    private int messageSize;
+
+    /**
+     * 每次刷新前写入的消息数
+     */
+    @Param({"1", "16"})
+    private int batch;
+
+    private WriteBuffer writeBuffer;
+    private byte[] message;
+    private ByteBuffer shared;
+    private long drained;
+
+    @Setup
+    public void setup() {
+        BufferPage page = new BufferPool(4 * 1024 * 1024, 1, true).allocateBufferPage();
+        writeBuffer = new WriteBuffer(page, buffer -> {
+            VirtualBuffer virtualBuffer;
+            while ((virtualBuffer = buffer.poll()) != null) {
+                drained += virtualBuffer.buffer().remaining();
+                virtualBuffer.clean();
+            }
+            return null;
+        }, 512);
+        message = new byte[messageSize];
+        shared = ByteBuffer.allocateDirect(messageSize).asReadOnlyBuffer();
+    }
+
+    @Benchmark
+    public long writeAndFlush() throws IOException {
+        for (int i = 0; i < batch; i++) {
+            writeBuffer.write(message);
+        }
+        writeBuffer.flush();
+        return drained;
+    }
+
+    /**
+     * 群发场景下投递共享的只读数据
+     */
+    @Benchmark
+    public long offerAndFlush() {
+        for (int i = 0; i < batch; i++) {
+            writeBuffer.offer(shared.duplicate());
+        }
+        writeBuffer.flush();
+        return drained;
+    }
+
+}
@@ -60,8 +60,19 @@ public final class GzipSource implements Source {
     private int section = SECTION_HEADER;
 
     public GzipSource(Source source) {
+        this(source, new Inflater(true));
+    }
+
+    /**
+     * 使用外部提供的解压器,便于复用{@link Inflater}实例
+     *
+     * @param source   数据源
+     * @param inflater 以nowrap模式创建的解压器,关闭时会被结束
+     */
+    public GzipSource(Source source, Inflater inflater) {
         if (source == null) throw new IllegalArgumentException("source == null");
-        this.inflater = new Inflater(true);
+        if (inflater == null) throw new IllegalArgumentException("inflater == null");
+        this.inflater = inflater;
         this.source = IoUtils.buffer(source);
         this.inflaterSource = new InflaterSource(this.source, inflater);
     }
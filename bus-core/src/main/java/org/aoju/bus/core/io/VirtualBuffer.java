@@ -62,6 +62,17 @@ public final class VirtualBuffer {
         this.parentLimit = parentLimit;
     }
 
+    /**
+     * 包装不属于任何缓存页的ByteBuffer,{@link #clean()}时不做回收
+     * 可用于将同一份只读数据的副本({@link ByteBuffer#duplicate()})投递给多个会话
+     *
+     * @param buffer 数据
+     * @return 虚拟buffer
+     */
+    public static VirtualBuffer wrap(ByteBuffer buffer) {
+        return new VirtualBuffer(null, buffer, buffer.position(), buffer.limit());
+    }
+
     int getParentPosition() {
         return parentPosition;
     }
@@ -0,0 +1,226 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.core.math;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁的对数分桶直方图,与HDR Histogram的思路相同：
+ * 每个2的幂区间再划分为2^precision个子桶,相对误差不超过1/2^precision,
+ * 记录只需一次{@link AtomicLongArray#incrementAndGet(int)},不分配对象
+ * 适合统计延迟、耗时等非负数值的分布
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class Histogram {
+
+    /**
+     * 默认精度,每个2的幂区间16个子桶,相对误差不超过6.25%
+     */
+    public static final int DEFAULT_PRECISION = 4;
+
+    private final int subBucketBits;
+    private final int subBucketCount;
+    private final AtomicLongArray counts;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public Histogram() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision 每个2的幂区间划分子桶数的位数,取值1~8,例如5表示32个子桶,相对误差约3%
+     */
+    public Histogram(int precision) {
+        if (precision < 1 || precision > 8) {
+            throw new IllegalArgumentException("precision must between 1 and 8: " + precision);
+        }
+        this.subBucketBits = precision;
+        this.subBucketCount = 1 << precision;
+        this.counts = new AtomicLongArray((64 - precision) * subBucketCount);
+    }
+
+    private int indexOf(long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - subBucketBits;
+        int sub = (int) (value >>> shift) & (subBucketCount - 1);
+        return (shift + 1) * subBucketCount + sub;
+    }
+
+    private static long highestValueAt(int index, int subBucketBits) {
+        int subBucketCount = 1 << subBucketBits;
+        if (index < subBucketCount) {
+            return index;
+        }
+        int shift = index / subBucketCount - 1;
+        int sub = index % subBucketCount;
+        return ((long) (subBucketCount + sub) << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * 记录一个值,负数按0处理
+     *
+     * @param value 数值
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * 返回给定百分位对应的值
+     *
+     * @param percentile 百分位,取值范围[0, 100]
+     * @return 数值(所在桶的上界, 不超过最大值)
+     */
+    public long percentile(double percentile) {
+        return snapshot().percentile(percentile);
+    }
+
+    /**
+     * 清空所有计数
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * 复制当前计数,并发记录期间得到的快照可能存在轻微偏差
+     *
+     * @return 快照
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, subBucketBits, total, sum.get(), max.get());
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /**
+     * 直方图的不可变快照
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final int subBucketBits;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, int subBucketBits, long count, long sum, long max) {
+            this.counts = counts;
+            this.subBucketBits = subBucketBits;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * 返回给定百分位对应的值
+         *
+         * @param percentile 百分位,取值范围[0, 100]
+         * @return 数值(所在桶的上界, 不超过最大值)
+         */
+        public long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(percentile / 100.0D * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(highestValueAt(i, subBucketBits), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count
+                    + ", mean=" + (long) mean()
+                    + ", p50=" + percentile(50)
+                    + ", p90=" + percentile(90)
+                    + ", p99=" + percentile(99)
+                    + ", max=" + max;
+        }
+    }
+
+}
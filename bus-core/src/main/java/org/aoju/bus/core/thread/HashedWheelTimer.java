@@ -0,0 +1,389 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.core.thread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * 哈希时间轮定时器
+ * <p>
+ * 适合大量短周期、可能被频繁取消的超时任务(如心跳、空闲检测),添加与取消均为O(1),
+ * 代价是任务只会在所属刻度到达时执行,精度为一个刻度时长
+ * </p>
+ * <p>
+ * 任务默认在时间轮的工作线程上执行,耗时任务应通过{@link #HashedWheelTimer(ThreadFactory, long, TimeUnit, int, Executor)}
+ * 指定执行器,避免拖慢后续刻度
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class HashedWheelTimer {
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_SHUTDOWN = 2;
+
+    /**
+     * 每个刻度最多从待添加队列转移到时间轮的任务数,防止工作线程被大量新任务长时间占用
+     */
+    private static final int MAX_TRANSFER_PER_TICK = 100000;
+
+    private static final AtomicIntegerFieldUpdater<HashedWheelTimer> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(HashedWheelTimer.class, "state");
+
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long tickDuration;
+    private final Thread workerThread;
+    private final Executor executor;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private volatile int state = STATE_INIT;
+    private volatile long startTime;
+    private long tick;
+
+    /**
+     * 使用100毫秒刻度、512个槽位创建时间轮
+     *
+     * @param name 工作线程名称
+     */
+    public HashedWheelTimer(String name) {
+        this(new NamedThreadFactory(name, true), 100, TimeUnit.MILLISECONDS, 512, null);
+    }
+
+    /**
+     * @param threadFactory 工作线程工厂
+     * @param tickDuration  刻度时长
+     * @param unit          刻度时长单位
+     * @param ticksPerWheel 槽位数,会向上取整为2的幂
+     * @param executor      任务执行器,为null时在工作线程上直接执行
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit,
+                            int ticksPerWheel, Executor executor) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be greater than 0: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel out of range: " + ticksPerWheel);
+        }
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.tickDuration = unit.toNanos(tickDuration);
+        this.executor = executor;
+        this.workerThread = threadFactory.newThread(this::work);
+    }
+
+    /**
+     * 添加延迟任务,首次调用时启动工作线程
+     *
+     * @param task  任务
+     * @param delay 延迟时间
+     * @param unit  时间单位
+     * @return 可用于取消任务的句柄
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        start();
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(delay, 0)) - startTime;
+        Timeout timeout = new Timeout(this, task, deadline);
+        pendingCount.incrementAndGet();
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @return 尚未执行且未被取消的任务数
+     */
+    public int pendingTimeouts() {
+        return pendingCount.get();
+    }
+
+    /**
+     * 启动工作线程,重复调用无副作用
+     */
+    public void start() {
+        switch (STATE_UPDATER.get(this)) {
+            case STATE_INIT:
+                if (STATE_UPDATER.compareAndSet(this, STATE_INIT, STATE_STARTED)) {
+                    startTime = System.nanoTime();
+                    if (startTime == 0) {
+                        // 0 用于标识未启动
+                        startTime = 1;
+                    }
+                    workerThread.start();
+                }
+                break;
+            case STATE_STARTED:
+                break;
+            default:
+                throw new IllegalStateException("cannot be started once stopped");
+        }
+        while (startTime == 0) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * 停止时间轮,未执行的任务将被丢弃
+     */
+    public void stop() {
+        if (Thread.currentThread() == workerThread) {
+            throw new IllegalStateException("HashedWheelTimer.stop() cannot be called from the worker thread");
+        }
+        if (STATE_UPDATER.getAndSet(this, STATE_SHUTDOWN) == STATE_STARTED) {
+            workerThread.interrupt();
+        }
+    }
+
+    private void work() {
+        while (state == STATE_STARTED) {
+            if (waitForNextTick() < 0) {
+                continue;
+            }
+            processCancelledTasks();
+            transferTimeoutsToBuckets();
+            wheel[(int) (tick & mask)].expireTimeouts();
+            tick++;
+        }
+    }
+
+    private long waitForNextTick() {
+        long deadline = tickDuration * (tick + 1);
+        while (true) {
+            long currentTime = System.nanoTime() - startTime;
+            long sleepTimeMs = (deadline - currentTime + 999999) / 1000000;
+            if (sleepTimeMs <= 0) {
+                return currentTime;
+            }
+            try {
+                Thread.sleep(sleepTimeMs);
+            } catch (InterruptedException ignored) {
+                if (state == STATE_SHUTDOWN) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void transferTimeoutsToBuckets() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                break;
+            }
+            if (timeout.state() == Timeout.ST_CANCELLED) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (calculated - tick) >> Integer.numberOfTrailingZeros(wheel.length);
+            // 已过期的任务放入当前刻度,立即执行
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void processCancelledTasks() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    void execute(Timeout timeout) {
+        pendingCount.decrementAndGet();
+        if (executor == null) {
+            timeout.run();
+        } else {
+            executor.execute(timeout::run);
+        }
+    }
+
+    /**
+     * 定时任务句柄
+     */
+    public static final class Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        long remainingRounds;
+        Timeout next;
+        Timeout prev;
+        Bucket bucket;
+        private volatile int state = ST_INIT;
+
+        Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        int state() {
+            return state;
+        }
+
+        public Runnable task() {
+            return task;
+        }
+
+        /**
+         * 取消任务,任务已执行或已取消时返回false
+         *
+         * @return true/false
+         */
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            timer.pendingCount.decrementAndGet();
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        boolean expire() {
+            return STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED);
+        }
+
+        void run() {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+            }
+        }
+    }
+
+    /**
+     * 时间轮槽位,双向链表保证移除为O(1),只由工作线程访问
+     */
+    private final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expireTimeouts() {
+            List<Timeout> expired = null;
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.expire()) {
+                        if (expired == null) {
+                            expired = new ArrayList<>();
+                        }
+                        expired.add(timeout);
+                    }
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            // 先完成链表操作再执行任务,任务中可以安全地添加新的定时任务
+            if (expired != null) {
+                for (Timeout each : expired) {
+                    execute(each);
+                }
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                if (timeout == tail) {
+                    tail = null;
+                    head = null;
+                } else {
+                    head = next;
+                }
+            } else if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+}
@@ -25,6 +25,12 @@ package org.aoju.bus.cron;
 
 import org.aoju.bus.core.lang.Fields;
 import org.aoju.bus.core.utils.ThreadUtils;
+import org.aoju.bus.cron.factory.Task;
+import org.aoju.bus.cron.pattern.CronPattern;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
 
 /**
  * 定时任务计时器
@@ -39,17 +45,17 @@ public class CronTimer extends Thread {
     /**
      * 定时单元：秒
      */
-    private long TIMER_UNIT_SECOND = Fields.Unit.SECOND.getMillis();
+    protected static final long TIMER_UNIT_SECOND = Fields.Unit.SECOND.getMillis();
     /**
      * 定时单元：分
      */
-    private long TIMER_UNIT_MINUTE = Fields.Unit.MINUTE.getMillis();
+    protected static final long TIMER_UNIT_MINUTE = Fields.Unit.MINUTE.getMillis();
 
     /**
      * 定时任务是否已经被强制关闭
      */
-    private boolean isStoped;
-    private Scheduler scheduler;
+    protected volatile boolean isStoped;
+    protected Scheduler scheduler;
 
     /**
      * 构造
@@ -78,7 +84,13 @@ public class CronTimer extends Thread {
 
             //执行点,时间记录为执行开始的时间,而非结束时间
             thisTime = System.currentTimeMillis();
-            spawnLauncher(thisTime);
+            //停顿（如GC）超过一个计时单位时,期间的时间点被错过
+            final long current = (thisTime / timerUnit) * timerUnit;
+            if (current > nextTime) {
+                spawnLauncher(thisTime, nextTime, current - timerUnit);
+            } else {
+                spawnLauncher(thisTime);
+            }
         }
     }
 
@@ -90,6 +102,63 @@ public class CronTimer extends Thread {
         ThreadUtils.interupt(this, true);
     }
 
+    /**
+     * 任务加入或表达式变更后通知计时器,逐个时间单位匹配的计时器无需处理
+     *
+     * @param id      Task的ID
+     * @param pattern {@link CronPattern}
+     * @param task    {@link Task}
+     */
+    protected void schedule(String id, CronPattern pattern, Task task) {
+    }
+
+    /**
+     * 任务移除后通知计时器
+     *
+     * @param id Task的ID
+     */
+    protected void deschedule(String id) {
+    }
+
+    /**
+     * 任务表清空后通知计时器
+     */
+    protected void clear() {
+    }
+
+    /**
+     * 触发任务
+     * 触发延迟超过{@link TaskPolicy#getMisfireThreshold()}时视为错过触发,收集补执行窗口内错过的触发时间后按{@link TaskPolicy#getMisfirePolicy()}处理
+     *
+     * @param id       Task的ID
+     * @param pattern  {@link CronPattern}
+     * @param task     {@link Task}
+     * @param fireTime 计划触发时间
+     * @param now      当前时间
+     */
+    protected void fire(String id, CronPattern pattern, Task task, long fireTime, long now) {
+        final TaskPolicy policy = this.scheduler.getPolicy(id);
+        final boolean matchSecond = this.scheduler.matchSecond;
+        final long threshold = policy.getMisfireThreshold() > 0 ? policy.getMisfireThreshold()
+                : (matchSecond ? TIMER_UNIT_SECOND : TIMER_UNIT_MINUTE);
+        if (now - fireTime <= threshold) {
+            this.scheduler.executorManager.spawnExecutor(id, task, fireTime);
+            return;
+        }
+        final TimeZone timezone = this.scheduler.getTimeZone(id);
+        final List<Long> fireTimes = new ArrayList<>();
+        long missed = fireTime;
+        final long windowStart = now - policy.getCatchUpWindow();
+        if (missed < windowStart) {
+            missed = pattern.nextMatchAfter(timezone, windowStart - 1, matchSecond);
+        }
+        while (missed > 0 && missed <= now) {
+            fireTimes.add(missed);
+            missed = pattern.nextMatchAfter(timezone, missed, matchSecond);
+        }
+        this.scheduler.executorManager.misfire(id, task, fireTime, fireTimes);
+    }
+
     /**
      * 启动匹配
      *
@@ -98,4 +167,15 @@ public class CronTimer extends Thread {
     private void spawnLauncher(final long millis) {
         this.scheduler.launcherManager.spawnLauncher(millis);
     }
+
+    /**
+     * 启动匹配,并处理错过的时间点
+     *
+     * @param millis      当前时间
+     * @param misfireFrom 最早错过的时间点
+     * @param misfireTo   最晚错过的时间点
+     */
+    private void spawnLauncher(final long millis, final long misfireFrom, final long misfireTo) {
+        this.scheduler.launcherManager.spawnLauncher(millis, misfireFrom, misfireTo);
+    }
 }
@@ -25,7 +25,6 @@ package org.aoju.bus.cron;
 
 import org.aoju.bus.core.lang.Assert;
 import org.aoju.bus.core.lang.Charset;
-import org.aoju.bus.core.lang.Fields;
 import org.aoju.bus.core.lang.exception.InstrumentException;
 import org.aoju.bus.core.utils.DateUtils;
 import org.aoju.bus.cron.factory.Task;
@@ -35,6 +34,7 @@ import org.aoju.bus.setting.Setting;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.TimeZone;
 
 /**
  * 定时任务工具类
@@ -90,6 +90,15 @@ public final class CronUtils {
         scheduler.setMatchSecond(isMatchSecond);
     }
 
+    /**
+     * 设置是否按下次触发时间调度
+     *
+     * @param on <code>true</code>使用,<code>false</code>不使用
+     */
+    public static void setQueueMode(boolean on) {
+        scheduler.setQueueMode(on);
+    }
+
     /**
      * 加入定时任务
      *
@@ -268,15 +277,10 @@ public final class CronUtils {
     public static List<Date> matchedDates(CronPattern pattern, long start, long end, int count, boolean isMatchSecond) {
         Assert.isTrue(start < end, "Start date is later than end !");
 
-        final List<Date> result = new ArrayList<>(count);
-        long step = isMatchSecond ? Fields.Unit.SECOND.getMillis() : Fields.Unit.MINUTE.getMillis();
-        for (long i = start; i < end; i += step) {
-            if (pattern.match(i, isMatchSecond)) {
-                result.add(DateUtils.date(i));
-                if (result.size() >= count) {
-                    break;
-                }
-            }
+        final long[] times = pattern.matchedTimes(TimeZone.getDefault(), start, end, count, isMatchSecond);
+        final List<Date> result = new ArrayList<>(times.length);
+        for (long time : times) {
+            result.add(DateUtils.date(time));
         }
         return result;
     }
@@ -23,14 +23,22 @@
  */
 package org.aoju.bus.cron;
 
+import org.aoju.bus.cron.consts.MisfirePolicy;
 import org.aoju.bus.cron.factory.Task;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 作业执行管理器
  * 负责管理作业的启动、停止等
+ * 按任务的{@link TaskPolicy}处理上一次执行未结束时的新触发、并发上限以及错过的触发
  *
  * @author Kimi Liu
  * @version 5.5.3
@@ -43,13 +51,17 @@ public class ExecutorManager {
      * 执行器列表
      */
     private List<TaskExecutor> executors = new ArrayList<>();
+    /**
+     * 任务ID对应的执行状态
+     */
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
 
     public ExecutorManager(Scheduler scheduler) {
         this.scheduler = scheduler;
     }
 
     /**
-     * 启动 TaskExecutor
+     * 启动 TaskExecutor,不受任务执行策略约束
      *
      * @param task {@link Task}
      * @return {@link TaskExecutor}
@@ -59,15 +71,118 @@ public class ExecutorManager {
         synchronized (this.executors) {
             this.executors.add(executor);
         }
-        // 子线程是否为deamon线程取决于父线程,因此此处无需显示调用
-        // executor.setDaemon(this.scheduler.daemon);
-//		executor.start();
-        this.scheduler.threadExecutor.execute(executor);
+        execute(executor, this.scheduler.threadExecutor);
         return executor;
     }
 
+    /**
+     * 按任务的执行策略启动 TaskExecutor
+     *
+     * @param id       Task的ID
+     * @param task     {@link Task}
+     * @param fireTime 计划触发时间
+     * @return {@link TaskExecutor}, 本次触发被丢弃或进入等待时也返回对应的执行器
+     */
+    public TaskExecutor spawnExecutor(String id, Task task, long fireTime) {
+        final TaskPolicy policy = this.scheduler.getPolicy(id);
+        final TaskExecutor executor = new TaskExecutor(this.scheduler, id, task, fireTime);
+        final Slot slot = slots.computeIfAbsent(id, k -> new Slot());
+        List<TaskExecutor> covered = null;
+        synchronized (slot) {
+            if (false == slot.running.isEmpty()) {
+                switch (policy.getBlockStrategy()) {
+                    case SERIAL_EXECUTION:
+                        if (slot.pending.size() < policy.getMaxPending()) {
+                            slot.pending.add(executor);
+                        } else {
+                            reject(executor);
+                        }
+                        return executor;
+                    case DISCARD_LATER:
+                        reject(executor);
+                        return executor;
+                    case COVER_EARLY:
+                        covered = new ArrayList<>(slot.running);
+                        break;
+                    default:
+                        if (policy.getMaxConcurrency() > 0 && slot.running.size() >= policy.getMaxConcurrency()) {
+                            reject(executor);
+                            return executor;
+                        }
+                }
+            }
+            slot.running.add(executor);
+        }
+        if (null != covered) {
+            for (TaskExecutor running : covered) {
+                running.interrupt();
+            }
+        }
+        synchronized (this.executors) {
+            this.executors.add(executor);
+        }
+        execute(executor, null != policy.getExecutor() ? policy.getExecutor() : this.scheduler.threadExecutor);
+        return executor;
+    }
+
+    /**
+     * 处理错过的触发
+     *
+     * @param id          Task的ID
+     * @param task        {@link Task}
+     * @param firstMissed 最早错过的触发时间
+     * @param fireTimes   补执行窗口内错过的触发时间,按时间先后排列
+     */
+    public void misfire(String id, Task task, long firstMissed, List<Long> fireTimes) {
+        this.scheduler.listenerManager.notifyTaskMisfire(id, task, firstMissed);
+        final MisfirePolicy misfirePolicy = this.scheduler.getPolicy(id).getMisfirePolicy();
+        if (fireTimes.isEmpty() || MisfirePolicy.SKIP == misfirePolicy) {
+            return;
+        }
+        if (MisfirePolicy.FIRE_ONCE == misfirePolicy) {
+            spawnExecutor(id, task, fireTimes.get(fireTimes.size() - 1));
+        } else {
+            for (Long fireTime : fireTimes) {
+                spawnExecutor(id, task, fireTime);
+            }
+        }
+    }
+
+    /**
+     * 获得任务正在执行的数量
+     *
+     * @param id Task的ID
+     * @return 数量
+     */
+    public int getRunningCount(String id) {
+        final Slot slot = slots.get(id);
+        if (null == slot) {
+            return 0;
+        }
+        synchronized (slot) {
+            return slot.running.size();
+        }
+    }
+
+    /**
+     * 获得任务等待执行的数量
+     *
+     * @param id Task的ID
+     * @return 数量
+     */
+    public int getPendingCount(String id) {
+        final Slot slot = slots.get(id);
+        if (null == slot) {
+            return 0;
+        }
+        synchronized (slot) {
+            return slot.pending.size();
+        }
+    }
+
     /**
      * 执行器执行完毕调用此方法,将执行器从执行器列表移除
+     * 串行执行的任务在此启动下一个等待的执行器
      *
      * @param executor 执行器 {@link TaskExecutor}
      * @return this
@@ -76,7 +191,81 @@ public class ExecutorManager {
         synchronized (executors) {
             executors.remove(executor);
         }
+        final String id = executor.getId();
+        if (null == id) {
+            return this;
+        }
+        final Slot slot = slots.get(id);
+        if (null == slot) {
+            return this;
+        }
+        TaskExecutor next = null;
+        synchronized (slot) {
+            slot.running.remove(executor);
+            if (slot.running.isEmpty() && false == slot.pending.isEmpty()) {
+                next = slot.pending.poll();
+                slot.running.add(next);
+            }
+        }
+        if (null != next) {
+            synchronized (this.executors) {
+                this.executors.add(next);
+            }
+            final Executor taskExecutor = this.scheduler.getPolicy(id).getExecutor();
+            execute(next, null != taskExecutor ? taskExecutor : this.scheduler.threadExecutor);
+        }
         return this;
     }
 
+    /**
+     * 移除任务的执行状态,任务移除时调用,已在执行的任务不受影响
+     *
+     * @param id Task的ID
+     */
+    protected void remove(String id) {
+        final Slot slot = slots.remove(id);
+        if (null != slot) {
+            synchronized (slot) {
+                slot.pending.clear();
+            }
+        }
+    }
+
+    /**
+     * 提交执行器,线程池拒绝或调度器已停止时视为本次触发被丢弃
+     *
+     * @param executor 执行器
+     * @param pool     线程池
+     */
+    private void execute(TaskExecutor executor, Executor pool) {
+        try {
+            if (null == pool) {
+                throw new RejectedExecutionException("Scheduler stopped");
+            }
+            pool.execute(executor);
+        } catch (RejectedExecutionException e) {
+            reject(executor);
+            notifyExecutorCompleted(executor);
+        }
+    }
+
+    private void reject(TaskExecutor executor) {
+        this.scheduler.listenerManager.notifyTaskRejected(executor);
+    }
+
+    /**
+     * 单个任务的执行状态
+     */
+    private static final class Slot {
+
+        /**
+         * 执行中的执行器
+         */
+        private final Set<TaskExecutor> running = new HashSet<>();
+        /**
+         * 串行模式下等待执行的执行器
+         */
+        private final ArrayDeque<TaskExecutor> pending = new ArrayDeque<>();
+    }
+
 }
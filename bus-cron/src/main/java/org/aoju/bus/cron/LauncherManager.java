@@ -25,6 +25,7 @@ package org.aoju.bus.cron;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 作业启动管理器
@@ -52,14 +53,35 @@ public class LauncherManager {
      * @return {@link TaskLauncher}
      */
     protected TaskLauncher spawnLauncher(long millis) {
-        final TaskLauncher launcher = new TaskLauncher(this.scheduler, millis);
+        return spawnLauncher(new TaskLauncher(this.scheduler, millis));
+    }
+
+    /**
+     * 启动 TaskLauncher,并处理计时器停顿期间错过的时间点
+     *
+     * @param millis      触发事件的毫秒数
+     * @param misfireFrom 最早错过的时间点
+     * @param misfireTo   最晚错过的时间点
+     * @return {@link TaskLauncher}
+     */
+    protected TaskLauncher spawnLauncher(long millis, long misfireFrom, long misfireTo) {
+        return spawnLauncher(new TaskLauncher(this.scheduler, millis, misfireFrom, misfireTo));
+    }
+
+    private TaskLauncher spawnLauncher(TaskLauncher launcher) {
         synchronized (this.launchers) {
             this.launchers.add(launcher);
         }
         //子线程是否为deamon线程取决于父线程,因此此处无需显示调用
         //launcher.setDaemon(this.scheduler.daemon);
 //		launcher.start();
-        this.scheduler.threadExecutor.execute(launcher);
+        try {
+            this.scheduler.threadExecutor.execute(launcher);
+        } catch (RejectedExecutionException e) {
+            // 线程池已满时在计时器线程中直接匹配,保证错过触发的判断不被丢弃,
+            // 匹配到的任务提交被拒绝时由执行器管理器逐个通知监听
+            launcher.run();
+        }
         return launcher;
     }
 
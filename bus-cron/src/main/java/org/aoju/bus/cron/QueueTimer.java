@@ -0,0 +1,247 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.cron;
+
+import org.aoju.bus.cron.factory.Task;
+import org.aoju.bus.cron.pattern.CronPattern;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按下次触发时间调度的计时器
+ * 每个任务按表达式计算出下次触发时间后放入优先队列,计时器休眠到最早的触发时间,
+ * 只执行到期的任务并为其计算下一次触发时间,每次唤醒的开销与任务总数无关
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class QueueTimer extends CronTimer {
+
+    /**
+     * 单次休眠的最长时间,用于感知系统时钟的调整
+     */
+    private static final long MAX_SLEEP = TIMER_UNIT_MINUTE;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    /**
+     * 按触发时间排序的触发点,只在持有lock时访问
+     */
+    private final PriorityQueue<Trigger> queue = new PriorityQueue<>();
+    /**
+     * 任务ID对应当前有效的触发点
+     */
+    private final ConcurrentHashMap<String, Trigger> triggers = new ConcurrentHashMap<>();
+
+    private final boolean matchSecond;
+
+    /**
+     * 构造
+     *
+     * @param scheduler {@link Scheduler}
+     */
+    public QueueTimer(Scheduler scheduler) {
+        super(scheduler);
+        this.matchSecond = scheduler.matchSecond;
+    }
+
+    @Override
+    public void run() {
+        this.scheduler.taskTable.scheduleTo(this);
+
+        while (false == isStoped) {
+            Trigger trigger;
+            lock.lock();
+            try {
+                trigger = queue.peek();
+                final long now = System.currentTimeMillis();
+                if (null == trigger || trigger.fireTime > now) {
+                    final long sleep = null == trigger ? MAX_SLEEP : Math.min(trigger.fireTime - now, MAX_SLEEP);
+                    available.await(sleep, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                queue.poll();
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                lock.unlock();
+            }
+            fire(trigger);
+        }
+    }
+
+    @Override
+    protected void schedule(String id, CronPattern pattern, Task task) {
+        enqueue(id, pattern, task, System.currentTimeMillis(), null);
+    }
+
+    @Override
+    protected void deschedule(String id) {
+        final Trigger trigger = triggers.remove(id);
+        if (null != trigger) {
+            cancel(trigger);
+        }
+    }
+
+    @Override
+    protected void clear() {
+        lock.lock();
+        try {
+            for (Trigger trigger : triggers.values()) {
+                trigger.cancelled = true;
+            }
+            triggers.clear();
+            queue.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前队列中的触发点数量
+     *
+     * @return 数量
+     */
+    public int getQueueSize() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获得任务的下次触发时间
+     *
+     * @param id Task的ID
+     * @return 时间毫秒数, 任务不存在或不会再触发时返回-1
+     */
+    public long getNextFireTime(String id) {
+        final Trigger trigger = triggers.get(id);
+        return null == trigger ? -1 : trigger.fireTime;
+    }
+
+    /**
+     * 执行到期的触发点并计算下一次触发时间
+     * 触发延迟超过{@link TaskPolicy#getMisfireThreshold()}时视为错过触发,按{@link TaskPolicy#getMisfirePolicy()}处理,
+     * 下一次触发时间从当前时间之后计算
+     *
+     * @param trigger 触发点
+     */
+    private void fire(Trigger trigger) {
+        if (trigger.cancelled) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        fire(trigger.id, trigger.pattern, trigger.task, trigger.fireTime, now);
+        enqueue(trigger.id, trigger.pattern, trigger.task, Math.max(trigger.fireTime, now), trigger);
+    }
+
+    /**
+     * 计算下次触发时间并放入队列
+     *
+     * @param id       Task的ID
+     * @param pattern  表达式
+     * @param task     任务
+     * @param after    从该时间之后计算
+     * @param expected 被替换的触发点,为null时无条件替换该任务原有的触发点,
+     *                 否则仅当任务当前的触发点仍为expected时替换,避免执行期间被移除或变更的任务被重新加入
+     */
+    private void enqueue(String id, CronPattern pattern, Task task, long after, Trigger expected) {
+        final long fireTime = pattern.nextMatchAfter(this.scheduler.getTimeZone(id), after, matchSecond);
+        final Trigger trigger = new Trigger(id, pattern, task, fireTime);
+        if (null != expected) {
+            if (fireTime < 0) {
+                triggers.remove(id, expected);
+                return;
+            }
+            if (false == triggers.replace(id, expected, trigger)) {
+                return;
+            }
+        } else {
+            final Trigger previous = fireTime < 0 ? triggers.remove(id) : triggers.put(id, trigger);
+            if (null != previous) {
+                cancel(previous);
+            }
+            if (fireTime < 0) {
+                return;
+            }
+        }
+        lock.lock();
+        try {
+            queue.add(trigger);
+            if (queue.peek() == trigger) {
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 作废触发点并移出队列
+     *
+     * @param trigger 触发点
+     */
+    private void cancel(Trigger trigger) {
+        trigger.cancelled = true;
+        lock.lock();
+        try {
+            queue.remove(trigger);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 触发点
+     */
+    private static final class Trigger implements Comparable<Trigger> {
+
+        private final String id;
+        private final CronPattern pattern;
+        private final Task task;
+        private final long fireTime;
+        private volatile boolean cancelled;
+
+        Trigger(String id, CronPattern pattern, Task task, long fireTime) {
+            this.id = id;
+            this.pattern = pattern;
+            this.task = task;
+            this.fireTime = fireTime;
+        }
+
+        @Override
+        public int compareTo(Trigger o) {
+            return Long.compare(fireTime, o.fireTime);
+        }
+    }
+
+}
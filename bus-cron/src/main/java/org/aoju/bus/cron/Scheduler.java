@@ -35,12 +35,15 @@ import org.aoju.bus.cron.factory.Task;
 import org.aoju.bus.cron.listener.TaskListener;
 import org.aoju.bus.cron.listener.TaskListenerManager;
 import org.aoju.bus.cron.pattern.CronPattern;
+import org.aoju.bus.cron.store.JobStore;
 import org.aoju.bus.setting.Setting;
 
 import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -63,6 +66,7 @@ import java.util.concurrent.ExecutorService;
  * <pre>
  * <strong>TaskLauncher</strong>：定时器每分钟调用一次（如果{@link Scheduler#isMatchSecond()}为<code>true</code>每秒调用一次）,
  * 负责检查<strong>TaskTable</strong>是否有匹配到此时间运行的Task
+ * 如果{@link Scheduler#isQueueMode()}为<code>true</code>,则由{@link QueueTimer}在任务的下次触发时间直接触发TaskExecutor
  * </pre>
  *
  * <pre>
@@ -78,6 +82,14 @@ public class Scheduler {
      * 是否支持秒匹配
      */
     protected boolean matchSecond = false;
+    /**
+     * 是否按下次触发时间调度
+     */
+    protected boolean queueMode = false;
+    /**
+     * 任务存储,为null时任务只保存在内存中
+     */
+    protected JobStore jobStore;
     /**
      * 是否为守护线程
      */
@@ -102,6 +114,18 @@ public class Scheduler {
      * 线程池
      */
     protected ExecutorService threadExecutor;
+    /**
+     * 用户指定的线程池,为null时启动时创建
+     */
+    private ExecutorService customThreadExecutor;
+    /**
+     * 默认的任务执行策略
+     */
+    private TaskPolicy defaultPolicy = new TaskPolicy();
+    /**
+     * 任务ID对应的执行策略
+     */
+    private final Map<String, TaskPolicy> policies = new ConcurrentHashMap<>();
     private Object lock = new Object();
     /**
      * 时区
@@ -114,7 +138,7 @@ public class Scheduler {
     /**
      * 定时器
      */
-    private CronTimer timer;
+    private volatile CronTimer timer;
 
     /**
      * 获得时区,默认为 {@link TimeZone#getDefault()}
@@ -125,6 +149,16 @@ public class Scheduler {
         return timezone != null ? timezone : TimeZone.getDefault();
     }
 
+    /**
+     * 获得指定id的任务匹配表达式使用的时区
+     *
+     * @param id ID
+     * @return 时区, 任务未指定时区时返回{@link #getTimeZone()}
+     */
+    public TimeZone getTimeZone(String id) {
+        return this.taskTable.getTimeZone(id);
+    }
+
     /**
      * 设置时区
      *
@@ -183,6 +217,119 @@ public class Scheduler {
         return this;
     }
 
+    /**
+     * 是否按下次触发时间调度
+     *
+     * @return <code>true</code>使用,<code>false</code>不使用
+     */
+    public boolean isQueueMode() {
+        return this.queueMode;
+    }
+
+    /**
+     * 设置是否按下次触发时间调度,默认不使用
+     * 默认模式下计时器每秒（分）检查一次任务表中的所有表达式；
+     * 开启后每个任务按表达式计算下次触发时间并放入优先队列,计时器休眠到最早的触发时间,只处理到期的任务,适用于任务较多的场景
+     *
+     * @param on <code>true</code>使用,<code>false</code>不使用
+     * @return this
+     * @throws InstrumentException 定时任务已经启动抛出此异常
+     */
+    public Scheduler setQueueMode(boolean on) throws InstrumentException {
+        synchronized (lock) {
+            if (started) {
+                throw new InstrumentException("Scheduler already started!");
+            }
+            this.queueMode = on;
+        }
+        return this;
+    }
+
+    /**
+     * 获得任务存储
+     *
+     * @return {@link JobStore}, 未设置时为null
+     */
+    public JobStore getJobStore() {
+        return this.jobStore;
+    }
+
+    /**
+     * 设置任务存储
+     * 设置后任务的表达式与下次触发时间保存在存储中,由{@link StoreTimer}轮询存储触发任务：
+     * 共用同一存储的多个调度器实例对同一触发只有一个执行,实例重启后从存储的下次触发时间继续,期间错过的触发按{@link TaskPolicy}处理
+     * 各实例仍需以相同的ID调用schedule方法,任务移除、表达式变更对所有实例生效,{@link #clear()}只清空本实例的任务表
+     *
+     * @param jobStore {@link JobStore}
+     * @return this
+     * @throws InstrumentException 定时任务已经启动抛出此异常
+     */
+    public Scheduler setJobStore(JobStore jobStore) throws InstrumentException {
+        synchronized (lock) {
+            if (started) {
+                throw new InstrumentException("Scheduler already started!");
+            }
+            this.jobStore = jobStore;
+        }
+        return this;
+    }
+
+    /**
+     * 设置执行任务的线程池,默认使用不限线程数的线程池
+     * 线程池拒绝的触发通过{@link TaskListener#onRejected(TaskExecutor)}通知,调用{@link #stop()}时不会关闭该线程池
+     *
+     * @param threadExecutor 线程池
+     * @return this
+     * @throws InstrumentException 定时任务已经启动抛出此异常
+     */
+    public Scheduler setThreadExecutor(ExecutorService threadExecutor) throws InstrumentException {
+        synchronized (lock) {
+            if (started) {
+                throw new InstrumentException("Scheduler already started!");
+            }
+            this.customThreadExecutor = threadExecutor;
+        }
+        return this;
+    }
+
+    /**
+     * 设置默认的任务执行策略,未单独设置策略的任务使用此策略
+     *
+     * @param policy {@link TaskPolicy}
+     * @return this
+     */
+    public Scheduler setDefaultPolicy(TaskPolicy policy) {
+        this.defaultPolicy = null != policy ? policy : new TaskPolicy();
+        return this;
+    }
+
+    /**
+     * 设置任务的执行策略
+     *
+     * @param id     Task的ID
+     * @param policy {@link TaskPolicy},为null时恢复使用默认策略
+     * @return this
+     */
+    public Scheduler setPolicy(String id, TaskPolicy policy) {
+        if (null == policy) {
+            this.policies.remove(id);
+        } else {
+            this.policies.put(id, policy);
+        }
+        return this;
+    }
+
+    /**
+     * 获得任务的执行策略
+     *
+     * @param id Task的ID
+     * @return {@link TaskPolicy}
+     */
+    public TaskPolicy getPolicy(String id) {
+        final TaskPolicy policy = null == id ? null : this.policies.get(id);
+        return null != policy ? policy : this.defaultPolicy;
+    }
+
     /**
      * 增加监听器
      *
@@ -282,6 +429,20 @@ public class Scheduler {
         return schedule(id, new CronPattern(pattern), task);
     }
 
+    /**
+     * 新增Task并指定执行策略
+     *
+     * @param id      ID,为每一个Task定义一个ID
+     * @param pattern {@link CronPattern}
+     * @param task    {@link Task}
+     * @param policy  {@link TaskPolicy}
+     * @return this
+     */
+    public Scheduler schedule(String id, CronPattern pattern, Task task, TaskPolicy policy) {
+        setPolicy(id, policy);
+        return schedule(id, pattern, task);
+    }
+
     /**
      * 新增Task
      *
@@ -291,7 +452,25 @@ public class Scheduler {
      * @return this
      */
     public Scheduler schedule(String id, CronPattern pattern, Task task) {
-        taskTable.add(id, pattern, task);
+        return schedule(id, pattern, task, (TimeZone) null);
+    }
+
+    /**
+     * 新增Task并指定匹配表达式使用的时区
+     *
+     * @param id       ID,为每一个Task定义一个ID
+     * @param pattern  {@link CronPattern}
+     * @param task     {@link Task}
+     * @param timezone 时区,null表示使用{@link #getTimeZone()}
+     * @return this
+     */
+    public Scheduler schedule(String id, CronPattern pattern, Task task, TimeZone timezone) {
+        taskTable.add(id, pattern, task, timezone);
+        store(id, pattern);
+        final CronTimer timer = this.timer;
+        if (null != timer) {
+            timer.schedule(id, pattern, task);
+        }
         return this;
     }
 
@@ -303,6 +482,18 @@ public class Scheduler {
      */
     public Scheduler deschedule(String id) {
         this.taskTable.remove(id);
+        if (null != this.jobStore) {
+            this.jobStore.removeJob(id);
+        }
+        final CronTimer timer = this.timer;
+        if (null != timer) {
+            timer.deschedule(id);
+        }
+        final ExecutorManager executorManager = this.executorManager;
+        if (null != executorManager) {
+            executorManager.remove(id);
+        }
+        this.policies.remove(id);
         return this;
     }
 
@@ -314,7 +505,17 @@ public class Scheduler {
      * @return this
      */
     public Scheduler updatePattern(String id, CronPattern pattern) {
-        this.taskTable.updatePattern(id, pattern);
+        final CronTimer timer = this.timer;
+        final boolean updated = this.taskTable.updatePattern(id, pattern);
+        if (updated) {
+            store(id, pattern);
+        }
+        if (updated && null != timer) {
+            final Task task = this.taskTable.getTask(id);
+            if (null != task) {
+                timer.schedule(id, pattern, task);
+            }
+        }
         return this;
     }
 
@@ -365,6 +566,11 @@ public class Scheduler {
      */
     public Scheduler clear() {
         this.taskTable = new TaskTable(this);
+        final CronTimer timer = this.timer;
+        if (null != timer) {
+            timer.clear();
+        }
+        this.policies.clear();
         return this;
     }
 
@@ -397,14 +603,19 @@ public class Scheduler {
                 throw new InstrumentException("Schedule is started!");
             }
 
-            this.threadExecutor = ExecutorBuilder.create().useSynchronousQueue().setThreadFactory(//
+            this.threadExecutor = null != this.customThreadExecutor ? this.customThreadExecutor
+                    : ExecutorBuilder.create().useSynchronousQueue().setThreadFactory(//
                     ThreadBuilder.create().setNamePrefix("exec-cron-").setDaemon(this.daemon).build()//
             ).build();
             this.launcherManager = new LauncherManager(this);
             this.executorManager = new ExecutorManager(this);
 
             // Start CronTimer
-            timer = new CronTimer(this);
+            if (null != this.jobStore) {
+                timer = new StoreTimer(this);
+            } else {
+                timer = this.queueMode ? new QueueTimer(this) : new CronTimer(this);
+            }
             timer.setDaemon(this.daemon);
             timer.start();
             this.started = true;
@@ -440,8 +651,10 @@ public class Scheduler {
             this.timer.stopTimer();
             this.timer = null;
 
-            //停止线程池
-            this.threadExecutor.shutdown();
+            //停止线程池,用户指定的线程池由用户关闭
+            if (this.threadExecutor != this.customThreadExecutor) {
+                this.threadExecutor.shutdown();
+            }
             this.threadExecutor = null;
 
             //可选是否清空任务表
@@ -455,4 +668,17 @@ public class Scheduler {
         return this;
     }
 
+    /**
+     * 将任务保存到任务存储
+     *
+     * @param id      Task的ID
+     * @param pattern {@link CronPattern}
+     */
+    private void store(String id, CronPattern pattern) {
+        if (null != this.jobStore) {
+            this.jobStore.storeJob(id, pattern.toString(),
+                    pattern.nextMatchAfter(getTimeZone(id), System.currentTimeMillis(), this.matchSecond));
+        }
+    }
+
 }
@@ -0,0 +1,277 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.cron;
+
+import org.aoju.bus.cron.factory.Task;
+import org.aoju.bus.cron.pattern.CronPattern;
+import org.aoju.bus.cron.store.JobRecord;
+import org.aoju.bus.cron.store.JobStore;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于{@link JobStore}的计时器
+ * 每个轮询周期从存储中批量查询本周期内到期的任务,认领成功的触发放入本地队列并在触发时间执行,
+ * 集群中共用同一存储的多个实例对同一触发只有一个认领成功
+ * 认领时即推进存储中的下次触发时间,实例在认领后、触发前宕机时该次触发会丢失,轮询周期越短影响越小
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class StoreTimer extends CronTimer {
+
+    /**
+     * 单次查询的最大任务数,查询结果已满时立即再次查询
+     */
+    private static final int BATCH_SIZE = 100;
+
+    private final JobStore store;
+    private final String instanceId;
+    private final boolean matchSecond;
+    /**
+     * 轮询周期,同时也是认领的提前量
+     */
+    private final long pollInterval;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    /**
+     * 已认领、等待触发的任务,只在持有lock时访问
+     */
+    private final PriorityQueue<Firing> firings = new PriorityQueue<>();
+    private boolean pollRequested;
+
+    /**
+     * 构造
+     *
+     * @param scheduler {@link Scheduler}
+     */
+    public StoreTimer(Scheduler scheduler) {
+        super(scheduler);
+        this.store = scheduler.jobStore;
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+        this.matchSecond = scheduler.matchSecond;
+        this.pollInterval = matchSecond ? TIMER_UNIT_SECOND : TIMER_UNIT_MINUTE;
+    }
+
+    /**
+     * 获得本实例的标识,记录在认领的任务中
+     *
+     * @return 实例标识
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @Override
+    public void run() {
+        long nextPoll = 0;
+        while (false == isStoped) {
+            long now = System.currentTimeMillis();
+            boolean poll;
+            lock.lock();
+            try {
+                poll = pollRequested || now >= nextPoll;
+                pollRequested = false;
+            } finally {
+                lock.unlock();
+            }
+            if (poll) {
+                nextPoll = poll(now) ? now : now + pollInterval;
+            }
+
+            final List<Firing> due = new ArrayList<>();
+            lock.lock();
+            try {
+                now = System.currentTimeMillis();
+                Firing firing;
+                while (null != (firing = firings.peek()) && firing.fireTime <= now) {
+                    due.add(firings.poll());
+                }
+                if (due.isEmpty() && false == pollRequested) {
+                    final long wakeAt = null == firing ? nextPoll : Math.min(nextPoll, firing.fireTime);
+                    if (wakeAt > now) {
+                        available.await(wakeAt - now, TimeUnit.MILLISECONDS);
+                    }
+                }
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                lock.unlock();
+            }
+            for (Firing firing : due) {
+                fire(firing.id, firing.pattern, firing.task, firing.fireTime, System.currentTimeMillis());
+            }
+        }
+    }
+
+    @Override
+    protected void schedule(String id, CronPattern pattern, Task task) {
+        // 新任务的触发时间可能早于下次轮询
+        lock.lock();
+        try {
+            pollRequested = true;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void deschedule(String id) {
+        lock.lock();
+        try {
+            for (Iterator<Firing> it = firings.iterator(); it.hasNext(); ) {
+                if (it.next().id.equals(id)) {
+                    it.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void clear() {
+        lock.lock();
+        try {
+            firings.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 查询并认领本周期内到期的任务
+     * 只查询和认领本实例调度了的任务；认领后新的下次触发时间仍在本周期内时继续认领,保证下次轮询前的触发都已被认领
+     * 错过的触发（如实例全部停止期间）以存储中的下次触发时间交给{@link #fire}按错过触发处理
+     *
+     * @param now 当前时间
+     * @return 查询结果是否已满且有认领成功的任务, 为true时应立即再次查询
+     */
+    private boolean poll(long now) {
+        final long horizon = now + pollInterval;
+        final TaskTable taskTable = this.scheduler.taskTable;
+        final List<String> ids = taskTable.getIds();
+        if (ids.isEmpty()) {
+            return false;
+        }
+        final List<JobRecord> records;
+        try {
+            records = store.selectDueJobs(ids, horizon, BATCH_SIZE);
+        } catch (RuntimeException e) {
+            this.scheduler.listenerManager.notifyStoreFailed(e);
+            return false;
+        }
+        List<JobRecord> claimable = new ArrayList<>(records.size());
+        List<Firing> candidates = new ArrayList<>(records.size());
+        for (JobRecord record : records) {
+            final CronPattern pattern = taskTable.getPattern(record.getId());
+            final Task task = taskTable.getTask(record.getId());
+            if (null == pattern || null == task) {
+                // 查询后被移除的任务
+                continue;
+            }
+            claimable.add(record);
+            candidates.add(new Firing(record.getId(), pattern, task, record.getNextFireTime()));
+        }
+
+        boolean any = false;
+        while (false == claimable.isEmpty()) {
+            final List<Long> nextFireTimes = new ArrayList<>(claimable.size());
+            for (int i = 0; i < claimable.size(); i++) {
+                final Firing firing = candidates.get(i);
+                nextFireTimes.add(firing.pattern.nextMatchAfter(taskTable.getTimeZone(firing.id), Math.max(firing.fireTime, now), matchSecond));
+            }
+            final boolean[] claimed;
+            try {
+                claimed = store.claimJobs(claimable, nextFireTimes, instanceId);
+            } catch (RuntimeException e) {
+                this.scheduler.listenerManager.notifyStoreFailed(e);
+                break;
+            }
+            final List<JobRecord> again = new ArrayList<>();
+            final List<Firing> againCandidates = new ArrayList<>();
+            lock.lock();
+            try {
+                for (int i = 0; i < claimed.length; i++) {
+                    if (false == claimed[i]) {
+                        continue;
+                    }
+                    final Firing firing = candidates.get(i);
+                    firings.add(firing);
+                    any = true;
+                    final long next = nextFireTimes.get(i);
+                    if (next >= 0 && next <= horizon) {
+                        final JobRecord record = claimable.get(i);
+                        again.add(new JobRecord(record.getId(), record.getPattern(), next,
+                                firing.fireTime, instanceId, record.getVersion() + 1));
+                        againCandidates.add(new Firing(firing.id, firing.pattern, firing.task, next));
+                    }
+                }
+                if (any) {
+                    available.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+            claimable = again;
+            candidates = againCandidates;
+        }
+        return any && records.size() >= BATCH_SIZE;
+    }
+
+    /**
+     * 已认领的一次触发
+     */
+    private static final class Firing implements Comparable<Firing> {
+
+        private final String id;
+        private final CronPattern pattern;
+        private final Task task;
+        private final long fireTime;
+
+        Firing(String id, CronPattern pattern, Task task, long fireTime) {
+            this.id = id;
+            this.pattern = pattern;
+            this.task = task;
+            this.fireTime = fireTime;
+        }
+
+        @Override
+        public int compareTo(Firing o) {
+            return Long.compare(fireTime, o.fireTime);
+        }
+    }
+
+}
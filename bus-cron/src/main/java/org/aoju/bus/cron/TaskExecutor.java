@@ -36,11 +36,51 @@ import org.aoju.bus.cron.factory.Task;
 public class TaskExecutor implements Runnable {
 
     private Scheduler scheduler;
+    private String id;
     private Task task;
+    /**
+     * 计划触发时间
+     */
+    private long fireTime;
+    /**
+     * 实际开始执行时间,未开始时为0
+     */
+    private volatile long startTime;
+    /**
+     * 执行结束时间,未结束时为0
+     */
+    private volatile long endTime;
+    /**
+     * 执行任务的线程
+     */
+    private Thread runner;
 
     public TaskExecutor(Scheduler scheduler, Task task) {
+        this(scheduler, null, task, System.currentTimeMillis());
+    }
+
+    /**
+     * 构造
+     *
+     * @param scheduler {@link Scheduler}
+     * @param id        Task的ID
+     * @param task      {@link Task}
+     * @param fireTime  计划触发时间
+     */
+    public TaskExecutor(Scheduler scheduler, String id, Task task, long fireTime) {
         this.scheduler = scheduler;
+        this.id = id;
         this.task = task;
+        this.fireTime = fireTime;
+    }
+
+    /**
+     * 获得任务ID
+     *
+     * @return 任务ID, 直接通过{@link ExecutorManager#spawnExecutor(Task)}执行时为null
+     */
+    public String getId() {
+        return id;
     }
 
     /**
@@ -52,15 +92,83 @@ public class TaskExecutor implements Runnable {
         return task;
     }
 
+    /**
+     * 获得计划触发时间
+     *
+     * @return 时间毫秒数
+     */
+    public long getFireTime() {
+        return fireTime;
+    }
+
+    /**
+     * 获得实际开始执行时间
+     *
+     * @return 时间毫秒数, 未开始时为0
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * 获得执行结束时间
+     *
+     * @return 时间毫秒数, 未结束时为0
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * 获得开始执行时间相对计划触发时间的延迟
+     *
+     * @return 毫秒, 未开始时为-1
+     */
+    public long getLag() {
+        final long start = startTime;
+        return start == 0 ? -1 : Math.max(0, start - fireTime);
+    }
+
+    /**
+     * 获得执行耗时
+     *
+     * @return 毫秒, 未结束时为-1
+     */
+    public long getDuration() {
+        final long start = startTime;
+        final long end = endTime;
+        return start == 0 || end == 0 ? -1 : end - start;
+    }
+
+    /**
+     * 中断执行中的任务
+     */
+    protected synchronized void interrupt() {
+        if (null != runner) {
+            runner.interrupt();
+        }
+    }
+
     @Override
     public void run() {
+        synchronized (this) {
+            runner = Thread.currentThread();
+        }
+        startTime = System.currentTimeMillis();
         try {
             scheduler.listenerManager.notifyTaskStart(this);
             task.execute();
+            endTime = System.currentTimeMillis();
             scheduler.listenerManager.notifyTaskSucceeded(this);
         } catch (Exception e) {
+            endTime = System.currentTimeMillis();
             scheduler.listenerManager.notifyTaskFailed(this, e);
         } finally {
+            synchronized (this) {
+                runner = null;
+                // 清除COVER_EARLY可能设置的中断标记,避免影响线程池中的后续任务
+                Thread.interrupted();
+            }
             scheduler.executorManager.notifyExecutorCompleted(this);
         }
     }
@@ -36,14 +36,36 @@ public class TaskLauncher implements Runnable {
 
     private Scheduler scheduler;
     private long millis;
+    /**
+     * 计时器停顿期间错过的时间区间,无错过时为0
+     */
+    private long misfireFrom;
+    private long misfireTo;
 
     public TaskLauncher(Scheduler scheduler, long millis) {
         this.scheduler = scheduler;
         this.millis = millis;
     }
 
+    /**
+     * 构造
+     *
+     * @param scheduler   {@link Scheduler}
+     * @param millis      触发事件的毫秒数
+     * @param misfireFrom 最早错过的时间点
+     * @param misfireTo   最晚错过的时间点
+     */
+    public TaskLauncher(Scheduler scheduler, long millis, long misfireFrom, long misfireTo) {
+        this(scheduler, millis);
+        this.misfireFrom = misfireFrom;
+        this.misfireTo = misfireTo;
+    }
+
     @Override
     public void run() {
+        if (misfireFrom > 0) {
+            scheduler.taskTable.executeMisfiredTask(misfireFrom, misfireTo);
+        }
         //匹配秒部分由用户定义决定,始终不匹配年
         scheduler.taskTable.executeTaskIfMatchInternal(millis);
 
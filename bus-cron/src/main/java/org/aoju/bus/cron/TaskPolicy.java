@@ -0,0 +1,181 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.cron;
+
+import org.aoju.bus.cron.consts.ExecutorBlockStrategy;
+import org.aoju.bus.cron.consts.MisfirePolicy;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 任务执行策略
+ * 定义任务上一次执行未结束时新触发的处理方式、并发上限、使用的线程池以及错过触发时的处理方式
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class TaskPolicy {
+
+    /**
+     * 上一次执行未结束时的处理方式
+     */
+    private ExecutorBlockStrategy blockStrategy = ExecutorBlockStrategy.CONCURRENT_EXECUTION;
+    /**
+     * 并行时同时执行的最大数量,0表示不限制
+     */
+    private int maxConcurrency;
+    /**
+     * 串行时等待执行的最大数量,超出后新的触发被丢弃
+     */
+    private int maxPending = 64;
+    /**
+     * 执行任务的线程池,为null时使用调度器的线程池
+     */
+    private Executor executor;
+    /**
+     * 错过触发的处理方式
+     */
+    private MisfirePolicy misfirePolicy = MisfirePolicy.SKIP;
+    /**
+     * 触发延迟超过此值(毫秒)视为错过触发,0表示一个计时单位(秒或分)
+     */
+    private long misfireThreshold;
+    /**
+     * 补执行的时间窗口(毫秒),早于当前时间减去该值的触发不再补执行
+     */
+    private long catchUpWindow = 10 * 60 * 1000;
+
+    public ExecutorBlockStrategy getBlockStrategy() {
+        return blockStrategy;
+    }
+
+    /**
+     * 设置上一次执行未结束时的处理方式
+     * <ul>
+     * <li>{@link ExecutorBlockStrategy#SERIAL_EXECUTION}：排队等待上一次执行结束</li>
+     * <li>{@link ExecutorBlockStrategy#CONCURRENT_EXECUTION}：并行执行,受{@link #setMaxConcurrency(int)}限制</li>
+     * <li>{@link ExecutorBlockStrategy#DISCARD_LATER}：丢弃本次触发</li>
+     * <li>{@link ExecutorBlockStrategy#COVER_EARLY}：中断执行中的任务后执行本次触发</li>
+     * </ul>
+     *
+     * @param blockStrategy 处理方式
+     * @return this
+     */
+    public TaskPolicy setBlockStrategy(ExecutorBlockStrategy blockStrategy) {
+        this.blockStrategy = blockStrategy;
+        return this;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 设置并行时同时执行的最大数量,超出后新的触发被丢弃
+     *
+     * @param maxConcurrency 最大数量,0表示不限制
+     * @return this
+     */
+    public TaskPolicy setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = Math.max(0, maxConcurrency);
+        return this;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    /**
+     * 设置串行时等待执行的最大数量
+     *
+     * @param maxPending 最大数量
+     * @return this
+     */
+    public TaskPolicy setMaxPending(int maxPending) {
+        this.maxPending = Math.max(0, maxPending);
+        return this;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 设置执行任务的线程池,可为耗时任务指定独立的有界线程池,避免影响其他任务
+     *
+     * @param executor 线程池
+     * @return this
+     */
+    public TaskPolicy setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public MisfirePolicy getMisfirePolicy() {
+        return misfirePolicy;
+    }
+
+    /**
+     * 设置错过触发的处理方式,默认跳过
+     *
+     * @param misfirePolicy 处理方式
+     * @return this
+     */
+    public TaskPolicy setMisfirePolicy(MisfirePolicy misfirePolicy) {
+        this.misfirePolicy = misfirePolicy;
+        return this;
+    }
+
+    public long getMisfireThreshold() {
+        return misfireThreshold;
+    }
+
+    /**
+     * 设置视为错过触发的延迟
+     *
+     * @param misfireThreshold 毫秒,0表示一个计时单位
+     * @return this
+     */
+    public TaskPolicy setMisfireThreshold(long misfireThreshold) {
+        this.misfireThreshold = Math.max(0, misfireThreshold);
+        return this;
+    }
+
+    public long getCatchUpWindow() {
+        return catchUpWindow;
+    }
+
+    /**
+     * 设置补执行的时间窗口
+     *
+     * @param catchUpWindow 毫秒
+     * @return this
+     */
+    public TaskPolicy setCatchUpWindow(long catchUpWindow) {
+        this.catchUpWindow = Math.max(0, catchUpWindow);
+        return this;
+    }
+
+}
@@ -26,17 +26,24 @@ package org.aoju.bus.cron;
 import org.aoju.bus.core.lang.exception.InstrumentException;
 import org.aoju.bus.cron.factory.Task;
 import org.aoju.bus.cron.pattern.CronPattern;
+import org.aoju.bus.cron.pattern.CronTime;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 定时任务表
  * 任务表将ID、表达式、任务一一对应,定时任务执行过程中,会周期性检查定时任务表中的所有任务表达式匹配情况,从而执行其对应的任务
- * 任务的添加、移除使用读写锁保证线程安全性
+ * <p>
+ * 任务保存在不可变的快照中,添加、移除和更新时在锁内复制出新的快照并整体替换,读取和每次匹配都不加锁;
+ * 快照中的任务按时区分区,同一时区的任务共用一次时间字段的计算
+ * </p>
  *
  * @author Kimi Liu
  * @version 5.5.3
@@ -44,15 +51,18 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  */
 public class TaskTable {
 
-    private ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock lock = new ReentrantLock();
 
-    private Scheduler scheduler;
-    private TimeZone timezone;
+    private final Scheduler scheduler;
 
-    private ArrayList<String> ids = new ArrayList<>();
-    private ArrayList<CronPattern> patterns = new ArrayList<>();
-    private ArrayList<Task> tasks = new ArrayList<>();
-    private int size;
+    /**
+     * 任务ID索引,只在持有lock时修改
+     */
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    /**
+     * 当前快照,只在持有lock时替换
+     */
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
 
     /**
      * 构造
@@ -61,11 +71,10 @@ public class TaskTable {
      */
     public TaskTable(Scheduler scheduler) {
         this.scheduler = scheduler;
-        this.timezone = scheduler.getTimeZone();
     }
 
     /**
-     * 新增Task
+     * 新增Task,使用{@link Scheduler}的时区
      *
      * @param id      ID
      * @param pattern {@link CronPattern}
@@ -73,18 +82,29 @@ public class TaskTable {
      * @return this
      */
     public TaskTable add(String id, CronPattern pattern, Task task) {
-        final Lock writeLock = lock.writeLock();
+        return add(id, pattern, task, null);
+    }
+
+    /**
+     * 新增Task
+     *
+     * @param id       ID
+     * @param pattern  {@link CronPattern}
+     * @param task     {@link Task}
+     * @param timezone 匹配表达式使用的时区,null表示使用{@link Scheduler}的时区
+     * @return this
+     */
+    public TaskTable add(String id, CronPattern pattern, Task task, TimeZone timezone) {
+        lock.lock();
         try {
-            writeLock.lock();
-            if (ids.contains(id)) {
+            if (index.containsKey(id)) {
                 throw new InstrumentException("Id [{}] has been existed!", id);
             }
-            ids.add(id);
-            patterns.add(pattern);
-            tasks.add(task);
-            size++;
+            final Entry entry = new Entry(id, pattern, task, timezone);
+            index.put(id, entry);
+            snapshot = snapshot.add(entry);
         } finally {
-            writeLock.unlock();
+            lock.unlock();
         }
         return this;
     }
@@ -95,18 +115,14 @@ public class TaskTable {
      * @param id Task的ID
      */
     public void remove(String id) {
-        final Lock writeLock = lock.writeLock();
+        lock.lock();
         try {
-            writeLock.lock();
-            final int index = ids.indexOf(id);
-            if (index > -1) {
-                tasks.remove(index);
-                patterns.remove(index);
-                ids.remove(index);
-                size--;
+            final Entry entry = index.remove(id);
+            if (null != entry) {
+                snapshot = snapshot.replace(entry, null);
             }
         } finally {
-            writeLock.unlock();
+            lock.unlock();
         }
     }
 
@@ -118,18 +134,19 @@ public class TaskTable {
      * @return 是否更新成功, 如果id对应的规则不存在则不更新
      */
     public boolean updatePattern(String id, CronPattern pattern) {
-        final Lock writeLock = lock.writeLock();
+        lock.lock();
         try {
-            writeLock.lock();
-            final int index = ids.indexOf(id);
-            if (index > -1) {
-                patterns.set(index, pattern);
-                return true;
+            final Entry entry = index.get(id);
+            if (null == entry) {
+                return false;
             }
+            final Entry updated = new Entry(id, pattern, entry.task, entry.timezone);
+            index.put(id, updated);
+            snapshot = snapshot.replace(entry, updated);
+            return true;
         } finally {
-            writeLock.unlock();
+            lock.unlock();
         }
-        return false;
     }
 
     /**
@@ -140,13 +157,7 @@ public class TaskTable {
      * @since 3.1.1
      */
     public Task getTask(int index) {
-        final Lock readLock = lock.readLock();
-        try {
-            readLock.lock();
-            return tasks.get(index);
-        } finally {
-            readLock.unlock();
-        }
+        return snapshot.entries[index].task;
     }
 
     /**
@@ -157,11 +168,8 @@ public class TaskTable {
      * @since 3.1.1
      */
     public Task getTask(String id) {
-        final int index = ids.indexOf(id);
-        if (index > -1) {
-            return getTask(index);
-        }
-        return null;
+        final Entry entry = index.get(id);
+        return null == entry ? null : entry.task;
     }
 
     /**
@@ -172,13 +180,21 @@ public class TaskTable {
      * @since 3.1.1
      */
     public CronPattern getPattern(int index) {
-        final Lock readLock = lock.readLock();
-        try {
-            readLock.lock();
-            return patterns.get(index);
-        } finally {
-            readLock.unlock();
+        return snapshot.entries[index].pattern;
+    }
+
+    /**
+     * 获得所有任务的ID
+     *
+     * @return 任务ID
+     */
+    public List<String> getIds() {
+        final Entry[] entries = snapshot.entries;
+        final List<String> ids = new ArrayList<>(entries.length);
+        for (Entry entry : entries) {
+            ids.add(entry.id);
         }
+        return ids;
     }
 
     /**
@@ -187,7 +203,7 @@ public class TaskTable {
      * @return 任务表大小, 加入的任务数
      */
     public int size() {
-        return this.size;
+        return snapshot.entries.length;
     }
 
     /**
@@ -196,7 +212,7 @@ public class TaskTable {
      * @return true为空
      */
     public boolean isEmpty() {
-        return this.size < 1;
+        return snapshot.entries.length < 1;
     }
 
     /**
@@ -207,39 +223,205 @@ public class TaskTable {
      * @since 3.1.1
      */
     public CronPattern getPattern(String id) {
-        final int index = ids.indexOf(id);
-        if (index > -1) {
-            return getPattern(index);
+        final Entry entry = index.get(id);
+        return null == entry ? null : entry.pattern;
+    }
+
+    /**
+     * 获得指定id的任务匹配表达式使用的时区
+     *
+     * @param id ID
+     * @return 时区, 任务未指定时区或不存在时返回{@link Scheduler}的时区
+     */
+    public TimeZone getTimeZone(String id) {
+        final Entry entry = index.get(id);
+        return null == entry || null == entry.timezone ? this.scheduler.getTimeZone() : entry.timezone;
+    }
+
+    /**
+     * 将所有任务交给计时器调度
+     *
+     * @param timer 计时器
+     */
+    protected void scheduleTo(CronTimer timer) {
+        for (Entry entry : snapshot.entries) {
+            timer.schedule(entry.id, entry.pattern, entry.task);
         }
-        return null;
     }
 
     /**
-     * 如果时间匹配则执行相应的Task,带读锁
+     * 如果时间匹配则执行相应的Task
      *
      * @param millis 时间毫秒
      */
     public void executeTaskIfMatch(long millis) {
-        final Lock readLock = lock.readLock();
-        try {
-            readLock.lock();
-            executeTaskIfMatchInternal(millis);
-        } finally {
-            readLock.unlock();
-        }
+        executeTaskIfMatchInternal(millis);
     }
 
     /**
-     * 如果时间匹配则执行相应的Task,无锁
+     * 如果时间匹配则执行相应的Task,每个时区分区只计算一次时间字段
      *
      * @param millis 时间毫秒
      * @since 3.1.1
      */
     protected void executeTaskIfMatchInternal(long millis) {
-        for (int i = 0; i < size; i++) {
-            if (patterns.get(i).match(timezone, millis, this.scheduler.matchSecond)) {
-                this.scheduler.executorManager.spawnExecutor(tasks.get(i));
+        final boolean matchSecond = this.scheduler.matchSecond;
+        for (Partition partition : snapshot.partitions) {
+            final CronTime time = CronTime.of(null == partition.timezone
+                    ? this.scheduler.getTimeZone() : partition.timezone, millis);
+            for (Entry entry : partition.entries) {
+                if (entry.pattern.match(time, matchSecond)) {
+                    this.scheduler.executorManager.spawnExecutor(entry.id, entry.task, millis);
+                }
+            }
+        }
+    }
+
+    /**
+     * 处理计时器停顿期间错过的触发
+     * 对每个任务计算区间内匹配的时间,交由{@link ExecutorManager#misfire(String, Task, long, List)}按错过触发的处理方式处理
+     *
+     * @param from 最早错过的时间点
+     * @param to   最晚错过的时间点
+     */
+    public void executeMisfiredTask(long from, long to) {
+        final boolean matchSecond = this.scheduler.matchSecond;
+        final long now = System.currentTimeMillis();
+        for (Partition partition : snapshot.partitions) {
+            final TimeZone timezone = null == partition.timezone ? this.scheduler.getTimeZone() : partition.timezone;
+            for (Entry entry : partition.entries) {
+                final CronPattern pattern = entry.pattern;
+                final long first = pattern.nextMatchAfter(timezone, from - 1, matchSecond);
+                if (first < 0 || first > to) {
+                    continue;
+                }
+                final long windowStart = now - this.scheduler.getPolicy(entry.id).getCatchUpWindow();
+                final List<Long> fireTimes = new ArrayList<>();
+                long fireTime = pattern.nextMatchAfter(timezone, Math.max(first, windowStart) - 1, matchSecond);
+                while (fireTime > 0 && fireTime <= to) {
+                    fireTimes.add(fireTime);
+                    fireTime = pattern.nextMatchAfter(timezone, fireTime, matchSecond);
+                }
+                this.scheduler.executorManager.misfire(entry.id, entry.task, first, fireTimes);
+            }
+        }
+    }
+
+    /**
+     * 任务
+     */
+    private static final class Entry {
+
+        private final String id;
+        private final CronPattern pattern;
+        private final Task task;
+        private final TimeZone timezone;
+
+        Entry(String id, CronPattern pattern, Task task, TimeZone timezone) {
+            this.id = id;
+            this.pattern = pattern;
+            this.task = task;
+            this.timezone = timezone;
+        }
+
+        boolean sameZone(TimeZone other) {
+            return null == timezone ? null == other : null != other && timezone.getID().equals(other.getID());
+        }
+    }
+
+    /**
+     * 同一时区的任务
+     */
+    private static final class Partition {
+
+        /**
+         * 时区,null表示使用{@link Scheduler}的时区
+         */
+        private final TimeZone timezone;
+        private final Entry[] entries;
+
+        Partition(TimeZone timezone, Entry[] entries) {
+            this.timezone = timezone;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * 不可变的任务表快照,修改时返回新的快照,未变化的分区在新旧快照间共享
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new Entry[0], new Partition[0]);
+
+        /**
+         * 按加入顺序排列的全部任务
+         */
+        private final Entry[] entries;
+        private final Partition[] partitions;
+
+        Snapshot(Entry[] entries, Partition[] partitions) {
+            this.entries = entries;
+            this.partitions = partitions;
+        }
+
+        Snapshot add(Entry entry) {
+            final Entry[] entries = Arrays.copyOf(this.entries, this.entries.length + 1);
+            entries[this.entries.length] = entry;
+            for (int i = 0; i < partitions.length; i++) {
+                if (entry.sameZone(partitions[i].timezone)) {
+                    final Entry[] members = Arrays.copyOf(partitions[i].entries, partitions[i].entries.length + 1);
+                    members[members.length - 1] = entry;
+                    final Partition[] partitions = this.partitions.clone();
+                    partitions[i] = new Partition(this.partitions[i].timezone, members);
+                    return new Snapshot(entries, partitions);
+                }
+            }
+            final Partition[] partitions = Arrays.copyOf(this.partitions, this.partitions.length + 1);
+            partitions[this.partitions.length] = new Partition(entry.timezone, new Entry[]{entry});
+            return new Snapshot(entries, partitions);
+        }
+
+        /**
+         * 替换任务,时区不变
+         *
+         * @param entry       原任务
+         * @param replacement 新任务,null表示移除
+         * @return 新的快照
+         */
+        Snapshot replace(Entry entry, Entry replacement) {
+            final Entry[] entries = replace(this.entries, entry, replacement);
+            final Partition[] partitions = this.partitions.clone();
+            for (int i = 0; i < partitions.length; i++) {
+                if (entry.sameZone(partitions[i].timezone)) {
+                    final Entry[] members = replace(partitions[i].entries, entry, replacement);
+                    if (members.length == 0) {
+                        final Partition[] rest = new Partition[partitions.length - 1];
+                        System.arraycopy(partitions, 0, rest, 0, i);
+                        System.arraycopy(partitions, i + 1, rest, i, rest.length - i);
+                        return new Snapshot(entries, rest);
+                    }
+                    partitions[i] = new Partition(partitions[i].timezone, members);
+                    break;
+                }
+            }
+            return new Snapshot(entries, partitions);
+        }
+
+        private static Entry[] replace(Entry[] entries, Entry entry, Entry replacement) {
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i] == entry) {
+                    if (null != replacement) {
+                        final Entry[] result = entries.clone();
+                        result[i] = replacement;
+                        return result;
+                    }
+                    final Entry[] result = new Entry[entries.length - 1];
+                    System.arraycopy(entries, 0, result, 0, i);
+                    System.arraycopy(entries, i + 1, result, i, result.length - i);
+                    return result;
+                }
             }
+            return entries;
         }
     }
 
@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.cron.consts;
+
+/**
+ * 错过触发的处理规则
+ * 计时器因GC停顿、线程池繁忙等原因未能按时触发任务时,按此规则处理错过的触发时间
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public enum MisfirePolicy {
+
+    /**
+     * 跳过,等待下一次触发
+     */
+    SKIP("Skip"),
+    /**
+     * 立即补执行一次
+     */
+    FIRE_ONCE("Fire once"),
+    /**
+     * 按错过的次数逐一补执行
+     */
+    FIRE_ALL("Fire all");
+
+    private String title;
+
+    MisfirePolicy(String title) {
+        this.title = title;
+    }
+
+    public static MisfirePolicy match(String name, MisfirePolicy defaultItem) {
+        if (name != null) {
+            for (MisfirePolicy item : MisfirePolicy.values()) {
+                if (item.name().equals(name)) {
+                    return item;
+                }
+            }
+        }
+        return defaultItem;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+}
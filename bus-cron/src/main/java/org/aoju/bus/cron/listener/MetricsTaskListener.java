@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.cron.listener;
+
+import org.aoju.bus.core.math.Histogram;
+import org.aoju.bus.cron.TaskExecutor;
+import org.aoju.bus.cron.factory.Task;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 统计每个任务执行情况的监听
+ * 记录触发延迟(实际开始时间与计划触发时间之差)与执行耗时的分布,以及成功、失败、丢弃和错过触发的次数
+ * <pre>
+ * MetricsTaskListener metrics = new MetricsTaskListener();
+ * scheduler.addListener(metrics);
+ * metrics.getMetrics(id).getLag().percentile(99);
+ * </pre>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class MetricsTaskListener implements TaskListener {
+
+    private final Map<String, Metrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * 获得任务的统计,未通过ID调度的任务记录在空字符串下
+     *
+     * @param id Task的ID
+     * @return 统计, 任务未执行过时返回null
+     */
+    public Metrics getMetrics(String id) {
+        return metrics.get(null == id ? "" : id);
+    }
+
+    /**
+     * 获得所有任务的统计
+     *
+     * @return 任务ID与统计
+     */
+    public Map<String, Metrics> getAllMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    @Override
+    public void onStart(TaskExecutor executor) {
+        metrics(executor.getId()).lag.record(executor.getLag());
+    }
+
+    @Override
+    public void onSucceeded(TaskExecutor executor) {
+        final Metrics m = metrics(executor.getId());
+        m.duration.record(executor.getDuration());
+        m.succeeded.incrementAndGet();
+    }
+
+    @Override
+    public void onFailed(TaskExecutor executor, Throwable exception) {
+        final Metrics m = metrics(executor.getId());
+        m.duration.record(executor.getDuration());
+        m.failed.incrementAndGet();
+    }
+
+    @Override
+    public void onRejected(TaskExecutor executor) {
+        metrics(executor.getId()).rejected.incrementAndGet();
+    }
+
+    @Override
+    public void onMisfire(String id, Task task, long fireTime) {
+        metrics(id).misfired.incrementAndGet();
+    }
+
+    private Metrics metrics(String id) {
+        return metrics.computeIfAbsent(null == id ? "" : id, k -> new Metrics());
+    }
+
+    /**
+     * 单个任务的统计,时间单位为毫秒
+     */
+    public static class Metrics {
+
+        private final Histogram lag = new Histogram();
+        private final Histogram duration = new Histogram();
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong misfired = new AtomicLong();
+
+        /**
+         * @return 触发延迟分布
+         */
+        public Histogram getLag() {
+            return lag;
+        }
+
+        /**
+         * @return 执行耗时分布
+         */
+        public Histogram getDuration() {
+            return duration;
+        }
+
+        public long getSucceeded() {
+            return succeeded.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        public long getMisfired() {
+            return misfired.get();
+        }
+
+        @Override
+        public String toString() {
+            return "lag[" + lag + "], duration[" + duration + "], succeeded=" + getSucceeded()
+                    + ", failed=" + getFailed() + ", rejected=" + getRejected() + ", misfired=" + getMisfired();
+        }
+    }
+
+}
@@ -24,6 +24,7 @@
 package org.aoju.bus.cron.listener;
 
 import org.aoju.bus.cron.TaskExecutor;
+import org.aoju.bus.cron.factory.Task;
 
 /**
  * 定时任务监听接口
@@ -57,4 +58,30 @@ public interface TaskListener {
      */
     void onFailed(TaskExecutor executor, Throwable exception);
 
+    /**
+     * 触发被丢弃时触发,包括执行策略拒绝、串行等待数超限以及线程池拒绝
+     *
+     * @param executor {@link TaskExecutor}
+     */
+    default void onRejected(TaskExecutor executor) {
+    }
+
+    /**
+     * 任务错过触发时触发,之后按{@link org.aoju.bus.cron.consts.MisfirePolicy}决定是否补执行
+     *
+     * @param id       Task的ID
+     * @param task     {@link Task}
+     * @param fireTime 最早错过的触发时间
+     */
+    default void onMisfire(String id, Task task, long fireTime) {
+    }
+
+    /**
+     * 访问{@link org.aoju.bus.cron.store.JobStore}失败时触发,本轮的查询或认领被放弃,下个轮询周期重试
+     *
+     * @param exception 异常
+     */
+    default void onStoreFailed(Throwable exception) {
+    }
+
 }
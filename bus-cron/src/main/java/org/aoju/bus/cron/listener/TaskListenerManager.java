@@ -24,6 +24,7 @@
 package org.aoju.bus.cron.listener;
 
 import org.aoju.bus.cron.TaskExecutor;
+import org.aoju.bus.cron.factory.Task;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -114,4 +115,48 @@ public class TaskListenerManager {
         }
     }
 
+    /**
+     * 通知所有监听触发被丢弃
+     *
+     * @param executor {@link TaskExecutor}
+     */
+    public void notifyTaskRejected(TaskExecutor executor) {
+        synchronized (listeners) {
+            int size = listeners.size();
+            for (int i = 0; i < size; i++) {
+                listeners.get(i).onRejected(executor);
+            }
+        }
+    }
+
+    /**
+     * 通知所有监听任务错过触发
+     *
+     * @param id       Task的ID
+     * @param task     {@link Task}
+     * @param fireTime 最早错过的触发时间
+     */
+    public void notifyTaskMisfire(String id, Task task, long fireTime) {
+        synchronized (listeners) {
+            int size = listeners.size();
+            for (int i = 0; i < size; i++) {
+                listeners.get(i).onMisfire(id, task, fireTime);
+            }
+        }
+    }
+
+    /**
+     * 通知所有监听访问任务存储失败
+     *
+     * @param exception 异常
+     */
+    public void notifyStoreFailed(Throwable exception) {
+        synchronized (listeners) {
+            int size = listeners.size();
+            for (int i = 0; i < size; i++) {
+                listeners.get(i).onStoreFailed(exception);
+            }
+        }
+    }
+
 }
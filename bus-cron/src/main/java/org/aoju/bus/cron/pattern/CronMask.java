@@ -0,0 +1,328 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.cron.pattern;
+
+import org.aoju.bus.cron.pattern.matcher.ValueMatcher;
+
+/**
+ * 编译后的单一表达式
+ * 每个字段展开为位掩码,第n位表示字段值n是否匹配,匹配与推算下次匹配时间只做位运算,不创建任何对象
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+final class CronMask {
+
+    static final long DAY_MILLIS = 86400000L;
+
+    private static final int MIN_YEAR = 1970;
+    private static final int MAX_YEAR = 2099;
+
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    /**
+     * 第1~31位表示每月几号
+     */
+    private final int daysOfMonth;
+    /**
+     * 是否匹配每月最后一天
+     */
+    private final boolean lastDayOfMonth;
+    /**
+     * 第1~12位表示月份
+     */
+    private final int months;
+    /**
+     * 第0~6位表示星期,0为周日
+     */
+    private final int daysOfWeek;
+    /**
+     * 第n位表示1970+n年, null表示匹配所有年份
+     */
+    private final long[] years;
+
+    private CronMask(long seconds, long minutes, long hours, int daysOfMonth, boolean lastDayOfMonth,
+                     int months, int daysOfWeek, long[] years) {
+        this.seconds = seconds;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.daysOfMonth = daysOfMonth;
+        this.lastDayOfMonth = lastDayOfMonth;
+        this.months = months;
+        this.daysOfWeek = daysOfWeek;
+        this.years = years;
+    }
+
+    /**
+     * 将各字段的匹配器编译为位掩码
+     *
+     * @param second     秒
+     * @param minute     分
+     * @param hour       时
+     * @param dayOfMonth 日
+     * @param month      月
+     * @param dayOfWeek  周
+     * @param year       年
+     * @return 编译结果
+     */
+    static CronMask of(ValueMatcher second, ValueMatcher minute, ValueMatcher hour, ValueMatcher dayOfMonth,
+                       ValueMatcher month, ValueMatcher dayOfWeek, ValueMatcher year) {
+        long[] years = new long[(MAX_YEAR - MIN_YEAR) / 64 + 1];
+        boolean allYears = true;
+        for (int i = MIN_YEAR; i <= MAX_YEAR; i++) {
+            if (year.match(i)) {
+                years[(i - MIN_YEAR) >>> 6] |= 1L << (i - MIN_YEAR);
+            } else {
+                allYears = false;
+            }
+        }
+        return new CronMask(mask(second, 0, 59), mask(minute, 0, 59), mask(hour, 0, 23),
+                (int) mask(dayOfMonth, 1, 31), dayOfMonth.match(32),
+                (int) mask(month, 1, 12), (int) mask(dayOfWeek, 0, 6), allYears ? null : years);
+    }
+
+    private static long mask(ValueMatcher matcher, int min, int max) {
+        long mask = 0;
+        for (int i = min; i <= max; i++) {
+            if (matcher.match(i)) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 是否匹配给定的时间字段
+     *
+     * @param second        秒
+     * @param minute        分
+     * @param hour          时
+     * @param dayOfMonth    日
+     * @param month         月,从1开始
+     * @param dayOfWeek     周,0为周日
+     * @param year          年
+     * @param isMatchSecond 是否匹配秒
+     * @return 是否匹配
+     */
+    boolean match(int second, int minute, int hour, int dayOfMonth, int month, int dayOfWeek, int year,
+                  boolean isMatchSecond) {
+        return (false == isMatchSecond || 0 != (seconds & 1L << second))
+                && 0 != (minutes & 1L << minute)
+                && 0 != (hours & 1L << hour)
+                && matchDayOfMonth(dayOfMonth, lengthOfMonth(year, month))
+                && 0 != (months & 1 << month)
+                && 0 != (daysOfWeek & 1 << dayOfWeek)
+                && matchYear(year);
+    }
+
+    /**
+     * 计算不早于给定本地时间的第一个匹配时间
+     * 本地时间为UTC毫秒数加上时区偏移,不考虑偏移变化,需已按秒（不匹配秒时按分）对齐
+     *
+     * @param local         本地时间毫秒数
+     * @param isMatchSecond 是否匹配秒
+     * @param maxYear       最大搜索年份
+     * @return 匹配的本地时间毫秒数, 不存在时返回-1
+     */
+    long nextLocal(long local, boolean isMatchSecond, int maxYear) {
+        final int millisOfDay = (int) Math.floorMod(local, DAY_MILLIS);
+        final long date = toDate(Math.floorDiv(local, DAY_MILLIS));
+        int year = year(date);
+        int month = month(date);
+        int day = day(date);
+        int hour = millisOfDay / 3600000;
+        int minute = millisOfDay / 60000 % 60;
+        int second = millisOfDay / 1000 % 60;
+        for (; ; ) {
+            if (year > maxYear) {
+                return -1;
+            }
+            final int nextMonth = matchYear(year) ? nextBit(months, month) : -1;
+            if (nextMonth < 0) {
+                year++;
+                month = day = 1;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (nextMonth != month) {
+                month = nextMonth;
+                day = 1;
+                hour = minute = second = 0;
+            }
+            final int lengthOfMonth = lengthOfMonth(year, month);
+            int dayOfWeek = (int) Math.floorMod(toEpochDay(year, month, day) + 4, 7);
+            int nextDay = day;
+            while (nextDay <= lengthOfMonth
+                    && (false == matchDayOfMonth(nextDay, lengthOfMonth) || 0 == (daysOfWeek & 1 << dayOfWeek))) {
+                nextDay++;
+                dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1;
+            }
+            if (nextDay > lengthOfMonth) {
+                if (++month > 12) {
+                    year++;
+                    month = 1;
+                }
+                day = 1;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (nextDay != day) {
+                day = nextDay;
+                hour = minute = second = 0;
+            }
+            final int nextHour = nextBit(hours, hour);
+            if (nextHour < 0) {
+                day++;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (nextHour != hour) {
+                hour = nextHour;
+                minute = second = 0;
+            }
+            final int nextMinute = nextBit(minutes, minute);
+            if (nextMinute < 0) {
+                hour++;
+                minute = second = 0;
+                continue;
+            }
+            if (nextMinute != minute) {
+                minute = nextMinute;
+                second = 0;
+            }
+            if (isMatchSecond) {
+                final int nextSecond = nextBit(seconds, second);
+                if (nextSecond < 0) {
+                    minute++;
+                    second = 0;
+                    continue;
+                }
+                second = nextSecond;
+            }
+            return toEpochDay(year, month, day) * DAY_MILLIS + hour * 3600000L + minute * 60000L + second * 1000L;
+        }
+    }
+
+    private boolean matchDayOfMonth(int dayOfMonth, int lengthOfMonth) {
+        return 0 != (daysOfMonth & 1 << dayOfMonth) || (lastDayOfMonth && dayOfMonth == lengthOfMonth);
+    }
+
+    private boolean matchYear(int year) {
+        if (null == years) {
+            return true;
+        }
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            return false;
+        }
+        return 0 != (years[(year - MIN_YEAR) >>> 6] & 1L << (year - MIN_YEAR));
+    }
+
+    /**
+     * 不小于from的第一个置位
+     *
+     * @param mask 掩码
+     * @param from 起始位
+     * @return 位置, 不存在时返回-1
+     */
+    private static int nextBit(long mask, int from) {
+        if (from > 63) {
+            return -1;
+        }
+        final long rest = mask & (-1L << from);
+        return 0 == rest ? -1 : Long.numberOfTrailingZeros(rest);
+    }
+
+    private static int nextBit(int mask, int from) {
+        return nextBit(mask & 0xFFFFFFFFL, from);
+    }
+
+    static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * 公历日期转换为1970-01-01起的天数
+     *
+     * @param year  年
+     * @param month 月,从1开始
+     * @param day   日
+     * @return 天数
+     */
+    static long toEpochDay(int year, int month, int day) {
+        final long y = month <= 2 ? year - 1 : year;
+        final long era = Math.floorDiv(y, 400);
+        final long yearOfEra = y - era * 400;
+        final long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * 1970-01-01起的天数转换为公历日期,年月日压缩在一个long中,使用{@link #year(long)}等方法读取
+     *
+     * @param epochDay 天数
+     * @return 压缩的日期
+     */
+    static long toDate(long epochDay) {
+        final long z = epochDay + 719468;
+        final long era = Math.floorDiv(z, 146097);
+        final long dayOfEra = z - era * 146097;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final long mp = (5 * dayOfYear + 2) / 153;
+        final long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        final long month = mp < 10 ? mp + 3 : mp - 9;
+        final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year << 9 | month << 5 | day;
+    }
+
+    static int year(long date) {
+        return (int) (date >> 9);
+    }
+
+    static int month(long date) {
+        return (int) (date >> 5) & 0xF;
+    }
+
+    static int day(long date) {
+        return (int) date & 0x1F;
+    }
+
+}
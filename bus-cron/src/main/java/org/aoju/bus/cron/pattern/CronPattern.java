@@ -28,7 +28,6 @@ import org.aoju.bus.core.lang.exception.InstrumentException;
 import org.aoju.bus.core.utils.DateUtils;
 import org.aoju.bus.core.utils.StringUtils;
 import org.aoju.bus.cron.pattern.matcher.AlwaysTrueValueMatcher;
-import org.aoju.bus.cron.pattern.matcher.DayOfMonthValueMatcher;
 import org.aoju.bus.cron.pattern.matcher.ValueMatcher;
 import org.aoju.bus.cron.pattern.matcher.ValueMatcherBuilder;
 import org.aoju.bus.cron.pattern.parser.*;
@@ -107,37 +106,9 @@ public class CronPattern {
     private String pattern;
 
     /**
-     * 秒字段匹配列表
+     * 编译后的单一表达式列表,取决于复合任务表达式中的单一表达式个数
      */
-    private List<ValueMatcher> secondMatchers = new ArrayList<>();
-    /**
-     * 分字段匹配列表
-     */
-    private List<ValueMatcher> minuteMatchers = new ArrayList<>();
-    /**
-     * 时字段匹配列表
-     */
-    private List<ValueMatcher> hourMatchers = new ArrayList<>();
-    /**
-     * 每月几号字段匹配列表
-     */
-    private List<ValueMatcher> dayOfMonthMatchers = new ArrayList<>();
-    /**
-     * 月字段匹配列表
-     */
-    private List<ValueMatcher> monthMatchers = new ArrayList<>();
-    /**
-     * 星期字段匹配列表
-     */
-    private List<ValueMatcher> dayOfWeekMatchers = new ArrayList<>();
-    /**
-     * 年字段匹配列表
-     */
-    private List<ValueMatcher> yearMatchers = new ArrayList<>();
-    /**
-     * 匹配器个数,取决于复合任务表达式中的单一表达式个数
-     */
-    private int matcherSize;
+    private final List<CronMask> masks = new ArrayList<>();
 
     /**
      * 构造
@@ -150,33 +121,6 @@ public class CronPattern {
         parseGroupPattern(pattern);
     }
 
-    /**
-     * 是否匹配日（指定月份的第几天）
-     *
-     * @param matcher    {@link ValueMatcher}
-     * @param dayOfMonth 日
-     * @param month      月
-     * @param isLeapYear 是否闰年
-     * @return 是否匹配
-     */
-    private static boolean isMatchDayOfMonth(ValueMatcher matcher, int dayOfMonth, int month, boolean isLeapYear) {
-        return ((matcher instanceof DayOfMonthValueMatcher)
-                ? ((DayOfMonthValueMatcher) matcher).match(dayOfMonth, month, isLeapYear)
-                : matcher.match(dayOfMonth));
-    }
-
-    /**
-     * 是否匹配指定的日期时间位置
-     *
-     * @param matchers 匹配器列表
-     * @param index    位置
-     * @param value    被匹配的值
-     * @return 是否匹配
-     */
-    private static boolean isMatch(List<ValueMatcher> matchers, int index, int value) {
-        return (matchers.size() > index) ? matchers.get(index).match(value) : true;
-    }
-
     /**
      * 给定时间是否匹配定时任务表达式
      *
@@ -190,6 +134,7 @@ public class CronPattern {
 
     /**
      * 给定时间是否匹配定时任务表达式
+     * 时间字段由毫秒数和预先展开的时区偏移直接计算,匹配过程不创建任何对象
      *
      * @param timezone      时区 {@link TimeZone}
      * @param millis        时间毫秒数
@@ -197,9 +142,25 @@ public class CronPattern {
      * @return 如果匹配返回 <code>true</code>, 否则返回 <code>false</code>
      */
     public boolean match(TimeZone timezone, long millis, boolean isMatchSecond) {
-        final GregorianCalendar calendar = new GregorianCalendar(timezone);
-        calendar.setTimeInMillis(millis);
-        return match(calendar, isMatchSecond);
+        final long local = millis + ZoneOffsets.of(timezone).getOffset(millis);
+        final long epochDay = Math.floorDiv(local, CronMask.DAY_MILLIS);
+        final int millisOfDay = (int) (local - epochDay * CronMask.DAY_MILLIS);
+        final long date = CronMask.toDate(epochDay);
+        return match(millisOfDay / 1000 % 60, millisOfDay / 60000 % 60, millisOfDay / 3600000,
+                CronMask.day(date), CronMask.month(date), (int) Math.floorMod(epochDay + 4, 7), CronMask.year(date),
+                isMatchSecond);
+    }
+
+    /**
+     * 给定时间是否匹配定时任务表达式
+     *
+     * @param time          已计算的时间字段
+     * @param isMatchSecond 是否匹配秒
+     * @return 如果匹配返回 <code>true</code>, 否则返回 <code>false</code>
+     */
+    public boolean match(CronTime time, boolean isMatchSecond) {
+        return match(time.second, time.minute, time.hour, time.dayOfMonth, time.month, time.dayOfWeek, time.year,
+                isMatchSecond);
     }
 
     /**
@@ -210,30 +171,106 @@ public class CronPattern {
      * @return 如果匹配返回 <code>true</code>, 否则返回 <code>false</code>
      */
     public boolean match(GregorianCalendar calendar, boolean isMatchSecond) {
-        final int second = calendar.get(Calendar.SECOND);
-        final int minute = calendar.get(Calendar.MINUTE);
-        final int hour = calendar.get(Calendar.HOUR_OF_DAY);
-        final int dayOfMonth = calendar.get(Calendar.DAY_OF_MONTH);
-        final int month = calendar.get(Calendar.MONTH) + 1;// 月份从1开始
-        final int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK) - 1; // 星期从0开始,0和7都表示周日
-        final int year = calendar.get(Calendar.YEAR);
+        return match(calendar.get(Calendar.SECOND),
+                calendar.get(Calendar.MINUTE),
+                calendar.get(Calendar.HOUR_OF_DAY),
+                calendar.get(Calendar.DAY_OF_MONTH),
+                calendar.get(Calendar.MONTH) + 1,// 月份从1开始
+                calendar.get(Calendar.DAY_OF_WEEK) - 1,// 星期从0开始,0和7都表示周日
+                calendar.get(Calendar.YEAR),
+                isMatchSecond);
+    }
 
-        boolean eval;
-        for (int i = 0; i < matcherSize; i++) {
-            eval = (isMatchSecond ? secondMatchers.get(i).match(second) : true) // 匹配秒（非秒匹配模式下始终返回true）
-                    && minuteMatchers.get(i).match(minute)// 匹配分
-                    && hourMatchers.get(i).match(hour)// 匹配时
-                    && isMatchDayOfMonth(dayOfMonthMatchers.get(i), dayOfMonth, month, calendar.isLeapYear(year))// 匹配日
-                    && monthMatchers.get(i).match(month) // 匹配月
-                    && dayOfWeekMatchers.get(i).match(dayOfWeek)// 匹配周
-                    && isMatch(yearMatchers, i, year);// 匹配年
-            if (eval) {
+    private boolean match(int second, int minute, int hour, int dayOfMonth, int month, int dayOfWeek, int year,
+                          boolean isMatchSecond) {
+        for (int i = 0; i < masks.size(); i++) {
+            if (masks.get(i).match(second, minute, hour, dayOfMonth, month, dayOfWeek, year, isMatchSecond)) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * 计算给定时间之后第一个匹配表达式的时间
+     *
+     * @param millis        时间毫秒数
+     * @param isMatchSecond 是否匹配秒
+     * @return 下次匹配的时间毫秒数, 不存在时返回-1
+     */
+    public long nextMatchAfter(long millis, boolean isMatchSecond) {
+        return nextMatchAfter(TimeZone.getDefault(), millis, isMatchSecond);
+    }
+
+    /**
+     * 计算给定时间之后第一个匹配表达式的时间
+     * 结果为严格晚于给定时间的整秒（不匹配秒时为整分）时刻,与按秒（分）逐一调用{@link #match(TimeZone, long, boolean)}得到的第一个匹配时刻一致
+     * <p>
+     * 两个偏移变化点之间本地时间与UTC时间一一对应,在本地时间上按位推算;
+     * 结果越过变化点（夏令时跳过或回拨）时从变化点按新的偏移重新推算,回拨时重复出现的时刻与逐一匹配一样会再次匹配
+     * </p>
+     *
+     * @param timezone      时区 {@link TimeZone}
+     * @param millis        时间毫秒数
+     * @param isMatchSecond 是否匹配秒
+     * @return 下次匹配的时间毫秒数, 不存在时返回-1
+     */
+    public long nextMatchAfter(TimeZone timezone, long millis, boolean isMatchSecond) {
+        final ZoneOffsets zoneOffsets = ZoneOffsets.of(timezone);
+        final long unit = isMatchSecond ? 1000 : 60000;
+        int maxYear = -1;
+        long after = millis;
+        for (; ; ) {
+            // 候选时刻不早于after + 1,其所在偏移区间内偏移不变
+            final int offset = zoneOffsets.getOffset(after + 1);
+            final long local = (Math.floorDiv(after + offset, unit) + 1) * unit;
+            if (maxYear < 0) {
+                // 日与星期的组合至多28年重复一次,超出范围仍未匹配则表达式不会再匹配
+                maxYear = Math.max(CronMask.year(CronMask.toDate(Math.floorDiv(local, CronMask.DAY_MILLIS))) + 28,
+                        YEAR_VALUE_PARSER.getMax());
+            }
+            long next = -1;
+            for (int i = 0; i < masks.size(); i++) {
+                final long candidate = masks.get(i).nextLocal(local, isMatchSecond, maxYear);
+                if (candidate >= 0 && (next < 0 || candidate < next)) {
+                    next = candidate;
+                }
+            }
+            if (next < 0) {
+                return -1;
+            }
+            final long transition = zoneOffsets.nextTransition(after + 1);
+            if (next - offset < transition) {
+                return next - offset;
+            }
+            after = transition - 1;
+        }
+    }
+
+    /**
+     * 列举给定时间范围内的所有匹配时间,用于预览调度计划
+     *
+     * @param timezone      时区 {@link TimeZone}
+     * @param start         起始时间毫秒数（包含）
+     * @param end           结束时间毫秒数（不包含）
+     * @param count         最大数量
+     * @param isMatchSecond 是否匹配秒
+     * @return 升序的匹配时间毫秒数
+     */
+    public long[] matchedTimes(TimeZone timezone, long start, long end, int count, boolean isMatchSecond) {
+        long[] result = new long[Math.min(Math.max(count, 0), 16)];
+        int size = 0;
+        long next = nextMatchAfter(timezone, start - 1, isMatchSecond);
+        while (next >= 0 && next < end && size < count) {
+            if (size == result.length) {
+                result = Arrays.copyOf(result, (int) Math.min((long) size * 2, count));
+            }
+            result[size++] = next;
+            next = nextMatchAfter(timezone, next, isMatchSecond);
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
     @Override
     public String toString() {
         return this.pattern;
@@ -266,57 +303,64 @@ public class CronPattern {
             throw new InstrumentException("RegEx [{}] is invalid, it must be 5-7 parts!", pattern);
         }
 
+        final ValueMatcher second;
+        final ValueMatcher minute;
+        final ValueMatcher hour;
+        final ValueMatcher dayOfMonth;
+        final ValueMatcher month;
+        final ValueMatcher dayOfWeek;
+        final ValueMatcher year;
         // 秒
         if (1 == offset) {// 支持秒的表达式
             try {
-                this.secondMatchers.add(ValueMatcherBuilder.build(parts[0], SECOND_VALUE_PARSER));
+                second = ValueMatcherBuilder.build(parts[0], SECOND_VALUE_PARSER);
             } catch (Exception e) {
                 throw new InstrumentException("Invalid pattern [{}], parsing 'second' field error!", pattern);
             }
         } else {// 不支持秒的表达式,则第一位按照表达式生成时间的秒数赋值,表示整分匹配
-            this.secondMatchers.add(ValueMatcherBuilder.build(String.valueOf(DateUtils.date().second()), SECOND_VALUE_PARSER));
+            second = ValueMatcherBuilder.build(String.valueOf(DateUtils.date().second()), SECOND_VALUE_PARSER);
         }
         // 分
         try {
-            this.minuteMatchers.add(ValueMatcherBuilder.build(parts[0 + offset], MINUTE_VALUE_PARSER));
+            minute = ValueMatcherBuilder.build(parts[0 + offset], MINUTE_VALUE_PARSER);
         } catch (Exception e) {
             throw new InstrumentException("Invalid pattern [{}], parsing 'minute' field error!", pattern);
         }
         // 小时
         try {
-            this.hourMatchers.add(ValueMatcherBuilder.build(parts[1 + offset], HOUR_VALUE_PARSER));
+            hour = ValueMatcherBuilder.build(parts[1 + offset], HOUR_VALUE_PARSER);
         } catch (Exception e) {
             throw new InstrumentException("Invalid pattern [{}], parsing 'hour' field error!", pattern);
         }
         // 每月第几天
         try {
-            this.dayOfMonthMatchers.add(ValueMatcherBuilder.build(parts[2 + offset], DAY_OF_MONTH_VALUE_PARSER));
+            dayOfMonth = ValueMatcherBuilder.build(parts[2 + offset], DAY_OF_MONTH_VALUE_PARSER);
         } catch (Exception e) {
             throw new InstrumentException("Invalid pattern [{}], parsing 'day of month' field error!", pattern);
         }
         // 月
         try {
-            this.monthMatchers.add(ValueMatcherBuilder.build(parts[3 + offset], MONTH_VALUE_PARSER));
+            month = ValueMatcherBuilder.build(parts[3 + offset], MONTH_VALUE_PARSER);
         } catch (Exception e) {
             throw new InstrumentException("Invalid pattern [{}], parsing 'month' field error!", pattern);
         }
         // 星期几
         try {
-            this.dayOfWeekMatchers.add(ValueMatcherBuilder.build(parts[4 + offset], DAY_OF_WEEK_VALUE_PARSER));
+            dayOfWeek = ValueMatcherBuilder.build(parts[4 + offset], DAY_OF_WEEK_VALUE_PARSER);
         } catch (Exception e) {
             throw new InstrumentException("Invalid pattern [{}], parsing 'day of week' field error!", pattern);
         }
         // 年
         if (parts.length == 7) {// 支持年的表达式
             try {
-                this.yearMatchers.add(ValueMatcherBuilder.build(parts[6], YEAR_VALUE_PARSER));
+                year = ValueMatcherBuilder.build(parts[6], YEAR_VALUE_PARSER);
             } catch (Exception e) {
                 throw new InstrumentException("Invalid pattern [{}], parsing 'year' field error!", pattern);
             }
         } else {// 不支持年的表达式,全部匹配
-            this.secondMatchers.add(new AlwaysTrueValueMatcher());
+            year = new AlwaysTrueValueMatcher();
         }
-        matcherSize++;
+        this.masks.add(CronMask.of(second, minute, hour, dayOfMonth, month, dayOfWeek, year));
     }
 
 }
@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.cron.pattern;
+
+import java.util.TimeZone;
+
+/**
+ * 某一时刻在指定时区下的时间字段
+ * 同一时区的多个表达式匹配同一时刻时,字段只需计算一次,见{@link CronPattern#match(CronTime, boolean)}
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public final class CronTime {
+
+    final int second;
+    final int minute;
+    final int hour;
+    final int dayOfMonth;
+    final int month;
+    final int dayOfWeek;
+    final int year;
+
+    private CronTime(int second, int minute, int hour, int dayOfMonth, int month, int dayOfWeek, int year) {
+        this.second = second;
+        this.minute = minute;
+        this.hour = hour;
+        this.dayOfMonth = dayOfMonth;
+        this.month = month;
+        this.dayOfWeek = dayOfWeek;
+        this.year = year;
+    }
+
+    /**
+     * 计算时间字段
+     *
+     * @param timezone 时区
+     * @param millis   时间毫秒数
+     * @return 时间字段
+     */
+    public static CronTime of(TimeZone timezone, long millis) {
+        final long local = millis + ZoneOffsets.of(timezone).getOffset(millis);
+        final long epochDay = Math.floorDiv(local, CronMask.DAY_MILLIS);
+        final int millisOfDay = (int) (local - epochDay * CronMask.DAY_MILLIS);
+        final long date = CronMask.toDate(epochDay);
+        return new CronTime(millisOfDay / 1000 % 60, millisOfDay / 60000 % 60, millisOfDay / 3600000,
+                CronMask.day(date), CronMask.month(date), (int) Math.floorMod(epochDay + 4, 7), CronMask.year(date));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%04d-%02d-%02d %02d:%02d:%02d", year, month, dayOfMonth, hour, minute, second);
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.cron.pattern;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 时区偏移表
+ * 预先展开时区在1900~2200年间的全部偏移变化点,查询时二分查找,不创建任何对象
+ * 范围之外的时间直接查询{@link ZoneRules}
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+final class ZoneOffsets {
+
+    private static final Map<String, ZoneOffsets> CACHE = new ConcurrentHashMap<>();
+
+    private static final long MIN_MILLIS = LocalDateTime.of(1900, 1, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+    private static final long MAX_MILLIS = LocalDateTime.of(2200, 1, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    private final ZoneRules rules;
+    /**
+     * 偏移变化的时刻,升序
+     */
+    private final long[] transitions;
+    /**
+     * offsets[i]为transitions[i - 1]（含）到transitions[i]（不含）之间的偏移毫秒数
+     */
+    private final int[] offsets;
+
+    private ZoneOffsets(ZoneRules rules) {
+        this.rules = rules;
+        long[] transitions = new long[16];
+        int[] offsets = new int[17];
+        int size = 0;
+        offsets[0] = offsetMillis(rules.getOffset(Instant.ofEpochMilli(MIN_MILLIS)));
+        ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochMilli(MIN_MILLIS));
+        while (null != transition && transition.toEpochSecond() * 1000 < MAX_MILLIS) {
+            if (size == transitions.length) {
+                transitions = Arrays.copyOf(transitions, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2 + 1);
+            }
+            transitions[size] = transition.toEpochSecond() * 1000;
+            offsets[++size] = offsetMillis(transition.getOffsetAfter());
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        this.transitions = Arrays.copyOf(transitions, size);
+        this.offsets = Arrays.copyOf(offsets, size + 1);
+    }
+
+    /**
+     * 获取时区对应的偏移表
+     *
+     * @param timezone 时区
+     * @return 偏移表
+     */
+    static ZoneOffsets of(TimeZone timezone) {
+        final String id = timezone.getID();
+        ZoneOffsets zoneOffsets = CACHE.get(id);
+        if (null == zoneOffsets) {
+            zoneOffsets = CACHE.computeIfAbsent(id, key -> new ZoneOffsets(timezone.toZoneId().getRules()));
+        }
+        return zoneOffsets;
+    }
+
+    private static int offsetMillis(ZoneOffset offset) {
+        return offset.getTotalSeconds() * 1000;
+    }
+
+    /**
+     * 给定时刻的偏移
+     *
+     * @param millis 时间毫秒数
+     * @return 偏移毫秒数
+     */
+    int getOffset(long millis) {
+        if (millis < MIN_MILLIS || millis >= MAX_MILLIS) {
+            return offsetMillis(rules.getOffset(Instant.ofEpochMilli(millis)));
+        }
+        return offsets[index(millis)];
+    }
+
+    /**
+     * 给定时刻之后的第一个偏移变化点,在此之前偏移保持不变
+     *
+     * @param millis 时间毫秒数
+     * @return 变化点毫秒数, 不再变化时返回{@link Long#MAX_VALUE}
+     */
+    long nextTransition(long millis) {
+        if (millis < MIN_MILLIS || millis >= MAX_MILLIS) {
+            final ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochMilli(millis));
+            if (null == transition) {
+                return Long.MAX_VALUE;
+            }
+            final long next = transition.toEpochSecond() * 1000;
+            return millis < MIN_MILLIS ? Math.min(next, MIN_MILLIS) : next;
+        }
+        final int index = index(millis);
+        return index < transitions.length ? transitions[index] : MAX_MILLIS;
+    }
+
+    /**
+     * 不大于给定时刻的变化点个数
+     *
+     * @param millis 时间毫秒数
+     * @return 个数
+     */
+    private int index(long millis) {
+        int low = 0;
+        int high = transitions.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (transitions[mid] <= millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.cron.store;
+
+import org.aoju.bus.core.lang.exception.InstrumentException;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * 基于JDBC的{@link JobStore}
+ * 使用一张表保存任务,认领触发时以版本号做乐观锁,每次触发只有一个实例更新成功
+ * 表结构：
+ *
+ * <pre>
+ * CREATE TABLE bus_cron_job (
+ *     id             VARCHAR(128) NOT NULL PRIMARY KEY,
+ *     pattern        VARCHAR(255) NOT NULL,
+ *     next_fire_time BIGINT       NOT NULL,
+ *     last_fire_time BIGINT       NOT NULL,
+ *     fired_by       VARCHAR(128),
+ *     version        BIGINT       NOT NULL
+ * );
+ * CREATE INDEX idx_bus_cron_job_next ON bus_cron_job (next_fire_time);
+ * </pre>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class JdbcJobStore implements JobStore {
+
+    private static final String COLUMNS = "id, pattern, next_fire_time, last_fire_time, fired_by, version";
+    /**
+     * 单条查询IN条件中的最大ID数
+     */
+    private static final int MAX_IN_SIZE = 500;
+
+    private final DataSource dataSource;
+    private final String table;
+
+    public JdbcJobStore(DataSource dataSource) {
+        this(dataSource, "bus_cron_job");
+    }
+
+    /**
+     * 构造
+     *
+     * @param dataSource 数据源
+     * @param table      表名
+     */
+    public JdbcJobStore(DataSource dataSource, String table) {
+        this.dataSource = dataSource;
+        this.table = table;
+    }
+
+    /**
+     * 表不存在时创建表及索引
+     *
+     * @return this
+     */
+    public JdbcJobStore createTable() {
+        try (Connection conn = dataSource.getConnection()) {
+            if (exists(conn.getMetaData())) {
+                return this;
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE " + table + " ("
+                        + "id VARCHAR(128) NOT NULL PRIMARY KEY, "
+                        + "pattern VARCHAR(255) NOT NULL, "
+                        + "next_fire_time BIGINT NOT NULL, "
+                        + "last_fire_time BIGINT NOT NULL, "
+                        + "fired_by VARCHAR(128), "
+                        + "version BIGINT NOT NULL)");
+                stmt.executeUpdate("CREATE INDEX idx_" + table + "_next ON " + table + " (next_fire_time)");
+            }
+        } catch (SQLException e) {
+            throw new InstrumentException(e);
+        }
+        return this;
+    }
+
+    @Override
+    public void storeJob(String id, String pattern, long nextFireTime) {
+        try (Connection conn = dataSource.getConnection()) {
+            final JobRecord record = getJob(conn, id);
+            if (null == record) {
+                try (PreparedStatement ps = conn.prepareStatement("INSERT INTO " + table + " (" + COLUMNS + ") VALUES (?, ?, ?, -1, NULL, 0)")) {
+                    ps.setString(1, id);
+                    ps.setString(2, pattern);
+                    ps.setLong(3, nextFireTime);
+                    ps.executeUpdate();
+                } catch (SQLException e) {
+                    // 其他实例同时插入,以其记录为准
+                    if (null == getJob(conn, id)) {
+                        throw e;
+                    }
+                }
+            } else if (false == record.getPattern().equals(pattern)) {
+                try (PreparedStatement ps = conn.prepareStatement("UPDATE " + table
+                        + " SET pattern = ?, next_fire_time = ?, version = version + 1 WHERE id = ?")) {
+                    ps.setString(1, pattern);
+                    ps.setLong(2, nextFireTime);
+                    ps.setString(3, id);
+                    ps.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    @Override
+    public void removeJob(String id) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM " + table + " WHERE id = ?")) {
+            ps.setString(1, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    @Override
+    public JobRecord getJob(String id) {
+        try (Connection conn = dataSource.getConnection()) {
+            return getJob(conn, id);
+        } catch (SQLException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    @Override
+    public List<JobRecord> selectDueJobs(Collection<String> ids, long noLaterThan, int maxCount) {
+        final List<JobRecord> records = new ArrayList<>();
+        if (ids.isEmpty() || maxCount < 1) {
+            return records;
+        }
+        final List<String> idList = new ArrayList<>(ids);
+        try (Connection conn = dataSource.getConnection()) {
+            // ID较多时分批查询,每批各取最早的maxCount条,合并后再取最早的maxCount条
+            for (int from = 0; from < idList.size(); from += MAX_IN_SIZE) {
+                final List<String> chunk = idList.subList(from, Math.min(idList.size(), from + MAX_IN_SIZE));
+                final StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM ").append(table)
+                        .append(" WHERE next_fire_time >= 0 AND next_fire_time <= ? AND id IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(") ORDER BY next_fire_time");
+                try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+                    ps.setLong(1, noLaterThan);
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setString(i + 2, chunk.get(i));
+                    }
+                    ps.setMaxRows(maxCount);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            records.add(toRecord(rs));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new InstrumentException(e);
+        }
+        if (idList.size() > MAX_IN_SIZE) {
+            records.sort(Comparator.comparingLong(JobRecord::getNextFireTime));
+            if (records.size() > maxCount) {
+                return new ArrayList<>(records.subList(0, maxCount));
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public boolean[] claimJobs(List<JobRecord> records, List<Long> nextFireTimes, String instanceId) {
+        final boolean[] claimed = new boolean[records.size()];
+        if (records.isEmpty()) {
+            return claimed;
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            int[] counts;
+            try (PreparedStatement ps = conn.prepareStatement("UPDATE " + table
+                    + " SET next_fire_time = ?, last_fire_time = ?, fired_by = ?, version = version + 1 WHERE id = ? AND version = ?")) {
+                for (int i = 0; i < records.size(); i++) {
+                    final JobRecord record = records.get(i);
+                    ps.setLong(1, nextFireTimes.get(i));
+                    ps.setLong(2, record.getNextFireTime());
+                    ps.setString(3, instanceId);
+                    ps.setString(4, record.getId());
+                    ps.setLong(5, record.getVersion());
+                    ps.addBatch();
+                }
+                counts = ps.executeBatch();
+            }
+            for (int i = 0; i < claimed.length; i++) {
+                if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                    // 驱动未返回更新行数时,以记录是否由本实例更新到下一版本为准
+                    final JobRecord record = records.get(i);
+                    final JobRecord current = getJob(conn, record.getId());
+                    claimed[i] = null != current && current.getVersion() == record.getVersion() + 1
+                            && instanceId.equals(current.getFiredBy());
+                } else {
+                    claimed[i] = counts[i] > 0;
+                }
+            }
+            return claimed;
+        } catch (SQLException e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    private JobRecord getJob(Connection conn, String id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT " + COLUMNS + " FROM " + table + " WHERE id = ?")) {
+            ps.setString(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? toRecord(rs) : null;
+            }
+        }
+    }
+
+    private JobRecord toRecord(ResultSet rs) throws SQLException {
+        return new JobRecord(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getString(5), rs.getLong(6));
+    }
+
+    /**
+     * 表是否存在,兼容以大写或小写保存标识符的数据库
+     *
+     * @param metaData 数据库元数据
+     * @return 是否存在
+     */
+    private boolean exists(DatabaseMetaData metaData) throws SQLException {
+        for (String name : new String[]{table, table.toUpperCase(), table.toLowerCase()}) {
+            try (ResultSet rs = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.cron.store;
+
+/**
+ * 任务存储记录
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class JobRecord {
+
+    /**
+     * 任务ID
+     */
+    private final String id;
+    /**
+     * 表达式
+     */
+    private final String pattern;
+    /**
+     * 下次触发时间,-1表示不再触发
+     */
+    private final long nextFireTime;
+    /**
+     * 上次触发时间,未触发过为-1
+     */
+    private final long lastFireTime;
+    /**
+     * 上次认领触发的实例
+     */
+    private final String firedBy;
+    /**
+     * 版本号,每次变更递增,用于认领时的并发控制
+     */
+    private final long version;
+
+    public JobRecord(String id, String pattern, long nextFireTime, long lastFireTime, String firedBy, long version) {
+        this.id = id;
+        this.pattern = pattern;
+        this.nextFireTime = nextFireTime;
+        this.lastFireTime = lastFireTime;
+        this.firedBy = firedBy;
+        this.version = version;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public long getNextFireTime() {
+        return nextFireTime;
+    }
+
+    public long getLastFireTime() {
+        return lastFireTime;
+    }
+
+    public String getFiredBy() {
+        return firedBy;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "JobRecord{id=" + id + ", pattern=" + pattern + ", nextFireTime=" + nextFireTime
+                + ", lastFireTime=" + lastFireTime + ", firedBy=" + firedBy + ", version=" + version + "}";
+    }
+
+}
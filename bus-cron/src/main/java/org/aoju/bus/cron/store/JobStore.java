@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.cron.store;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 任务存储
+ * 保存任务的表达式与下次触发时间,集群中的多个调度器共用同一存储时,
+ * 每次触发只会被一个实例认领并执行,实例重启后从存储中的下次触发时间继续,期间错过的触发按错过触发处理
+ * <p>
+ * 任务本身（{@link org.aoju.bus.cron.factory.Task}）不被存储,各实例仍需以相同的ID调度任务,
+ * 只有调度了该任务的实例才会认领它的触发
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public interface JobStore {
+
+    /**
+     * 保存任务
+     * 任务不存在时新增；已存在且表达式相同时保留原有的下次触发时间,表达式不同时更新表达式与下次触发时间
+     *
+     * @param id           任务ID
+     * @param pattern      表达式
+     * @param nextFireTime 下次触发时间
+     */
+    void storeJob(String id, String pattern, long nextFireTime);
+
+    /**
+     * 移除任务
+     *
+     * @param id 任务ID
+     */
+    void removeJob(String id);
+
+    /**
+     * 获得任务记录
+     *
+     * @param id 任务ID
+     * @return 任务记录, 不存在时返回null
+     */
+    JobRecord getJob(String id);
+
+    /**
+     * 查询给定任务中下次触发时间不晚于给定时间的任务,按下次触发时间先后排列
+     * 只查询调用方调度了的任务,存储中其他任务(如其他服务的任务或已改名的任务)不会占用查询结果
+     *
+     * @param ids         任务ID
+     * @param noLaterThan 时间毫秒数
+     * @param maxCount    最多返回的数量
+     * @return 任务记录
+     */
+    List<JobRecord> selectDueJobs(Collection<String> ids, long noLaterThan, int maxCount);
+
+    /**
+     * 批量认领任务的本次触发
+     * 仅当记录的版本号未变化时将下次触发时间更新为新值,并记录本次触发时间与认领实例
+     *
+     * @param records       查询得到的任务记录
+     * @param nextFireTimes 与记录一一对应的新的下次触发时间
+     * @param instanceId    认领实例
+     * @return 与记录一一对应的认领结果
+     */
+    boolean[] claimJobs(List<JobRecord> records, List<Long> nextFireTimes, String instanceId);
+
+}
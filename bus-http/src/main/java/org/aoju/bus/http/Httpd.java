@@ -33,6 +33,7 @@ import org.aoju.bus.http.metric.CookieJar;
 import org.aoju.bus.http.metric.Dispatcher;
 import org.aoju.bus.http.metric.EventListener;
 import org.aoju.bus.http.metric.Interceptor;
+import org.aoju.bus.http.metric.http.ContentCodings;
 import org.aoju.bus.http.metric.proxy.NullProxySelector;
 import org.aoju.bus.http.secure.Authenticator;
 import org.aoju.bus.http.secure.CertificateChainCleaner;
@@ -175,6 +176,7 @@ public class Httpd implements Cloneable, NewCall.Factory, WebSocket.Factory {
     final EventListener.Factory eventListenerFactory;
     final ProxySelector proxySelector;
     final CookieJar cookieJar;
+    final ContentCodings contentCodings;
     final Cache cache;
     final InternalCache internalCache;
     final SocketFactory socketFactory;
@@ -224,6 +226,7 @@ public class Httpd implements Cloneable, NewCall.Factory, WebSocket.Factory {
         this.eventListenerFactory = builder.eventListenerFactory;
         this.proxySelector = builder.proxySelector;
         this.cookieJar = builder.cookieJar;
+        this.contentCodings = builder.contentCodings;
         this.cache = builder.cache;
         this.internalCache = builder.internalCache;
         this.socketFactory = builder.socketFactory;
@@ -325,6 +328,10 @@ public class Httpd implements Cloneable, NewCall.Factory, WebSocket.Factory {
         return cookieJar;
     }
 
+    public ContentCodings contentCodings() {
+        return contentCodings;
+    }
+
     public Cache cache() {
         return cache;
     }
@@ -417,6 +424,7 @@ public class Httpd implements Cloneable, NewCall.Factory, WebSocket.Factory {
         EventListener.Factory eventListenerFactory;
         ProxySelector proxySelector;
         CookieJar cookieJar;
+        ContentCodings contentCodings;
         Cache cache;
         InternalCache internalCache;
         SocketFactory socketFactory;
@@ -447,6 +455,7 @@ public class Httpd implements Cloneable, NewCall.Factory, WebSocket.Factory {
                 proxySelector = new NullProxySelector();
             }
             cookieJar = CookieJar.NO_COOKIES;
+            contentCodings = new ContentCodings();
             socketFactory = SocketFactory.getDefault();
             hostnameVerifier = OkHostnameVerifier.INSTANCE;
             certificatePinner = CertificatePinner.DEFAULT;
@@ -474,6 +483,7 @@ public class Httpd implements Cloneable, NewCall.Factory, WebSocket.Factory {
             this.eventListenerFactory = httpd.eventListenerFactory;
             this.proxySelector = httpd.proxySelector;
             this.cookieJar = httpd.cookieJar;
+            this.contentCodings = httpd.contentCodings;
             this.internalCache = httpd.internalCache;
             this.cache = httpd.cache;
             this.socketFactory = httpd.socketFactory;
@@ -655,6 +665,18 @@ public class Httpd implements Cloneable, NewCall.Factory, WebSocket.Factory {
             return this;
         }
 
+        /**
+         * 设置用于协商Accept-Encoding、解码响应体及压缩请求体的内容编码注册表.
+         *
+         * @param contentCodings 内容编码
+         * @return 构造器
+         */
+        public Builder contentCodings(ContentCodings contentCodings) {
+            if (contentCodings == null) throw new NullPointerException("contentCodings == null");
+            this.contentCodings = contentCodings;
+            return this;
+        }
+
         /**
          * 设置用于读写缓存的响应的响应缓存.
          *
@@ -28,6 +28,8 @@ import org.aoju.bus.http.Address;
 import org.aoju.bus.http.Builder;
 import org.aoju.bus.http.Route;
 import org.aoju.bus.http.accord.platform.Platform;
+import org.aoju.bus.http.metric.http.Http2Connection;
+import org.aoju.bus.http.metric.http.Http2Options;
 
 import java.lang.ref.Reference;
 import java.net.Socket;
@@ -62,6 +64,10 @@ public final class ConnectionPool {
      */
     private final int maxIdleConnections;
     private final long keepAliveDurationNs;
+    /**
+     * 池中HTTP/2连接的多路复用与流量控制参数
+     */
+    private final Http2Options http2Options;
     boolean cleanupRunning;
     private final Runnable cleanupRunnable = () -> {
         while (true) {
@@ -90,8 +96,15 @@ public final class ConnectionPool {
     }
 
     public ConnectionPool(int maxIdleConnections, long keepAliveDuration, TimeUnit timeUnit) {
+        this(maxIdleConnections, keepAliveDuration, timeUnit, Http2Options.DEFAULT);
+    }
+
+    public ConnectionPool(int maxIdleConnections, long keepAliveDuration, TimeUnit timeUnit,
+                          Http2Options http2Options) {
+        if (http2Options == null) throw new NullPointerException("http2Options == null");
         this.maxIdleConnections = maxIdleConnections;
         this.keepAliveDurationNs = timeUnit.toNanos(keepAliveDuration);
+        this.http2Options = http2Options;
 
         if (keepAliveDuration <= 0) {
             throw new IllegalArgumentException("keepAliveDuration <= 0: " + keepAliveDuration);
@@ -122,6 +135,44 @@ public final class ConnectionPool {
         return connections.size();
     }
 
+    public Http2Options http2Options() {
+        return http2Options;
+    }
+
+    /**
+     * 返回池中HTTP/2连接的数量
+     *
+     * @return 连接数量
+     */
+    public synchronized int multiplexedConnectionCount() {
+        int total = 0;
+        for (RealConnection connection : connections) {
+            if (connection.isMultiplexed()) total++;
+        }
+        return total;
+    }
+
+    /**
+     * 返回池中所有HTTP/2连接上当前打开的流总数
+     *
+     * @return 流数量
+     */
+    public int openStreamCount() {
+        List<Http2Connection> http2Connections = new ArrayList<>();
+        synchronized (this) {
+            for (RealConnection connection : connections) {
+                Http2Connection http2Connection = connection.http2Connection();
+                if (http2Connection != null) http2Connections.add(http2Connection);
+            }
+        }
+        // 在连接池锁之外读取,避免与HTTP/2连接的锁交叉持有
+        int total = 0;
+        for (Http2Connection http2Connection : http2Connections) {
+            total += http2Connection.openStreamCount();
+        }
+        return total;
+    }
+
     /**
      * 返回一个循环连接到{@code address}，如果不存在这样的连接，
      * 则返回null。如果地址尚未被路由，则路由为空.
@@ -196,7 +196,7 @@ public final class RealConnection extends Http2Connection.Listener implements Co
 
         if (http2Connection != null) {
             synchronized (connectionPool) {
-                allocationLimit = http2Connection.maxConcurrentStreams();
+                allocationLimit = allocationLimit(http2Connection);
             }
         }
     }
@@ -304,6 +304,7 @@ public final class RealConnection extends Http2Connection.Listener implements Co
                 .socket(socket, route.address().url().host(), source, sink)
                 .listener(this)
                 .pingIntervalMillis(pingIntervalMillis)
+                .options(connectionPool.http2Options())
                 .build();
         http2Connection.start();
     }
@@ -490,10 +491,12 @@ public final class RealConnection extends Http2Connection.Listener implements Co
 
         // 2. 路由必须共享一个IP地址。这要求我们为两个主机都有一个DNS地址，这只在路由规划之后
         // 才会发生。我们无法合并使用代理的连接，因为代理不会告诉我们原始服务器的IP地址
+        // 开启{@link Http2Options#coalesceAcrossAddresses()}后只要求证书覆盖新主机
         if (route == null) return false;
         if (route.proxy().type() != Proxy.Type.DIRECT) return false;
         if (this.route.proxy().type() != Proxy.Type.DIRECT) return false;
-        if (!this.route.socketAddress().equals(route.socketAddress())) return false;
+        if (!connectionPool.http2Options().coalesceAcrossAddresses()
+                && !this.route.socketAddress().equals(route.socketAddress())) return false;
 
         // 3. 此连接的服务器证书必须覆盖新主机
         if (route.address().hostnameVerifier() != OkHostnameVerifier.INSTANCE) return false;
@@ -606,15 +609,23 @@ public final class RealConnection extends Http2Connection.Listener implements Co
     @Override
     public void onSettings(Http2Connection connection) {
         synchronized (connectionPool) {
-            allocationLimit = connection.maxConcurrentStreams();
+            allocationLimit = allocationLimit(connection);
         }
     }
 
+    private int allocationLimit(Http2Connection connection) {
+        return Math.min(connection.maxConcurrentStreams(), connectionPool.http2Options().maxConcurrentStreams());
+    }
+
     @Override
     public Handshake handshake() {
         return handshake;
     }
 
+    public Http2Connection http2Connection() {
+        return http2Connection;
+    }
+
     public boolean isMultiplexed() {
         return http2Connection != null;
     }
@@ -0,0 +1,423 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.metric;
+
+import org.aoju.bus.core.lang.Symbol;
+import org.aoju.bus.core.math.Histogram;
+import org.aoju.bus.http.*;
+import org.aoju.bus.http.accord.ConnectionPool;
+import org.aoju.bus.logger.Logger;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于{@link EventListener}的调用耗时统计
+ * 按主机与状态类别(2xx、4xx、failed等)记录DNS、连接、TLS、请求写出、首字节和响应体读取耗时,
+ * 同时提供连接池与调度器的实时指标。关闭后{@link #create(NewCall)}直接返回{@link EventListener#NONE}
+ *
+ * <pre>
+ *     CallMetrics metrics = new CallMetrics();
+ *     Httpd httpd = new Httpd.Builder().eventListenerFactory(metrics).build();
+ *     metrics.bind(httpd).logEvery(1, TimeUnit.MINUTES);
+ * </pre>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public final class CallMetrics implements EventListener.Factory {
+
+    private final Map<String, Histogram[]> latencies = new ConcurrentHashMap<>();
+    private final AtomicInteger activeCalls = new AtomicInteger();
+    private volatile boolean enabled = true;
+    private volatile ConnectionPool connectionPool;
+    private volatile Dispatcher dispatcher;
+    private ScheduledExecutorService reporter;
+
+    @Override
+    public EventListener create(NewCall call) {
+        return enabled ? new Recorder(call.request().url().host()) : EventListener.NONE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开启或关闭统计,仅影响此后创建的调用
+     *
+     * @param enabled 是否开启
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 关联客户端的连接池与调度器,用于快照中的池使用率指标
+     *
+     * @param httpd 客户端
+     * @return this
+     */
+    public CallMetrics bind(Httpd httpd) {
+        this.connectionPool = httpd.connectionPool();
+        this.dispatcher = httpd.dispatcher();
+        return this;
+    }
+
+    /**
+     * 清空已记录的耗时
+     */
+    public void reset() {
+        latencies.clear();
+    }
+
+    /**
+     * 返回当前统计的快照
+     *
+     * @return 快照
+     */
+    public Snapshot snapshot() {
+        Map<String, Map<Phase, Histogram.Snapshot>> result = new TreeMap<>();
+        for (Map.Entry<String, Histogram[]> entry : latencies.entrySet()) {
+            Map<Phase, Histogram.Snapshot> phases = new EnumMap<>(Phase.class);
+            for (Phase phase : Phase.values()) {
+                Histogram.Snapshot snapshot = entry.getValue()[phase.ordinal()].snapshot();
+                if (snapshot.count() > 0) {
+                    phases.put(phase, snapshot);
+                }
+            }
+            result.put(entry.getKey(), Collections.unmodifiableMap(phases));
+        }
+
+        ConnectionPool pool = this.connectionPool;
+        Dispatcher dispatcher = this.dispatcher;
+        return new Snapshot(Collections.unmodifiableMap(result),
+                activeCalls.get(),
+                pool != null ? pool.connectionCount() : -1,
+                pool != null ? pool.idleConnectionCount() : -1,
+                dispatcher != null ? dispatcher.runningCallsCount() : -1,
+                dispatcher != null ? dispatcher.queuedCallsCount() : -1);
+    }
+
+    /**
+     * 按固定周期将快照输出到日志
+     *
+     * @param period 周期
+     * @param unit   时间单位
+     * @return this
+     */
+    public synchronized CallMetrics logEvery(long period, TimeUnit unit) {
+        stopLogging();
+        reporter = Executors.newSingleThreadScheduledExecutor(Builder.threadFactory("Httpd CallMetrics", true));
+        reporter.scheduleAtFixedRate(() -> {
+            try {
+                Logger.info("{}", snapshot());
+            } catch (RuntimeException e) {
+                Logger.error(e.getMessage(), e);
+            }
+        }, period, period, unit);
+        return this;
+    }
+
+    /**
+     * 停止周期日志输出
+     */
+    public synchronized void stopLogging() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    private void record(String host, String status, long[] durations) {
+        Histogram[] histograms = latencies.computeIfAbsent(host + Symbol.SPACE + status, key -> {
+            Histogram[] array = new Histogram[Phase.values().length];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = new Histogram();
+            }
+            return array;
+        });
+        for (int i = 0; i < durations.length; i++) {
+            if (durations[i] >= 0) {
+                histograms[i].record(durations[i]);
+            }
+        }
+    }
+
+    /**
+     * 调用的各个阶段
+     */
+    public enum Phase {
+        /**
+         * DNS查找
+         */
+        DNS,
+        /**
+         * 建立套接字连接,包含TLS握手
+         */
+        CONNECT,
+        /**
+         * TLS握手
+         */
+        TLS,
+        /**
+         * 写出请求头与请求体
+         */
+        REQUEST_WRITE,
+        /**
+         * 请求写出完成到响应头接收完成
+         */
+        TTFB,
+        /**
+         * 读取响应体
+         */
+        BODY_READ,
+        /**
+         * 整个调用
+         */
+        CALL
+    }
+
+    /**
+     * 统计快照
+     */
+    public static final class Snapshot {
+
+        private final Map<String, Map<Phase, Histogram.Snapshot>> latencies;
+        private final int activeCalls;
+        private final int connectionCount;
+        private final int idleConnectionCount;
+        private final int runningCalls;
+        private final int queuedCalls;
+
+        Snapshot(Map<String, Map<Phase, Histogram.Snapshot>> latencies, int activeCalls,
+                 int connectionCount, int idleConnectionCount, int runningCalls, int queuedCalls) {
+            this.latencies = latencies;
+            this.activeCalls = activeCalls;
+            this.connectionCount = connectionCount;
+            this.idleConnectionCount = idleConnectionCount;
+            this.runningCalls = runningCalls;
+            this.queuedCalls = queuedCalls;
+        }
+
+        /**
+         * @return 以"主机 状态类别"为键的各阶段耗时(纳秒)
+         */
+        public Map<String, Map<Phase, Histogram.Snapshot>> latencies() {
+            return latencies;
+        }
+
+        public int activeCalls() {
+            return activeCalls;
+        }
+
+        /**
+         * @return 连接池中的连接总数,未绑定时为-1
+         */
+        public int connectionCount() {
+            return connectionCount;
+        }
+
+        /**
+         * @return 连接池中的空闲连接数,未绑定时为-1
+         */
+        public int idleConnectionCount() {
+            return idleConnectionCount;
+        }
+
+        /**
+         * @return 连接池使用率,未绑定或没有连接时为0
+         */
+        public double poolUtilization() {
+            return connectionCount <= 0 ? 0 : (double) (connectionCount - idleConnectionCount) / connectionCount;
+        }
+
+        public int runningCalls() {
+            return runningCalls;
+        }
+
+        public int queuedCalls() {
+            return queuedCalls;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("CallMetrics{activeCalls=").append(activeCalls)
+                    .append(", connections=").append(connectionCount)
+                    .append(", idleConnections=").append(idleConnectionCount)
+                    .append(", runningCalls=").append(runningCalls)
+                    .append(", queuedCalls=").append(queuedCalls)
+                    .append('}');
+            for (Map.Entry<String, Map<Phase, Histogram.Snapshot>> entry : latencies.entrySet()) {
+                builder.append(Symbol.LF).append(entry.getKey());
+                for (Map.Entry<Phase, Histogram.Snapshot> phase : entry.getValue().entrySet()) {
+                    builder.append(Symbol.LF).append(Symbol.HT).append(phase.getKey())
+                            .append(Symbol.HT).append(phase.getValue());
+                }
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * 单次调用的记录器,只在所属调用的线程上被访问,阶段耗时在调用结束时一次性写入直方图
+     */
+    private final class Recorder extends EventListener {
+
+        private final String host;
+        private final long[] durations = new long[Phase.values().length];
+        private long callStart;
+        private long dnsStart;
+        private long connectStart;
+        private long secureConnectStart;
+        private long requestStart;
+        private long requestEnd;
+        private long bodyStart;
+        private int code = -1;
+
+        Recorder(String host) {
+            this.host = host;
+            Arrays.fill(durations, -1);
+        }
+
+        private void add(Phase phase, long start) {
+            if (start == 0) {
+                return;
+            }
+            int i = phase.ordinal();
+            long elapsed = System.nanoTime() - start;
+            durations[i] = durations[i] < 0 ? elapsed : durations[i] + elapsed;
+        }
+
+        @Override
+        public void callStart(NewCall call) {
+            activeCalls.incrementAndGet();
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(NewCall call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(NewCall call, String domainName, List<InetAddress> inetAddressList) {
+            add(Phase.DNS, dnsStart);
+        }
+
+        @Override
+        public void connectStart(NewCall call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(NewCall call) {
+            secureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(NewCall call, Handshake handshake) {
+            add(Phase.TLS, secureConnectStart);
+        }
+
+        @Override
+        public void connectEnd(NewCall call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            add(Phase.CONNECT, connectStart);
+        }
+
+        @Override
+        public void connectFailed(NewCall call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                                  Protocol protocol, IOException ioe) {
+            add(Phase.CONNECT, connectStart);
+        }
+
+        @Override
+        public void requestHeadersStart(NewCall call) {
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void requestHeadersEnd(NewCall call, Request request) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(NewCall call, long byteCount) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(NewCall call) {
+            if (requestStart != 0 && requestEnd != 0) {
+                int i = Phase.REQUEST_WRITE.ordinal();
+                long elapsed = requestEnd - requestStart;
+                durations[i] = durations[i] < 0 ? elapsed : durations[i] + elapsed;
+                requestStart = 0;
+            }
+        }
+
+        @Override
+        public void responseHeadersEnd(NewCall call, Response response) {
+            add(Phase.TTFB, requestEnd);
+            requestEnd = 0;
+            code = response.code();
+        }
+
+        @Override
+        public void responseBodyStart(NewCall call) {
+            bodyStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseBodyEnd(NewCall call, long byteCount) {
+            add(Phase.BODY_READ, bodyStart);
+        }
+
+        @Override
+        public void callEnd(NewCall call) {
+            finish(code < 0 ? "failed" : (code / 100) + "xx");
+        }
+
+        @Override
+        public void callFailed(NewCall call, IOException ioe) {
+            finish("failed");
+        }
+
+        private void finish(String status) {
+            activeCalls.decrementAndGet();
+            add(Phase.CALL, callStart);
+            record(host, status, durations);
+        }
+    }
+
+}
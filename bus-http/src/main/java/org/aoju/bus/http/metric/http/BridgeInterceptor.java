@@ -24,7 +24,8 @@
 package org.aoju.bus.http.metric.http;
 
 import org.aoju.bus.Version;
-import org.aoju.bus.core.io.GzipSource;
+import org.aoju.bus.core.io.Buffer;
+import org.aoju.bus.core.io.Source;
 import org.aoju.bus.core.lang.Header;
 import org.aoju.bus.core.lang.MediaType;
 import org.aoju.bus.core.lang.Symbol;
@@ -49,9 +50,15 @@ import java.util.List;
 public final class BridgeInterceptor implements Interceptor {
 
     private final CookieJar cookieJar;
+    private final ContentCodings contentCodings;
 
     public BridgeInterceptor(CookieJar cookieJar) {
+        this(cookieJar, new ContentCodings());
+    }
+
+    public BridgeInterceptor(CookieJar cookieJar, ContentCodings contentCodings) {
         this.cookieJar = cookieJar;
+        this.contentCodings = contentCodings;
     }
 
     @Override
@@ -60,6 +67,15 @@ public final class BridgeInterceptor implements Interceptor {
         Request.Builder requestBuilder = userRequest.newBuilder();
 
         RequestBody body = userRequest.body();
+        if (body != null && userRequest.header(Header.CONTENT_ENCODING) == null) {
+            ContentCoding coding = contentCodings.requestCoding(body.contentLength());
+            if (coding != null) {
+                body = encode(coding, body);
+                requestBuilder.header(Header.CONTENT_ENCODING, coding.name());
+                requestBuilder.method(userRequest.method(), body);
+            }
+        }
+
         if (body != null) {
             MediaType contentType = body.contentType();
             if (contentType != null) {
@@ -84,12 +100,11 @@ public final class BridgeInterceptor implements Interceptor {
             requestBuilder.header(Header.CONNECTION, Header.KEEP_ALIVE);
         }
 
-        // If we add an "Accept-Encoding: gzip" header field we're responsible for also decompressing
-        // the transfer stream.
-        boolean transparentGzip = false;
+        // 如果添加了Accept-Encoding请求头,那么也需要负责解码响应体
+        boolean transparentDecoding = false;
         if (userRequest.header(Header.ACCEPT_ENCODING) == null && userRequest.header("Range") == null) {
-            transparentGzip = true;
-            requestBuilder.header(Header.ACCEPT_ENCODING, "gzip");
+            transparentDecoding = true;
+            requestBuilder.header(Header.ACCEPT_ENCODING, contentCodings.acceptEncoding());
         }
 
         List<Cookie> cookies = cookieJar.loadForRequest(userRequest.url());
@@ -108,10 +123,11 @@ public final class BridgeInterceptor implements Interceptor {
         Response.Builder responseBuilder = networkResponse.newBuilder()
                 .request(userRequest);
 
-        if (transparentGzip
-                && "gzip".equalsIgnoreCase(networkResponse.header(Header.CONTENT_ENCODING))
-                && HttpHeaders.hasBody(networkResponse)) {
-            GzipSource responseBody = new GzipSource(networkResponse.body().source());
+        ContentCoding coding = transparentDecoding
+                ? contentCodings.get(networkResponse.header(Header.CONTENT_ENCODING))
+                : null;
+        if (coding != null && HttpHeaders.hasBody(networkResponse)) {
+            Source responseBody = coding.decode(networkResponse.body().source());
             Headers strippedHeaders = networkResponse.headers().newBuilder()
                     .removeAll(Header.CONTENT_ENCODING)
                     .removeAll(Header.CONTENT_LENGTH)
@@ -124,6 +140,14 @@ public final class BridgeInterceptor implements Interceptor {
         return responseBuilder.build();
     }
 
+    private RequestBody encode(ContentCoding coding, RequestBody body) throws IOException {
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        Buffer encoded = new Buffer();
+        coding.encode(buffer, encoded);
+        return RequestBody.create(body.contentType(), encoded.readByteString());
+    }
+
     private String cookieHeader(List<Cookie> cookies) {
         StringBuilder cookieHeader = new StringBuilder();
         for (int i = 0, size = cookies.size(); i < size; i++) {
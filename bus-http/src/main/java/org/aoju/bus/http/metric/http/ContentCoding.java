@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.metric.http;
+
+import org.aoju.bus.core.io.Buffer;
+import org.aoju.bus.core.io.BufferSource;
+import org.aoju.bus.core.io.Source;
+
+import java.io.IOException;
+
+/**
+ * HTTP内容编码(Content-Encoding),如gzip、deflate
+ * 可通过{@link ContentCodings#register(ContentCoding)}注册brotli(br)、zstd等编码,
+ * 例如借助第三方库的输入流：{@code IoUtils.source(new BrotliInputStream(source.inputStream()))}
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public interface ContentCoding {
+
+    /**
+     * 编码名称,对应Content-Encoding/Accept-Encoding中的值
+     *
+     * @return 名称
+     */
+    String name();
+
+    /**
+     * 返回解码后的数据源,关闭返回的数据源时应同时关闭{@code source}
+     *
+     * @param source 编码后的数据
+     * @return 解码后的数据
+     * @throws IOException 异常
+     */
+    Source decode(BufferSource source) throws IOException;
+
+    /**
+     * 是否支持编码,只有支持编码的实现才能用于{@link ContentCodings#compressRequests(String, long)}
+     *
+     * @return 实现了{@link #encode(Buffer, Buffer)}时返回true
+     */
+    default boolean canEncode() {
+        return false;
+    }
+
+    /**
+     * 将{@code source}中的全部数据编码后写入{@code sink}
+     *
+     * @param source 原始数据
+     * @param sink   编码后的数据
+     * @throws IOException 异常
+     */
+    default void encode(Buffer source, Buffer sink) throws IOException {
+        throw new UnsupportedOperationException("encode is not supported by " + name());
+    }
+
+}
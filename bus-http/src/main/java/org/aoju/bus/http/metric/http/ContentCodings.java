@@ -0,0 +1,302 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.metric.http;
+
+import org.aoju.bus.core.io.*;
+import org.aoju.bus.core.lang.Symbol;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 内容编码注册表,由{@link BridgeInterceptor}用于协商Accept-Encoding、解码响应体以及可选地压缩请求体
+ * 内置的gzip与deflate编码复用池化的{@link Inflater}/{@link Deflater},避免每个响应都创建新的本地压缩流
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public final class ContentCodings {
+
+    /**
+     * 每种池化对象最多保留的实例数
+     */
+    private static final int MAX_POOLED = 32;
+
+    private static final BlockingQueue<Inflater> GZIP_INFLATERS = new ArrayBlockingQueue<>(MAX_POOLED);
+    private static final BlockingQueue<Inflater> ZLIB_INFLATERS = new ArrayBlockingQueue<>(MAX_POOLED);
+    private static final BlockingQueue<Inflater> RAW_INFLATERS = new ArrayBlockingQueue<>(MAX_POOLED);
+    private static final BlockingQueue<Deflater> GZIP_DEFLATERS = new ArrayBlockingQueue<>(MAX_POOLED);
+    private static final BlockingQueue<Deflater> ZLIB_DEFLATERS = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    /**
+     * gzip编码
+     */
+    public static final ContentCoding GZIP = new ContentCoding() {
+        @Override
+        public String name() {
+            return "gzip";
+        }
+
+        @Override
+        public boolean canEncode() {
+            return true;
+        }
+
+        @Override
+        public Source decode(BufferSource source) {
+            Inflater inflater = inflater(GZIP_INFLATERS, true);
+            return new PooledSource(new GzipSource(source, inflater), source, inflater, GZIP_INFLATERS);
+        }
+
+        @Override
+        public void encode(Buffer source, Buffer sink) throws IOException {
+            CRC32 crc = new CRC32();
+            for (Segment s = source.head; s != null; s = s.next == source.head ? null : s.next) {
+                crc.update(s.data, s.pos, s.limit - s.pos);
+            }
+            int size = (int) source.size;
+            sink.writeShort(0x1f8b);
+            sink.writeByte(8);
+            sink.writeByte(0);
+            sink.writeInt(0);
+            sink.writeByte(0);
+            sink.writeByte(0);
+            deflate(GZIP_DEFLATERS, true, source, sink);
+            sink.writeIntLe((int) crc.getValue());
+            sink.writeIntLe(size);
+        }
+    };
+
+    /**
+     * deflate编码,兼容zlib封装与部分服务端输出的原始deflate数据
+     */
+    public static final ContentCoding DEFLATE = new ContentCoding() {
+        @Override
+        public String name() {
+            return "deflate";
+        }
+
+        @Override
+        public boolean canEncode() {
+            return true;
+        }
+
+        @Override
+        public Source decode(BufferSource source) throws IOException {
+            BlockingQueue<Inflater> pool = isZlibHeader(source) ? ZLIB_INFLATERS : RAW_INFLATERS;
+            Inflater inflater = inflater(pool, pool == RAW_INFLATERS);
+            return new PooledSource(new InflaterSource(source, inflater), source, inflater, pool);
+        }
+
+        @Override
+        public void encode(Buffer source, Buffer sink) throws IOException {
+            deflate(ZLIB_DEFLATERS, false, source, sink);
+        }
+    };
+
+    private volatile Map<String, ContentCoding> codings = Collections.emptyMap();
+    private volatile String acceptEncoding;
+    private volatile ContentCoding requestCoding;
+    private volatile long minimumRequestSize = -1;
+
+    /**
+     * 创建包含gzip与deflate的注册表
+     */
+    public ContentCodings() {
+        register(GZIP);
+        register(DEFLATE);
+    }
+
+    private static Inflater inflater(BlockingQueue<Inflater> pool, boolean nowrap) {
+        Inflater inflater = pool.poll();
+        return inflater != null ? inflater : new Inflater(nowrap);
+    }
+
+    private static void deflate(BlockingQueue<Deflater> pool, boolean nowrap, Buffer source, Buffer sink)
+            throws IOException {
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap);
+        }
+        try {
+            while (source.size > 0) {
+                Segment head = source.head;
+                int toDeflate = head.limit - head.pos;
+                deflater.setInput(head.data, head.pos, toDeflate);
+                while (!deflater.needsInput()) {
+                    drain(deflater, sink);
+                }
+                source.skip(toDeflate);
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                drain(deflater, sink);
+            }
+        } finally {
+            deflater.reset();
+            if (!pool.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    private static void drain(Deflater deflater, Buffer sink) {
+        Segment tail = sink.writableSegment(1);
+        int deflated = deflater.deflate(tail.data, tail.limit, Segment.SIZE - tail.limit);
+        tail.limit += deflated;
+        sink.size += deflated;
+    }
+
+    private static boolean isZlibHeader(BufferSource source) throws IOException {
+        if (!source.request(2)) {
+            return true;
+        }
+        int cmf = source.buffer().getByte(0) & 0xff;
+        int flg = source.buffer().getByte(1) & 0xff;
+        return (cmf & 0x0f) == 8 && ((cmf << 8) | flg) % 31 == 0;
+    }
+
+    /**
+     * 注册编码,同名编码将被替换
+     *
+     * @param coding 编码
+     * @return this
+     */
+    public synchronized ContentCodings register(ContentCoding coding) {
+        if (coding == null) throw new NullPointerException("coding == null");
+        Map<String, ContentCoding> map = new LinkedHashMap<>(codings);
+        map.put(coding.name().toLowerCase(), coding);
+        codings = Collections.unmodifiableMap(map);
+        acceptEncoding = String.join(Symbol.COMMA + Symbol.SPACE, map.keySet());
+        return this;
+    }
+
+    /**
+     * 对不小于{@code minimumSize}字节且长度已知的请求体使用给定编码压缩
+     *
+     * @param name        已注册且{@link ContentCoding#canEncode()}为true的编码名称
+     * @param minimumSize 最小字节数
+     * @return this
+     */
+    public synchronized ContentCodings compressRequests(String name, long minimumSize) {
+        ContentCoding coding = get(name);
+        if (coding == null) throw new IllegalArgumentException("unknown coding: " + name);
+        if (!coding.canEncode()) throw new IllegalArgumentException("coding does not support encode: " + name);
+        if (minimumSize < 0) throw new IllegalArgumentException("minimumSize < 0: " + minimumSize);
+        this.requestCoding = coding;
+        this.minimumRequestSize = minimumSize;
+        return this;
+    }
+
+    /**
+     * 返回名称对应的编码
+     *
+     * @param name 名称,大小写不敏感
+     * @return 编码, 未注册时返回null
+     */
+    public ContentCoding get(String name) {
+        return name == null ? null : codings.get(name.trim().toLowerCase());
+    }
+
+    /**
+     * @return 发送给服务端的Accept-Encoding值
+     */
+    public String acceptEncoding() {
+        return acceptEncoding;
+    }
+
+    /**
+     * 返回请求体应使用的编码
+     *
+     * @param contentLength 请求体长度
+     * @return 编码, 不需要压缩时返回null
+     */
+    public ContentCoding requestCoding(long contentLength) {
+        ContentCoding coding = this.requestCoding;
+        return coding != null && contentLength >= minimumRequestSize ? coding : null;
+    }
+
+    /**
+     * 在读取完毕或关闭时将解压器归还到池中的数据源
+     * 解压器归还后不再访问被包装的解压流,而是直接关闭原始数据源
+     */
+    private static final class PooledSource extends DelegateSource {
+
+        private final Source upstream;
+        private final Inflater inflater;
+        private final BlockingQueue<Inflater> pool;
+        private boolean released;
+
+        PooledSource(Source delegate, Source upstream, Inflater inflater, BlockingQueue<Inflater> pool) {
+            super(delegate);
+            this.upstream = upstream;
+            this.inflater = inflater;
+            this.pool = pool;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            if (released) {
+                return -1;
+            }
+            long read;
+            try {
+                read = super.read(sink, byteCount);
+            } catch (IOException | RuntimeException e) {
+                release();
+                throw e;
+            }
+            if (read == -1) {
+                release();
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            release();
+            upstream.close();
+        }
+
+        private void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            inflater.reset();
+            if (!pool.offer(inflater)) {
+                inflater.end();
+            }
+        }
+    }
+
+}
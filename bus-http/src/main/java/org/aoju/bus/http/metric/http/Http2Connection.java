@@ -46,6 +46,8 @@ import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 到远程对等点的套接字连接。连接主机可以发送和接收数据流.
@@ -97,6 +99,24 @@ public final class Http2Connection implements Closeable {
      * 确保推送承诺回调事件按顺序发送到每个流
      */
     private final ExecutorService pushExecutor;
+    /**
+     * 异步写出的控制帧(WINDOW_UPDATE、RST_STREAM)共享一次刷新
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    /**
+     * 本端的连接级接收窗口
+     */
+    final int connectionWindowSize;
+    /**
+     * 因连接级或流级发送窗口耗尽而等待的次数
+     */
+    final AtomicLong connectionFlowControlStalls = new AtomicLong();
+    final AtomicLong streamFlowControlStalls = new AtomicLong();
+    /**
+     * 本端创建的流总数与同时打开的流的峰值
+     */
+    long streamCount;
+    int peakOpenStreamCount;
     int lastGoodStreamId;
     int nextStreamId;
     boolean shutdown;
@@ -127,8 +147,9 @@ public final class Http2Connection implements Closeable {
         }
 
         if (builder.client) {
-            settings.set(Http.INITIAL_WINDOW_SIZE, CLIENT_WINDOW_SIZE);
+            settings.set(Http.INITIAL_WINDOW_SIZE, builder.initialWindowSize);
         }
+        connectionWindowSize = builder.client ? builder.connectionWindowSize : Http.DEFAULT_INITIAL_WINDOW_SIZE;
 
         hostname = builder.hostname;
 
@@ -173,9 +194,51 @@ public final class Http2Connection implements Closeable {
         return peerSettings.getMaxConcurrentStreams(Integer.MAX_VALUE);
     }
 
+    /**
+     * @return 本端创建的流总数
+     */
+    public synchronized long streamCount() {
+        return streamCount;
+    }
+
+    /**
+     * @return 同时打开的流的峰值
+     */
+    public synchronized int peakOpenStreamCount() {
+        return peakOpenStreamCount;
+    }
+
+    /**
+     * @return 因连接级发送窗口耗尽而阻塞写入的次数
+     */
+    public long connectionFlowControlStalls() {
+        return connectionFlowControlStalls.get();
+    }
+
+    /**
+     * @return 因流级发送窗口耗尽而阻塞写入的次数
+     */
+    public long streamFlowControlStalls() {
+        return streamFlowControlStalls.get();
+    }
+
+    /**
+     * @return 已写出的帧数
+     */
+    public long frameCount() {
+        return writer.frameCount();
+    }
+
+    /**
+     * @return 底层套接字的刷新次数
+     */
+    public long flushCount() {
+        return writer.flushCount();
+    }
+
     synchronized void updateConnectionFlowControl(long read) {
         unacknowledgedBytesRead += read;
-        if (unacknowledgedBytesRead >= settings.getInitialWindowSize() / 2) {
+        if (unacknowledgedBytesRead >= connectionWindowSize / 2) {
             writeWindowUpdateLater(0, unacknowledgedBytesRead);
             unacknowledgedBytesRead = 0;
         }
@@ -222,7 +285,9 @@ public final class Http2Connection implements Closeable {
                 flushHeaders = !out || bytesLeftInWriteWindow == 0L || stream.bytesLeftInWriteWindow == 0L;
                 if (stream.isOpen()) {
                     streams.put(streamId, stream);
+                    peakOpenStreamCount = Math.max(peakOpenStreamCount, streams.size());
                 }
+                streamCount++;
             }
             if (associatedStreamId == 0) {
                 writer.synStream(outFinished, streamId, associatedStreamId, requestHeaders);
@@ -267,8 +332,20 @@ public final class Http2Connection implements Closeable {
 
         while (byteCount > 0) {
             int toWrite;
+            // 即将因连接窗口等待时先输出已缓冲的帧,对端收到后才会更新窗口
+            boolean stalled;
+            synchronized (Http2Connection.this) {
+                stalled = bytesLeftInWriteWindow <= 0;
+            }
+            if (stalled) {
+                writer.flushPending();
+            }
             synchronized (Http2Connection.this) {
                 try {
+                    // 每次进入等待计一次阻塞,不计虚假唤醒和其他流引起的唤醒
+                    if (bytesLeftInWriteWindow <= 0) {
+                        connectionFlowControlStalls.incrementAndGet();
+                    }
                     while (bytesLeftInWriteWindow <= 0) {
                         if (!streams.containsKey(streamId)) {
                             throw new IOException("stream closed");
@@ -296,7 +373,8 @@ public final class Http2Connection implements Closeable {
                 @Override
                 public void execute() {
                     try {
-                        writeSynReset(streamId, errorCode);
+                        writer.rstStream(streamId, errorCode, false);
+                        scheduleFlush();
                     } catch (IOException e) {
                         failConnection();
                     }
@@ -318,7 +396,8 @@ public final class Http2Connection implements Closeable {
                         @Override
                         public void execute() {
                             try {
-                                writer.windowUpdate(streamId, unacknowledgedBytesRead);
+                                writer.windowUpdate(streamId, unacknowledgedBytesRead, false);
+                                scheduleFlush();
                             } catch (IOException e) {
                                 failConnection();
                             }
@@ -329,6 +408,30 @@ public final class Http2Connection implements Closeable {
         }
     }
 
+    /**
+     * 在写线程上安排一次刷新。已排队的控制帧会先于刷新任务执行,从而合并为一次套接字写入
+     */
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            writerExecutor.execute(new NamedRunnable("Httpd %s Flush", hostname) {
+                @Override
+                public void execute() {
+                    flushScheduled.set(false);
+                    try {
+                        writer.flush();
+                    } catch (IOException e) {
+                        failConnection();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            flushScheduled.set(false);
+        }
+    }
+
     void writePing(boolean reply, int payload1, int payload2) {
         if (!reply) {
             boolean failedDueToMissingPong;
@@ -364,6 +467,15 @@ public final class Http2Connection implements Closeable {
         writer.flush();
     }
 
+    /**
+     * 仅当存在未刷新的帧时刷新
+     *
+     * @throws IOException 异常
+     */
+    void flushPending() throws IOException {
+        writer.flushPending();
+    }
+
     public void shutdown(ErrorCode statusCode) throws IOException {
         synchronized (writer) {
             int lastGoodStreamId;
@@ -446,9 +558,8 @@ public final class Http2Connection implements Closeable {
         if (sendConnectionPreface) {
             writer.connectionPreface();
             writer.settings(settings);
-            int windowSize = settings.getInitialWindowSize();
-            if (windowSize != Http.DEFAULT_INITIAL_WINDOW_SIZE) {
-                writer.windowUpdate(0, windowSize - Http.DEFAULT_INITIAL_WINDOW_SIZE);
+            if (connectionWindowSize != Http.DEFAULT_INITIAL_WINDOW_SIZE) {
+                writer.windowUpdate(0, connectionWindowSize - Http.DEFAULT_INITIAL_WINDOW_SIZE);
             }
         }
         new Thread(readerRunnable).start();
@@ -460,7 +571,7 @@ public final class Http2Connection implements Closeable {
                 if (shutdown) {
                     throw new RevisedException();
                 }
-                settings.merge(settings);
+                this.settings.merge(settings);
             }
             writer.settings(settings);
         }
@@ -576,6 +687,8 @@ public final class Http2Connection implements Closeable {
         PushObserver pushObserver = PushObserver.CANCEL;
         boolean client;
         int pingIntervalMillis;
+        int initialWindowSize = CLIENT_WINDOW_SIZE;
+        int connectionWindowSize = CLIENT_WINDOW_SIZE;
 
         /**
          * @param client 如果该对等方发起连接，则为;如果该对等点接受了连接，则为false.
@@ -613,6 +726,12 @@ public final class Http2Connection implements Closeable {
             return this;
         }
 
+        public Builder options(Http2Options options) {
+            this.initialWindowSize = options.initialWindowSize();
+            this.connectionWindowSize = options.connectionWindowSize();
+            return this;
+        }
+
         public Http2Connection build() {
             return new Http2Connection(this);
         }
@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.http.metric.http;
+
+import org.aoju.bus.core.lang.Http;
+
+/**
+ * HTTP/2连接的多路复用与流量控制参数,通过{@link org.aoju.bus.http.accord.ConnectionPool}作用于池中的所有连接
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public final class Http2Options {
+
+    /**
+     * 默认参数：16MB的流与连接接收窗口,不额外限制并发流,仅在IP地址相同时合并连接
+     */
+    public static final Http2Options DEFAULT = new Builder().build();
+
+    private final int initialWindowSize;
+    private final int connectionWindowSize;
+    private final int maxConcurrentStreams;
+    private final boolean coalesceAcrossAddresses;
+
+    Http2Options(Builder builder) {
+        this.initialWindowSize = builder.initialWindowSize;
+        this.connectionWindowSize = builder.connectionWindowSize;
+        this.maxConcurrentStreams = builder.maxConcurrentStreams;
+        this.coalesceAcrossAddresses = builder.coalesceAcrossAddresses;
+    }
+
+    /**
+     * @return 每个流的初始接收窗口(SETTINGS_INITIAL_WINDOW_SIZE)
+     */
+    public int initialWindowSize() {
+        return initialWindowSize;
+    }
+
+    /**
+     * @return 整个连接的接收窗口
+     */
+    public int connectionWindowSize() {
+        return connectionWindowSize;
+    }
+
+    /**
+     * @return 客户端在单个连接上同时打开的最大流数,实际值不超过对端的SETTINGS_MAX_CONCURRENT_STREAMS
+     */
+    public int maxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    /**
+     * @return 证书覆盖新主机时,是否允许在解析到不同IP地址的主机之间复用连接
+     */
+    public boolean coalesceAcrossAddresses() {
+        return coalesceAcrossAddresses;
+    }
+
+    public Builder newBuilder() {
+        return new Builder(this);
+    }
+
+    public static class Builder {
+
+        int initialWindowSize = Http2Connection.CLIENT_WINDOW_SIZE;
+        int connectionWindowSize = Http2Connection.CLIENT_WINDOW_SIZE;
+        int maxConcurrentStreams = Integer.MAX_VALUE;
+        boolean coalesceAcrossAddresses;
+
+        public Builder() {
+        }
+
+        Builder(Http2Options options) {
+            this.initialWindowSize = options.initialWindowSize;
+            this.connectionWindowSize = options.connectionWindowSize;
+            this.maxConcurrentStreams = options.maxConcurrentStreams;
+            this.coalesceAcrossAddresses = options.coalesceAcrossAddresses;
+        }
+
+        public Builder initialWindowSize(int initialWindowSize) {
+            if (initialWindowSize < 1) {
+                throw new IllegalArgumentException("initialWindowSize < 1: " + initialWindowSize);
+            }
+            this.initialWindowSize = initialWindowSize;
+            return this;
+        }
+
+        public Builder connectionWindowSize(int connectionWindowSize) {
+            if (connectionWindowSize < Http.DEFAULT_INITIAL_WINDOW_SIZE) {
+                throw new IllegalArgumentException("connectionWindowSize < "
+                        + Http.DEFAULT_INITIAL_WINDOW_SIZE + ": " + connectionWindowSize);
+            }
+            this.connectionWindowSize = connectionWindowSize;
+            return this;
+        }
+
+        public Builder maxConcurrentStreams(int maxConcurrentStreams) {
+            if (maxConcurrentStreams < 1) {
+                throw new IllegalArgumentException("maxConcurrentStreams < 1: " + maxConcurrentStreams);
+            }
+            this.maxConcurrentStreams = maxConcurrentStreams;
+            return this;
+        }
+
+        /**
+         * 允许合并证书同样有效、但解析到不同IP地址的主机的连接(RFC 7540 9.1.1),
+         * 适用于同一证书覆盖大量子域名的服务端集群
+         *
+         * @param coalesceAcrossAddresses 是否允许
+         * @return 构造器
+         */
+        public Builder coalesceAcrossAddresses(boolean coalesceAcrossAddresses) {
+            this.coalesceAcrossAddresses = coalesceAcrossAddresses;
+            return this;
+        }
+
+        public Http2Options build() {
+            return new Http2Options(this);
+        }
+    }
+
+}
@@ -525,10 +525,21 @@ public final class Http2Stream {
         }
 
         private void emitFrame(boolean outFinished) throws IOException {
+            // 即将因流量控制等待时先输出已缓冲的帧,对端收到后才会更新窗口
+            boolean stalled;
+            synchronized (Http2Stream.this) {
+                stalled = bytesLeftInWriteWindow <= 0 && !finished && !closed && errorCode == null;
+            }
+            if (stalled) {
+                connection.flushPending();
+            }
             long toWrite;
             synchronized (Http2Stream.this) {
                 writeTimeout.enter();
                 try {
+                    if (bytesLeftInWriteWindow <= 0 && !finished && !closed && errorCode == null) {
+                        connection.streamFlowControlStalls.incrementAndGet();
+                    }
                     while (bytesLeftInWriteWindow <= 0 && !finished && !closed && errorCode == null) {
                         waitForIo();
                     }
@@ -555,10 +566,11 @@ public final class Http2Stream {
             synchronized (Http2Stream.this) {
                 checkOutNotClosed();
             }
+            // 缓冲的数据全部成帧后统一刷新一次
             while (sendBuffer.size() > 0) {
                 emitFrame(false);
-                connection.flush();
             }
+            connection.flushPending();
         }
 
         @Override
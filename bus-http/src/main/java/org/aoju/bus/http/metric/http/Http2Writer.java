@@ -52,6 +52,15 @@ final class Http2Writer implements Closeable {
      */
     private int maxFrameSize;
     private boolean closed;
+    /**
+     * 已写出的帧数与刷新次数,二者之比即每次刷新合并的帧数
+     */
+    private long frameCount;
+    private long flushCount;
+    /**
+     * 最近一次刷新时的帧数
+     */
+    private long flushedFrameCount;
 
     Http2Writer(BufferSink sink, boolean client) {
         this.sink = sink;
@@ -74,7 +83,7 @@ final class Http2Writer implements Closeable {
             Logger.warn(StringUtils.format(">> CONNECTION %s", Http2.CONNECTION_PREFACE.hex()));
         }
         sink.write(Http2.CONNECTION_PREFACE.toByteArray());
-        sink.flush();
+        flushSink();
     }
 
     public synchronized void applyAndAckSettings(Settings peerSettings) throws IOException {
@@ -88,7 +97,7 @@ final class Http2Writer implements Closeable {
         byte flags = Http2.FLAG_ACK;
         int streamId = 0;
         frameHeader(streamId, length, type, flags);
-        sink.flush();
+        flushSink();
     }
 
     /**
@@ -122,7 +131,19 @@ final class Http2Writer implements Closeable {
 
     public synchronized void flush() throws IOException {
         if (closed) throw new IOException("closed");
-        sink.flush();
+        flushSink();
+    }
+
+    /**
+     * 仅当上次刷新后写入过帧时刷新,用于批量成帧后以及因流量控制等待前输出已缓冲的帧
+     *
+     * @throws IOException 异常
+     */
+    synchronized void flushPending() throws IOException {
+        if (closed) throw new IOException("closed");
+        if (frameCount != flushedFrameCount) {
+            flushSink();
+        }
     }
 
     public synchronized void synStream(boolean outFinished, int streamId,
@@ -145,6 +166,11 @@ final class Http2Writer implements Closeable {
 
     public synchronized void rstStream(int streamId, ErrorCode errorCode)
             throws IOException {
+        rstStream(streamId, errorCode, true);
+    }
+
+    synchronized void rstStream(int streamId, ErrorCode errorCode, boolean flush)
+            throws IOException {
         if (closed) throw new IOException("closed");
         if (errorCode.httpCode == -1) throw new IllegalArgumentException();
 
@@ -153,7 +179,7 @@ final class Http2Writer implements Closeable {
         byte flags = Http2.FLAG_NONE;
         frameHeader(streamId, length, type, flags);
         sink.writeInt(errorCode.httpCode);
-        sink.flush();
+        if (flush) flushSink();
     }
 
     public int maxDataLength() {
@@ -194,7 +220,7 @@ final class Http2Writer implements Closeable {
             sink.writeShort(id);
             sink.writeInt(settings.get(i));
         }
-        sink.flush();
+        flushSink();
     }
 
     public synchronized void ping(boolean ack, int payload1, int payload2) throws IOException {
@@ -206,7 +232,7 @@ final class Http2Writer implements Closeable {
         frameHeader(streamId, length, type, flags);
         sink.writeInt(payload1);
         sink.writeInt(payload2);
-        sink.flush();
+        flushSink();
     }
 
     /**
@@ -230,10 +256,14 @@ final class Http2Writer implements Closeable {
         if (debugData.length > 0) {
             sink.write(debugData);
         }
-        sink.flush();
+        flushSink();
     }
 
     public synchronized void windowUpdate(int streamId, long windowSizeIncrement) throws IOException {
+        windowUpdate(streamId, windowSizeIncrement, true);
+    }
+
+    synchronized void windowUpdate(int streamId, long windowSizeIncrement, boolean flush) throws IOException {
         if (closed) throw new IOException("closed");
         if (windowSizeIncrement == 0 || windowSizeIncrement > 0x7fffffffL) {
             throw Http2.illegalArgument("windowSizeIncrement == 0 || windowSizeIncrement > 0x7fffffffL: %s",
@@ -244,7 +274,7 @@ final class Http2Writer implements Closeable {
         byte flags = Http2.FLAG_NONE;
         frameHeader(streamId, length, type, flags);
         sink.writeInt((int) windowSizeIncrement);
-        sink.flush();
+        if (flush) flushSink();
     }
 
     public void frameHeader(int streamId, int length, byte type, byte flags) throws IOException {
@@ -255,12 +285,27 @@ final class Http2Writer implements Closeable {
             throw Http2.illegalArgument("FRAME_SIZE_ERROR length > %d: %d", maxFrameSize, length);
         }
         if ((streamId & 0x80000000) != 0) throw Http2.illegalArgument("reserved bit set: %s", streamId);
+        frameCount++;
         writeMedium(sink, length);
         sink.writeByte(type & 0xff);
         sink.writeByte(flags & 0xff);
         sink.writeInt(streamId & 0x7fffffff);
     }
 
+    public synchronized long frameCount() {
+        return frameCount;
+    }
+
+    public synchronized long flushCount() {
+        return flushCount;
+    }
+
+    private void flushSink() throws IOException {
+        flushCount++;
+        flushedFrameCount = frameCount;
+        sink.flush();
+    }
+
     @Override
     public synchronized void close() throws IOException {
         closed = true;
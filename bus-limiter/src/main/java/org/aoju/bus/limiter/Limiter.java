@@ -23,6 +23,8 @@
  */
 package org.aoju.bus.limiter;
 
+import org.aoju.bus.limiter.execute.LimiterExecutionContext;
+
 import java.lang.annotation.Annotation;
 import java.util.Map;
 
@@ -61,4 +63,26 @@ public interface Limiter<T extends Annotation> {
      */
     void release(Object key, Map<String, Object> args);
 
+    /**
+     * 是否需要业务方法的执行耗时
+     * 返回true时执行上下文在限制成功与释放时各记录一次时间
+     *
+     * @return true/false
+     */
+    default boolean isTimed() {
+        return false;
+    }
+
+    /**
+     * 业务方法执行完成后释放限制,context 中带有本次执行的耗时与异常
+     * 需要根据执行结果调整限制的实现(如自适应并发限制)可覆盖该方法
+     *
+     * @param key     键
+     * @param args    参数
+     * @param context 执行上下文
+     */
+    default void release(Object key, Map<String, Object> args, LimiterExecutionContext context) {
+        release(key, args);
+    }
+
 }
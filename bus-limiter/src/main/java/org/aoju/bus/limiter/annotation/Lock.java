@@ -49,4 +49,12 @@ public @interface Lock {
 
     String[] argumentInjectors() default {};
 
+    /**
+     * 获取锁的最长等待时间(毫秒),默认不等待
+     * 需要锁组件支持等待,如QueuedLock,其他实现忽略该值
+     *
+     * @return the long
+     */
+    long waitTime() default 0;
+
 }
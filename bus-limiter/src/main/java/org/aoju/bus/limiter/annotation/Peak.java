@@ -55,4 +55,35 @@ public @interface Peak {
      */
     int max() default 10;
 
+    /**
+     * 并发上限策略,默认固定为max
+     * 自适应策略需配合AdaptivePeakLimiter使用,按执行耗时与异常在[1,max]内调整上限,
+     * 其他实现按FIXED处理
+     *
+     * @return the strategy
+     */
+    Strategy strategy() default Strategy.FIXED;
+
+    /**
+     * 并发上限策略
+     */
+    enum Strategy {
+        /**
+         * 固定上限
+         */
+        FIXED,
+        /**
+         * 加性增、乘性减,执行异常或超时时降低上限
+         */
+        AIMD,
+        /**
+         * 以最小耗时估算排队长度,排队过长时降低上限
+         */
+        VEGAS,
+        /**
+         * 以长期平均耗时与当前耗时之比调整上限
+         */
+        GRADIENT
+    }
+
 }
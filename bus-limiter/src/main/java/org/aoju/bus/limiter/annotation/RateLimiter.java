@@ -65,4 +65,30 @@ public @interface RateLimiter {
      */
     long capacity() default 10;
 
+    /**
+     * 限流算法,默认令牌桶
+     * 滑动窗口算法以 capacity/rate 秒为窗口,窗口内最多允许 capacity 次
+     *
+     * @return the algorithm
+     */
+    Algorithm algorithm() default Algorithm.TOKEN_BUCKET;
+
+    /**
+     * 限流算法
+     */
+    enum Algorithm {
+        /**
+         * 令牌桶,允许 capacity 大小的突发
+         */
+        TOKEN_BUCKET,
+        /**
+         * 滑动窗口日志,精确但需保存 capacity 个时间戳
+         */
+        SLIDING_WINDOW_LOG,
+        /**
+         * 滑动窗口计数,按前一窗口计数加权估算,内存固定
+         */
+        SLIDING_WINDOW_COUNTER
+    }
+
 }
@@ -29,11 +29,14 @@ import org.aoju.bus.core.utils.CollUtils;
 import org.aoju.bus.core.utils.ObjectUtils;
 import org.aoju.bus.core.utils.StringUtils;
 import org.aoju.bus.limiter.Injector;
+import org.aoju.bus.limiter.expression.LimiterEvaluationContext;
+import org.aoju.bus.limiter.expression.LimiterExpressionRootObject;
 import org.aoju.bus.limiter.expression.LimiterOperationExpressionEvaluator;
 import org.aoju.bus.limiter.metadata.LimitedResourceMetadata;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
@@ -51,6 +54,8 @@ public class LimiterExecutionContext {
 
     private static final HashMap<String, Object> emptyMap = new HashMap<>();
 
+    private static final LimiterOperationExpressionEvaluator sharedEvaluator = new LimiterOperationExpressionEvaluator();
+
     private LimitedResourceMetadata metadata;
 
     private Object[] args;
@@ -69,16 +74,112 @@ public class LimiterExecutionContext {
 
     private Throwable throwable;
 
+    /**
+     * 限制成功的时间(纳秒)
+     */
+    private long limitedAt;
+
+    /**
+     * 业务方法的执行耗时(纳秒),未执行或limiter不需要计时时为-1
+     */
+    private long elapsedNanos = -1;
+
+    /**
+     * 业务方法抛出的异常
+     */
+    private Throwable invocationThrowable;
+
+    /**
+     * 已解析的key表达式,key为常量时为null
+     */
+    private Expression keyExpression;
+
+    /**
+     * 常量key
+     */
+    private Object constantKey;
+
+    private LimiterEvaluationContext evaluationContext;
+
     public LimiterExecutionContext(LimitedResourceMetadata metadata, Object[] args, Object target, BeanFactory beanFactory) {
         this.metadata = metadata;
         this.args = extractArgs(metadata.getTargetMethod(), args);
         this.target = target;
         this.injectArgs = generateInjectArgs();
         this.beanFactory = beanFactory;
-        this.evaluator = new LimiterOperationExpressionEvaluator();
+        this.evaluator = sharedEvaluator;
         this.key = generateKey();
     }
 
+    /**
+     * 创建可复用的上下文,key表达式只解析一次,与参数无关的key直接计算
+     * 每次调用前需{@link #reset(Object[], Object)}
+     *
+     * @param metadata    元数据
+     * @param beanFactory bean工厂
+     * @param evaluator   表达式解析器
+     */
+    LimiterExecutionContext(LimitedResourceMetadata metadata, BeanFactory beanFactory, LimiterOperationExpressionEvaluator evaluator) {
+        this.metadata = metadata;
+        this.beanFactory = beanFactory;
+        this.evaluator = evaluator;
+        String keyText = metadata.getLimitedResource().getKey();
+        if (!StringUtils.hasText(keyText)) {
+            this.constantKey = metadata.getTargetClass().getName() + Symbol.SHAPE + metadata.getTargetMethod().getName();
+            return;
+        }
+        Expression expression = evaluator.parse(new AnnotatedElementKey(metadata.getTargetMethod(), metadata.getTargetClass()), keyText);
+        if (LimiterOperationExpressionEvaluator.isConstant(expression)) {
+            this.constantKey = expression.getValue();
+            Assert.notNull(this.constantKey, "key值计算为null!");
+        } else {
+            this.keyExpression = expression;
+            this.evaluationContext = evaluator.createEvaluationContext(metadata.getTargetMethod(), beanFactory);
+        }
+    }
+
+    /**
+     * 以本次调用的参数重置上下文
+     *
+     * @param args   参数
+     * @param target 目标
+     */
+    void reset(Object[] args, Object target) {
+        this.args = extractArgs(this.metadata.getTargetMethod(), args);
+        this.target = target;
+        this.injectArgs = generateInjectArgs();
+        this.fallbackResult = null;
+        this.throwable = null;
+        this.limitedAt = 0;
+        this.elapsedNanos = -1;
+        this.invocationThrowable = null;
+        if (this.keyExpression == null) {
+            this.key = this.constantKey;
+        } else {
+            this.evaluationContext.reset(new LimiterExpressionRootObject(this.metadata.getLimiter(), this.metadata.getTargetMethod(),
+                    this.args, target, this.metadata.getTargetClass()), this.args, this.injectArgs);
+            Object evalKey = this.keyExpression.getValue(this.evaluationContext);
+            Assert.notNull(evalKey, "key值计算为null!");
+            this.key = evalKey;
+        }
+    }
+
+    /**
+     * 调用结束后清除对参数与结果的引用
+     */
+    void clear() {
+        this.args = null;
+        this.target = null;
+        this.injectArgs = null;
+        this.fallbackResult = null;
+        this.throwable = null;
+        this.invocationThrowable = null;
+        if (this.keyExpression != null) {
+            this.key = null;
+            this.evaluationContext.reset(null, null, null);
+        }
+    }
+
     public static HashMap<String, Object> getEmptyMap() {
         return emptyMap;
     }
@@ -96,7 +197,11 @@ public class LimiterExecutionContext {
             ret = this.metadata.getErrorHandler().resolve(throwable, this);
         }
 
-        if (!ret) {
+        if (ret) {
+            if (this.metadata.getLimiter().isTimed()) {
+                this.limitedAt = System.nanoTime();
+            }
+        } else {
             this.fallbackResult = this.metadata.getFallback().resolve(this.metadata.getTargetMethod(), this.metadata.getTargetClass(), this.args, this.metadata.getLimitedResource(), this.target);
         }
         return ret;
@@ -106,6 +211,27 @@ public class LimiterExecutionContext {
         this.metadata.getLimiter().release(this.key, this.metadata.getLimiterParameters());
     }
 
+    /**
+     * 业务方法执行完成后释放,并将耗时与异常反馈给limiter
+     *
+     * @param invocationThrowable 业务方法抛出的异常,正常返回时为null
+     */
+    public void complete(Throwable invocationThrowable) {
+        if (this.limitedAt != 0) {
+            this.elapsedNanos = System.nanoTime() - this.limitedAt;
+        }
+        this.invocationThrowable = invocationThrowable;
+        this.metadata.getLimiter().release(this.key, this.metadata.getLimiterParameters(), this);
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public Throwable getInvocationThrowable() {
+        return invocationThrowable;
+    }
+
     public Object getFallbackResult() {
         return fallbackResult;
     }
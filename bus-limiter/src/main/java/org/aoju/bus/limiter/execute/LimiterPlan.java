@@ -0,0 +1,137 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.execute;
+
+import org.aoju.bus.limiter.expression.LimiterOperationExpressionEvaluator;
+import org.aoju.bus.limiter.metadata.LimitedResourceMetadata;
+import org.springframework.beans.factory.BeanFactory;
+
+/**
+ * 单个(目标类, 方法)的执行计划
+ * <p>
+ * 限制器元数据、key表达式在首次调用时解析完毕;
+ * 执行上下文按线程缓存复用,同一线程重入时另行创建
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class LimiterPlan {
+
+    private static final LimitedResourceMetadata[] NO_METADATA = new LimitedResourceMetadata[0];
+
+    private final Class<?> rawClass;
+
+    private final LimitedResourceMetadata[] metadata;
+
+    private final BeanFactory beanFactory;
+
+    private final LimiterOperationExpressionEvaluator evaluator;
+
+    private final ThreadLocal<LimiterExecutionContext[]> pool = new ThreadLocal<>();
+
+    /**
+     * 同一方法上其他目标类的计划
+     */
+    private final LimiterPlan next;
+
+    /**
+     * @param rawClass    目标对象的实际类型
+     * @param metadata    限制器元数据,为空表示该方法不受限制
+     * @param beanFactory bean工厂
+     * @param evaluator   表达式解析器
+     * @param next        同一方法上其他目标类的计划
+     */
+    public LimiterPlan(Class<?> rawClass, LimitedResourceMetadata[] metadata, BeanFactory beanFactory,
+                       LimiterOperationExpressionEvaluator evaluator, LimiterPlan next) {
+        this.rawClass = rawClass;
+        this.metadata = metadata == null ? NO_METADATA : metadata;
+        this.beanFactory = beanFactory;
+        this.evaluator = evaluator;
+        this.next = next;
+        if (this.metadata.length > 0) {
+            // 提前解析表达式,配置错误在首次调用时即暴露
+            pool.set(newContexts());
+        }
+    }
+
+    public boolean isEmpty() {
+        return metadata.length == 0;
+    }
+
+    public Class<?> getRawClass() {
+        return rawClass;
+    }
+
+    public LimiterPlan next() {
+        return next;
+    }
+
+    /**
+     * 取出本线程缓存的上下文并以本次调用的参数重置
+     *
+     * @param args   参数
+     * @param target 目标
+     * @return 执行上下文, 用完后需{@link #recycle(LimiterExecutionContext[])}
+     */
+    public LimiterExecutionContext[] borrow(Object[] args, Object target) {
+        LimiterExecutionContext[] contexts = pool.get();
+        if (contexts == null) {
+            contexts = newContexts();
+        } else {
+            pool.set(null);
+        }
+        try {
+            for (LimiterExecutionContext context : contexts) {
+                context.reset(args, target);
+            }
+        } catch (RuntimeException e) {
+            recycle(contexts);
+            throw e;
+        }
+        return contexts;
+    }
+
+    /**
+     * 归还上下文
+     *
+     * @param contexts 执行上下文
+     */
+    public void recycle(LimiterExecutionContext[] contexts) {
+        for (LimiterExecutionContext context : contexts) {
+            context.clear();
+        }
+        pool.set(contexts);
+    }
+
+    private LimiterExecutionContext[] newContexts() {
+        LimiterExecutionContext[] contexts = new LimiterExecutionContext[metadata.length];
+        for (int i = 0; i < metadata.length; i++) {
+            contexts[i] = new LimiterExecutionContext(metadata[i], beanFactory, evaluator);
+        }
+        return contexts;
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.expression;
+
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.Map;
+
+/**
+ * 可重复使用的表达式上下文
+ * <p>
+ * 参数名在创建时确定,每次调用只替换根对象、参数与注入参数;
+ * 变量按 注入参数、参数名、#a0/#p0 的顺序惰性查找,与MethodBasedEvaluationContext一致
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class LimiterEvaluationContext extends StandardEvaluationContext {
+
+    private final String[] parameterNames;
+
+    private Object[] args;
+
+    private Map<String, Object> injectArgs;
+
+    public LimiterEvaluationContext(String[] parameterNames) {
+        this.parameterNames = parameterNames;
+    }
+
+    /**
+     * 替换本次调用的根对象与参数
+     *
+     * @param rootObject 根对象
+     * @param args       参数
+     * @param injectArgs 注入参数
+     */
+    public void reset(Object rootObject, Object[] args, Map<String, Object> injectArgs) {
+        setRootObject(rootObject);
+        this.args = args;
+        this.injectArgs = injectArgs;
+    }
+
+    @Override
+    public Object lookupVariable(String name) {
+        Object value = super.lookupVariable(name);
+        if (value != null) {
+            return value;
+        }
+        if (injectArgs != null && injectArgs.containsKey(name)) {
+            return injectArgs.get(name);
+        }
+        if (args == null) {
+            return null;
+        }
+        if (parameterNames != null) {
+            for (int i = 0; i < parameterNames.length && i < args.length; i++) {
+                if (parameterNames[i].equals(name)) {
+                    return args[i];
+                }
+            }
+        }
+        if (name.length() > 1 && (name.charAt(0) == 'a' || name.charAt(0) == 'p')) {
+            int index = index(name);
+            if (index >= 0 && index < args.length) {
+                return args[index];
+            }
+        }
+        return null;
+    }
+
+    private static int index(String name) {
+        int index = 0;
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9' || index > 100_000) {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+}
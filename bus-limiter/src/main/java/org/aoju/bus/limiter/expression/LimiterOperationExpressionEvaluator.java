@@ -34,7 +34,13 @@ import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.Literal;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.util.ClassUtils;
 
 import java.lang.reflect.Method;
 import java.util.Map;
@@ -47,7 +53,11 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class LimiterOperationExpressionEvaluator {
 
-    private final SpelExpressionParser parser = new SpelExpressionParser();
+    /**
+     * 表达式在解释执行若干次后编译为字节码,编译失败时退回解释执行
+     */
+    private final SpelExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, ClassUtils.getDefaultClassLoader()));
 
     private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
@@ -70,6 +80,43 @@ public class LimiterOperationExpressionEvaluator {
         return evaluationContext;
     }
 
+    /**
+     * 创建可重复使用的表达式上下文,参数名只解析一次
+     *
+     * @param targetMethod 目标方法
+     * @param beanFactory  bean工厂
+     * @return 表达式上下文
+     */
+    public LimiterEvaluationContext createEvaluationContext(Method targetMethod, BeanFactory beanFactory) {
+        LimiterEvaluationContext evaluationContext = new LimiterEvaluationContext(this.parameterNameDiscoverer.getParameterNames(targetMethod));
+        if (beanFactory != null) {
+            evaluationContext.setBeanResolver(new BeanFactoryResolver(beanFactory));
+        }
+        return evaluationContext;
+    }
+
+    /**
+     * 获取已解析的表达式
+     *
+     * @param elementKey 方法
+     * @param expression 表达式
+     * @return 表达式
+     */
+    public Expression parse(AnnotatedElementKey elementKey, String expression) {
+        return getExpression(elementKey, expression);
+    }
+
+    /**
+     * 表达式是否为字面量,字面量的值与调用参数无关
+     *
+     * @param expression 表达式
+     * @return true/false
+     */
+    public static boolean isConstant(Expression expression) {
+        return expression instanceof LiteralExpression
+                || (expression instanceof SpelExpression && ((SpelExpression) expression).getAST() instanceof Literal);
+    }
+
     public Object key(String keyExpression, AnnotatedElementKey methodKey, EvaluationContext evalContext) {
         return getExpression(methodKey, keyExpression).getValue(evalContext);
     }
@@ -26,6 +26,8 @@ package org.aoju.bus.limiter.intercept;
 import org.aoju.bus.core.utils.CollUtils;
 import org.aoju.bus.limiter.execute.LimitContextsValueWrapper;
 import org.aoju.bus.limiter.execute.LimiterExecutionContext;
+import org.aoju.bus.limiter.execute.LimiterPlan;
+import org.aoju.bus.limiter.expression.LimiterOperationExpressionEvaluator;
 import org.aoju.bus.limiter.metadata.LimitedResourceMetadata;
 import org.aoju.bus.limiter.metadata.LimitedResourceMetadataCache;
 import org.aoju.bus.limiter.resource.LimitedResource;
@@ -41,10 +43,12 @@ import org.springframework.beans.factory.SmartInitializingSingleton;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 实际的advisor
  * 使用beanfactory的一些基础设施
+ * 每个(目标类, 方法)首次调用时生成{@link LimiterPlan},之后的调用只做限制器本身的工作
  *
  * @author Kimi Liu
  * @version 5.5.3
@@ -60,6 +64,13 @@ public abstract class LimiterAspectSupport implements BeanFactoryAware, Initiali
 
     private LimitedResourceMetadataCache limitedResourceMetadataCache;
 
+    private final LimiterOperationExpressionEvaluator evaluator = new LimiterOperationExpressionEvaluator();
+
+    /**
+     * 方法到执行计划,同一方法的不同目标类以链表并存
+     */
+    private final ConcurrentHashMap<Method, LimiterPlan> plans = new ConcurrentHashMap<>(1024);
+
     /**
      * 执行
      *
@@ -72,30 +83,73 @@ public abstract class LimiterAspectSupport implements BeanFactoryAware, Initiali
      */
     protected Object execute(final MethodInvocation invocation, Object target, Method method, Object[] args) throws Throwable {
 
-        if (this.initialized) {
-            Class<?> targetClass = AopProxyUtils.ultimateTargetClass(target);
-            LimitedResourceSource limitedResourceSource = getLimitedResourceSource();
-            if (limitedResourceSource != null) {
-                Collection<LimitedResource> limitedResources = limitedResourceSource.getLimitedResource(targetClass, method);
-                if (!CollUtils.isEmpty(limitedResources)) {
-                    Collection<LimiterExecutionContext> contexts = getLimiterOperationContexts(limitedResources, method, args, target, targetClass);
-                    LimitContextsValueWrapper limitContextsValueWrapper = limitContexts(contexts);
-                    if (limitContextsValueWrapper.value()) {
-                        try {
-                            return invocation.proceed();
-                        } catch (Throwable e) {
-                            throw e;
-                        } finally {
-                            releaseContexts(contexts);
-                        }
-                    } else {
-                        return limitContextsValueWrapper.getLimiterFailResolveResult();
+        if (!this.initialized || getLimitedResourceSource() == null) {
+            return invocation.proceed();
+        }
+        LimiterPlan plan = getPlan(method, target);
+        if (plan.isEmpty()) {
+            return invocation.proceed();
+        }
+        LimiterExecutionContext[] contexts = plan.borrow(args, target);
+        try {
+            for (int i = 0; i < contexts.length; i++) {
+                LimiterExecutionContext context = contexts[i];
+                if (!context.limit() || context.getThrowable() != null) {
+                    for (int j = 0; j < i; j++) {
+                        contexts[j].release();
                     }
-
+                    return context.getFallbackResult();
+                }
+            }
+            Throwable failure = null;
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                failure = e;
+                throw e;
+            } finally {
+                for (LimiterExecutionContext context : contexts) {
+                    context.complete(failure);
                 }
             }
+        } finally {
+            plan.recycle(contexts);
+        }
+    }
+
+    private LimiterPlan getPlan(Method method, Object target) {
+        Class<?> rawClass = target == null ? method.getDeclaringClass() : target.getClass();
+        LimiterPlan plan = plans.get(method);
+        while (plan != null && plan.getRawClass() != rawClass) {
+            plan = plan.next();
         }
-        return invocation.proceed();
+        return plan != null ? plan : createPlan(method, target, rawClass);
+    }
+
+    private LimiterPlan createPlan(Method method, Object target, Class<?> rawClass) {
+        Class<?> targetClass = target == null ? rawClass : AopProxyUtils.ultimateTargetClass(target);
+        Collection<LimitedResource> limitedResources = getLimitedResourceSource().getLimitedResource(targetClass, method);
+        LimitedResourceMetadata[] metadata = null;
+        if (!CollUtils.isEmpty(limitedResources)) {
+            metadata = new LimitedResourceMetadata[limitedResources.size()];
+            int i = 0;
+            for (LimitedResource limitedResource : limitedResources) {
+                metadata[i++] = limitedResourceMetadataCache.getLimitedResourceMetadata(limitedResource, method, targetClass);
+            }
+        }
+        LimitedResourceMetadata[] resolved = metadata;
+        LimiterPlan[] created = new LimiterPlan[1];
+        plans.compute(method, (m, head) -> {
+            for (LimiterPlan p = head; p != null; p = p.next()) {
+                if (p.getRawClass() == rawClass) {
+                    created[0] = p;
+                    return head;
+                }
+            }
+            created[0] = new LimiterPlan(rawClass, resolved, this.beanFactory, this.evaluator, head);
+            return created[0];
+        });
+        return created[0];
     }
 
     @Override
@@ -132,6 +186,13 @@ public abstract class LimiterAspectSupport implements BeanFactoryAware, Initiali
         }
     }
 
+    protected void completeContexts(Collection<LimiterExecutionContext> contexts, Throwable failure) {
+        if (contexts != null && !contexts.isEmpty()) {
+            for (LimiterExecutionContext context : contexts) {
+                context.complete(failure);
+            }
+        }
+    }
 
     protected Collection<LimiterExecutionContext> getLimiterOperationContexts(Collection<LimitedResource> limitedResources, Method method, Object[] args, Object target, Class<?> targetClass) {
         Collection<LimiterExecutionContext> retVal = new ArrayList<>();
@@ -40,8 +40,23 @@ public abstract class Lock implements Limiter<org.aoju.bus.limiter.annotation.Lo
 
     public abstract void unlock(Object key);
 
+    /**
+     * 获取锁,最多等待waitMillis毫秒,不支持等待的实现立即返回
+     *
+     * @param key        键
+     * @param waitMillis 最长等待时间(毫秒)
+     * @return true:获取成功
+     */
+    public boolean lock(Object key, long waitMillis) {
+        return lock(key);
+    }
+
     @Override
     public boolean limit(Object key, Map<String, Object> args) {
+        Object waitTime = args == null ? null : args.get("waitTime");
+        if (waitTime != null && (long) waitTime > 0) {
+            return lock(key, (long) waitTime);
+        }
         return lock(key);
     }
 
@@ -42,7 +42,8 @@ public class LockAnnotationParser extends AbstractParser<org.aoju.bus.limiter.su
                 getArgumentInjectors(attributes),
                 getFallback(attributes),
                 getErrorHandler(attributes),
-                getLimiter(attributes)
+                getLimiter(attributes),
+                attributes.getNumber("waitTime")
         );
     }
 
@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.lock;
+
+/**
+ * 分布式锁的存储后端,{@link QueuedLock}中每个节点每个键同时只有一个线程调用
+ * <p>
+ * 实现需保证: 等待者按请求顺序获得锁;租约到期未续约时锁自动失效;
+ * 每次获得锁返回的防护令牌严格递增,可交给下游存储拒绝过期持有者的写入
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public interface LockBackend {
+
+    /**
+     * 获取锁,锁被占用时排队等待
+     *
+     * @param key         键
+     * @param owner       持有者标识
+     * @param leaseMillis 租约时长(毫秒)
+     * @param waitMillis  最长等待时间(毫秒), 0表示不等待
+     * @return 防护令牌, 超时返回-1
+     * @throws InterruptedException 等待被中断
+     */
+    long acquire(String key, String owner, long leaseMillis, long waitMillis) throws InterruptedException;
+
+    /**
+     * 续约
+     *
+     * @param key         键
+     * @param owner       持有者标识
+     * @param token       获得锁时的防护令牌
+     * @param leaseMillis 租约时长(毫秒)
+     * @return false表示锁已不属于该持有者
+     */
+    boolean renew(String key, String owner, long token, long leaseMillis);
+
+    /**
+     * 释放锁,锁已不属于该持有者时忽略
+     *
+     * @param key   键
+     * @param owner 持有者标识
+     * @param token 获得锁时的防护令牌
+     */
+    void release(String key, String owner, long token);
+
+}
@@ -23,6 +23,7 @@
  */
 package org.aoju.bus.limiter.support.lock;
 
+import org.aoju.bus.limiter.annotation.LimiterParameter;
 import org.aoju.bus.limiter.metadata.LimitedResourceMetadata;
 import org.aoju.bus.limiter.resource.AbstractLimitedResource;
 import org.springframework.beans.factory.BeanFactory;
@@ -37,8 +38,16 @@ import java.util.Collection;
  */
 public class LockResource extends AbstractLimitedResource {
 
+    @LimiterParameter
+    private long waitTime;
+
     public LockResource(String key, Collection<String> argumentInjectors, String fallback, String errorHandler, String limiter) {
+        this(key, argumentInjectors, fallback, errorHandler, limiter, 0);
+    }
+
+    public LockResource(String key, Collection<String> argumentInjectors, String fallback, String errorHandler, String limiter, long waitTime) {
         super(key, argumentInjectors, fallback, errorHandler, limiter);
+        this.waitTime = waitTime;
     }
 
     @Override
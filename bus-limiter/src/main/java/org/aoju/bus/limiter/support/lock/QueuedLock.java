@@ -0,0 +1,309 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.lock;
+
+import org.aoju.bus.core.thread.ThreadBuilder;
+import org.aoju.bus.logger.Logger;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 排队的分布式锁
+ * <p>
+ * 同一节点上竞争同一键的线程先在本地公平锁上排队,只有队首线程访问{@link LockBackend};
+ * 持有者释放时若本地仍有等待者,远程锁直接交给下一个本地线程,连续交接
+ * {@link #setMaxHandoffs(int)}次后释放远程锁,让其他节点按后端队列顺序获得锁
+ * </p>
+ * <p>
+ * 看门狗每隔租约的1/3续约一次,续约失败的锁标记为丢失,可通过{@link #isHeld(Object)}检查;
+ * {@link #getFencingToken(Object)}返回本节点当前远程租约的防护令牌,本地交接不改变令牌
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class QueuedLock extends Lock {
+
+    private final String lockName;
+
+    private final LockBackend backend;
+
+    /**
+     * 本节点的持有者标识
+     */
+    private final String owner;
+
+    private final long leaseMillis;
+
+    private final ConcurrentHashMap<Object, Holder> holders = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService watchdog;
+
+    private volatile int maxHandoffs = 16;
+
+    /**
+     * @param lockName 名称
+     * @param backend  后端
+     */
+    public QueuedLock(String lockName, LockBackend backend) {
+        this(lockName, backend, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param lockName  名称
+     * @param backend   后端
+     * @param leaseTime 租约时长,持有者宕机后锁最迟在该时间后失效
+     * @param unit      时间单位
+     */
+    public QueuedLock(String lockName, LockBackend backend, long leaseTime, TimeUnit unit) {
+        this.lockName = lockName;
+        this.backend = backend;
+        this.owner = lockName + ":" + UUID.randomUUID();
+        this.leaseMillis = Math.max(3, unit.toMillis(leaseTime));
+        long period = leaseMillis / 3;
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(new ThreadBuilder()
+                .setNamePrefix("lock-watchdog-" + lockName + "-").setDaemon(true).build());
+        this.watchdog.scheduleWithFixedDelay(this::renew, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean lock(Object key) {
+        return lock(key, 0);
+    }
+
+    @Override
+    public boolean lock(Object key, long waitMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, waitMillis));
+        Holder holder = retain(key);
+        boolean locked = false;
+        boolean acquired = false;
+        try {
+            if (!holder.local.tryLock(Math.max(0, waitMillis), TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            locked = true;
+            Lease lease = holder.lease;
+            if (holder.local.getHoldCount() > 1 || (lease != null && !lease.lost)) {
+                // 重入,或由本节点上一个持有者交接
+                acquired = true;
+                return true;
+            }
+            holder.lease = null;
+            holder.handoffs = 0;
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            long token = backend.acquire(key.toString(), owner, leaseMillis, Math.max(0, remaining));
+            if (token < 0) {
+                return false;
+            }
+            holder.lease = new Lease(token);
+            acquired = true;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            if (!acquired) {
+                if (locked) {
+                    holder.local.unlock();
+                }
+                release(key, holder);
+            }
+        }
+    }
+
+    @Override
+    public void unlock(Object key) {
+        Holder holder = holders.get(key);
+        if (holder == null || !holder.local.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("You do not own the lock: " + key);
+        }
+        try {
+            Lease lease = holder.lease;
+            if (holder.local.getHoldCount() == 1 && lease != null
+                    && (lease.lost || !holder.local.hasQueuedThreads() || ++holder.handoffs > maxHandoffs)) {
+                holder.lease = null;
+                holder.handoffs = 0;
+                if (!lease.lost) {
+                    backend.release(key.toString(), owner, lease.token);
+                }
+            }
+        } finally {
+            holder.local.unlock();
+            release(key, holder);
+        }
+    }
+
+    @Override
+    public String getLimiterName() {
+        return lockName;
+    }
+
+    /**
+     * 本地连续交接的最大次数,超过后释放远程锁
+     *
+     * @param maxHandoffs 次数, 0表示每次都释放远程锁
+     */
+    public void setMaxHandoffs(int maxHandoffs) {
+        this.maxHandoffs = Math.max(0, maxHandoffs);
+    }
+
+    /**
+     * 当前线程是否持有该锁且租约有效
+     *
+     * @param key 键
+     * @return true/false
+     */
+    public boolean isHeld(Object key) {
+        Holder holder = holders.get(key);
+        if (holder == null || !holder.local.isHeldByCurrentThread()) {
+            return false;
+        }
+        Lease lease = holder.lease;
+        return lease != null && !lease.lost;
+    }
+
+    /**
+     * 当前线程持有的锁的防护令牌
+     *
+     * @param key 键
+     * @return 令牌, 未持有时返回-1
+     */
+    public long getFencingToken(Object key) {
+        Holder holder = holders.get(key);
+        if (holder == null || !holder.local.isHeldByCurrentThread()) {
+            return -1;
+        }
+        Lease lease = holder.lease;
+        return lease == null ? -1 : lease.token;
+    }
+
+    /**
+     * 本地等待该锁的线程数
+     *
+     * @param key 键
+     * @return 线程数
+     */
+    public int getQueueLength(Object key) {
+        Holder holder = holders.get(key);
+        return holder == null ? 0 : holder.local.getQueueLength();
+    }
+
+    /**
+     * 停止看门狗,已持有的锁将在租约到期后失效
+     */
+    public void shutdown() {
+        watchdog.shutdownNow();
+    }
+
+    private Holder retain(Object key) {
+        return holders.compute(key, (k, h) -> {
+            if (h == null) {
+                h = new Holder();
+            }
+            h.users++;
+            return h;
+        });
+    }
+
+    private void release(Object key, Holder holder) {
+        holders.computeIfPresent(key, (k, h) -> h != holder || --h.users > 0 || h.lease != null ? h : null);
+    }
+
+    /**
+     * 续约持有中的租约,释放已无人使用的租约
+     */
+    private void renew() {
+        for (Map.Entry<Object, Holder> entry : holders.entrySet()) {
+            Object key = entry.getKey();
+            Holder holder = entry.getValue();
+            Lease lease = holder.lease;
+            if (lease == null) {
+                continue;
+            }
+            try {
+                if (holder.local.tryLock(0, TimeUnit.NANOSECONDS)) {
+                    // 交接时等待者已超时离开,租约无人使用
+                    try {
+                        if (holder.lease == lease) {
+                            holder.lease = null;
+                            if (!lease.lost) {
+                                backend.release(key.toString(), owner, lease.token);
+                            }
+                        }
+                    } finally {
+                        holder.local.unlock();
+                    }
+                    holders.computeIfPresent(key, (k, h) -> h == holder && h.users == 0 && h.lease == null ? null : h);
+                } else if (!lease.lost && !backend.renew(key.toString(), owner, lease.token, leaseMillis)) {
+                    lease.lost = true;
+                    Logger.warn("lock {} on {} lost its lease, token {}", lockName, key, lease.token);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                Logger.error("renew lock {} on {} failed", lockName, key, e);
+            }
+        }
+    }
+
+    private static final class Holder {
+
+        /**
+         * 本地公平锁,保证同一节点的等待者按FIFO获得锁
+         */
+        private final ReentrantLock local = new ReentrantLock(true);
+
+        /**
+         * 本节点持有的远程租约,只在持有local时修改
+         */
+        private volatile Lease lease;
+
+        private int handoffs;
+
+        /**
+         * 正在使用该键的线程数,只在map的compute中修改
+         */
+        private int users;
+    }
+
+    private static final class Lease {
+
+        private final long token;
+
+        private volatile boolean lost;
+
+        Lease(long token) {
+            this.token = token;
+        }
+    }
+
+}
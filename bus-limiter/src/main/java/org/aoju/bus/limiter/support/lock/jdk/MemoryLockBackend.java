@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.lock.jdk;
+
+import org.aoju.bus.limiter.support.lock.LockBackend;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于内存的{@link LockBackend},语义与Redis、Zookeeper实现一致
+ * 多个QueuedLock共用一个实例即可在单进程内模拟多个节点
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class MemoryLockBackend implements LockBackend {
+
+    private final ConcurrentHashMap<String, State> states = new ConcurrentHashMap<>();
+
+    @Override
+    public long acquire(String key, String owner, long leaseMillis, long waitMillis) throws InterruptedException {
+        State state = states.computeIfAbsent(key, k -> new State());
+        synchronized (state) {
+            long deadline = now() + waitMillis;
+            boolean queued = false;
+            try {
+                for (; ; ) {
+                    long now = now();
+                    if (state.owner != null && now >= state.expireAt) {
+                        state.owner = null;
+                    }
+                    if (owner.equals(state.owner)) {
+                        state.expireAt = now + leaseMillis;
+                        return state.token;
+                    }
+                    if (state.owner == null && (state.waiters.isEmpty() || owner.equals(state.waiters.peekFirst()))) {
+                        if (queued) {
+                            state.waiters.pollFirst();
+                            queued = false;
+                        }
+                        state.owner = owner;
+                        state.token = ++state.sequence;
+                        state.expireAt = now + leaseMillis;
+                        return state.token;
+                    }
+                    long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    if (!queued) {
+                        state.waiters.addLast(owner);
+                        queued = true;
+                    }
+                    long wait = state.owner == null ? remaining : Math.min(remaining, state.expireAt - now);
+                    state.wait(Math.max(1, wait));
+                }
+            } finally {
+                if (queued) {
+                    state.waiters.remove(owner);
+                    state.notifyAll();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean renew(String key, String owner, long token, long leaseMillis) {
+        State state = states.get(key);
+        if (state == null) {
+            return false;
+        }
+        synchronized (state) {
+            long now = now();
+            if (owner.equals(state.owner) && state.token == token && now < state.expireAt) {
+                state.expireAt = now + leaseMillis;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String key, String owner, long token) {
+        State state = states.get(key);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            if (owner.equals(state.owner) && state.token == token) {
+                state.owner = null;
+                state.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 当前持有者
+     *
+     * @param key 键
+     * @return 持有者标识, 未被持有时返回null
+     */
+    public String getOwner(String key) {
+        State state = states.get(key);
+        if (state == null) {
+            return null;
+        }
+        synchronized (state) {
+            return state.owner != null && now() < state.expireAt ? state.owner : null;
+        }
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private static final class State {
+
+        private final ArrayDeque<String> waiters = new ArrayDeque<>();
+        private String owner;
+        private long token;
+        private long expireAt;
+        /**
+         * 防护令牌序列,只增不减
+         */
+        private long sequence;
+    }
+
+}
@@ -24,6 +24,7 @@
 package org.aoju.bus.limiter.support.lock.redis;
 
 import org.aoju.bus.limiter.support.lock.Lock;
+import org.aoju.bus.limiter.support.lock.QueuedLock;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 
@@ -43,6 +44,17 @@ public class RedisLock extends Lock {
         this.lockName = lockName;
     }
 
+    /**
+     * 创建公平排队的分布式锁,本地线程排队后由队首竞争Redis
+     *
+     * @param lockName 名称
+     * @param redisson redisson
+     * @return 锁
+     */
+    public static QueuedLock queued(String lockName, RedissonClient redisson) {
+        return new QueuedLock(lockName, new RedisLockBackend(redisson, lockName));
+    }
+
     @Override
     public boolean lock(Object key) {
         RLock rLock = redisson.getLock(key.toString());
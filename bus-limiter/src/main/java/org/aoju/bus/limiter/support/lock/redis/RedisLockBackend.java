@@ -0,0 +1,234 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.lock.redis;
+
+import org.aoju.bus.limiter.support.lock.LockBackend;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Redis的{@link LockBackend}
+ * <p>
+ * 锁为带过期时间的hash,等待者按请求顺序进入list,并在zset中记录各自的过期时间,
+ * 超过过期时间未再次尝试的等待者(如节点宕机)会被移出队列;
+ * 释放时通过频道通知其他节点,等待者在通知或轮询间隔到达时重试;
+ * 防护令牌由单独的计数键INCR生成
+ * </p>
+ * <p>
+ * 等待者过期时间使用各节点的本地时钟,节点间时钟偏差需小于轮询间隔
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class RedisLockBackend implements LockBackend {
+
+    private static final String ACQUIRE =
+            "local now = tonumber(ARGV[3])\n" +
+                    "while true do\n" +
+                    "    local first = redis.call('lindex', KEYS[2], 0)\n" +
+                    "    if first == false then break end\n" +
+                    "    local timeout = redis.call('zscore', KEYS[3], first)\n" +
+                    "    if timeout ~= false and tonumber(timeout) > now then break end\n" +
+                    "    redis.call('lpop', KEYS[2])\n" +
+                    "    redis.call('zrem', KEYS[3], first)\n" +
+                    "end\n" +
+                    "local holder = redis.call('hget', KEYS[1], 'owner')\n" +
+                    "if holder == ARGV[1] then\n" +
+                    "    redis.call('pexpire', KEYS[1], ARGV[2])\n" +
+                    "    return tonumber(redis.call('hget', KEYS[1], 'token'))\n" +
+                    "end\n" +
+                    "if holder == false then\n" +
+                    "    local first = redis.call('lindex', KEYS[2], 0)\n" +
+                    "    if first == false or first == ARGV[1] then\n" +
+                    "        if first == ARGV[1] then\n" +
+                    "            redis.call('lpop', KEYS[2])\n" +
+                    "            redis.call('zrem', KEYS[3], ARGV[1])\n" +
+                    "        end\n" +
+                    "        local token = redis.call('incr', KEYS[4])\n" +
+                    "        redis.call('hmset', KEYS[1], 'owner', ARGV[1], 'token', token)\n" +
+                    "        redis.call('pexpire', KEYS[1], ARGV[2])\n" +
+                    "        return token\n" +
+                    "    end\n" +
+                    "end\n" +
+                    "local ttl = tonumber(ARGV[4])\n" +
+                    "if ttl > 0 then\n" +
+                    "    if redis.call('zscore', KEYS[3], ARGV[1]) == false then\n" +
+                    "        redis.call('rpush', KEYS[2], ARGV[1])\n" +
+                    "    end\n" +
+                    "    redis.call('zadd', KEYS[3], now + ttl, ARGV[1])\n" +
+                    "    redis.call('pexpire', KEYS[2], ttl * 2)\n" +
+                    "    redis.call('pexpire', KEYS[3], ttl * 2)\n" +
+                    "end\n" +
+                    "return -1";
+
+    private static final String RENEW =
+            "if redis.call('hget', KEYS[1], 'owner') == ARGV[1] and redis.call('hget', KEYS[1], 'token') == ARGV[2] then\n" +
+                    "    redis.call('pexpire', KEYS[1], ARGV[3])\n" +
+                    "    return 1\n" +
+                    "end\n" +
+                    "return 0";
+
+    private static final String RELEASE =
+            "if redis.call('hget', KEYS[1], 'owner') == ARGV[1] and redis.call('hget', KEYS[1], 'token') == ARGV[2] then\n" +
+                    "    redis.call('del', KEYS[1])\n" +
+                    "    redis.call('publish', ARGV[3], ARGV[4])\n" +
+                    "    return 1\n" +
+                    "end\n" +
+                    "return 0";
+
+    private static final String ABANDON =
+            "redis.call('lrem', KEYS[1], 0, ARGV[1])\n" +
+                    "redis.call('zrem', KEYS[2], ARGV[1])\n" +
+                    "redis.call('publish', ARGV[2], ARGV[3])\n" +
+                    "return 1";
+
+    private final RedissonClient redisson;
+
+    /**
+     * 释放通知频道
+     */
+    private final String channel;
+
+    private final ConcurrentHashMap<String, Signal> signals = new ConcurrentHashMap<>();
+
+    private volatile long pollMillis = 100;
+
+    /**
+     * @param redisson redisson
+     * @param lockName 锁名称,同名的锁共用通知频道
+     */
+    public RedisLockBackend(RedissonClient redisson, String lockName) {
+        this.redisson = redisson;
+        this.channel = "bus:lock:" + lockName;
+        redisson.getTopic(channel, StringCodec.INSTANCE).addListener(String.class, (ch, key) -> {
+            Signal signal = signals.get(key);
+            if (signal != null) {
+                signal.signal();
+            }
+        });
+    }
+
+    @Override
+    public long acquire(String key, String owner, long leaseMillis, long waitMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        Signal signal = waitMillis > 0 ? signals.computeIfAbsent(key, k -> new Signal()) : null;
+        boolean queued = false;
+        try {
+            for (; ; ) {
+                long version = signal == null ? 0 : signal.version;
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                long queueTtl = remaining > 0 ? pollMillis * 3 : 0;
+                long token = eval(key, ACQUIRE, keys(key, ":queue", ":timeouts", ":fence"),
+                        owner, leaseMillis, System.currentTimeMillis(), queueTtl);
+                if (token > 0) {
+                    queued = false;
+                    return token;
+                }
+                if (remaining <= 0) {
+                    return -1;
+                }
+                queued = true;
+                signal.await(version, Math.min(remaining, pollMillis));
+            }
+        } finally {
+            if (queued) {
+                eval(key, ABANDON, keys(key, ":queue", ":timeouts"), owner, channel, key);
+            }
+            if (signal != null) {
+                signals.remove(key, signal);
+            }
+        }
+    }
+
+    @Override
+    public boolean renew(String key, String owner, long token, long leaseMillis) {
+        return eval(key, RENEW, keys(key), owner, token, leaseMillis) == 1;
+    }
+
+    @Override
+    public void release(String key, String owner, long token) {
+        eval(key, RELEASE, keys(key), owner, token, channel, key);
+    }
+
+    /**
+     * 未收到释放通知时的重试间隔
+     *
+     * @param pollMillis 毫秒
+     */
+    public void setPollMillis(long pollMillis) {
+        this.pollMillis = Math.max(1, pollMillis);
+    }
+
+    private long eval(String key, String script, List<Object> keys, Object... values) {
+        Long ret = redisson.getScript(StringCodec.INSTANCE).eval(lockKey(key), RScript.Mode.READ_WRITE,
+                script, RScript.ReturnType.INTEGER, keys, values);
+        return ret == null ? 0 : ret;
+    }
+
+    /**
+     * 同一键的各个数据以{key}为hash tag,保证在集群中位于同一slot
+     */
+    private static String lockKey(String key) {
+        return "{" + key + "}";
+    }
+
+    private static List<Object> keys(String key, String... suffixes) {
+        String lockKey = lockKey(key);
+        if (suffixes.length == 0) {
+            return Collections.singletonList(lockKey);
+        }
+        Object[] keys = new Object[suffixes.length + 1];
+        keys[0] = lockKey;
+        for (int i = 0; i < suffixes.length; i++) {
+            keys[i + 1] = lockKey + suffixes[i];
+        }
+        return Arrays.asList(keys);
+    }
+
+    private static final class Signal {
+
+        private volatile long version;
+
+        synchronized void signal() {
+            version++;
+            notifyAll();
+        }
+
+        synchronized void await(long seen, long millis) throws InterruptedException {
+            if (version == seen && millis > 0) {
+                wait(millis);
+            }
+        }
+    }
+
+}
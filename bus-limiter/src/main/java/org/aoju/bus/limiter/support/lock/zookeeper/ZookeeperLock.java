@@ -25,6 +25,7 @@ package org.aoju.bus.limiter.support.lock.zookeeper;
 
 import org.aoju.bus.core.lang.exception.InstrumentException;
 import org.aoju.bus.limiter.support.lock.Lock;
+import org.aoju.bus.limiter.support.lock.QueuedLock;
 import org.aoju.bus.logger.Logger;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.imps.CuratorFrameworkState;
@@ -60,6 +61,17 @@ public class ZookeeperLock extends Lock {
         this(lockName, "/locks/", client);
     }
 
+    /**
+     * 创建公平排队的分布式锁,本地线程排队后由队首竞争Zookeeper
+     *
+     * @param lockName 名称
+     * @param client   客户端
+     * @return 锁
+     */
+    public static QueuedLock queued(String lockName, CuratorFramework client) {
+        return new QueuedLock(lockName, new ZookeeperLockBackend(client));
+    }
+
     @Override
     public boolean lock(Object key) {
         try {
@@ -0,0 +1,177 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.lock.zookeeper;
+
+import org.aoju.bus.core.lang.exception.InstrumentException;
+import org.aoju.bus.limiter.support.lock.LockBackend;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.imps.CuratorFrameworkState;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.data.Stat;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于Zookeeper的{@link LockBackend}
+ * <p>
+ * 每次获取创建一个临时顺序节点,序号最小者持有锁,其余节点只监听前一个节点,
+ * 释放时只唤醒下一个等待者;防护令牌取节点的czxid,随创建顺序单调递增;
+ * 会话失效时节点被删除,续租即校验节点仍然存在
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class ZookeeperLockBackend implements LockBackend {
+
+    private static final String PREFIX = "lock-";
+
+    private final CuratorFramework client;
+
+    private final String basePath;
+
+    /**
+     * 持有者与键对应当前持有的节点路径
+     */
+    private final ConcurrentHashMap<String, String> paths = new ConcurrentHashMap<>();
+
+    public ZookeeperLockBackend(CuratorFramework client, String basePath) {
+        this.client = client;
+        this.basePath = basePath;
+        if (!client.getState().equals(CuratorFrameworkState.STARTED)) {
+            client.start();
+        }
+    }
+
+    public ZookeeperLockBackend(CuratorFramework client) {
+        this(client, "/queued-locks/");
+    }
+
+    @Override
+    public long acquire(String key, String owner, long leaseMillis, long waitMillis) throws InterruptedException {
+        String dir = basePath + key;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        String path = null;
+        boolean acquired = false;
+        try {
+            path = client.create().creatingParentContainersIfNeeded()
+                    .withMode(CreateMode.EPHEMERAL_SEQUENTIAL).forPath(dir + "/" + PREFIX);
+            String node = path.substring(dir.length() + 1);
+            for (; ; ) {
+                String previous = previous(client.getChildren().forPath(dir), node);
+                if (previous == null) {
+                    Stat stat = client.checkExists().forPath(path);
+                    if (stat == null) {
+                        return -1;
+                    }
+                    paths.put(owner + "/" + key, path);
+                    acquired = true;
+                    return stat.getCzxid();
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return -1;
+                }
+                CountDownLatch latch = new CountDownLatch(1);
+                Stat stat = client.checkExists().usingWatcher((Watcher) event -> latch.countDown())
+                        .forPath(dir + "/" + previous);
+                if (stat != null) {
+                    latch.await(remaining, TimeUnit.NANOSECONDS);
+                }
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InstrumentException(e);
+        } finally {
+            if (!acquired && path != null) {
+                delete(path);
+            }
+        }
+    }
+
+    @Override
+    public boolean renew(String key, String owner, long token, long leaseMillis) {
+        String path = paths.get(owner + "/" + key);
+        if (path == null) {
+            return false;
+        }
+        try {
+            Stat stat = client.checkExists().forPath(path);
+            return stat != null && stat.getCzxid() == token;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String key, String owner, long token) {
+        String path = paths.remove(owner + "/" + key);
+        if (path != null) {
+            delete(path);
+        }
+    }
+
+    private void delete(String path) {
+        try {
+            client.delete().guaranteed().forPath(path);
+        } catch (KeeperException.NoNodeException e) {
+            // 会话失效时节点已被删除
+        } catch (Exception e) {
+            throw new InstrumentException(e);
+        }
+    }
+
+    /**
+     * 查找序号紧邻在前的节点
+     *
+     * @param children 子节点
+     * @param node     当前节点
+     * @return 前一个节点, 当前节点序号最小时返回null
+     */
+    private static String previous(List<String> children, String node) {
+        long sequence = sequence(node);
+        String previous = null;
+        long max = -1;
+        for (String child : children) {
+            long current = sequence(child);
+            if (current < sequence && current > max) {
+                max = current;
+                previous = child;
+            }
+        }
+        return previous;
+    }
+
+    private static long sequence(String node) {
+        return Long.parseLong(node.substring(node.lastIndexOf('-') + 1));
+    }
+
+}
@@ -25,6 +25,7 @@ package org.aoju.bus.limiter.support.peak;
 
 import org.aoju.bus.limiter.Limiter;
 import org.aoju.bus.limiter.annotation.Peak;
+import org.aoju.bus.limiter.execute.LimiterExecutionContext;
 
 import java.util.Map;
 
@@ -39,9 +40,37 @@ public abstract class PeakLimiter implements Limiter<Peak> {
 
     public abstract void release(Object key, int max);
 
+    /**
+     * 按指定策略获取并发许可,不支持该策略的实现按固定上限处理
+     *
+     * @param key      限流键
+     * @param max      最大并发数
+     * @param strategy 并发上限策略
+     * @return true:获取成功
+     */
+    public boolean acquire(Object key, int max, Peak.Strategy strategy) {
+        return acquire(key, max);
+    }
+
+    /**
+     * 释放许可并反馈本次执行的耗时与结果
+     *
+     * @param key          限流键
+     * @param max          最大并发数
+     * @param elapsedNanos 执行耗时(纳秒)
+     * @param failed       是否执行异常
+     */
+    public void release(Object key, int max, long elapsedNanos, boolean failed) {
+        release(key, max);
+    }
+
     @Override
     public boolean limit(Object key, Map<String, Object> args) {
-        return acquire(key, (int) args.get("max"));
+        Peak.Strategy strategy = (Peak.Strategy) args.get("strategy");
+        if (strategy == null || strategy == Peak.Strategy.FIXED) {
+            return acquire(key, (int) args.get("max"));
+        }
+        return acquire(key, (int) args.get("max"), strategy);
     }
 
     @Override
@@ -49,4 +78,13 @@ public abstract class PeakLimiter implements Limiter<Peak> {
         release(key, (int) args.get("max"));
     }
 
+    @Override
+    public void release(Object key, Map<String, Object> args, LimiterExecutionContext context) {
+        if (context.getElapsedNanos() < 0) {
+            release(key, args);
+        } else {
+            release(key, (int) args.get("max"), context.getElapsedNanos(), context.getInvocationThrowable() != null);
+        }
+    }
+
 }
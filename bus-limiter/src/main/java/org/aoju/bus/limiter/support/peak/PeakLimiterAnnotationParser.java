@@ -44,7 +44,8 @@ public class PeakLimiterAnnotationParser extends AbstractParser<PeakLimiter, Pea
                 getFallback(attributes),
                 getErrorHandler(attributes),
                 getLimiter(attributes),
-                attributes.getNumber("max")
+                attributes.getNumber("max"),
+                attributes.getEnum("strategy")
         );
     }
 
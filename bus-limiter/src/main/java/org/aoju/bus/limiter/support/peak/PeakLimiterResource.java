@@ -24,6 +24,7 @@
 package org.aoju.bus.limiter.support.peak;
 
 import org.aoju.bus.limiter.annotation.LimiterParameter;
+import org.aoju.bus.limiter.annotation.Peak;
 import org.aoju.bus.limiter.metadata.LimitedResourceMetadata;
 import org.aoju.bus.limiter.resource.AbstractLimitedResource;
 import org.springframework.beans.factory.BeanFactory;
@@ -41,9 +42,17 @@ public class PeakLimiterResource extends AbstractLimitedResource {
     @LimiterParameter
     private int max;
 
+    @LimiterParameter
+    private Peak.Strategy strategy;
+
     public PeakLimiterResource(String key, Collection<String> argumentInjectors, String fallback, String errorHandler, String limiter, int max) {
+        this(key, argumentInjectors, fallback, errorHandler, limiter, max, Peak.Strategy.FIXED);
+    }
+
+    public PeakLimiterResource(String key, Collection<String> argumentInjectors, String fallback, String errorHandler, String limiter, int max, Peak.Strategy strategy) {
         super(key, argumentInjectors, fallback, errorHandler, limiter);
         this.max = max;
+        this.strategy = strategy;
     }
 
     @Override
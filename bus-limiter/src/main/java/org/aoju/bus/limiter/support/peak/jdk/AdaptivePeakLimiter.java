@@ -0,0 +1,185 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.peak.jdk;
+
+import org.aoju.bus.limiter.annotation.Peak;
+import org.aoju.bus.limiter.support.peak.PeakLimiter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应并发限制
+ * <p>
+ * 每个限流键维护一个{@link ConcurrencyLimit},按注解的{@link Peak#strategy()}选择算法,
+ * 根据业务方法的执行耗时与异常在[1,max]内调整并发上限,在排队形成前拒绝请求
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class AdaptivePeakLimiter extends PeakLimiter {
+
+    private final String limiterName;
+
+    private final ConcurrentHashMap<Object, ConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    private volatile long timeoutNanos = TimeUnit.SECONDS.toNanos(5);
+
+    private volatile double backoff = 0.9;
+
+    public AdaptivePeakLimiter(String limiterName) {
+        this.limiterName = limiterName;
+    }
+
+    @Override
+    public boolean acquire(Object key, int max) {
+        return acquire(key, max, Peak.Strategy.FIXED);
+    }
+
+    @Override
+    public boolean acquire(Object key, int max, Peak.Strategy strategy) {
+        return getLimit(key, max, strategy).tryAcquire();
+    }
+
+    @Override
+    public void release(Object key, int max) {
+        ConcurrencyLimit limit = limits.get(key);
+        if (limit != null) {
+            limit.release();
+        }
+    }
+
+    @Override
+    public void release(Object key, int max, long elapsedNanos, boolean failed) {
+        ConcurrencyLimit limit = limits.get(key);
+        if (limit != null) {
+            limit.release(elapsedNanos, failed);
+        }
+    }
+
+    @Override
+    public boolean isTimed() {
+        return true;
+    }
+
+    @Override
+    public String getLimiterName() {
+        return limiterName;
+    }
+
+    /**
+     * AIMD策略下视为失败的执行耗时
+     *
+     * @param timeout 时间
+     * @param unit    单位
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * AIMD策略下失败时上限的降低比例
+     *
+     * @param backoff 比例(0,1)
+     */
+    public void setBackoff(double backoff) {
+        this.backoff = backoff;
+    }
+
+    /**
+     * 当前并发上限
+     *
+     * @param key 限流键
+     * @return 上限, 键不存在时返回-1
+     */
+    public int getLimit(Object key) {
+        ConcurrencyLimit limit = limits.get(key);
+        return limit == null ? -1 : limit.getLimit();
+    }
+
+    /**
+     * 当前在途数量
+     *
+     * @param key 限流键
+     * @return 在途数量, 键不存在时返回0
+     */
+    public int getInflight(Object key) {
+        ConcurrencyLimit limit = limits.get(key);
+        return limit == null ? 0 : limit.getInflight();
+    }
+
+    /**
+     * 所有限流键当前的并发上限
+     *
+     * @return 限流键与上限
+     */
+    public Map<Object, Integer> getLimits() {
+        Map<Object, Integer> snapshot = new HashMap<>();
+        limits.forEach((key, limit) -> snapshot.put(key, limit.getLimit()));
+        return snapshot;
+    }
+
+    private ConcurrencyLimit getLimit(Object key, int max, Peak.Strategy strategy) {
+        ConcurrencyLimit limit = limits.get(key);
+        if (limit != null && matches(limit, max, strategy)) {
+            return limit;
+        }
+        return limits.compute(key, (k, old) -> old != null && matches(old, max, strategy) ? old : newLimit(max, strategy));
+    }
+
+    private static boolean matches(ConcurrencyLimit limit, int max, Peak.Strategy strategy) {
+        return limit.getMax() == Math.max(1, max) && limit.getClass() == type(strategy);
+    }
+
+    private static Class<? extends ConcurrencyLimit> type(Peak.Strategy strategy) {
+        switch (strategy) {
+            case AIMD:
+                return AimdLimit.class;
+            case VEGAS:
+                return VegasLimit.class;
+            case GRADIENT:
+                return GradientLimit.class;
+            default:
+                return FixedLimit.class;
+        }
+    }
+
+    private ConcurrencyLimit newLimit(int max, Peak.Strategy strategy) {
+        switch (strategy) {
+            case AIMD:
+                return new AimdLimit(max, timeoutNanos, backoff);
+            case VEGAS:
+                return new VegasLimit(max);
+            case GRADIENT:
+                return new GradientLimit(max);
+            default:
+                return new FixedLimit(max);
+        }
+    }
+
+}
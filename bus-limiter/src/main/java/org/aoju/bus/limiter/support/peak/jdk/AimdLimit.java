@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.peak.jdk;
+
+/**
+ * 加性增、乘性减的并发上限
+ * 执行异常或耗时超过timeout时上限乘以backoff,否则在上限被用到一半以上时加1
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class AimdLimit extends ConcurrencyLimit {
+
+    private final long timeoutNanos;
+
+    private final double backoff;
+
+    /**
+     * @param max          最大并发数
+     * @param timeoutNanos 超时时间(纳秒)
+     * @param backoff      降低比例(0,1)
+     */
+    public AimdLimit(int max, long timeoutNanos, double backoff) {
+        super(max);
+        this.timeoutNanos = timeoutNanos;
+        this.backoff = backoff;
+    }
+
+    @Override
+    protected double update(double estimate, long elapsedNanos, int inflight, boolean failed) {
+        if (failed || elapsedNanos > timeoutNanos) {
+            return estimate * backoff;
+        }
+        if (inflight * 2 >= estimate) {
+            return estimate + 1;
+        }
+        return estimate;
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.peak.jdk;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个限流键的并发上限
+ * <p>
+ * 获取与释放以CAS维护在途数量;每次执行完成后以耗时与结果调整上限,
+ * 调整过程串行执行,上限始终在[1,max]之间
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public abstract class ConcurrencyLimit {
+
+    protected final int max;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    /**
+     * 上限的连续估计值,仅在onSample中读写
+     */
+    protected double estimate;
+
+    private volatile int limit;
+
+    protected ConcurrencyLimit(int max) {
+        this.max = Math.max(1, max);
+        this.estimate = this.max;
+        this.limit = this.max;
+    }
+
+    public boolean tryAcquire() {
+        for (; ; ) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inflight.decrementAndGet();
+    }
+
+    /**
+     * 释放并记录一次执行结果
+     *
+     * @param elapsedNanos 执行耗时(纳秒)
+     * @param failed       是否执行异常
+     */
+    public void release(long elapsedNanos, boolean failed) {
+        int current = inflight.getAndDecrement();
+        synchronized (this) {
+            estimate = Math.min(max, Math.max(1, update(estimate, Math.max(1, elapsedNanos), current, failed)));
+            limit = (int) estimate;
+        }
+    }
+
+    /**
+     * 计算新的上限
+     *
+     * @param estimate     当前上限
+     * @param elapsedNanos 执行耗时(纳秒)
+     * @param inflight     本次释放前的在途数量
+     * @param failed       是否执行异常
+     * @return 新的上限
+     */
+    protected abstract double update(double estimate, long elapsedNanos, int inflight, boolean failed);
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.peak.jdk;
+
+/**
+ * 梯度式并发上限
+ * <p>
+ * 以长期平均耗时与本次耗时之比作为梯度,gradient = clamp(tolerance * longRtt / rtt, 0.5, 1),
+ * 新上限 = limit * gradient + sqrt(limit),再与当前上限做指数平滑;
+ * 耗时上升时梯度小于1,上限随之收缩,执行异常按最小梯度处理
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class GradientLimit extends ConcurrencyLimit {
+
+    /**
+     * 长期平均耗时的平滑窗口(样本数)
+     */
+    private static final int WINDOW = 100;
+
+    /**
+     * 上限的平滑系数
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * 可容忍的耗时上涨倍数
+     */
+    private static final double TOLERANCE = 1.5;
+
+    private double longRtt;
+
+    public GradientLimit(int max) {
+        super(max);
+    }
+
+    @Override
+    protected double update(double estimate, long elapsedNanos, int inflight, boolean failed) {
+        if (longRtt == 0) {
+            longRtt = elapsedNanos;
+        } else {
+            longRtt += (elapsedNanos - longRtt) / WINDOW;
+        }
+        // 耗时明显下降后长期均值收敛过慢,加速衰减
+        if (longRtt / elapsedNanos > 2) {
+            longRtt *= 0.95;
+        }
+        double gradient;
+        if (failed) {
+            gradient = 0.5;
+        } else if (inflight * 2 < estimate) {
+            return estimate;
+        } else {
+            gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / elapsedNanos));
+        }
+        double target = estimate * gradient + Math.sqrt(estimate);
+        return estimate * (1 - SMOOTHING) + target * SMOOTHING;
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.peak.jdk;
+
+/**
+ * TCP Vegas风格的并发上限
+ * <p>
+ * 以观察到的最小耗时作为无负载耗时,估算排队长度 queue = limit * (1 - minRtt / rtt),
+ * 排队短于alpha时增加上限,长于beta时降低上限;
+ * 无负载耗时定期重新探测,以适应下游性能的变化
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class VegasLimit extends ConcurrencyLimit {
+
+    private long minRtt;
+
+    private long samples;
+
+    private long nextProbe;
+
+    public VegasLimit(int max) {
+        super(max);
+        this.nextProbe = probeInterval(max);
+    }
+
+    @Override
+    protected double update(double estimate, long elapsedNanos, int inflight, boolean failed) {
+        if (++samples >= nextProbe) {
+            minRtt = 0;
+            nextProbe = samples + probeInterval(estimate);
+        }
+        if (minRtt == 0 || elapsedNanos < minRtt) {
+            minRtt = elapsedNanos;
+            return estimate;
+        }
+        double log = Math.max(1, Math.log10(estimate));
+        if (failed) {
+            return estimate - log;
+        }
+        double queue = Math.ceil(estimate * (1 - (double) minRtt / elapsedNanos));
+        if (queue > 6 * log) {
+            return estimate - log;
+        }
+        if (inflight * 2 < estimate) {
+            return estimate;
+        }
+        if (queue <= log) {
+            return estimate + 6 * log;
+        }
+        if (queue < 3 * log) {
+            return estimate + log;
+        }
+        return estimate;
+    }
+
+    private static long probeInterval(double estimate) {
+        return Math.max(100, (long) (estimate * 30));
+    }
+
+}
@@ -24,6 +24,7 @@
 package org.aoju.bus.limiter.support.rate;
 
 import org.aoju.bus.limiter.Limiter;
+import org.aoju.bus.limiter.annotation.RateLimiter.Algorithm;
 
 import java.util.Map;
 
@@ -36,11 +37,28 @@ public abstract class RateLimiter implements Limiter<org.aoju.bus.limiter.annota
 
     public abstract boolean acquire(Object key, double rate, long capacity);
 
+    /**
+     * 按指定算法获取许可,不支持该算法的实现按令牌桶处理
+     *
+     * @param key       限流键
+     * @param rate      每秒速率
+     * @param capacity  容量
+     * @param algorithm 限流算法
+     * @return true:获取成功
+     */
+    public boolean acquire(Object key, double rate, long capacity, Algorithm algorithm) {
+        return acquire(key, rate, capacity);
+    }
+
     @Override
     public boolean limit(Object key, Map<String, Object> args) {
         double pps = (double) args.get("rate");
         long capacity = (long) args.get("capacity");
-        return acquire(key, pps, capacity);
+        Algorithm algorithm = (Algorithm) args.get("algorithm");
+        if (algorithm == null || algorithm == Algorithm.TOKEN_BUCKET) {
+            return acquire(key, pps, capacity);
+        }
+        return acquire(key, pps, capacity, algorithm);
     }
 
     @Override
@@ -24,6 +24,7 @@
 package org.aoju.bus.limiter.support.rate;
 
 import org.aoju.bus.limiter.annotation.LimiterParameter;
+import org.aoju.bus.limiter.annotation.RateLimiter;
 import org.aoju.bus.limiter.metadata.LimitedResourceMetadata;
 import org.aoju.bus.limiter.resource.AbstractLimitedResource;
 import org.springframework.beans.factory.BeanFactory;
@@ -44,10 +45,18 @@ public class RateLimiterResource extends AbstractLimitedResource {
     @LimiterParameter
     private long capacity;
 
+    @LimiterParameter
+    private RateLimiter.Algorithm algorithm;
+
     public RateLimiterResource(String key, Collection<String> argumentInjectors, String fallback, String errorHandler, String limiter, double rate, long capacity) {
+        this(key, argumentInjectors, fallback, errorHandler, limiter, rate, capacity, RateLimiter.Algorithm.TOKEN_BUCKET);
+    }
+
+    public RateLimiterResource(String key, Collection<String> argumentInjectors, String fallback, String errorHandler, String limiter, double rate, long capacity, RateLimiter.Algorithm algorithm) {
         super(key, argumentInjectors, fallback, errorHandler, limiter);
         this.rate = rate;
         this.capacity = capacity;
+        this.algorithm = algorithm;
     }
 
     @Override
@@ -23,16 +23,20 @@
  */
 package org.aoju.bus.limiter.support.rate.jdk;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import org.aoju.bus.limiter.annotation.RateLimiter.Algorithm;
 import org.aoju.bus.limiter.support.rate.RateLimiter;
 
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 一个RateLimiter组件
+ * <p>
+ * 以限流键直接查找计数器,同一键下不同的速率、容量或算法以链表并存,命中时不分配对象;
+ * 超过过期时间未访问的键在后续调用中被惰性清理
+ * </p>
  *
  * @author Kimi Liu
  * @version 5.5.3
@@ -42,8 +46,17 @@ public class JdkRateLimiter extends RateLimiter {
 
     private String rateLimiterName;
 
-    private LoadingCache<CacheKey, RateLimiterObject>
-            cache;
+    private final ConcurrentHashMap<Object, Entry> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 过期时间(纳秒)
+     */
+    private final long expireNanos;
+
+    /**
+     * 最近一次清理时间
+     */
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
 
     /**
      * @param rateLimiterName       名称
@@ -52,22 +65,30 @@ public class JdkRateLimiter extends RateLimiter {
      */
     public JdkRateLimiter(String rateLimiterName, long expireAfterAccess, TimeUnit expireAfterAccessUnit) {
         this.rateLimiterName = rateLimiterName;
-        this.cache = CacheBuilder.newBuilder()
-                .expireAfterAccess(expireAfterAccess, expireAfterAccessUnit)
-                .concurrencyLevel(16)
-                .build(new CacheLoader<CacheKey, RateLimiterObject>() {
-                    @Override
-                    public RateLimiterObject load(CacheKey key) {
-                        return new RateLimiterObject();
-                    }
-                });
+        this.expireNanos = Math.max(1, expireAfterAccessUnit.toNanos(expireAfterAccess));
     }
 
     @Override
     public boolean acquire(Object key, double rate, long capacity) {
-        CacheKey cacheKey = new CacheKey(key, rate, capacity);
-        RateLimiterObject rateLimiterObject = cache.getUnchecked(cacheKey);
-        return rateLimiterObject.tryAcquire(1, rate, capacity);
+        return acquire(key, rate, capacity, Algorithm.TOKEN_BUCKET);
+    }
+
+    @Override
+    public boolean acquire(Object key, double rate, long capacity, Algorithm algorithm) {
+        long now = System.nanoTime();
+        Entry entry = counters.get(key);
+        while (entry != null && !entry.matches(rate, capacity, algorithm)) {
+            entry = entry.next;
+        }
+        if (entry == null) {
+            entry = create(key, rate, capacity, algorithm);
+        }
+        entry.touch(now, expireNanos);
+        long last = lastSweep.get();
+        if (now - last > expireNanos && lastSweep.compareAndSet(last, now)) {
+            sweep(now);
+        }
+        return entry.counter.tryAcquire(1);
     }
 
     @Override
@@ -75,31 +96,90 @@ public class JdkRateLimiter extends RateLimiter {
         return rateLimiterName;
     }
 
-    private static class CacheKey {
+    /**
+     * 当前缓存的限流键数量
+     *
+     * @return 数量
+     */
+    public int size() {
+        return counters.size();
+    }
+
+    private Entry create(Object key, double rate, long capacity, Algorithm algorithm) {
+        Entry[] created = new Entry[1];
+        counters.compute(key, (k, head) -> {
+            for (Entry e = head; e != null; e = e.next) {
+                if (e.matches(rate, capacity, algorithm)) {
+                    created[0] = e;
+                    return head;
+                }
+            }
+            created[0] = new Entry(rate, capacity, algorithm, newCounter(rate, capacity, algorithm), head);
+            return created[0];
+        });
+        return created[0];
+    }
+
+    private static RateCounter newCounter(double rate, long capacity, Algorithm algorithm) {
+        switch (algorithm) {
+            case SLIDING_WINDOW_LOG:
+                return new SlidingWindowLog(rate, capacity);
+            case SLIDING_WINDOW_COUNTER:
+                return new SlidingWindowCounter(rate, capacity);
+            default:
+                return new RateLimiterObject(rate, capacity);
+        }
+    }
+
+    /**
+     * 移除整条链都已过期的限流键
+     */
+    private void sweep(long now) {
+        for (Map.Entry<Object, Entry> item : counters.entrySet()) {
+            Entry head = item.getValue();
+            boolean expired = true;
+            for (Entry e = head; e != null; e = e.next) {
+                if (now - e.lastAccess <= expireNanos) {
+                    expired = false;
+                    break;
+                }
+            }
+            // 仅当链表未被并发修改时移除,避免丢弃刚加入的计数器
+            if (expired) {
+                counters.remove(item.getKey(), head);
+            }
+        }
+    }
+
+    private static final class Entry {
 
-        private Object key;
-        private double rate;
-        private long capacity;
+        private final double rate;
+        private final long capacity;
+        private final Algorithm algorithm;
+        private final RateCounter counter;
+        private final Entry next;
+        private volatile long lastAccess;
 
-        public CacheKey(Object key, double rate, long capacity) {
-            this.key = key;
+        Entry(double rate, long capacity, Algorithm algorithm, RateCounter counter, Entry next) {
             this.rate = rate;
             this.capacity = capacity;
+            this.algorithm = algorithm;
+            this.counter = counter;
+            this.next = next;
+            this.lastAccess = System.nanoTime();
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            CacheKey cacheKey = (CacheKey) o;
-            return Double.compare(cacheKey.rate, rate) == 0 &&
-                    capacity == cacheKey.capacity &&
-                    Objects.equals(key, cacheKey.key);
+        boolean matches(double rate, long capacity, Algorithm algorithm) {
+            return this.capacity == capacity && this.algorithm == algorithm && Double.compare(this.rate, rate) == 0;
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(key, rate, capacity);
+        /**
+         * 记录访问时间,间隔不足过期时间的1/8时不写入,避免热点键的缓存行争用
+         */
+        void touch(long now, long expireNanos) {
+            if (now - lastAccess > (expireNanos >>> 3)) {
+                lastAccess = now;
+            }
         }
     }
 
@@ -23,45 +23,113 @@
  */
 package org.aoju.bus.limiter.support.rate.jdk;
 
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
 /**
  * 基于令牌桶实现的速率限制器
+ * <p>
+ * 采用GCRA(通用信元速率算法)等价实现:状态仅为一个理论到达时间(纳秒),
+ * 每次获取以CAS推进,无锁且不分配对象
+ * </p>
  *
  * @author Kimi Liu
  * @version 5.5.3
  * @since JDK 1.8+
  */
-public class RateLimiterObject {
+public class RateLimiterObject implements RateCounter {
 
-    private double rate;
+    private static final AtomicLongFieldUpdater<RateLimiterObject> TAT =
+            AtomicLongFieldUpdater.newUpdater(RateLimiterObject.class, "tat");
 
-    private long capacity;
+    /**
+     * 时间原点,状态以相对原点的纳秒表示,避免nanoTime为负值
+     */
+    private final long origin = System.nanoTime();
 
-    private long lastSyncTime;
+    private volatile Config config;
 
-    private double storedPermits;
+    /**
+     * 理论到达时间:令牌桶恰好被填满的时刻
+     */
+    private volatile long tat;
 
-    public synchronized boolean tryAcquire(long permits, double rate, long capacity) {
-        if (permits > capacity) return false;
-        long now = System.currentTimeMillis();
-        if (rate != this.rate || capacity != this.capacity) {
-            this.rate = rate;
-            this.capacity = capacity;
-            this.storedPermits = capacity - permits;
-            this.lastSyncTime = now;
-            return true;
+    public RateLimiterObject() {
+    }
+
+    /**
+     * @param rate     每秒生成的令牌数
+     * @param capacity 令牌桶容量
+     */
+    public RateLimiterObject(double rate, long capacity) {
+        this.config = new Config(rate, capacity);
+    }
+
+    /**
+     * 按指定速率与容量获取令牌,参数变化时重置令牌桶
+     *
+     * @param permits  令牌数量
+     * @param rate     每秒生成的令牌数
+     * @param capacity 令牌桶容量
+     * @return true:获取成功
+     */
+    public boolean tryAcquire(long permits, double rate, long capacity) {
+        Config config = this.config;
+        if (config == null || config.rate != rate || config.capacity != capacity) {
+            config = new Config(rate, capacity);
+            this.config = config;
+            this.tat = 0;
+        }
+        return tryAcquire(config, permits);
+    }
+
+    @Override
+    public boolean tryAcquire(long permits) {
+        Config config = this.config;
+        if (config == null) {
+            throw new IllegalStateException("rate and capacity are not configured");
         }
-        resync(now);
-        if (storedPermits >= permits) {
-            storedPermits = storedPermits - permits;
-            return true;
+        return tryAcquire(config, permits);
+    }
+
+    private boolean tryAcquire(Config config, long permits) {
+        if (permits > config.capacity) {
+            return false;
+        }
+        long now = System.nanoTime() - origin;
+        long cost = config.interval * permits;
+        for (; ; ) {
+            long current = tat;
+            long next = Math.max(current, now) + cost;
+            if (next - now > config.tolerance) {
+                return false;
+            }
+            if (TAT.compareAndSet(this, current, next)) {
+                return true;
+            }
         }
-        return false;
     }
 
-    private void resync(long nowMicros) {
-        double newPermits = (nowMicros - lastSyncTime) * rate / 1000 + storedPermits;
-        storedPermits = Math.max(newPermits, capacity);
-        this.lastSyncTime = nowMicros;
+    private static final class Config {
+
+        private final double rate;
+        private final long capacity;
+        /**
+         * 生成一个令牌的间隔(纳秒)
+         */
+        private final long interval;
+        /**
+         * 允许的最大提前量,即填满令牌桶所需的时间
+         */
+        private final long tolerance;
+
+        Config(double rate, long capacity) {
+            this.rate = rate;
+            this.capacity = capacity;
+            double interval = rate > 0 ? 1e9 / rate : Long.MAX_VALUE;
+            // 限制上限,避免与容量相乘后溢出
+            this.interval = (long) Math.max(1, Math.min(interval, Long.MAX_VALUE >> 2));
+            this.tolerance = (long) Math.min((double) this.interval * capacity, Long.MAX_VALUE >> 2);
+        }
     }
 
 }
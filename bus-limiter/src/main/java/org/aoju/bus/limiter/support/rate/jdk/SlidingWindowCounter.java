@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.rate.jdk;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 滑动窗口计数
+ * <p>
+ * 保存当前与前一窗口的计数,以前一窗口计数按剩余比例加权估算滑动窗口内的请求数;
+ * 窗口序号与两个计数打包在一个long中以CAS更新:16位窗口序号,前一窗口与当前窗口计数各24位
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class SlidingWindowCounter implements RateCounter {
+
+    /**
+     * 单个窗口允许的最大容量
+     */
+    public static final long MAX_CAPACITY = (1 << 24) - 1;
+
+    private static final long COUNT_MASK = MAX_CAPACITY;
+    private static final long WINDOW_MASK = 0xFFFF;
+
+    private final long origin = System.nanoTime();
+    private final long window;
+    private final long capacity;
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * @param rate     每秒速率
+     * @param capacity 窗口内允许的许可数,窗口长度为 capacity/rate 秒
+     */
+    public SlidingWindowCounter(double rate, long capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be in (0, " + MAX_CAPACITY + "]: " + capacity);
+        }
+        this.capacity = capacity;
+        this.window = rate > 0 ? (long) Math.max(1, Math.min(capacity * 1e9 / rate, Long.MAX_VALUE >> 2)) : Long.MAX_VALUE >> 2;
+    }
+
+    @Override
+    public boolean tryAcquire(long permits) {
+        if (permits <= 0) {
+            return true;
+        }
+        if (permits > capacity) {
+            return false;
+        }
+        long now = System.nanoTime() - origin;
+        long index = now / window;
+        long windowId = index & WINDOW_MASK;
+        // 当前窗口已经过的比例
+        double elapsed = (double) (now - index * window) / window;
+        for (; ; ) {
+            long current = state.get();
+            long currentId = current >>> 48;
+            long previous;
+            long count;
+            if (currentId == windowId) {
+                previous = (current >>> 24) & COUNT_MASK;
+                count = current & COUNT_MASK;
+            } else if (currentId == ((windowId - 1) & WINDOW_MASK)) {
+                previous = current & COUNT_MASK;
+                count = 0;
+            } else {
+                previous = 0;
+                count = 0;
+            }
+            if (previous * (1 - elapsed) + count + permits > capacity) {
+                return false;
+            }
+            long next = (windowId << 48) | (previous << 24) | (count + permits);
+            if (state.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.rate.jdk;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 滑动窗口日志
+ * <p>
+ * 以环形数组记录最近 capacity 次许可的时间戳,当最早一次已滑出窗口时才允许新的许可,
+ * 精确但内存与容量成正比
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class SlidingWindowLog implements RateCounter {
+
+    /**
+     * 单个限流键允许的最大容量
+     */
+    public static final int MAX_CAPACITY = 1 << 20;
+
+    private final long origin = System.nanoTime();
+    private final long window;
+    private final int capacity;
+    private final AtomicLongArray log;
+    /**
+     * 各位置已写入时间戳的许可序号,在时间戳之后写入,用于判断上一圈的时间戳是否已落定
+     */
+    private final AtomicLongArray sequence;
+    /**
+     * 累计已发放的许可数,对容量取模即为下一个写入位置
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param rate     每秒速率
+     * @param capacity 窗口内允许的许可数,窗口长度为 capacity/rate 秒
+     */
+    public SlidingWindowLog(double rate, long capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be in (0, " + MAX_CAPACITY + "]: " + capacity);
+        }
+        this.capacity = (int) capacity;
+        this.window = rate > 0 ? (long) Math.min(capacity * 1e9 / rate, Long.MAX_VALUE >> 2) : Long.MAX_VALUE >> 2;
+        this.log = new AtomicLongArray(this.capacity);
+        this.sequence = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            log.set(i, -window);
+            sequence.set(i, i - this.capacity);
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(long permits) {
+        if (permits <= 0) {
+            return true;
+        }
+        if (permits > capacity) {
+            return false;
+        }
+        long now = System.nanoTime() - origin;
+        for (; ; ) {
+            long current = head.get();
+            long last = current + permits - 1;
+            int index = (int) (last % capacity);
+            // 本次将覆盖的最后一个位置记录的是 capacity 次之前的许可时间,
+            // 该许可已占位但尚未写入时间戳时,其时间必然在窗口内
+            if (sequence.get(index) < last - capacity) {
+                return false;
+            }
+            long oldest = log.get(index);
+            if (now - oldest < window) {
+                return false;
+            }
+            if (head.compareAndSet(current, current + permits)) {
+                for (long i = current; i <= last; i++) {
+                    int slot = (int) (i % capacity);
+                    log.set(slot, now);
+                    sequence.set(slot, i);
+                }
+                return true;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,440 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.rate.lease;
+
+import org.aoju.bus.core.thread.ThreadBuilder;
+import org.aoju.bus.limiter.support.rate.RateLimiter;
+import org.aoju.bus.limiter.support.rate.jdk.JdkRateLimiter;
+import org.aoju.bus.logger.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 租约模式的RateLimiter
+ * <p>
+ * 每个节点从{@link QuotaBackend}批量租用许可,之后在本地以CAS扣减,
+ * 只有本地许可耗尽或低于水位时才访问后端,低水位补充在后台线程完成;
+ * 租约大小按本节点最近一个周期的实际消耗调整,并受{@link #setMaxLease(long)}
+ * 与{@link #setMaxLeaseRatio(double)}约束,空闲的租约在下一周期归还后端
+ * </p>
+ * <p>
+ * 精度: 许可全部来自全局桶,不会超发;单节点最多占用min(maxLease, capacity*maxLeaseRatio)个许可,
+ * 空闲节点占用的许可最迟一个租约周期后归还
+ * </p>
+ * <p>
+ * 后端不可用时降级为本地令牌桶,速率为原速率乘以{@link #setFallbackRatio(double)},
+ * 每隔{@link #setRetryInterval(long, TimeUnit)}重新尝试后端
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class LeasedRateLimiter extends RateLimiter {
+
+    /**
+     * 连续空闲多少个周期后移除租约
+     */
+    private static final int IDLE_ROUNDS = 3;
+
+    private final String limiterName;
+
+    private final QuotaBackend backend;
+
+    private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
+
+    /**
+     * 租约周期(纳秒)
+     */
+    private final long leaseNanos;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final JdkRateLimiter fallback;
+
+    private volatile long maxLease = 1000;
+
+    private volatile double maxLeaseRatio = 0.2;
+
+    private volatile double fallbackRatio = 1.0;
+
+    private volatile long retryNanos = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * 降级截止时间,0表示后端可用
+     */
+    private volatile long degradedUntil;
+
+    /**
+     * @param limiterName 名称
+     * @param backend     全局配额后端
+     */
+    public LeasedRateLimiter(String limiterName, QuotaBackend backend) {
+        this(limiterName, backend, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param limiterName 名称
+     * @param backend     全局配额后端
+     * @param leaseTime   租约周期,也是调整租约大小与归还空闲许可的间隔
+     * @param unit        时间单位
+     */
+    public LeasedRateLimiter(String limiterName, QuotaBackend backend, long leaseTime, TimeUnit unit) {
+        this.limiterName = limiterName;
+        this.backend = backend;
+        this.leaseNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(10), unit.toNanos(leaseTime));
+        this.fallback = new JdkRateLimiter(limiterName + "-fallback", 10 * leaseNanos, TimeUnit.NANOSECONDS);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadBuilder()
+                .setNamePrefix("limiter-lease-" + limiterName + "-").setDaemon(true).build());
+        this.scheduler.scheduleWithFixedDelay(this::renew, leaseNanos, leaseNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean acquire(Object key, double rate, long capacity) {
+        String name = key.toString();
+        Lease lease = lease(name, rate, capacity);
+        if (lease.take()) {
+            if (lease.permits.get() <= lease.lowWater()) {
+                refillAsync(lease);
+            }
+            return true;
+        }
+        if (isDegraded()) {
+            return fallback.acquire(name, rate * fallbackRatio, capacity);
+        }
+        return fetch(lease);
+    }
+
+    @Override
+    public String getLimiterName() {
+        return limiterName;
+    }
+
+    /**
+     * 单节点单键最多持有的许可数
+     *
+     * @param maxLease 许可数
+     */
+    public void setMaxLease(long maxLease) {
+        this.maxLease = Math.max(1, maxLease);
+    }
+
+    /**
+     * 单节点单键最多持有的许可占容量的比例
+     *
+     * @param maxLeaseRatio 比例(0,1]
+     */
+    public void setMaxLeaseRatio(double maxLeaseRatio) {
+        this.maxLeaseRatio = Math.min(1, Math.max(0, maxLeaseRatio));
+    }
+
+    /**
+     * 后端不可用时本地限流速率占原速率的比例,通常取1/节点数
+     *
+     * @param fallbackRatio 比例
+     */
+    public void setFallbackRatio(double fallbackRatio) {
+        this.fallbackRatio = fallbackRatio;
+    }
+
+    /**
+     * 降级后重新尝试后端的间隔
+     *
+     * @param time 时间
+     * @param unit 单位
+     */
+    public void setRetryInterval(long time, TimeUnit unit) {
+        this.retryNanos = unit.toNanos(time);
+    }
+
+    /**
+     * 当前是否处于降级状态
+     *
+     * @return true/false
+     */
+    public boolean isDegraded() {
+        long until = degradedUntil;
+        return until != 0 && System.nanoTime() - until < 0;
+    }
+
+    /**
+     * 本节点当前持有的许可数
+     *
+     * @param key 限流键
+     * @return 许可数
+     */
+    public long getLocalPermits(Object key) {
+        Lease lease = leases.get(key.toString());
+        return lease == null ? 0 : Math.max(0, lease.permits.get());
+    }
+
+    /**
+     * 停止后台线程并归还全部许可
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        for (Lease lease : leases.values()) {
+            close(lease);
+        }
+    }
+
+    private Lease lease(String name, double rate, long capacity) {
+        Lease lease = leases.get(name);
+        if (lease != null && lease.matches(rate, capacity)) {
+            return lease;
+        }
+        Lease[] replaced = new Lease[1];
+        lease = leases.compute(name, (k, old) -> {
+            if (old != null && old.matches(rate, capacity)) {
+                return old;
+            }
+            replaced[0] = old;
+            return new Lease(name, rate, capacity);
+        });
+        if (replaced[0] != null) {
+            close(replaced[0]);
+        }
+        return lease;
+    }
+
+    /**
+     * 本地许可耗尽时同步向后端租用,同一键同时只有一个线程访问后端
+     */
+    private boolean fetch(Lease lease) {
+        if (System.nanoTime() - lease.emptyUntil < 0) {
+            return false;
+        }
+        synchronized (lease) {
+            if (!lease.closed) {
+                return fetchLocked(lease);
+            }
+        }
+        // 租约已被回收,重新查找
+        return acquire(lease.name, lease.rate, lease.capacity);
+    }
+
+    /**
+     * 需持有lease的锁
+     */
+    private boolean fetchLocked(Lease lease) {
+        if (lease.take()) {
+            return true;
+        }
+        if (System.nanoTime() - lease.emptyUntil < 0) {
+            return false;
+        }
+        // 周期内租约已用完,说明租约偏小
+        lease.size = Math.min(limit(lease), lease.size << 1);
+        long granted = request(lease, lease.size);
+        if (granted < 0) {
+            return fallback.acquire(lease.name, lease.rate * fallbackRatio, lease.capacity);
+        }
+        if (granted == 0) {
+            return false;
+        }
+        lease.consumed.increment();
+        lease.permits.addAndGet(granted - 1);
+        return true;
+    }
+
+    private void refillAsync(Lease lease) {
+        if (isDegraded() || System.nanoTime() - lease.emptyUntil < 0
+                || !lease.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> {
+                try {
+                    synchronized (lease) {
+                        long want = lease.size - Math.max(0, lease.permits.get());
+                        if (!lease.closed && want > 0) {
+                            long granted = request(lease, want);
+                            if (granted > 0) {
+                                lease.permits.addAndGet(granted);
+                            }
+                        }
+                    }
+                } finally {
+                    lease.refilling.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            lease.refilling.set(false);
+        }
+    }
+
+    /**
+     * 向后端租用许可,需持有lease的锁
+     *
+     * @return 发放数量, -1表示后端不可用
+     */
+    private long request(Lease lease, long permits) {
+        long granted;
+        try {
+            granted = backend.lease(lease.name, permits, lease.rate, lease.capacity);
+        } catch (RuntimeException e) {
+            degrade(e);
+            return -1;
+        }
+        recover();
+        if (granted <= 0) {
+            // 全局桶已空,等待积累出一个租约所需的时间内不再访问后端
+            long wait = lease.rate > 0 ? (long) (lease.size / lease.rate * 1e9) : leaseNanos;
+            lease.emptyUntil = System.nanoTime() + Math.min(leaseNanos, Math.max(TimeUnit.MILLISECONDS.toNanos(1), wait));
+            return 0;
+        }
+        return granted;
+    }
+
+    private void giveBack(Lease lease, long permits) {
+        if (permits <= 0) {
+            return;
+        }
+        try {
+            backend.giveBack(lease.name, permits, lease.rate, lease.capacity);
+        } catch (RuntimeException e) {
+            degrade(e);
+        }
+    }
+
+    private void degrade(RuntimeException e) {
+        boolean first = degradedUntil == 0;
+        degradedUntil = System.nanoTime() + retryNanos;
+        if (first) {
+            Logger.warn("RateLimiter named {} lost its quota backend, fall back to local limits: {}", limiterName, e.getMessage());
+        }
+    }
+
+    private void recover() {
+        if (degradedUntil != 0) {
+            degradedUntil = 0;
+            Logger.info("RateLimiter named {} quota backend recovered", limiterName);
+        }
+    }
+
+    /**
+     * 单节点允许持有的许可上限
+     */
+    private long limit(Lease lease) {
+        long byRatio = (long) Math.ceil(lease.capacity * maxLeaseRatio);
+        return Math.max(1, Math.min(maxLease, Math.min(lease.capacity, byRatio)));
+    }
+
+    /**
+     * 每个租约周期执行一次: 按上一周期的消耗调整租约大小,归还空闲租约的许可
+     */
+    private void renew() {
+        try {
+            for (Map.Entry<String, Lease> entry : leases.entrySet()) {
+                Lease lease = entry.getValue();
+                long used = lease.consumed.sumThenReset();
+                lease.usage = lease.usage * 0.5 + used * 0.5;
+                lease.size = Math.max(1, Math.min(limit(lease), (long) Math.ceil(lease.usage)));
+                if (used > 0) {
+                    lease.idle = 0;
+                    continue;
+                }
+                if (++lease.idle >= IDLE_ROUNDS) {
+                    leases.remove(entry.getKey(), lease);
+                    close(lease);
+                } else {
+                    giveBack(lease, lease.permits.getAndSet(0));
+                }
+            }
+        } catch (RuntimeException e) {
+            Logger.error("RateLimiter named {} renew failed", limiterName, e);
+        }
+    }
+
+    private void close(Lease lease) {
+        long rest;
+        synchronized (lease) {
+            lease.closed = true;
+            rest = lease.permits.getAndSet(0);
+        }
+        giveBack(lease, rest);
+    }
+
+    private static final class Lease {
+
+        private final String name;
+        private final double rate;
+        private final long capacity;
+        /**
+         * 本地剩余许可
+         */
+        private final AtomicLong permits = new AtomicLong();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        /**
+         * 本周期内消耗的许可
+         */
+        private final LongAdder consumed = new LongAdder();
+        /**
+         * 每次租用的许可数
+         */
+        private volatile long size = 1;
+        /**
+         * 每周期消耗量的指数移动平均,仅由调度线程读写
+         */
+        private double usage;
+        private int idle;
+        private volatile long emptyUntil = System.nanoTime();
+        private volatile boolean closed;
+
+        Lease(String name, double rate, long capacity) {
+            this.name = name;
+            this.rate = rate;
+            this.capacity = capacity;
+        }
+
+        boolean matches(double rate, long capacity) {
+            return this.capacity == capacity && Double.compare(this.rate, rate) == 0;
+        }
+
+        long lowWater() {
+            return size >>> 2;
+        }
+
+        boolean take() {
+            for (; ; ) {
+                long p = permits.get();
+                if (p <= 0) {
+                    return false;
+                }
+                if (permits.compareAndSet(p, p - 1)) {
+                    consumed.increment();
+                    return true;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.rate.lease;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于内存令牌桶的{@link QuotaBackend},语义与Redis实现一致
+ * 用于测试或以单进程模拟多个节点共享同一份配额
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class LocalQuotaBackend implements QuotaBackend {
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long lease(String key, long permits, double rate, long capacity) {
+        Bucket bucket = bucket(key, rate, capacity);
+        synchronized (bucket) {
+            bucket.refill(System.nanoTime());
+            long grant = Math.max(0, Math.min(permits, (long) bucket.permits));
+            bucket.permits -= grant;
+            return grant;
+        }
+    }
+
+    @Override
+    public void giveBack(String key, long permits, double rate, long capacity) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null || !bucket.matches(rate, capacity)) {
+            return;
+        }
+        synchronized (bucket) {
+            bucket.refill(System.nanoTime());
+            bucket.permits = Math.min(capacity, bucket.permits + permits);
+        }
+    }
+
+    /**
+     * 查询当前桶中剩余的许可数
+     *
+     * @param key 限流键
+     * @return 剩余许可, 键不存在时返回-1
+     */
+    public double available(String key) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return -1;
+        }
+        synchronized (bucket) {
+            bucket.refill(System.nanoTime());
+            return bucket.permits;
+        }
+    }
+
+    private Bucket bucket(String key, double rate, long capacity) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null || !bucket.matches(rate, capacity)) {
+            bucket = buckets.compute(key, (k, old) ->
+                    old != null && old.matches(rate, capacity) ? old : new Bucket(rate, capacity));
+        }
+        return bucket;
+    }
+
+    private static final class Bucket {
+
+        private final double rate;
+        private final long capacity;
+        private double permits;
+        private long last;
+
+        Bucket(double rate, long capacity) {
+            this.rate = rate;
+            this.capacity = capacity;
+            this.permits = capacity;
+            this.last = System.nanoTime();
+        }
+
+        boolean matches(double rate, long capacity) {
+            return this.capacity == capacity && Double.compare(this.rate, rate) == 0;
+        }
+
+        void refill(long now) {
+            if (now > last) {
+                permits = Math.min(capacity, permits + (now - last) / 1e9 * rate);
+                last = now;
+            }
+        }
+    }
+
+}
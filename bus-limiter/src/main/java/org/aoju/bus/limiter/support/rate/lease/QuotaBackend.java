@@ -0,0 +1,57 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.rate.lease;
+
+/**
+ * 全局许可的存储后端,{@link LeasedRateLimiter}从中批量租用许可
+ * 实现需保证同一限流键的租用与归还是原子的
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public interface QuotaBackend {
+
+    /**
+     * 租用至多permits个许可,不足时按实际可用数量发放
+     *
+     * @param key      限流键
+     * @param permits  期望数量
+     * @param rate     每秒速率
+     * @param capacity 容量
+     * @return 实际发放的许可数, 0表示当前无可用许可
+     */
+    long lease(String key, long permits, double rate, long capacity);
+
+    /**
+     * 归还未使用的许可
+     *
+     * @param key      限流键
+     * @param permits  归还数量
+     * @param rate     每秒速率
+     * @param capacity 容量
+     */
+    void giveBack(String key, long permits, double rate, long capacity);
+
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.limiter.support.rate.redis;
+
+import org.aoju.bus.limiter.support.rate.lease.QuotaBackend;
+import org.redisson.config.Config;
+
+/**
+ * 以Redis令牌桶为全局配额的{@link QuotaBackend}
+ * 桶状态与{@link RedisRatelimiter}相同,两种模式可共用同一限流键
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class RedisQuotaBackend implements QuotaBackend {
+
+    private final RedisRatelimiter.RateLimiterRedission redission;
+
+    /**
+     * @param config 配置
+     */
+    public RedisQuotaBackend(Config config) {
+        this(new RedisRatelimiter.RateLimiterRedission(config));
+    }
+
+    public RedisQuotaBackend(RedisRatelimiter.RateLimiterRedission redission) {
+        this.redission = redission;
+    }
+
+    @Override
+    public long lease(String key, long permits, double rate, long capacity) {
+        return redission.getRedisRatelimiterObject(key).lease(permits, rate, capacity);
+    }
+
+    @Override
+    public void giveBack(String key, long permits, double rate, long capacity) {
+        redission.getRedisRatelimiterObject(key).giveBack(permits, rate, capacity);
+    }
+
+}
@@ -24,6 +24,7 @@
 package org.aoju.bus.limiter.support.rate.redis;
 
 import org.aoju.bus.limiter.support.rate.RateLimiter;
+import org.aoju.bus.limiter.support.rate.lease.LeasedRateLimiter;
 import org.aoju.bus.logger.Logger;
 import org.redisson.Redisson;
 import org.redisson.config.Config;
@@ -50,6 +51,18 @@ public class RedisRatelimiter extends RateLimiter {
 
     }
 
+    /**
+     * 创建租约模式的限流器,各节点从Redis批量租用许可并在本地扣减,
+     * 避免每次请求都访问Redis
+     *
+     * @param limiterName 名称
+     * @param config      配置
+     * @return 限流器
+     */
+    public static LeasedRateLimiter leased(String limiterName, Config config) {
+        return new LeasedRateLimiter(limiterName, new RedisQuotaBackend(config));
+    }
+
     @Override
     public boolean acquire(Object key, double rate, long capacity) {
         RedisRatelimiterObject rateLimiterObject = ratelimiterRedission.getRedisRatelimiterObject(key.toString());
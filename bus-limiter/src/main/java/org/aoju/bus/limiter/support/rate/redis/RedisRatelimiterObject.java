@@ -55,6 +55,67 @@ public class RedisRatelimiterObject extends RedissonObject {
         return get(tryAcquireAsync(RedisCommands.EVAL_LONG, permits, rate, capacity)) != -1;
     }
 
+    /**
+     * 从令牌桶中一次取走至多permits个许可,桶中不足时按实际数量发放
+     * 与{@link #tryAcquire(long, double, long)}共用同一份桶状态
+     *
+     * @param permits  期望数量
+     * @param rate     每秒速率
+     * @param capacity 容量
+     * @return 实际发放的许可数
+     */
+    public long lease(long permits, double rate, long capacity) {
+        String hash = Objects.hash(rate, capacity) + "";
+        return get(commandExecutor.evalWriteAsync(getName(), LongCodec.INSTANCE, RedisCommands.EVAL_LONG,
+                "local capacity = tonumber(ARGV[1])\n" +
+                        "local rate = tonumber(ARGV[2])\n" +
+                        "local req = tonumber(ARGV[3])\n" +
+                        "if (redis.call('exists',KEYS[1]) == 0 or redis.call('hget',KEYS[1],'hash') ~= ARGV[4]) then\n" +
+                        "    redis.call('hset', KEYS[1], 'capacity ', capacity)\n" +
+                        "    redis.call('hset', KEYS[1], 'rate', rate)\n" +
+                        "    redis.call('hset', KEYS[1], 'permit', capacity)\n" +
+                        "    redis.call('hset', KEYS[1], 'hash', ARGV[4])\n" +
+                        "    redis.call('expire', KEYS[1],3153600000000)\n" +
+                        "    redis.call('hset', KEYS[1], 'pttl',3153600000000000)\n" +
+                        "end\n" +
+                        "local now = redis.call('pttl', KEYS[1])\n" +
+                        "local pttl = tonumber(redis.call('hget', KEYS[1], 'pttl'))\n" +
+                        "local permit = tonumber(redis.call('hget', KEYS[1], 'permit'))\n" +
+                        "local newPermit = math.min(capacity, permit + ((pttl-now)/1000*rate))\n" +
+                        "local grant = math.max(0, math.min(req, math.floor(newPermit)))\n" +
+                        "redis.call('hset', KEYS[1], 'permit', newPermit-grant)\n" +
+                        "redis.call('hset', KEYS[1], 'pttl', now)\n" +
+                        "return grant ",
+                Arrays.asList(getName()),
+                capacity, rate, permits, hash));
+    }
+
+    /**
+     * 归还未用完的许可,桶中许可不会超过容量
+     *
+     * @param permits  归还数量
+     * @param rate     每秒速率
+     * @param capacity 容量
+     */
+    public void giveBack(long permits, double rate, long capacity) {
+        String hash = Objects.hash(rate, capacity) + "";
+        get(commandExecutor.evalWriteAsync(getName(), LongCodec.INSTANCE, RedisCommands.EVAL_LONG,
+                "if (redis.call('exists',KEYS[1]) == 0 or redis.call('hget',KEYS[1],'hash') ~= ARGV[4]) then\n" +
+                        "    return 0\n" +
+                        "end\n" +
+                        "local capacity = tonumber(ARGV[1])\n" +
+                        "local rate = tonumber(ARGV[2])\n" +
+                        "local now = redis.call('pttl', KEYS[1])\n" +
+                        "local pttl = tonumber(redis.call('hget', KEYS[1], 'pttl'))\n" +
+                        "local permit = tonumber(redis.call('hget', KEYS[1], 'permit'))\n" +
+                        "local newPermit = math.min(capacity, permit + ((pttl-now)/1000*rate) + tonumber(ARGV[3]))\n" +
+                        "redis.call('hset', KEYS[1], 'permit', newPermit)\n" +
+                        "redis.call('hset', KEYS[1], 'pttl', now)\n" +
+                        "return 1 ",
+                Arrays.asList(getName()),
+                capacity, rate, permits, hash));
+    }
+
     private <T> RFuture<T> tryAcquireAsync(RedisCommand<T> command, long permits, double rate, long capacity) {
         String hash = Objects.hash(rate, capacity) + "";
         return commandExecutor.evalWriteAsync(getName(), LongCodec.INSTANCE, command,
@@ -0,0 +1,331 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.pager;
+
+import org.aoju.bus.pager.parser.KeysetParser;
+import org.aoju.bus.pager.reflect.MetaObject;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * 键集(seek)分页对象
+ * <p>
+ * 不使用 offset,而是记住上一页最后一行的排序列的值,下一页从该值之后开始读取,
+ * 深翻页的代价与第一页相同;排序列末尾追加主键作为稳定排序,
+ * 翻页位置通过 {@link #getNextCursor()} 返回的游标在请求之间传递
+ * </p>
+ * <p>
+ * 游标中的值依次对应排序列(含主键),从结果行中按列名读取,
+ * 实体属性按驼峰规则匹配,与列名不一致时通过 {@link #keyProperties(String...)} 指定
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class KeysetPage<E> extends Page<E> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键列,作为最后一个排序列
+     */
+    private String keyColumn;
+    /**
+     * 上一页最后一行排序列的值
+     */
+    private Object[] lastValues;
+    /**
+     * 排序列在结果中对应的属性名
+     */
+    private String[] keyProperties;
+    /**
+     * SQL改写结果
+     */
+    private transient KeysetParser.Keyset keyset;
+
+    /**
+     * @param pageSize  每页显示数量
+     * @param orderBy   排序,为空时使用原SQL的排序
+     * @param keyColumn 主键列
+     * @param cursor    上一页返回的游标,为空时查询第一页
+     */
+    public KeysetPage(int pageSize, String orderBy, String keyColumn, String cursor) {
+        super(1, pageSize, false);
+        setOrderBy(orderBy);
+        this.keyColumn = keyColumn;
+        this.lastValues = decode(cursor);
+    }
+
+    /**
+     * 游标编码
+     * <p>
+     * 支持 String、数字、Boolean、日期时间类型,结果为 URL 安全的 Base64
+     * </p>
+     *
+     * @param values 排序列的值
+     * @return 游标
+     */
+    public static String encode(Object... values) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(values.length);
+            for (Object value : values) {
+                if (value == null) {
+                    out.writeByte('N');
+                } else if (value instanceof String) {
+                    out.writeByte('S');
+                    out.writeUTF((String) value);
+                } else if (value instanceof Long) {
+                    out.writeByte('L');
+                    out.writeLong((Long) value);
+                } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                    out.writeByte('I');
+                    out.writeInt(((Number) value).intValue());
+                } else if (value instanceof BigDecimal) {
+                    out.writeByte('D');
+                    out.writeUTF(value.toString());
+                } else if (value instanceof BigInteger) {
+                    out.writeByte('G');
+                    out.writeUTF(value.toString());
+                } else if (value instanceof Double || value instanceof Float) {
+                    out.writeByte('F');
+                    out.writeDouble(((Number) value).doubleValue());
+                } else if (value instanceof Boolean) {
+                    out.writeByte('B');
+                    out.writeBoolean((Boolean) value);
+                } else if (value instanceof Timestamp) {
+                    out.writeByte('T');
+                    out.writeLong(((Timestamp) value).getTime());
+                    out.writeInt(((Timestamp) value).getNanos());
+                } else if (value instanceof java.sql.Date) {
+                    out.writeByte('d');
+                    out.writeLong(((Date) value).getTime());
+                } else if (value instanceof Date) {
+                    out.writeByte('U');
+                    out.writeLong(((Date) value).getTime());
+                } else if (value instanceof LocalDateTime) {
+                    out.writeByte('X');
+                    out.writeUTF(value.toString());
+                } else if (value instanceof LocalDate) {
+                    out.writeByte('Y');
+                    out.writeUTF(value.toString());
+                } else {
+                    throw new PageException("游标不支持的类型: " + value.getClass().getName());
+                }
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new PageException(e);
+        }
+    }
+
+    /**
+     * 游标解码
+     *
+     * @param cursor 游标
+     * @return 排序列的值, 游标为空时返回 null
+     */
+    public static Object[] decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)));
+            Object[] values = new Object[in.readUnsignedByte()];
+            for (int i = 0; i < values.length; i++) {
+                int type = in.readUnsignedByte();
+                switch (type) {
+                    case 'N':
+                        break;
+                    case 'S':
+                        values[i] = in.readUTF();
+                        break;
+                    case 'L':
+                        values[i] = in.readLong();
+                        break;
+                    case 'I':
+                        values[i] = in.readInt();
+                        break;
+                    case 'D':
+                        values[i] = new BigDecimal(in.readUTF());
+                        break;
+                    case 'G':
+                        values[i] = new BigInteger(in.readUTF());
+                        break;
+                    case 'F':
+                        values[i] = in.readDouble();
+                        break;
+                    case 'B':
+                        values[i] = in.readBoolean();
+                        break;
+                    case 'T':
+                        Timestamp timestamp = new Timestamp(in.readLong());
+                        timestamp.setNanos(in.readInt());
+                        values[i] = timestamp;
+                        break;
+                    case 'd':
+                        values[i] = new java.sql.Date(in.readLong());
+                        break;
+                    case 'U':
+                        values[i] = new Date(in.readLong());
+                        break;
+                    case 'X':
+                        values[i] = LocalDateTime.parse(in.readUTF());
+                        break;
+                    case 'Y':
+                        values[i] = LocalDate.parse(in.readUTF());
+                        break;
+                    default:
+                        throw new PageException("无效的游标: " + cursor);
+                }
+            }
+            if (in.available() > 0) {
+                throw new PageException("无效的游标: " + cursor);
+            }
+            return values;
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof PageException) {
+                throw (PageException) e;
+            }
+            throw new PageException("无效的游标: " + cursor, e);
+        }
+    }
+
+    /**
+     * 下一页的游标
+     *
+     * @return 游标, 本页不满一页时返回 null
+     */
+    public String getNextCursor() {
+        if (isEmpty() || size() < getPageSize()) {
+            return null;
+        }
+        Object[] values = getKeyValues(get(size() - 1));
+        return values == null ? null : encode(values);
+    }
+
+    /**
+     * 是否可能还有下一页
+     *
+     * @return true/false
+     */
+    public boolean hasNext() {
+        return getPageSize() > 0 && size() >= getPageSize();
+    }
+
+    /**
+     * 读取结果行中排序列的值
+     *
+     * @param row 结果行
+     * @return 值, 尚未执行查询时返回 null
+     */
+    public Object[] getKeyValues(Object row) {
+        String[] properties = getKeyProperties();
+        if (properties == null) {
+            return null;
+        }
+        Object[] values = new Object[properties.length];
+        if (row instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) row;
+            for (int i = 0; i < properties.length; i++) {
+                values[i] = map.containsKey(properties[i]) ? map.get(properties[i]) : find(map, properties[i]);
+            }
+        } else {
+            org.apache.ibatis.reflection.MetaObject metaObject = MetaObject.forObject(row);
+            for (int i = 0; i < properties.length; i++) {
+                String property = metaObject.findProperty(properties[i], true);
+                if (property == null) {
+                    throw new PageException(row.getClass().getName() + " 中没有排序列 " + properties[i] + " 对应的属性");
+                }
+                values[i] = metaObject.getValue(property);
+            }
+        }
+        return values;
+    }
+
+    private static Object find(Map<?, ?> map, String column) {
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getKey() instanceof String && column.equalsIgnoreCase((String) entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        throw new PageException("结果中没有排序列 " + column);
+    }
+
+    public String getKeyColumn() {
+        return keyColumn;
+    }
+
+    public KeysetPage<E> setKeyColumn(String keyColumn) {
+        this.keyColumn = keyColumn;
+        return this;
+    }
+
+    public Object[] getLastValues() {
+        return lastValues;
+    }
+
+    public KeysetPage<E> setLastValues(Object... lastValues) {
+        this.lastValues = lastValues;
+        return this;
+    }
+
+    public String[] getKeyProperties() {
+        if (keyProperties != null) {
+            return keyProperties;
+        }
+        return keyset == null ? null : keyset.getColumns();
+    }
+
+    /**
+     * 排序列在结果中对应的属性名,依次对应排序列(含主键)
+     *
+     * @param keyProperties 属性名
+     * @return 结果
+     */
+    public KeysetPage<E> keyProperties(String... keyProperties) {
+        this.keyProperties = keyProperties;
+        return this;
+    }
+
+    public KeysetParser.Keyset getKeyset() {
+        return keyset;
+    }
+
+    public void setKeyset(KeysetParser.Keyset keyset) {
+        this.keyset = keyset;
+    }
+
+}
@@ -23,14 +23,24 @@
  */
 package org.aoju.bus.pager.dialect;
 
+import org.aoju.bus.pager.cache.CacheFactory;
+import org.aoju.bus.pager.cache.MetricsCache;
 import org.aoju.bus.pager.parser.CountSqlParser;
+import org.aoju.bus.pager.parser.KeysetParser;
+import org.aoju.bus.pager.plugin.PageFromObject;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.RowBounds;
 
+import java.util.Properties;
+
 /**
  * 基于 CountSqlParser 的智能 Count 查询
+ * <p>
+ * 同一条 SQL 的 count 查询和分页 SQL 只解析一次,按 SQL 文本缓存,
+ * 缓存实现由 sqlCacheClass 指定,countSql、pageSql、keysetSql 为对应缓存的参数前缀,sqlCache=false 时关闭缓存
+ * </p>
  *
  * @author Kimi Liu
  * @version 5.5.3
@@ -40,10 +50,88 @@ public abstract class AbstractDialect implements Dialect {
 
     //处理SQL
     protected CountSqlParser countSqlParser = new CountSqlParser();
+    //count 查询缓存
+    protected MetricsCache<CacheKey, String> countSqlCache;
+    //分页 SQL 缓存
+    protected MetricsCache<CacheKey, String> pageSqlCache;
+    //键集分页改写缓存
+    protected MetricsCache<CacheKey, KeysetParser.Keyset> keysetSqlCache;
 
     @Override
     public String getCountSql(MappedStatement ms, BoundSql boundSql, Object parameterObject, RowBounds rowBounds, CacheKey countKey) {
-        return countSqlParser.getSmartCountSql(boundSql.getSql());
+        return getSmartCountSql(boundSql.getSql(), null);
+    }
+
+    /**
+     * 获取智能的countSql,优先从缓存获取
+     *
+     * @param sql         原查询sql
+     * @param countColumn 列名,为空时使用默认值
+     * @return count查询sql
+     */
+    protected String getSmartCountSql(String sql, String countColumn) {
+        if (countSqlCache == null) {
+            return smartCountSql(sql, countColumn);
+        }
+        CacheKey key = new CacheKey(new Object[]{sql, countColumn});
+        String countSql = countSqlCache.get(key);
+        if (countSql == null) {
+            countSql = smartCountSql(sql, countColumn);
+            countSqlCache.put(key, countSql);
+        }
+        return countSql;
+    }
+
+    private String smartCountSql(String sql, String countColumn) {
+        if (PageFromObject.isNotEmpty(countColumn)) {
+            return countSqlParser.getSmartCountSql(sql, countColumn);
+        }
+        return countSqlParser.getSmartCountSql(sql);
+    }
+
+    /**
+     * count 查询缓存
+     *
+     * @return 缓存, 未启用时为 null
+     */
+    public MetricsCache<CacheKey, String> getCountSqlCache() {
+        return countSqlCache;
+    }
+
+    /**
+     * 分页 SQL 缓存
+     *
+     * @return 缓存, 未启用时为 null
+     */
+    public MetricsCache<CacheKey, String> getPageSqlCache() {
+        return pageSqlCache;
+    }
+
+    /**
+     * 键集分页改写缓存
+     *
+     * @return 缓存, 未启用时为 null
+     */
+    public MetricsCache<CacheKey, KeysetParser.Keyset> getKeysetSqlCache() {
+        return keysetSqlCache;
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        String sqlCache = properties.getProperty("sqlCache");
+        if (PageFromObject.isNotEmpty(sqlCache) && !Boolean.parseBoolean(sqlCache)) {
+            countSqlCache = null;
+            pageSqlCache = null;
+            keysetSqlCache = null;
+            return;
+        }
+        String sqlCacheClass = properties.getProperty("sqlCacheClass");
+        if ("false".equalsIgnoreCase(sqlCacheClass)) {
+            sqlCacheClass = null;
+        }
+        countSqlCache = new MetricsCache<>(CacheFactory.createCache(sqlCacheClass, "countSql", properties));
+        pageSqlCache = new MetricsCache<>(CacheFactory.createCache(sqlCacheClass, "pageSql", properties));
+        keysetSqlCache = new MetricsCache<>(CacheFactory.createCache(sqlCacheClass, "keysetSql", properties));
     }
 
 }
@@ -23,9 +23,12 @@
  */
 package org.aoju.bus.pager.dialect;
 
+import org.aoju.bus.pager.KeysetPage;
 import org.aoju.bus.pager.Page;
 import org.aoju.bus.pager.PageContext;
+import org.aoju.bus.pager.PageException;
 import org.aoju.bus.pager.PageRowBounds;
+import org.aoju.bus.pager.parser.KeysetParser;
 import org.aoju.bus.pager.parser.OrderByParser;
 import org.aoju.bus.pager.plugin.PageFromObject;
 import org.aoju.bus.pager.reflect.MetaObject;
@@ -71,11 +74,7 @@ public abstract class AbstractHelperDialect extends AbstractDialect {
     @Override
     public String getCountSql(MappedStatement ms, BoundSql boundSql, Object parameterObject, RowBounds rowBounds, CacheKey countKey) {
         Page<Object> page = getLocalPage();
-        String countColumn = page.getCountColumn();
-        if (PageFromObject.isNotEmpty(countColumn)) {
-            return countSqlParser.getSmartCountSql(boundSql.getSql(), countColumn);
-        }
-        return countSqlParser.getSmartCountSql(boundSql.getSql());
+        return getSmartCountSql(boundSql.getSql(), page.getCountColumn());
     }
 
     @Override
@@ -136,9 +135,80 @@ public abstract class AbstractHelperDialect extends AbstractDialect {
                 }
             }
         }
+        if (page instanceof KeysetPage) {
+            processKeysetParameter(ms, paramMap, (KeysetPage) page, boundSql, pageKey);
+        }
         return processPageParameter(ms, paramMap, page, boundSql, pageKey);
     }
 
+    /**
+     * 处理键集分页的定位参数,插入到原参数中定位条件所在的位置
+     *
+     * @param ms       MappedStatement
+     * @param paramMap Map
+     * @param page     KeysetPage
+     * @param boundSql BoundSql
+     * @param pageKey  CacheKey
+     */
+    protected void processKeysetParameter(MappedStatement ms, Map<String, Object> paramMap, KeysetPage page, BoundSql boundSql, CacheKey pageKey) {
+        Object[] values = page.getLastValues();
+        KeysetParser.Keyset keyset = getKeyset(boundSql.getSql(), page, values != null);
+        page.setKeyset(keyset);
+        if (values == null) {
+            return;
+        }
+        if (values.length != keyset.getColumns().length) {
+            throw new PageException("游标中有 " + values.length + " 个值,与排序列 "
+                    + Arrays.toString(keyset.getColumns()) + " 不一致");
+        }
+        for (int i = 0; i < values.length; i++) {
+            paramMap.put(KEYSET_PARAMETER + i, values[i]);
+            pageKey.update(values[i]);
+        }
+        List<ParameterMapping> newParameterMappings = boundSql.getParameterMappings() == null
+                ? new ArrayList<>() : new ArrayList<>(boundSql.getParameterMappings());
+        List<ParameterMapping> keysetParameterMappings = new ArrayList<>(keyset.getValueIndexes().length);
+        for (int index : keyset.getValueIndexes()) {
+            keysetParameterMappings.add(new ParameterMapping.Builder(ms.getConfiguration(), KEYSET_PARAMETER + index, Object.class).build());
+        }
+        newParameterMappings.addAll(keyset.getParameterIndex(), keysetParameterMappings);
+        org.apache.ibatis.reflection.MetaObject metaObject = MetaObject.forObject(boundSql);
+        metaObject.setValue("parameterMappings", newParameterMappings);
+    }
+
+    /**
+     * 获取键集分页改写结果,优先从缓存获取
+     *
+     * @param sql  原SQL
+     * @param page KeysetPage
+     * @param seek 是否追加定位条件
+     * @return 改写结果
+     */
+    protected KeysetParser.Keyset getKeyset(String sql, KeysetPage page, boolean seek) {
+        if (keysetSqlCache == null) {
+            return parseKeyset(sql, page, seek);
+        }
+        CacheKey key = new CacheKey(new Object[]{sql, page.getOrderBy(), page.getKeyColumn(), seek});
+        KeysetParser.Keyset keyset = keysetSqlCache.get(key);
+        if (keyset == null) {
+            keyset = parseKeyset(sql, page, seek);
+            keysetSqlCache.put(key, keyset);
+        }
+        return keyset;
+    }
+
+    /**
+     * 键集分页改写
+     *
+     * @param sql  原SQL
+     * @param page KeysetPage
+     * @param seek 是否追加定位条件
+     * @return 改写结果
+     */
+    protected KeysetParser.Keyset parseKeyset(String sql, KeysetPage page, boolean seek) {
+        return KeysetParser.parse(sql, page.getOrderBy(), page.getKeyColumn(), seek);
+    }
+
     /**
      * 处理分页参数
      *
@@ -168,6 +238,28 @@ public abstract class AbstractHelperDialect extends AbstractDialect {
         String orderBy = page.getOrderBy();
         if (PageFromObject.isNotEmpty(orderBy)) {
             pageKey.update(orderBy);
+        }
+        //键集分页已按排序和定位条件改写,只取前 pageSize 行
+        if (page instanceof KeysetPage) {
+            sql = ((KeysetPage) page).getKeyset().getSql();
+            orderBy = null;
+        }
+        if (pageSqlCache == null) {
+            return buildPageSql(sql, orderBy, page, pageKey);
+        }
+        //分页 SQL 只与原 SQL、排序和分页的形态有关,分页的值通过参数传递
+        int shape = page.isOrderByOnly() ? -1 : (page.getStartRow() > 0 ? 1 : 0) | (page.getPageSize() > 0 ? 2 : 0);
+        CacheKey key = new CacheKey(new Object[]{sql, orderBy, shape});
+        String pageSql = pageSqlCache.get(key);
+        if (pageSql == null) {
+            pageSql = buildPageSql(sql, orderBy, page, pageKey);
+            pageSqlCache.put(key, pageSql);
+        }
+        return pageSql;
+    }
+
+    private String buildPageSql(String sql, String orderBy, Page page, CacheKey pageKey) {
+        if (PageFromObject.isNotEmpty(orderBy)) {
             sql = OrderByParser.converToOrderBySql(sql, orderBy);
         }
         if (page.isOrderByOnly()) {
@@ -178,6 +270,9 @@ public abstract class AbstractHelperDialect extends AbstractDialect {
 
     /**
      * 单独处理分页部分
+     * 结果会按原 SQL 与分页形态（起始行是否大于0、每页条数是否大于0）缓存,
+     * 分页的具体值应通过 {@link #processPageParameter} 作为参数传递,不能拼接在 SQL 中,
+     * 缓存命中时不会调用此方法,因此不能在此修改 pageKey,分页值应在 {@link #processPageParameter} 中加入 pageKey
      *
      * @param sql     sql
      * @param page    Page
@@ -208,11 +303,6 @@ public abstract class AbstractHelperDialect extends AbstractDialect {
 
     }
 
-    @Override
-    public void setProperties(Properties properties) {
-
-    }
-
     protected void handleParameter(BoundSql boundSql, MappedStatement ms) {
         if (boundSql.getParameterMappings() != null) {
             List<ParameterMapping> newParameterMappings = new ArrayList<>(boundSql.getParameterMappings());
@@ -30,7 +30,6 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.RowBounds;
 
 import java.util.List;
-import java.util.Properties;
 
 /**
  * 基于 RowBounds 的分页
@@ -90,8 +89,4 @@ public abstract class AbstractRowBoundsDialect extends AbstractDialect {
 
     }
 
-    @Override
-    public void setProperties(Properties properties) {
-
-    }
 }
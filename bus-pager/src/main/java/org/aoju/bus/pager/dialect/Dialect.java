@@ -48,6 +48,8 @@ public interface Dialect {
     String PAGEPARAMETER_FIRST = "First" + SUFFIX_PAGE;
     //第二个分页参数
     String PAGEPARAMETER_SECOND = "Second" + SUFFIX_PAGE;
+    //键集分页定位参数前缀,后接游标值的下标
+    String KEYSET_PARAMETER = "Keyset" + SUFFIX_PAGE + "_";
 
     /**
      * 跳过 count 和 分页查询
@@ -56,7 +56,6 @@ public class SqlServer2012Dialect extends SqlServerDialect {
         StringBuilder sqlBuilder = new StringBuilder(sql.length() + 64);
         sqlBuilder.append(sql);
         sqlBuilder.append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY ");
-        pageKey.update(page.getPageSize());
         return sqlBuilder.toString();
     }
 
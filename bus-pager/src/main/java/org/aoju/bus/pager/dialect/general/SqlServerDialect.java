@@ -24,6 +24,7 @@
 package org.aoju.bus.pager.dialect.general;
 
 import org.aoju.bus.mapper.criteria.Assert;
+import org.aoju.bus.pager.KeysetPage;
 import org.aoju.bus.pager.Page;
 import org.aoju.bus.pager.cache.Cache;
 import org.aoju.bus.pager.cache.CacheFactory;
@@ -31,6 +32,7 @@ import org.aoju.bus.pager.dialect.AbstractHelperDialect;
 import org.aoju.bus.pager.dialect.ReplaceSql;
 import org.aoju.bus.pager.dialect.replace.RegexWithNolockReplaceSql;
 import org.aoju.bus.pager.dialect.replace.SimpleWithNolockReplaceSql;
+import org.aoju.bus.pager.parser.KeysetParser;
 import org.aoju.bus.pager.parser.OrderByParser;
 import org.aoju.bus.pager.parser.SqlServerParser;
 import org.aoju.bus.pager.plugin.PageFromObject;
@@ -88,7 +90,12 @@ public class SqlServerDialect extends AbstractHelperDialect {
         String sql = boundSql.getSql();
         Page page = this.getLocalPage();
         String orderBy = page.getOrderBy();
-        if (Assert.isNotEmpty(orderBy)) {
+        if (page instanceof KeysetPage) {
+            if (Assert.isNotEmpty(orderBy)) {
+                pageKey.update(orderBy);
+            }
+            sql = ((KeysetPage) page).getKeyset().getSql();
+        } else if (Assert.isNotEmpty(orderBy)) {
             pageKey.update(orderBy);
             sql = this.replaceSql.replace(sql);
             sql = OrderByParser.converToOrderBySql(sql, orderBy);
@@ -98,6 +105,12 @@ public class SqlServerDialect extends AbstractHelperDialect {
         return page.isOrderByOnly() ? sql : this.getPageSql(sql, page, pageKey);
     }
 
+    @Override
+    protected KeysetParser.Keyset parseKeyset(String sql, KeysetPage page, boolean seek) {
+        KeysetParser.Keyset keyset = super.parseKeyset(this.replaceSql.replace(sql), page, seek);
+        return keyset.withSql(this.replaceSql.restore(keyset.getSql()));
+    }
+
     @Override
     public String getPageSql(String sql, Page page, CacheKey pageKey) {
         //处理pageKey
@@ -0,0 +1,323 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.pager.parser;
+
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.JdbcNamedParameter;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.*;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.*;
+import org.aoju.bus.core.lang.Symbol;
+import org.aoju.bus.pager.PageException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 键集(seek)分页
+ * <p>
+ * 按排序列改写SQL:末尾追加主键作为稳定排序,有游标时在 where 中追加
+ * {@code c1 >= ? AND ((c1 > ?) OR (c1 = ? AND c2 > ?))} 形式的定位条件,
+ * 不依赖行值比较,MySQL/Oracle/SqlServer/DB2/HSQLDB 均可使用索引定位,
+ * 定位值通过参数传递,不拼接在 SQL 中
+ * </p>
+ * <p>
+ * 只支持单个 select 语句,排序列需为非空的列或带别名的查询列
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class KeysetParser {
+
+    /**
+     * 定位参数的占位名,改写完成后替换为 ?
+     */
+    private static final String MARKER = "__keyset_";
+
+    /**
+     * 改写SQL
+     *
+     * @param sql       原SQL
+     * @param orderBy   排序,为空时使用原SQL的排序
+     * @param keyColumn 主键列,为空时不追加
+     * @param seek      是否追加定位条件
+     * @return 改写结果
+     */
+    public static Keyset parse(String sql, String orderBy, String keyColumn, boolean seek) {
+        try {
+            Select select = (Select) CCJSqlParserUtil.parse(sql);
+            if (!(select.getSelectBody() instanceof PlainSelect)) {
+                throw new PageException("键集分页只支持单个 select 语句: " + sql);
+            }
+            PlainSelect plainSelect = (PlainSelect) select.getSelectBody();
+            List<OrderByElement> orderByElements = OrderByParser.extraOrderBy(plainSelect);
+            if (orderBy != null && orderBy.trim().length() > 0) {
+                if (orderBy.indexOf(Symbol.C_QUESTION_MARK) != -1) {
+                    throw new PageException("排序[" + orderBy + "]不能包含参数");
+                }
+                orderByElements = ((PlainSelect) ((Select) CCJSqlParserUtil.parse("SELECT 1 FROM DUAL ORDER BY " + orderBy))
+                        .getSelectBody()).getOrderByElements();
+            }
+            orderByElements = orderByElements == null ? new ArrayList<>() : new ArrayList<>(orderByElements);
+            if (keyColumn != null && keyColumn.trim().length() > 0) {
+                Expression key = CCJSqlParserUtil.parseExpression(keyColumn);
+                if (!contains(orderByElements, key)) {
+                    OrderByElement element = new OrderByElement();
+                    element.setExpression(key);
+                    element.setAsc(orderByElements.isEmpty() || orderByElements.get(orderByElements.size() - 1).isAsc());
+                    orderByElements.add(element);
+                }
+            }
+            if (orderByElements.isEmpty()) {
+                throw new PageException("键集分页需要指定排序列或主键列");
+            }
+            plainSelect.setOrderByElements(orderByElements);
+
+            int size = orderByElements.size();
+            Expression[] expressions = new Expression[size];
+            String[] columns = new String[size];
+            for (int i = 0; i < size; i++) {
+                OrderByElement element = orderByElements.get(i);
+                if (element.getNullOrdering() != null) {
+                    throw new PageException("键集分页的排序列不能指定 NULLS FIRST/LAST: " + element);
+                }
+                resolve(plainSelect, element.getExpression(), expressions, columns, i);
+            }
+            if (!seek) {
+                return new Keyset(select.toString(), columns, -1, new int[0]);
+            }
+            Expression predicate = null;
+            for (int i = 0; i < size; i++) {
+                Expression term = null;
+                for (int j = 0; j < i; j++) {
+                    term = and(term, binary(new EqualsTo(), expressions[j], parameter(j)));
+                }
+                term = and(term, compare(orderByElements.get(i).isAsc(), false, expressions[i], parameter(i)));
+                if (size > 1) {
+                    term = new Parenthesis(term);
+                }
+                predicate = predicate == null ? term : new OrExpression(predicate, term);
+            }
+            if (size > 1) {
+                //首列的范围条件,便于使用索引的范围扫描
+                predicate = new AndExpression(
+                        compare(orderByElements.get(0).isAsc(), true, expressions[0], parameter(0)),
+                        new Parenthesis(predicate));
+            }
+            Expression where = plainSelect.getWhere();
+            plainSelect.setWhere(where == null ? new Parenthesis(predicate)
+                    : new AndExpression(new Parenthesis(where), new Parenthesis(predicate)));
+            return replace(select.toString(), columns);
+        } catch (PageException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new PageException("处理键集分页失败: " + e, e);
+        }
+    }
+
+    private static boolean contains(List<OrderByElement> orderByElements, Expression key) {
+        for (OrderByElement element : orderByElements) {
+            Expression expression = element.getExpression();
+            if (expression.toString().equalsIgnoreCase(key.toString())) {
+                return true;
+            }
+            if (expression instanceof Column && key instanceof Column
+                    && (((Column) expression).getTable() == null || ((Column) key).getTable() == null)
+                    && ((Column) expression).getColumnName().equalsIgnoreCase(((Column) key).getColumnName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 确定排序列在 where 中的表达式和在结果中的列名
+     */
+    private static void resolve(PlainSelect plainSelect, Expression expression, Expression[] expressions, String[] columns, int index) {
+        String text = expression.toString();
+        for (SelectItem item : plainSelect.getSelectItems()) {
+            if (!(item instanceof SelectExpressionItem)) {
+                continue;
+            }
+            SelectExpressionItem selectItem = (SelectExpressionItem) item;
+            if (selectItem.getAlias() == null) {
+                continue;
+            }
+            String alias = unquote(selectItem.getAlias().getName());
+            //按别名排序时,where 中只能使用原表达式
+            if (selectItem.getExpression().toString().equalsIgnoreCase(text)
+                    || (expression instanceof Column && ((Column) expression).getTable() == null
+                    && alias.equalsIgnoreCase(unquote(((Column) expression).getColumnName())))) {
+                expressions[index] = selectItem.getExpression();
+                columns[index] = alias;
+                return;
+            }
+        }
+        if (!(expression instanceof Column)) {
+            throw new PageException("键集分页的排序[" + text + "]需要是列或带别名的查询列");
+        }
+        expressions[index] = expression;
+        columns[index] = unquote(((Column) expression).getColumnName());
+    }
+
+    private static String unquote(String name) {
+        if (name.length() > 1) {
+            char first = name.charAt(0);
+            char last = name.charAt(name.length() - 1);
+            if ((first == '"' && last == '"') || (first == '`' && last == '`') || (first == '[' && last == ']')) {
+                return name.substring(1, name.length() - 1);
+            }
+        }
+        return name;
+    }
+
+    private static Expression and(Expression left, Expression right) {
+        return left == null ? right : new AndExpression(left, right);
+    }
+
+    private static Expression compare(boolean asc, boolean inclusive, Expression left, Expression right) {
+        ComparisonOperator operator;
+        if (asc) {
+            operator = inclusive ? new GreaterThanEquals() : new GreaterThan();
+        } else {
+            operator = inclusive ? new MinorThanEquals() : new MinorThan();
+        }
+        return binary(operator, left, right);
+    }
+
+    private static Expression binary(ComparisonOperator operator, Expression left, Expression right) {
+        operator.setLeftExpression(left);
+        operator.setRightExpression(right);
+        return operator;
+    }
+
+    private static Expression parameter(int index) {
+        return new JdbcNamedParameter(MARKER + index);
+    }
+
+    /**
+     * 将占位名替换为 ?,并记录定位参数的位置和顺序
+     */
+    private static Keyset replace(String sql, String[] columns) {
+        StringBuilder builder = new StringBuilder(sql.length());
+        List<Integer> indexes = new ArrayList<>();
+        String marker = Symbol.COLON + MARKER;
+        int count = 0;
+        int parameterIndex = -1;
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == Symbol.C_QUESTION_MARK) {
+                count++;
+            } else if (sql.startsWith(marker, i)) {
+                if (parameterIndex < 0) {
+                    parameterIndex = count;
+                }
+                int end = i + marker.length();
+                while (end < sql.length() && Character.isDigit(sql.charAt(end))) {
+                    end++;
+                }
+                indexes.add(Integer.parseInt(sql.substring(i + marker.length(), end)));
+                builder.append(Symbol.C_QUESTION_MARK);
+                i = end - 1;
+                continue;
+            }
+            builder.append(c);
+        }
+        int[] valueIndexes = new int[indexes.size()];
+        for (int i = 0; i < valueIndexes.length; i++) {
+            valueIndexes[i] = indexes.get(i);
+        }
+        return new Keyset(builder.toString(), columns, parameterIndex, valueIndexes);
+    }
+
+    /**
+     * 改写结果
+     */
+    public static class Keyset {
+
+        private final String sql;
+        private final String[] columns;
+        private final int parameterIndex;
+        private final int[] valueIndexes;
+
+        public Keyset(String sql, String[] columns, int parameterIndex, int[] valueIndexes) {
+            this.sql = sql;
+            this.columns = columns;
+            this.parameterIndex = parameterIndex;
+            this.valueIndexes = valueIndexes;
+        }
+
+        /**
+         * @return 改写后的SQL
+         */
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * @return 排序列在结果中的列名,依次对应游标中的值
+         */
+        public String[] getColumns() {
+            return columns;
+        }
+
+        /**
+         * @return 定位参数在原参数中的插入位置,没有定位条件时为-1
+         */
+        public int getParameterIndex() {
+            return parameterIndex;
+        }
+
+        /**
+         * @return 定位参数依次使用的游标值下标
+         */
+        public int[] getValueIndexes() {
+            return valueIndexes;
+        }
+
+        /**
+         * 替换SQL
+         *
+         * @param sql SQL
+         * @return 新的结果
+         */
+        public Keyset withSql(String sql) {
+            return new Keyset(sql, columns, parameterIndex, valueIndexes);
+        }
+    }
+
+}
@@ -24,6 +24,7 @@
 package org.aoju.bus.pager.proxy;
 
 import org.aoju.bus.pager.ISelect;
+import org.aoju.bus.pager.KeysetPage;
 import org.aoju.bus.pager.Page;
 import org.aoju.bus.pager.plugin.PageFromObject;
 
@@ -193,6 +194,45 @@ public abstract class PageMethod {
         return page;
     }
 
+    /**
+     * 开始键集分页,使用原SQL的排序
+     *
+     * @param <E>       对象
+     * @param pageSize  每页显示数量
+     * @param keyColumn 主键列,作为稳定排序追加在排序末尾
+     * @param cursor    上一页返回的游标,为空时查询第一页
+     * @return 结果
+     * @see KeysetPage#getNextCursor()
+     */
+    public static <E> KeysetPage<E> startKeyset(int pageSize, String keyColumn, String cursor) {
+        return startKeyset(pageSize, null, keyColumn, cursor);
+    }
+
+    /**
+     * 开始键集分页
+     * <p>
+     * 按上一页最后一行排序列的值定位,不使用 offset,默认不进行count查询
+     * </p>
+     *
+     * @param <E>       对象
+     * @param pageSize  每页显示数量
+     * @param orderBy   排序,为空时使用原SQL的排序
+     * @param keyColumn 主键列,作为稳定排序追加在排序末尾
+     * @param cursor    上一页返回的游标,为空时查询第一页
+     * @return 结果
+     * @see KeysetPage#getNextCursor()
+     */
+    public static <E> KeysetPage<E> startKeyset(int pageSize, String orderBy, String keyColumn, String cursor) {
+        //当已经执行过orderBy的时候
+        Page<E> oldPage = getLocalPage();
+        if (PageFromObject.isEmpty(orderBy) && oldPage != null && oldPage.isOrderByOnly()) {
+            orderBy = oldPage.getOrderBy();
+        }
+        KeysetPage<E> page = new KeysetPage<>(pageSize, orderBy, keyColumn, cursor);
+        setLocalPage(page);
+        return page;
+    }
+
     /**
      * 排序
      *
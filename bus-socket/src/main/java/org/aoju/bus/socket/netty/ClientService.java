@@ -24,8 +24,18 @@
 package org.aoju.bus.socket.netty;
 
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelId;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
+ * 客户端及订阅关系注册表
+ * <p>
+ * 主题到订阅者的索引由{@link ClientGroup}维护,每个客户端自身记录已订阅的主题,
+ * 断开时只需清理其订阅过的主题;订阅与取消均在通道所属的EventLoop中执行
+ * </p>
+ *
  * @author Kimi Liu
  * @version 5.5.3
  * @since JDK 1.8+
@@ -52,42 +62,109 @@ public class ClientService {
     }
 
     public static SocketClient subscribe(ChannelHandlerContext context, String topic) {
-        if (group.containsKey(topic)) {
-            ClientMap map = group.get(topic);
-            return subscribe(context, topic, map);
-        } else {
-            ClientMap map = new ClientMap();
-            group.put(topic, map);
-            return subscribe(context, topic, map);
+        SocketClient client = getClient(context);
+        if (client == null) {
+            return null;
         }
+        ChannelId id = context.channel().id();
+        client.subscribe(topic);
+        group.compute(topic, (key, map) -> {
+            if (map == null) {
+                map = new ClientMap();
+            }
+            map.put(id, client);
+            return map;
+        });
+        return client;
     }
 
-    private static SocketClient subscribe(ChannelHandlerContext context, String topic, ClientMap map) {
-        if (map.containsKey(context.channel().id())) {
-            SocketClient client = map.get(context.channel().id());
-            client.subscribe(topic);
-            return client;
-        } else {
-            SocketClient client = getClient(context);
-            client.subscribe(topic);
-            map.put(context.channel().id(), client);
-            return client;
+    /**
+     * 取消订阅并触发取消事件
+     *
+     * @param context 通道上下文
+     * @param topic   主题
+     * @param data    数据
+     */
+    public static void cancel(ChannelHandlerContext context, String topic, String data) {
+        SocketClient client = getClient(context);
+        if (client != null && client.isSubscribed(topic)) {
+            unsubscribe(context.channel().id(), topic);
+            client.cancel(topic, data);
+        }
+    }
+
+    /**
+     * 取消全部订阅并触发取消事件
+     *
+     * @param context 通道上下文
+     * @param data    数据
+     */
+    public static void cancel(ChannelHandlerContext context, String data) {
+        SocketClient client = getClient(context);
+        if (client != null) {
+            for (String topic : client.getTopics()) {
+                unsubscribe(context.channel().id(), topic);
+            }
+            client.cancel(data);
         }
     }
 
     public static void remove(ChannelHandlerContext context) {
-        inactive(context);
-        for (ClientMap map : group.values()) {
-            map.remove(context.channel().id());
+        SocketClient client = activeClients.remove(context.channel().id());
+        if (client != null) {
+            for (String topic : client.getTopics()) {
+                unsubscribe(context.channel().id(), topic);
+            }
         }
     }
 
     public static void publish(String topic, String message) {
-        CommandExecutor.execute(new PublishCommand(topic, message));
+        new PublishCommand(topic, message).run();
     }
 
     public static ClientGroup getClientGroup() {
         return group;
     }
 
+    /**
+     * 获取主题的订阅者数量
+     *
+     * @param topic 主题
+     * @return 订阅者数量
+     */
+    public static int getSubscriberCount(String topic) {
+        ClientMap map = group.get(topic);
+        return map == null ? 0 : map.size();
+    }
+
+    /**
+     * 获取各主题的订阅者数量
+     *
+     * @return 主题:订阅者数量
+     */
+    public static Map<String, Integer> getSubscriberCounts() {
+        Map<String, Integer> counts = new HashMap<>(group.size());
+        group.forEach((topic, map) -> counts.put(topic, map.size()));
+        return counts;
+    }
+
+    /**
+     * 获取在线客户端数量
+     *
+     * @return 客户端数量
+     */
+    public static int getClientCount() {
+        return activeClients.size();
+    }
+
+    /**
+     * 从主题索引中移除订阅者,主题无订阅者时一并移除
+     */
+    private static void unsubscribe(ChannelId id, String topic) {
+        group.computeIfPresent(topic, (key, map) -> {
+            map.remove(id);
+            return map.isEmpty() ? null : map;
+        });
+    }
+
 }
@@ -23,23 +23,25 @@
  */
 package org.aoju.bus.socket.netty;
 
-import org.aoju.bus.core.thread.ThreadBuilder;
-
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.EventExecutor;
 
 /**
+ * 命令在通道所属的EventLoop中执行,同一通道的命令天然串行,无需共享线程池
+ *
  * @author Kimi Liu
  * @version 5.5.3
  * @since JDK 1.8+
  */
 public class CommandExecutor {
 
-    private static ThreadPoolExecutor executor = new ThreadPoolExecutor(8, 8, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new ThreadBuilder().setNamePrefix("websocket-command-%d").build());
-
-    public static void execute(Runnable command) {
-        executor.execute(command);
+    public static void execute(ChannelHandlerContext context, Runnable command) {
+        EventExecutor executor = context.executor();
+        if (executor.inEventLoop()) {
+            command.run();
+        } else {
+            executor.execute(command);
+        }
     }
 
 }
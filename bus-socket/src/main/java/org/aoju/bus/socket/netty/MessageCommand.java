@@ -38,14 +38,13 @@ public class MessageCommand implements Runnable {
 
     @Override
     public void run() {
+        SocketClient client = ClientService.getClient(request.getContext());
+        if (client == null) {
+            return;
+        }
         for (String topic : request.getTopic()) {
-            ClientGroup group = ClientService.getClientGroup();
-            if (group.containsKey(topic)) {
-                ClientMap map = group.get(topic);
-                if (map.containsKey(request.getContext().channel().id())) {
-                    SocketClient client = map.get(request.getContext().channel().id());
-                    SocketService.onMessage(client, topic, request.getData());
-                }
+            if (client.isSubscribed(topic)) {
+                SocketService.onMessage(client, topic, request.getData());
             }
         }
     }
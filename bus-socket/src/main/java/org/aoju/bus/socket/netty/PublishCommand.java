@@ -23,7 +23,19 @@
  */
 package org.aoju.bus.socket.netty;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoop;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
+ * 主题消息发布,消息只编码一次,按通道所属EventLoop分批写出后统一刷新
+ *
  * @author Kimi Liu
  * @version 5.5.3
  * @since JDK 1.8+
@@ -41,11 +53,40 @@ public class PublishCommand implements Runnable {
     @Override
     public void run() {
         ClientGroup group = ClientService.getClientGroup();
-        if (group.containsKey(topic)) {
-            ClientMap map = group.get(topic);
-            for (SocketClient client : map.values()) {
-                client.send(topic, message);
+        ClientMap map = group.get(topic);
+        if (map == null || map.isEmpty()) {
+            return;
+        }
+        Map<EventLoop, List<SocketClient>> loops = new IdentityHashMap<>();
+        for (SocketClient client : map.values()) {
+            loops.computeIfAbsent(client.channel().eventLoop(), key -> new ArrayList<>()).add(client);
+        }
+        ByteBuf payload = Unpooled.copiedBuffer(message, StandardCharsets.UTF_8);
+        try {
+            for (Map.Entry<EventLoop, List<SocketClient>> entry : loops.entrySet()) {
+                List<SocketClient> clients = entry.getValue();
+                ByteBuf shared = payload.retainedDuplicate();
+                try {
+                    entry.getKey().execute(() -> publish(clients, shared));
+                } catch (RuntimeException e) {
+                    shared.release();
+                }
+            }
+        } finally {
+            payload.release();
+        }
+    }
+
+    private void publish(List<SocketClient> clients, ByteBuf shared) {
+        try {
+            for (SocketClient client : clients) {
+                client.write(topic, shared.retainedDuplicate());
+            }
+            for (SocketClient client : clients) {
+                client.flush();
             }
+        } finally {
+            shared.release();
         }
     }
 
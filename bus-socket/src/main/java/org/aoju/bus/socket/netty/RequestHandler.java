@@ -33,13 +33,13 @@ public class RequestHandler {
     public static void execute(SocketRequest request) {
         if (request.getEvent() != null) {
             if (NettyConsts.SUBSCRIBE.equals(request.getEvent())) {
-                CommandExecutor.execute(new SubscribeCommand(request));
+                CommandExecutor.execute(request.getContext(), new SubscribeCommand(request));
             } else if (NettyConsts.HEARTBEAT.equals(request.getEvent())) {
-                CommandExecutor.execute(new HeartbeatCommand(request));
+                CommandExecutor.execute(request.getContext(), new HeartbeatCommand(request));
             } else if (NettyConsts.CANCEL.equals(request.getEvent())) {
-                CommandExecutor.execute(new CancelCommand(request));
+                CommandExecutor.execute(request.getContext(), new CancelCommand(request));
             } else if (NettyConsts.MESSAGE.equals(request.getEvent())) {
-                CommandExecutor.execute(new MessageCommand(request));
+                CommandExecutor.execute(request.getContext(), new MessageCommand(request));
             }
         }
     }
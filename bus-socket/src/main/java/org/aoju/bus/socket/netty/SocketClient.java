@@ -23,11 +23,13 @@
  */
 package org.aoju.bus.socket.netty;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Kimi Liu
@@ -37,7 +39,7 @@ import java.util.List;
 public class SocketClient {
 
     private Channel channel;
-    private List<String> topics = new ArrayList<>();
+    private Set<String> topics = ConcurrentHashMap.newKeySet();
     private Long lastUpdateTime = System.currentTimeMillis();
     private Long inactiveTime = 60000L;
 
@@ -52,6 +54,31 @@ public class SocketClient {
         }
     }
 
+    /**
+     * 写出已编码的消息但不刷新,需在通道所属的EventLoop中调用,并随后调用{@link #flush()}
+     *
+     * @param topic   主题
+     * @param payload 已编码的消息,调用方负责传入独立的引用计数
+     * @return 是否已写出
+     */
+    public boolean write(String topic, ByteBuf payload) {
+        if (!this.topics.contains(topic) || !channel.isActive()) {
+            payload.release();
+            return false;
+        }
+        channel.write(new TextWebSocketFrame(payload), channel.voidPromise());
+        lastUpdateTime = System.currentTimeMillis();
+        return true;
+    }
+
+    public void flush() {
+        channel.flush();
+    }
+
+    public Channel channel() {
+        return channel;
+    }
+
     public void send(String message) {
         channel.writeAndFlush(new TextWebSocketFrame(message));
         lastUpdateTime = System.currentTimeMillis();
@@ -66,12 +93,23 @@ public class SocketClient {
     }
 
     public void subscribe(String topic) {
-        if (!this.topics.contains(topic)) {
-            this.topics.add(topic);
-        }
+        this.topics.add(topic);
         lastUpdateTime = System.currentTimeMillis();
     }
 
+    public boolean isSubscribed(String topic) {
+        return this.topics.contains(topic);
+    }
+
+    /**
+     * 获取已订阅的主题
+     *
+     * @return 只读主题集合
+     */
+    public Set<String> getTopics() {
+        return Collections.unmodifiableSet(topics);
+    }
+
     public void cancel(String data) {
         for (String topic : topics) {
             SocketService.onCancel(this, topic, data);
@@ -81,8 +119,7 @@ public class SocketClient {
     }
 
     public void cancel(String topic, String data) {
-        if (this.topics.contains(topic)) {
-            this.topics.remove(topic);
+        if (this.topics.remove(topic)) {
             SocketService.onCancel(this, topic, data);
         }
         lastUpdateTime = System.currentTimeMillis();
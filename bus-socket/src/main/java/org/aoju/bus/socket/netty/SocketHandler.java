@@ -54,7 +54,7 @@ public class SocketHandler extends SimpleChannelInboundHandler<TextWebSocketFram
 
     @Override
     public void handlerRemoved(ChannelHandlerContext ctx) {
-        CommandExecutor.execute(new RemoveCommand(ctx));
+        CommandExecutor.execute(ctx, new RemoveCommand(ctx));
     }
 
     @Override
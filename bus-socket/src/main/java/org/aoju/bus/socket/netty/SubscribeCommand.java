@@ -40,7 +40,9 @@ public class SubscribeCommand implements Runnable {
     public void run() {
         for (String topic : request.getTopic()) {
             SocketClient client = ClientService.subscribe(request.getContext(), topic);
-            SocketService.onSubscribe(client, topic, request.getData());
+            if (client != null) {
+                SocketService.onSubscribe(client, topic, request.getData());
+            }
         }
     }
 
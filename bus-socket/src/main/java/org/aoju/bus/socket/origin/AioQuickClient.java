@@ -218,4 +218,30 @@ public class AioQuickClient<T> {
         return this;
     }
 
+    /**
+     * 设置单个会话待输出数据的高低水位
+     * <p>
+     * 超过高水位时会话变为不可写并触发{@link StateMachine#WRITABILITY_CHANGED},回落至低水位以下时恢复可写
+     * </p>
+     *
+     * @param low  低水位,单位：byte
+     * @param high 高水位,单位：byte,小于等于0表示不启用
+     * @return the object
+     */
+    public final AioQuickClient<T> setWriteWaterMark(int low, int high) {
+        config.setWriteWaterMark(low, high);
+        return this;
+    }
+
+    /**
+     * 设置超出高水位或输出内存预算时的处理策略
+     *
+     * @param overflowPolicy 处理策略
+     * @return the object
+     */
+    public final AioQuickClient<T> setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        config.setOverflowPolicy(overflowPolicy);
+        return this;
+    }
+
 }
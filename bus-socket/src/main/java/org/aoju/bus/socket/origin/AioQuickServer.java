@@ -31,6 +31,7 @@ import org.aoju.bus.logger.Logger;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketOption;
+import java.net.StandardSocketOptions;
 import java.nio.channels.AsynchronousChannelGroup;
 import java.nio.channels.AsynchronousServerSocketChannel;
 import java.nio.channels.AsynchronousSocketChannel;
@@ -41,6 +42,8 @@ import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 
 /**
  * AIO服务端
@@ -56,19 +59,23 @@ public class AioQuickServer<T> {
      * <p>调用AioQuickServer的各setXX()方法,都是为了设置config的各配置项</p>
      */
     protected ServerConfig<T> config = new ServerConfig<>();
-    protected BufferPool bufferPool;
     /**
-     * 读回调事件处理
+     * 首个监听器的内存池,多监听器模式下各监听器拥有独立的内存池
      */
-    protected TcpReadHandler<T> aioReadCompletionHandler;
+    protected BufferPool bufferPool;
     /**
      * 写回调事件处理
      */
     protected TcpWriteHandler<T> aioWriteCompletionHandler;
-    private Function<AsynchronousSocketChannel, TcpAioSession<T>> aioSessionFunction;
-    private AsynchronousServerSocketChannel serverSocketChannel = null;
-    private AsynchronousChannelGroup asynchronousChannelGroup;
-    private Thread acceptThread = null;
+    private BiFunction<AsynchronousSocketChannel, Acceptor<T>, TcpAioSession<T>> aioSessionFunction;
+    /**
+     * 监听器,启用SO_REUSEPORT时每个监听器独立绑定同一端口
+     */
+    private Acceptor<T>[] acceptors;
+    /**
+     * 监听器数量
+     */
+    private int acceptorNum = 1;
     private volatile boolean running = true;
 
     /**
@@ -102,7 +109,7 @@ public class AioQuickServer<T> {
      * @throws IOException 异常
      */
     public void start() throws IOException {
-        start0(channel -> new TcpAioSession<>(channel, config, aioReadCompletionHandler, aioWriteCompletionHandler, bufferPool.allocateBufferPage()));
+        start0((channel, acceptor) -> new TcpAioSession<>(channel, config, acceptor.readHandler, aioWriteCompletionHandler, acceptor.bufferPool.allocateBufferPage()));
     }
 
     /**
@@ -111,96 +118,66 @@ public class AioQuickServer<T> {
      * @param aioSessionFunction 会话信息
      * @throws IOException 异常
      */
-    protected final void start0(Function<AsynchronousSocketChannel, TcpAioSession<T>> aioSessionFunction) throws IOException {
+    protected final void start0(BiFunction<AsynchronousSocketChannel, Acceptor<T>, TcpAioSession<T>> aioSessionFunction) throws IOException {
         //确保单核CPU默认初始化至少2个线程
         if (config.getThreadNum() == 1) {
             config.setThreadNum(2);
         }
         int threadNum = config.getThreadNum();
+        SocketOption<Boolean> reusePort = null;
+        if (acceptorNum > 1) {
+            reusePort = reusePortOption();
+            if (reusePort == null) {
+                Logger.warn("SO_REUSEPORT is not supported, acceptorNum {} fall back to 1", acceptorNum);
+            }
+        }
+        int num = reusePort == null ? 1 : acceptorNum;
         try {
-
-            ThreadLocal<CompletionHandler> recursionThreadLocal = new ThreadLocal<>();
-            RingBuffer<TcpReadEvent> buffer = new RingBuffer<>(config.getReadBacklog(), new EventFactory<TcpReadEvent>() {
-                @Override
-                public TcpReadEvent newInstance() {
-                    return new TcpReadEvent();
-                }
-
-                @Override
-                public void restEntity(TcpReadEvent entity) {
-                    entity.setReadSize(-1);
-                    entity.setSession(null);
-                }
-            });
-            aioReadCompletionHandler = new TcpReadHandler<>(buffer, recursionThreadLocal, new Semaphore(threadNum - 1));
             aioWriteCompletionHandler = new TcpWriteHandler<>();
-            this.bufferPool = new BufferPool(ServerConfig.getIntProperty(ServerConfig.Property.SERVER_PAGE_SIZE, 1024 * 1024), ServerConfig.getIntProperty(ServerConfig.Property.BUFFER_PAGE_NUM, threadNum), ServerConfig.getBoolProperty(ServerConfig.Property.SERVER_PAGE_IS_DIRECT, true));
             this.aioSessionFunction = aioSessionFunction;
-
-            asynchronousChannelGroup = AsynchronousChannelGroup.withFixedThreadPool(threadNum, new ThreadFactory() {
-                byte index = 0;
-
-                @Override
-                public Thread newThread(Runnable r) {
-                    return new Thread(r, "bus-socket:Thread-" + (++index));
-                }
-            });
-            this.serverSocketChannel = AsynchronousServerSocketChannel.open(asynchronousChannelGroup);
-            //set socket options
-            if (config.getSocketOptions() != null) {
-                for (Map.Entry<SocketOption<Object>, Object> entry : config.getSocketOptions().entrySet()) {
-                    this.serverSocketChannel.setOption(entry.getKey(), entry.getValue());
-                }
+            this.acceptors = new Acceptor[num];
+            for (int i = 0; i < num; i++) {
+                acceptors[i] = new Acceptor<>(this, i, num == 1 ? threadNum : Math.max(2, threadNum / num), reusePort);
             }
-            //bind host
-            if (config.getHost() != null) {
-                serverSocketChannel.bind(new InetSocketAddress(config.getHost(), config.getPort()), 1000);
-            } else {
-                serverSocketChannel.bind(new InetSocketAddress(config.getPort()), 1000);
+            this.bufferPool = acceptors[0].bufferPool;
+            for (Acceptor<T> acceptor : acceptors) {
+                acceptor.start();
             }
-            acceptThread = new Thread(new Runnable() {
-                NetMonitor<T> monitor = config.getMonitor();
-
-                @Override
-                public void run() {
-                    Future<AsynchronousSocketChannel> nextFuture = serverSocketChannel.accept();
-                    while (running) {
-                        try {
-                            final AsynchronousSocketChannel channel = nextFuture.get();
-                            nextFuture = serverSocketChannel.accept();
-                            if (monitor == null || monitor.acceptMonitor(channel)) {
-                                createSession(channel);
-                            } else {
-                                config.getProcessor().stateEvent(null, StateMachine.REJECT_ACCEPT, null);
-                                Logger.warn("reject accept channel:{}", channel);
-                                closeChannel(channel);
-                            }
-                        } catch (Exception e) {
-                            Logger.error("AcceptThread Exception", e);
-                        }
-
-                    }
-                }
-            }, "bus-socket:AcceptThread");
-            acceptThread.start();
         } catch (IOException e) {
             shutdown();
             throw e;
         }
-        Logger.info("server started on port {},threadNum:{}", config.getPort(), threadNum);
+        Logger.info("server started on port {},threadNum:{},acceptorNum:{}", config.getPort(), threadNum, num);
         Logger.info("server config is {}", config);
     }
 
+    /**
+     * 获取可用的SO_REUSEPORT配置项,JDK9之前或当前平台不支持时返回null
+     *
+     * @return 配置项
+     */
+    private static SocketOption<Boolean> reusePortOption() {
+        try {
+            SocketOption<Boolean> option = (SocketOption<Boolean>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+            try (AsynchronousServerSocketChannel channel = AsynchronousServerSocketChannel.open()) {
+                return channel.supportedOptions().contains(option) ? option : null;
+            }
+        } catch (NoSuchFieldException | IllegalAccessException | IOException e) {
+            return null;
+        }
+    }
+
     /**
      * 为每个新建立的连接创建AIOSession对象
      *
-     * @param channel 当前已建立连接通道
+     * @param channel  当前已建立连接通道
+     * @param acceptor 接收该连接的监听器
      */
-    private void createSession(AsynchronousSocketChannel channel) {
+    private void createSession(AsynchronousSocketChannel channel, Acceptor<T> acceptor) {
         //连接成功则构造AIOSession对象
         TcpAioSession<T> session = null;
         try {
-            session = aioSessionFunction.apply(channel);
+            session = aioSessionFunction.apply(channel, acceptor);
             session.initSession();
         } catch (Exception e1) {
             Logger.error(e1.getMessage(), e1);
@@ -235,27 +212,31 @@ public class AioQuickServer<T> {
      */
     public final void shutdown() {
         running = false;
-        try {
-            if (serverSocketChannel != null) {
-                serverSocketChannel.close();
-                serverSocketChannel = null;
+        if (acceptors == null) {
+            return;
+        }
+        for (Acceptor<T> acceptor : acceptors) {
+            if (acceptor != null) {
+                acceptor.shutdown();
             }
-        } catch (IOException e) {
-            Logger.warn(e.getMessage(), e);
         }
+    }
 
-        if (!asynchronousChannelGroup.isTerminated()) {
-            try {
-                asynchronousChannelGroup.shutdownNow();
-            } catch (IOException e) {
-                Logger.error("shutdown exception", e);
-            }
+    /**
+     * 获取各监听器已接收的连接数,用于观察连接在监听器间的分布
+     *
+     * @return 各监听器的连接数
+     */
+    public final long[] getAcceptDistribution() {
+        Acceptor<T>[] acceptors = this.acceptors;
+        if (acceptors == null) {
+            return new long[0];
         }
-        try {
-            asynchronousChannelGroup.awaitTermination(3, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            Logger.error("shutdown exception", e);
+        long[] counts = new long[acceptors.length];
+        for (int i = 0; i < acceptors.length; i++) {
+            counts[i] = acceptors[i] == null ? 0 : acceptors[i].accepted.get();
         }
+        return counts;
     }
 
     /**
@@ -323,4 +304,180 @@ public class AioQuickServer<T> {
         return this;
     }
 
+    /**
+     * 设置单个会话待输出数据的高低水位
+     * <p>
+     * 超过高水位时会话变为不可写并触发{@link StateMachine#WRITABILITY_CHANGED},回落至低水位以下时恢复可写
+     * </p>
+     *
+     * @param low  低水位,单位：byte
+     * @param high 高水位,单位：byte,小于等于0表示不启用
+     * @return the object
+     */
+    public final AioQuickServer<T> setWriteWaterMark(int low, int high) {
+        config.setWriteWaterMark(low, high);
+        return this;
+    }
+
+    /**
+     * 设置超出高水位或输出内存预算时的处理策略
+     *
+     * @param overflowPolicy 处理策略
+     * @return the object
+     */
+    public final AioQuickServer<T> setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        config.setOverflowPolicy(overflowPolicy);
+        return this;
+    }
+
+    /**
+     * 设置所有会话待输出数据的总预算,超出后按{@link OverflowPolicy}处理新的写入,
+     * 策略为{@link OverflowPolicy#BLOCK}时仅统计不限制
+     *
+     * @param bytes 预算,单位：byte,小于等于0表示不限制
+     * @return the object
+     */
+    public final AioQuickServer<T> setOutboundMemoryBudget(long bytes) {
+        config.setOutboundMemoryBudget(bytes);
+        return this;
+    }
+
+    /**
+     * 设置监听器数量
+     * <p>
+     * 大于1时每个监听器以SO_REUSEPORT独立绑定同一端口,并拥有独立的线程组与内存池,
+     * 由内核在监听器之间分配新连接,适合大量连接集中重连的场景；
+     * 当前JDK或平台不支持SO_REUSEPORT时退化为单个监听器
+     * </p>
+     *
+     * @param acceptorNum 监听器数量
+     * @return the object
+     */
+    public final AioQuickServer<T> setAcceptorNum(int acceptorNum) {
+        if (acceptorNum < 1) {
+            throw new InvalidParameterException("acceptorNum must >= 1");
+        }
+        this.acceptorNum = acceptorNum;
+        return this;
+    }
+
+    /**
+     * 监听器：独立的监听通道、线程组、内存池及读回调
+     */
+    protected static final class Acceptor<T> {
+
+        final BufferPool bufferPool;
+        final TcpReadHandler<T> readHandler;
+        final AtomicLong accepted = new AtomicLong();
+        private final AioQuickServer<T> server;
+        private final AsynchronousChannelGroup group;
+        private final AsynchronousServerSocketChannel serverSocketChannel;
+        private final int index;
+        private Thread acceptThread;
+
+        Acceptor(AioQuickServer<T> server, int index, int threadNum, SocketOption<Boolean> reusePort) throws IOException {
+            this.server = server;
+            this.index = index;
+            ServerConfig<T> config = server.config;
+            ThreadLocal<CompletionHandler> recursionThreadLocal = new ThreadLocal<>();
+            RingBuffer<TcpReadEvent> buffer = new RingBuffer<>(config.getReadBacklog(), new EventFactory<TcpReadEvent>() {
+                @Override
+                public TcpReadEvent newInstance() {
+                    return new TcpReadEvent();
+                }
+
+                @Override
+                public void restEntity(TcpReadEvent entity) {
+                    entity.setReadSize(-1);
+                    entity.setSession(null);
+                }
+            });
+            this.readHandler = new TcpReadHandler<>(buffer, recursionThreadLocal, new Semaphore(threadNum - 1));
+            this.bufferPool = new BufferPool(ServerConfig.getIntProperty(ServerConfig.Property.SERVER_PAGE_SIZE, 1024 * 1024), ServerConfig.getIntProperty(ServerConfig.Property.BUFFER_PAGE_NUM, threadNum), ServerConfig.getBoolProperty(ServerConfig.Property.SERVER_PAGE_IS_DIRECT, true));
+            String prefix = reusePort == null ? "bus-socket:Thread-" : "bus-socket:Thread-" + index + "-";
+            this.group = AsynchronousChannelGroup.withFixedThreadPool(threadNum, new ThreadFactory() {
+                byte index = 0;
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    return new Thread(r, prefix + (++index));
+                }
+            });
+            try {
+                this.serverSocketChannel = AsynchronousServerSocketChannel.open(group);
+                //set socket options
+                if (config.getSocketOptions() != null) {
+                    for (Map.Entry<SocketOption<Object>, Object> entry : config.getSocketOptions().entrySet()) {
+                        this.serverSocketChannel.setOption(entry.getKey(), entry.getValue());
+                    }
+                }
+                if (reusePort != null) {
+                    serverSocketChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                    serverSocketChannel.setOption(reusePort, true);
+                }
+                //bind host
+                if (config.getHost() != null) {
+                    serverSocketChannel.bind(new InetSocketAddress(config.getHost(), config.getPort()), 1000);
+                } else {
+                    serverSocketChannel.bind(new InetSocketAddress(config.getPort()), 1000);
+                }
+            } catch (IOException e) {
+                group.shutdownNow();
+                throw e;
+            }
+        }
+
+        void start() {
+            ServerConfig<T> config = server.config;
+            acceptThread = new Thread(new Runnable() {
+                NetMonitor<T> monitor = config.getMonitor();
+
+                @Override
+                public void run() {
+                    Future<AsynchronousSocketChannel> nextFuture = serverSocketChannel.accept();
+                    while (server.running) {
+                        try {
+                            final AsynchronousSocketChannel channel = nextFuture.get();
+                            nextFuture = serverSocketChannel.accept();
+                            accepted.incrementAndGet();
+                            if (monitor == null || monitor.acceptMonitor(channel)) {
+                                server.createSession(channel, Acceptor.this);
+                            } else {
+                                config.getProcessor().stateEvent(null, StateMachine.REJECT_ACCEPT, null);
+                                Logger.warn("reject accept channel:{}", channel);
+                                server.closeChannel(channel);
+                            }
+                        } catch (Exception e) {
+                            if (server.running) {
+                                Logger.error("AcceptThread Exception", e);
+                            }
+                        }
+
+                    }
+                }
+            }, index == 0 ? "bus-socket:AcceptThread" : "bus-socket:AcceptThread-" + index);
+            acceptThread.start();
+        }
+
+        void shutdown() {
+            try {
+                serverSocketChannel.close();
+            } catch (IOException e) {
+                Logger.warn(e.getMessage(), e);
+            }
+            if (!group.isTerminated()) {
+                try {
+                    group.shutdownNow();
+                } catch (IOException e) {
+                    Logger.error("shutdown exception", e);
+                }
+            }
+            try {
+                group.awaitTermination(3, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Logger.error("shutdown exception", e);
+            }
+        }
+    }
+
 }
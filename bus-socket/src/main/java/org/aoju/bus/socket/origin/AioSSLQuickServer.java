@@ -54,7 +54,7 @@ public class AioSSLQuickServer<T> extends AioQuickServer<T> {
     @Override
     public void start() throws IOException {
         sslService = new SSLService(sslConfig);
-        start0(channel -> new SSLAioSession<>(channel, config, aioReadCompletionHandler, aioWriteCompletionHandler, sslService, bufferPool.allocateBufferPage()));
+        start0((channel, acceptor) -> new SSLAioSession<>(channel, config, acceptor.readHandler, aioWriteCompletionHandler, sslService, acceptor.bufferPool.allocateBufferPage()));
     }
 
     public AioSSLQuickServer<T> setKeyStore(String keyStoreFile, String keystorePassword) {
@@ -55,12 +55,29 @@ public abstract class AioSession<T> {
      * @see AioSession#SESSION_STATUS_ENABLED
      */
     protected byte status = SESSION_STATUS_ENABLED;
+    /**
+     * 最近一次读到数据的时间戳(毫秒),由I/O线程写入,心跳与空闲检测读取
+     */
+    protected volatile long lastReadTime;
+    /**
+     * 最近一次数据写出完成的时间戳(毫秒)
+     */
+    protected volatile long lastWriteTime;
+    /**
+     * 累计写操作次数,每次通道写完成计一次
+     */
+    protected volatile long writeCount;
+    /**
+     * 累计写出字节数
+     */
+    protected volatile long writtenBytes;
     /**
      * 附件对象
      */
     private Object attachment;
 
     AioSession() {
+        lastReadTime = lastWriteTime = System.currentTimeMillis();
     }
 
     public abstract WriteBuffer writeBuffer();
@@ -98,6 +115,72 @@ public abstract class AioSession<T> {
         return status != SESSION_STATUS_ENABLED;
     }
 
+    /**
+     * 当前会话是否可写,待输出数据超过高水位时返回false
+     *
+     * @return true/false
+     * @see StateMachine#WRITABILITY_CHANGED
+     */
+    public boolean isWritable() {
+        WriteBuffer writeBuffer = writeBuffer();
+        return writeBuffer == null || writeBuffer.isWritable();
+    }
+
+    /**
+     * 获取最近一次读到数据的时间
+     *
+     * @return 时间戳(毫秒)
+     */
+    public final long getLastReadTime() {
+        return lastReadTime;
+    }
+
+    /**
+     * 获取最近一次数据写出完成的时间
+     *
+     * @return 时间戳(毫秒)
+     */
+    public final long getLastWriteTime() {
+        return lastWriteTime;
+    }
+
+    /**
+     * 获取最近一次读写活动的时间
+     *
+     * @return 时间戳(毫秒)
+     */
+    public final long getLastActiveTime() {
+        return Math.max(lastReadTime, lastWriteTime);
+    }
+
+    /**
+     * 获取累计写操作次数
+     *
+     * @return 写操作次数
+     */
+    public final long getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * 获取累计写出字节数
+     *
+     * @return 字节数
+     */
+    public final long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * 获取平均每次写操作输出的字节数
+     *
+     * @return 字节数
+     */
+    public final double getBytesPerWrite() {
+        long count = writeCount;
+        return count == 0 ? 0 : writtenBytes * 1.0 / count;
+    }
+
     /**
      * 获取附件对象
      *
@@ -0,0 +1,285 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.origin;
+
+import org.aoju.bus.core.io.BufferPage;
+import org.aoju.bus.core.io.VirtualBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 会话级的累积读缓冲区
+ *
+ * <p>
+ * 由若干从{@link BufferPage}申请的分段组成,通道数据直接读入尾部分段,
+ * 帧跨越多次读取时无需解码器自行拷贝；已消费的分段在解码完成后归还至BufferPage
+ * </p>
+ * <p>
+ * 每个分段处于读模式：position为已消费位置,limit为已写入位置,
+ * 尾部分段的limit至capacity为可写区域
+ * </p>
+ * <p>
+ * 通过{@link #readSlice(int)}获取的数据仅在本次{@link Message#process(AioSession, Object)}执行期间有效,
+ * 需跨越本次处理保留时请自行复制
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public final class CompositeBuffer {
+
+    private final List<VirtualBuffer> segments = new ArrayList<>();
+    private final BufferPage bufferPage;
+    private final int segmentSize;
+    /**
+     * 当前已交给通道读取的尾部分段视图
+     */
+    private ByteBuffer pendingWrite;
+    private int readableBytes;
+
+    CompositeBuffer(BufferPage bufferPage, int segmentSize) {
+        this.bufferPage = bufferPage;
+        this.segmentSize = segmentSize;
+    }
+
+    private CompositeBuffer(ByteBuffer buffer) {
+        this.bufferPage = null;
+        this.segmentSize = buffer.remaining();
+        this.segments.add(VirtualBuffer.wrap(buffer));
+        this.readableBytes = buffer.remaining();
+    }
+
+    /**
+     * 将一段已有数据包装为只含单个分段的累积缓冲区,不复制数据,读取会推进原buffer的position
+     *
+     * @param buffer 数据
+     * @return 累积缓冲区
+     */
+    public static CompositeBuffer wrap(ByteBuffer buffer) {
+        return new CompositeBuffer(buffer);
+    }
+
+    /**
+     * 可读字节数
+     *
+     * @return 字节数
+     */
+    public int readableBytes() {
+        return readableBytes;
+    }
+
+    /**
+     * 获取相对当前读位置偏移index处的字节,不移动读位置
+     *
+     * @param index 偏移量
+     * @return 字节
+     */
+    public byte getByte(int index) {
+        checkIndex(index, 1);
+        for (VirtualBuffer segment : segments) {
+            ByteBuffer buffer = segment.buffer();
+            int remaining = buffer.remaining();
+            if (index < remaining) {
+                return buffer.get(buffer.position() + index);
+            }
+            index -= remaining;
+        }
+        throw new IndexOutOfBoundsException();
+    }
+
+    /**
+     * 按大端序读取相对当前读位置偏移index处长度为length的无符号整数,不移动读位置
+     *
+     * @param index  偏移量
+     * @param length 字节数,1至8
+     * @return 数值
+     */
+    public long getUnsigned(int index, int length) {
+        checkIndex(index, length);
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (getByte(index + i) & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * 跳过指定长度的数据
+     *
+     * @param length 字节数
+     */
+    public void skip(int length) {
+        checkIndex(0, length);
+        readableBytes -= length;
+        for (VirtualBuffer segment : segments) {
+            ByteBuffer buffer = segment.buffer();
+            int step = Math.min(length, buffer.remaining());
+            buffer.position(buffer.position() + step);
+            length -= step;
+            if (length == 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 读取指定长度的数据
+     * <p>
+     * 数据位于同一分段时返回该分段的切片,不发生拷贝；跨越多个分段时复制至新的缓冲区
+     * </p>
+     *
+     * @param length 字节数
+     * @return 读模式的ByteBuffer
+     */
+    public ByteBuffer readSlice(int length) {
+        checkIndex(0, length);
+        if (length == 0) {
+            return ByteBuffer.allocate(0);
+        }
+        readableBytes -= length;
+        int head = 0;
+        while (head < segments.size() && !segments.get(head).buffer().hasRemaining()) {
+            head++;
+        }
+        ByteBuffer buffer = segments.get(head).buffer();
+        if (buffer.remaining() >= length) {
+            ByteBuffer slice = buffer.duplicate();
+            slice.limit(slice.position() + length);
+            buffer.position(buffer.position() + length);
+            return slice.slice();
+        }
+        ByteBuffer frame = ByteBuffer.allocate(length);
+        for (int i = head; frame.hasRemaining(); i++) {
+            buffer = segments.get(i).buffer();
+            int step = Math.min(frame.remaining(), buffer.remaining());
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + step);
+            frame.put(buffer);
+            buffer.limit(limit);
+        }
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * 复制数据至尾部
+     *
+     * @param src 数据
+     */
+    public void write(ByteBuffer src) {
+        while (src.hasRemaining()) {
+            ByteBuffer buffer = writableBuffer();
+            int step = Math.min(buffer.remaining(), src.remaining());
+            int limit = src.limit();
+            src.limit(src.position() + step);
+            buffer.put(src);
+            src.limit(limit);
+            commit();
+        }
+    }
+
+    /**
+     * 获取尾部可写区域,供通道直接读入,读入完成后需调用{@link #commit()}
+     *
+     * @return 写模式的ByteBuffer
+     */
+    ByteBuffer writableBuffer() {
+        if (pendingWrite != null) {
+            return pendingWrite;
+        }
+        ByteBuffer tail = segments.isEmpty() ? null : segments.get(segments.size() - 1).buffer();
+        // 尾部剩余空间过小时直接申请新分段,避免产生大量零碎的读操作
+        if (tail == null || tail.capacity() - tail.limit() < Math.max(1, segmentSize >> 3)) {
+            VirtualBuffer segment = bufferPage.allocate(segmentSize);
+            segment.buffer().limit(0);
+            segments.add(segment);
+            tail = segment.buffer();
+        }
+        pendingWrite = tail.duplicate();
+        pendingWrite.position(tail.limit());
+        pendingWrite.limit(tail.capacity());
+        return pendingWrite;
+    }
+
+    /**
+     * 确认通道已读入尾部可写区域的数据
+     *
+     * @return 是否存在待确认的读入
+     */
+    boolean commit() {
+        if (pendingWrite == null) {
+            return false;
+        }
+        ByteBuffer tail = segments.get(segments.size() - 1).buffer();
+        readableBytes += pendingWrite.position() - tail.limit();
+        tail.limit(pendingWrite.position());
+        pendingWrite = null;
+        return true;
+    }
+
+    /**
+     * 将已完全消费的分段归还至BufferPage,尾部分段重置后继续复用
+     */
+    void discardReadBytes() {
+        if (pendingWrite != null) {
+            return;
+        }
+        int consumed = 0;
+        while (consumed < segments.size() - 1 && !segments.get(consumed).buffer().hasRemaining()) {
+            segments.get(consumed).clean();
+            consumed++;
+        }
+        if (consumed > 0) {
+            segments.subList(0, consumed).clear();
+        }
+        if (segments.size() == 1) {
+            ByteBuffer tail = segments.get(0).buffer();
+            if (!tail.hasRemaining()) {
+                tail.position(0).limit(0);
+            }
+        }
+    }
+
+    /**
+     * 释放全部分段
+     */
+    void release() {
+        for (VirtualBuffer segment : segments) {
+            segment.clean();
+        }
+        segments.clear();
+        pendingWrite = null;
+        readableBytes = 0;
+    }
+
+    private void checkIndex(int index, int length) {
+        if (index < 0 || length < 0 || index + length > readableBytes) {
+            throw new IndexOutOfBoundsException("index:" + index + " length:" + length + " readableBytes:" + readableBytes);
+        }
+    }
+
+}
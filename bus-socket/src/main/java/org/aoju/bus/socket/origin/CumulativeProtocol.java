@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.origin;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 基于累积读缓冲区的协议
+ *
+ * <p>
+ * TCP会话检测到该类型的协议后,通道数据直接读入会话的{@link CompositeBuffer},
+ * 超出readBufferSize的帧或跨越多次读取的帧均无需解码器自行拷贝
+ * </p>
+ * <p>
+ * 解码结果可能与会话或UDP的读缓冲区共享内存,框架保证其在本次{@link Message#process(AioSession, Object)}返回前不被覆盖,
+ * 返回后缓冲区即被回收复用,需在处理结束后继续持有或交由其他线程处理的消息必须自行复制
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public abstract class CumulativeProtocol<T> implements Protocol<T> {
+
+    /**
+     * 单帧最大长度,超出时抛出异常并关闭会话
+     */
+    private final int maxFrameLength;
+
+    protected CumulativeProtocol(int maxFrameLength) {
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("maxFrameLength must be a positive integer: " + maxFrameLength);
+        }
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    /**
+     * 非累积场景(如UDP)下的解码,仅能解析完整包含在readBuffer中的帧
+     * 解码结果直接引用readBuffer,其有效期同样仅限于本次消息处理
+     *
+     * @param readBuffer 待处理的读buffer
+     * @param session    本次需要解码的session
+     * @return 业务消息
+     */
+    @Override
+    public final T decode(ByteBuffer readBuffer, AioSession<T> session) {
+        return decode(CompositeBuffer.wrap(readBuffer), session);
+    }
+
+    /**
+     * 从累积缓冲区中解码一帧,数据不足时返回null且不应移动读位置
+     * 通过{@link CompositeBuffer#readSlice(int)}得到的数据仅在本次消息处理期间有效
+     *
+     * @param buffer  累积缓冲区
+     * @param session 本次需要解码的session
+     * @return 本次解码成功后封装的业务消息对象, 返回null则表示解码未完成
+     */
+    public abstract T decode(CompositeBuffer buffer, AioSession<T> session);
+
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    /**
+     * 校验帧长度
+     *
+     * @param frameLength 帧长度
+     */
+    protected void checkFrameLength(long frameLength) {
+        if (frameLength < 0 || frameLength > maxFrameLength) {
+            throw new IllegalStateException("frame length " + frameLength + " exceeds maxFrameLength " + maxFrameLength);
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.origin;
+
+/**
+ * 输出队列超出高水位或全局输出内存预算时的处理策略
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public enum OverflowPolicy {
+
+    /**
+     * 不做限制,输出队列已满时阻塞写线程,仅通过{@link StateMachine#WRITABILITY_CHANGED}通知可写状态变化；
+     * 输出内存预算此时只做统计,不限制写入
+     */
+    BLOCK,
+    /**
+     * 丢弃整条消息：{@link WriteBuffer#offer(java.nio.ByteBuffer)}被丢弃时返回false；
+     * 流式写入以{@link WriteBuffer#flush()}为消息边界,在消息的首次写入时判断,超限则直至下一次flush前的写入全部丢弃,
+     * 单条消息超出输出队列容量时仍会等待队列腾出空间
+     */
+    DROP,
+    /**
+     * 立即关闭会话,并抛出IOException
+     */
+    CLOSE
+
+}
@@ -23,6 +23,8 @@
  */
 package org.aoju.bus.socket.origin;
 
+import org.aoju.bus.core.thread.HashedWheelTimer;
+
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -36,6 +38,10 @@ import java.util.TimerTask;
 public abstract class QuickTimer extends TimerTask {
 
     private static Timer timer = new Timer("Quick Timer", true);
+    /**
+     * 会话级定时任务(心跳、空闲检测、重连退避)共享的时间轮
+     */
+    private static HashedWheelTimer wheelTimer = new HashedWheelTimer("Quick WheelTimer");
 
     public QuickTimer() {
         timer.schedule(this, getDelay(), getPeriod());
@@ -49,6 +55,16 @@ public abstract class QuickTimer extends TimerTask {
         return timer;
     }
 
+    /**
+     * 获取共享时间轮,适合按会话注册的大量短周期任务
+     * 任务在时间轮线程上执行,不应阻塞
+     *
+     * @return 时间轮
+     */
+    public static HashedWheelTimer getWheelTimer() {
+        return wheelTimer;
+    }
+
     /**
      * 获取定时任务的延迟启动时间
      *
@@ -62,6 +62,14 @@ class SSLAioSession<T> extends TcpAioSession<T> {
         this.sslService = sslService;
     }
 
+    /**
+     * 加密数据需逐个缓冲区wrap,不使用聚集写
+     */
+    @Override
+    protected int writeGatherSize() {
+        return 1;
+    }
+
     @Override
     void writeToChannel() {
         checkInitialized();
@@ -26,6 +26,7 @@ package org.aoju.bus.socket.origin;
 import java.net.SocketOption;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Quickly服务端/客户端配置信息 T:解码后生成的对象类型
@@ -45,6 +46,26 @@ final class ServerConfig<T> {
      * Write缓存区容量
      */
     private int writeQueueCapacity = 512;
+    /**
+     * 单个会话待输出数据的高水位,字节,小于等于0表示不启用
+     */
+    private int writeHighWaterMark;
+    /**
+     * 单个会话待输出数据的低水位,字节
+     */
+    private int writeLowWaterMark;
+    /**
+     * 超出高水位或输出内存预算时的处理策略
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    /**
+     * 所有会话待输出数据的总预算,字节,小于等于0表示不限制
+     */
+    private long outboundMemoryBudget;
+    /**
+     * 所有会话当前待输出数据总量
+     */
+    private final AtomicLong outboundBytes = new AtomicLong();
     /**
      * 远程服务器IP
      */
@@ -178,6 +199,42 @@ final class ServerConfig<T> {
         this.writeQueueCapacity = writeQueueCapacity;
     }
 
+    public int getWriteHighWaterMark() {
+        return writeHighWaterMark;
+    }
+
+    public int getWriteLowWaterMark() {
+        return writeLowWaterMark;
+    }
+
+    public void setWriteWaterMark(int low, int high) {
+        if (high > 0 && (low < 0 || low > high)) {
+            throw new IllegalArgumentException("writeLowWaterMark must between 0 and writeHighWaterMark");
+        }
+        this.writeLowWaterMark = low;
+        this.writeHighWaterMark = high;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.BLOCK : overflowPolicy;
+    }
+
+    public long getOutboundMemoryBudget() {
+        return outboundMemoryBudget;
+    }
+
+    public void setOutboundMemoryBudget(long outboundMemoryBudget) {
+        this.outboundMemoryBudget = outboundMemoryBudget;
+    }
+
+    public AtomicLong getOutboundBytes() {
+        return outboundBytes;
+    }
+
     public int getThreadNum() {
         return threadNum;
     }
@@ -204,6 +261,7 @@ final class ServerConfig<T> {
     interface Property {
         String PROJECT_NAME = "bus-socket";
         String SESSION_WRITE_CHUNK_SIZE = PROJECT_NAME + ".session.writeChunkSize";
+        String SESSION_WRITE_GATHER_SIZE = PROJECT_NAME + ".session.writeGatherSize";
         String BUFFER_PAGE_NUM = PROJECT_NAME + ".bufferPool.pageNum";
         String SERVER_PAGE_SIZE = PROJECT_NAME + ".server.pageSize";
         String CLIENT_PAGE_SIZE = PROJECT_NAME + ".client.pageSize";
@@ -84,6 +84,12 @@ public enum StateMachine {
      * AioSession关闭成功
      */
     SESSION_CLOSED,
+    /**
+     * 输出队列可写状态变化
+     * 待输出数据超过高水位时变为不可写,回落至低水位以下时恢复可写,
+     * 通过{@link AioSession#isWritable()}获取当前状态
+     */
+    WRITABILITY_CHANGED,
 
     /**
      * 拒绝接受连接,仅Server端有效
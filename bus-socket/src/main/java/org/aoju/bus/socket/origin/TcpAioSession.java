@@ -65,6 +65,11 @@ import java.util.concurrent.TimeUnit;
  */
 class TcpAioSession<T> extends AioSession<T> {
 
+    /**
+     * 单次聚集写最多包含的缓冲区数量
+     */
+    private static final int WRITE_GATHER_SIZE = Math.max(1, ServerConfig.getIntProperty(ServerConfig.Property.SESSION_WRITE_GATHER_SIZE, 16));
+
     /**
      * 底层通信channel对象
      */
@@ -95,6 +100,16 @@ class TcpAioSession<T> extends AioSession<T> {
     private ServerConfig<T> ioServerConfig;
     private InputStream inputStream;
     private WriteBuffer byteBuf;
+    /**
+     * 聚集写模式下正在输出的缓冲区
+     */
+    private VirtualBuffer[] gatherBuffers;
+    private ByteBuffer[] gatherArray;
+    private int gatherCount;
+    /**
+     * 累积读缓冲区,仅当协议为{@link CumulativeProtocol}时启用
+     */
+    private CompositeBuffer cumulation;
 
     TcpAioSession(AsynchronousSocketChannel channel, final ServerConfig<T> config, TcpReadHandler<T> readCompletionHandler, TcpWriteHandler<T> writeCompletionHandler, BufferPage bufferPage) {
         this.channel = channel;
@@ -103,10 +118,19 @@ class TcpAioSession<T> extends AioSession<T> {
         this.ioServerConfig = config;
 
         this.readBuffer = bufferPage.allocate(config.getReadBufferSize());
+        if (config.getProtocol() instanceof CumulativeProtocol) {
+            this.cumulation = new CompositeBuffer(bufferPage, config.getReadBufferSize());
+        }
         byteBuf = new WriteBuffer(bufferPage, var -> {
             if (!semaphore.tryAcquire()) {
                 return null;
             }
+            if (writeGatherSize() > 1) {
+                if (!gatherWrite(var)) {
+                    semaphore.release();
+                }
+                return null;
+            }
             TcpAioSession.this.writeBuffer = var.poll();
             if (writeBuffer == null) {
                 semaphore.release();
@@ -115,6 +139,13 @@ class TcpAioSession<T> extends AioSession<T> {
             }
             return null;
         }, ioServerConfig.getWriteQueueCapacity());
+        byteBuf.backpressure(config, var -> {
+            config.getProcessor().stateEvent(this, StateMachine.WRITABILITY_CHANGED, null);
+            return null;
+        }, var -> {
+            close(true);
+            return null;
+        });
         //触发状态机
         config.getProcessor().stateEvent(this, StateMachine.NEW_SESSION, null);
     }
@@ -131,16 +162,22 @@ class TcpAioSession<T> extends AioSession<T> {
      * <p>需要调用控制同步</p>
      */
     void writeToChannel() {
-        if (writeBuffer == null) {
-            writeBuffer = byteBuf.poll();
-        } else if (!writeBuffer.buffer().hasRemaining()) {
-            writeBuffer.clean();
-            writeBuffer = byteBuf.poll();
-        }
+        if (writeGatherSize() > 1) {
+            if (gatherWrite(byteBuf)) {
+                return;
+            }
+        } else {
+            if (writeBuffer == null) {
+                writeBuffer = byteBuf.poll();
+            } else if (!writeBuffer.buffer().hasRemaining()) {
+                writeBuffer.clean();
+                writeBuffer = byteBuf.poll();
+            }
 
-        if (writeBuffer != null) {
-            continueWrite(writeBuffer);
-            return;
+            if (writeBuffer != null) {
+                continueWrite(writeBuffer);
+                return;
+            }
         }
         semaphore.release();
         //此时可能是Closing或Closed状态
@@ -153,6 +190,74 @@ class TcpAioSession<T> extends AioSession<T> {
     }
 
 
+    /**
+     * 聚集写：释放已写完的缓冲区,并从输出队列补充待写数据,一次系统调用输出多个缓冲区
+     * <p>需要调用控制同步</p>
+     *
+     * @param queue 输出队列
+     * @return 是否触发了写操作
+     */
+    private boolean gatherWrite(WriteBuffer queue) {
+        if (gatherBuffers == null) {
+            gatherBuffers = new VirtualBuffer[WRITE_GATHER_SIZE];
+            gatherArray = new ByteBuffer[WRITE_GATHER_SIZE];
+        }
+        int remain = 0;
+        for (int i = 0; i < gatherCount; i++) {
+            VirtualBuffer buffer = gatherBuffers[i];
+            if (buffer.buffer().hasRemaining()) {
+                gatherBuffers[remain] = buffer;
+                gatherArray[remain++] = buffer.buffer();
+            } else {
+                buffer.clean();
+            }
+        }
+        for (int i = remain; i < gatherCount; i++) {
+            gatherBuffers[i] = null;
+            gatherArray[i] = null;
+        }
+        gatherCount = remain;
+
+        VirtualBuffer buffer;
+        while (gatherCount < gatherBuffers.length && (buffer = queue.poll()) != null) {
+            gatherBuffers[gatherCount] = buffer;
+            gatherArray[gatherCount++] = buffer.buffer();
+        }
+        if (gatherCount == 0) {
+            return false;
+        }
+        if (gatherCount == 1) {
+            writeToChannel0(gatherArray[0]);
+        } else {
+            channel.write(gatherArray, 0, gatherCount, 0L, TimeUnit.MILLISECONDS, this, writeCompletionHandler.gathering());
+        }
+        return true;
+    }
+
+    /**
+     * 单次写操作最多输出的缓冲区数量,返回1时逐个缓冲区输出
+     *
+     * @return 缓冲区数量
+     */
+    protected int writeGatherSize() {
+        return WRITE_GATHER_SIZE;
+    }
+
+    /**
+     * 是否还有已提交至通道但未输出完毕的数据
+     */
+    private boolean hasPendingWrite() {
+        if (writeBuffer != null && writeBuffer.buffer().hasRemaining()) {
+            return true;
+        }
+        for (int i = 0; i < gatherCount; i++) {
+            if (gatherArray[i].hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 内部方法：触发通道的读操作
      *
@@ -204,10 +309,19 @@ class TcpAioSession<T> extends AioSession<T> {
             }
             readBuffer.clean();
             readBuffer = null;
+            if (cumulation != null) {
+                cumulation.release();
+            }
             if (writeBuffer != null) {
                 writeBuffer.clean();
                 writeBuffer = null;
             }
+            for (int i = 0; i < gatherCount; i++) {
+                gatherBuffers[i].clean();
+                gatherBuffers[i] = null;
+                gatherArray[i] = null;
+            }
+            gatherCount = 0;
             try {
                 channel.shutdownInput();
             } catch (IOException e) {
@@ -224,7 +338,7 @@ class TcpAioSession<T> extends AioSession<T> {
                 Logger.debug("close session exception", e);
             }
             ioServerConfig.getProcessor().stateEvent(this, StateMachine.SESSION_CLOSED, null);
-        } else if ((writeBuffer == null || !writeBuffer.buffer().hasRemaining()) && !byteBuf.hasData()) {
+        } else if (!hasPendingWrite() && !byteBuf.hasData()) {
             close(true);
         } else {
             ioServerConfig.getProcessor().stateEvent(this, StateMachine.SESSION_CLOSING, null);
@@ -256,6 +370,11 @@ class TcpAioSession<T> extends AioSession<T> {
         if (status == SESSION_STATUS_CLOSED) {
             return;
         }
+        lastReadTime = System.currentTimeMillis();
+        if (cumulation != null) {
+            readFromCumulation(eof);
+            return;
+        }
         final ByteBuffer readBuffer = this.readBuffer.buffer();
         readBuffer.flip();
         final Message<T> messageProcessor = ioServerConfig.getProcessor();
@@ -314,8 +433,56 @@ class TcpAioSession<T> extends AioSession<T> {
     }
 
 
+    /**
+     * 基于累积读缓冲区解码
+     *
+     * @param eof 是否已读到流末尾
+     */
+    private void readFromCumulation(boolean eof) {
+        // 未直接读入累积缓冲区(如SSL解密后的数据),需从readBuffer中转入
+        if (!cumulation.commit()) {
+            ByteBuffer readBuffer = this.readBuffer.buffer();
+            readBuffer.flip();
+            cumulation.write(readBuffer);
+            readBuffer.clear();
+        }
+        final Message<T> messageProcessor = ioServerConfig.getProcessor();
+        final CumulativeProtocol<T> protocol = (CumulativeProtocol<T>) ioServerConfig.getProtocol();
+        while (cumulation.readableBytes() > 0 && status == SESSION_STATUS_ENABLED) {
+            T dataEntry;
+            try {
+                dataEntry = protocol.decode(cumulation, this);
+            } catch (Exception e) {
+                messageProcessor.stateEvent(this, StateMachine.DECODE_EXCEPTION, e);
+                throw e;
+            }
+            if (dataEntry == null) {
+                break;
+            }
+            try {
+                messageProcessor.process(this, dataEntry);
+            } catch (Exception e) {
+                messageProcessor.stateEvent(this, StateMachine.PROCESS_EXCEPTION, e);
+            }
+        }
+
+        if (eof || status == SESSION_STATUS_CLOSING) {
+            close(false);
+            messageProcessor.stateEvent(this, StateMachine.INPUT_SHUTDOWN, null);
+            return;
+        }
+        if (status == SESSION_STATUS_CLOSED) {
+            return;
+        }
+        cumulation.discardReadBytes();
+        if (byteBuf != null && !byteBuf.isClosed()) {
+            byteBuf.flush();
+        }
+        continueRead();
+    }
+
     protected void continueRead() {
-        readFromChannel0(readBuffer.buffer());
+        readFromChannel0(cumulation == null ? readBuffer.buffer() : cumulation.writableBuffer());
     }
 
     protected void continueWrite(VirtualBuffer writeBuffer) {
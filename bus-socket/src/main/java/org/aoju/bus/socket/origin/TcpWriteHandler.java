@@ -36,9 +36,33 @@ import java.nio.channels.CompletionHandler;
  */
 class TcpWriteHandler<T> implements CompletionHandler<Integer, TcpAioSession<T>> {
 
+    /**
+     * 聚集写回调,与单缓冲区写共用同一套处理逻辑
+     */
+    private final CompletionHandler<Long, TcpAioSession<T>> gatheringHandler = new CompletionHandler<Long, TcpAioSession<T>>() {
+        @Override
+        public void completed(Long result, TcpAioSession<T> aioSession) {
+            TcpWriteHandler.this.completed(result.intValue(), aioSession);
+        }
+
+        @Override
+        public void failed(Throwable exc, TcpAioSession<T> aioSession) {
+            TcpWriteHandler.this.failed(exc, aioSession);
+        }
+    };
+
+    CompletionHandler<Long, TcpAioSession<T>> gathering() {
+        return gatheringHandler;
+    }
+
     @Override
     public void completed(final Integer result, final TcpAioSession<T> aioSession) {
         try {
+            aioSession.writeCount++;
+            aioSession.writtenBytes += result;
+            if (result > 0) {
+                aioSession.lastWriteTime = System.currentTimeMillis();
+            }
             NetMonitor<T> monitor = aioSession.getServerConfig().getMonitor();
             if (monitor != null) {
                 monitor.writeMonitor(aioSession, result);
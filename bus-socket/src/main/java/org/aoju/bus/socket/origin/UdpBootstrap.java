@@ -30,6 +30,8 @@ import org.aoju.bus.logger.Logger;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.DatagramChannel;
@@ -37,6 +39,7 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * UDP服务启动类
@@ -45,7 +48,7 @@ import java.util.Set;
  * @version 5.5.3
  * @since JDK 1.8+
  */
-public class UdpBootstrap<Request> implements Runnable {
+public class UdpBootstrap<Request> {
 
     /**
      * 状态：初始
@@ -76,9 +79,19 @@ public class UdpBootstrap<Request> implements Runnable {
      */
     private volatile byte status = STATUS_INIT;
     /**
-     * 多路复用器
+     * Selector线程,每个线程持有独立的多路复用器
      */
-    private Selector selector;
+    private volatile Worker[] workers;
+    /**
+     * Selector线程数量
+     */
+    private int selectorNum = 1;
+    /**
+     * 单次可读事件最多接收的数据包数量
+     */
+    private int readBatch = 32;
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private final AtomicInteger runningWorkers = new AtomicInteger();
 
     /**
      * 服务配置
@@ -90,11 +103,6 @@ public class UdpBootstrap<Request> implements Runnable {
      */
     private RingBuffer<UdpReadEvent<Request>>[] readRingBuffers;
 
-    /**
-     * 读缓冲区
-     */
-    private VirtualBuffer readBuffer;
-
     private EventFactory<UdpReadEvent<Request>> factory = new EventFactory<UdpReadEvent<Request>>() {
         @Override
         public UdpReadEvent<Request> newInstance() {
@@ -105,11 +113,16 @@ public class UdpBootstrap<Request> implements Runnable {
         public void restEntity(UdpReadEvent<Request> entity) {
             entity.setMessage(null);
             entity.setAioSession(null);
+            entity.setBuffer(null);
         }
     };
 
 
-    private BufferPage bufferPage = new BufferPool(1024, 1, true).allocateBufferPage();
+    /**
+     * 每个数据包独占一个读缓冲区,直至业务处理完毕后回收
+     */
+    private BufferPage bufferPage = new BufferPool(ServerConfig.getIntProperty(ServerConfig.Property.SERVER_PAGE_SIZE, 1024 * 1024), 1,
+            ServerConfig.getBoolProperty(ServerConfig.Property.SERVER_PAGE_IS_DIRECT, true)).allocateBufferPage();
 
     public UdpBootstrap(Protocol<Request> protocol, Message<Request> messageProcessor) {
         config.setProtocol(protocol);
@@ -139,6 +152,10 @@ public class UdpBootstrap<Request> implements Runnable {
 
     /**
      * 开启一个UDP通道
+     * <p>
+     * selectorNum大于1且平台支持SO_REUSEPORT时,为每个Selector线程各绑定一个同端口的通道,
+     * 由内核按来源地址分发数据包,返回的通道关闭时一并关闭其余通道
+     * </p>
      *
      * @param host 绑定本机地址
      * @param port 指定绑定端口号,为0则随机指定
@@ -146,47 +163,87 @@ public class UdpBootstrap<Request> implements Runnable {
      * @throws IOException 异常
      */
     public UdpChannel<Request> open(String host, int port) throws IOException {
-        if (selector == null) {
-            synchronized (this) {
-                if (selector == null) {
-                    selector = Selector.open();
-                }
+        initThreadServer();
+        SocketOption<Boolean> reusePort = null;
+        if (port > 0 && workers.length > 1) {
+            reusePort = reusePortOption();
+            if (reusePort == null) {
+                Logger.warn("SO_REUSEPORT is not supported, udp port {} bind to single selector", port);
             }
         }
+        if (reusePort == null) {
+            return open(host, port, null, workers[Math.floorMod(nextWorker.getAndIncrement(), workers.length)], null);
+        }
+        UdpChannel<Request> primary = open(host, port, reusePort, workers[0], null);
+        try {
+            for (int i = 1; i < workers.length; i++) {
+                primary.addSibling(open(host, port, reusePort, workers[i], primary));
+            }
+        } catch (IOException e) {
+            primary.close();
+            throw e;
+        }
+        return primary;
+    }
 
+    private UdpChannel<Request> open(String host, int port, SocketOption<Boolean> reusePort, Worker worker, UdpChannel<Request> parent) throws IOException {
         DatagramChannel channel = DatagramChannel.open();
-        channel.configureBlocking(false);
-        if (port > 0) {
-            channel.socket().bind(host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port));
+        try {
+            channel.configureBlocking(false);
+            if (reusePort != null) {
+                channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                channel.setOption(reusePort, true);
+            }
+            if (port > 0) {
+                channel.bind(host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port));
+            }
+            // 注册期间阻止Selector线程重新进入select,确保通道注册并绑定附件后才被处理
+            synchronized (worker) {
+                worker.selector.wakeup();
+                SelectionKey selectionKey = channel.register(worker.selector, SelectionKey.OP_READ);
+                UdpChannel<Request> udpChannel = new UdpChannel<>(channel, selectionKey, config.getWriteQueueCapacity(), bufferPage, parent);
+                selectionKey.attach(udpChannel);
+                return udpChannel;
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
         }
+    }
 
-        if (status == STATUS_RUNNING) {
-            selector.wakeup();
+    /**
+     * 获取可用的SO_REUSEPORT配置项,JDK9之前或当前平台不支持时返回null
+     *
+     * @return 配置项
+     */
+    private static SocketOption<Boolean> reusePortOption() {
+        try {
+            SocketOption<Boolean> option = (SocketOption<Boolean>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+            try (DatagramChannel channel = DatagramChannel.open()) {
+                return channel.supportedOptions().contains(option) ? option : null;
+            }
+        } catch (NoSuchFieldException | IllegalAccessException | IOException e) {
+            return null;
         }
-        SelectionKey selectionKey = channel.register(selector, SelectionKey.OP_READ);
-        UdpChannel<Request> udpChannel = new UdpChannel<>(channel, selectionKey, config.getWriteQueueCapacity(), bufferPage);
-        selectionKey.attach(udpChannel);
-
-        //启动线程服务
-        initThreadServer();
-        return udpChannel;
     }
 
-    private void initThreadServer() {
-        if (status != STATUS_INIT) {
+    private void initThreadServer() throws IOException {
+        if (workers != null) {
             return;
         }
         synchronized (this) {
-            if (status != STATUS_INIT) {
+            if (workers != null) {
                 return;
             }
             updateServiceStatus(STATUS_STARTING);
-
-            readBuffer = bufferPage.allocate(config.getReadBufferSize());
             int uid = UdpBootstrap.uid++;
-            Thread serverThread = new Thread(this, "UDP-Selector-" + uid);
-            serverThread.start();
 
+            Worker[] workers = (Worker[]) new UdpBootstrap.Worker[selectorNum];
+            for (int i = 0; i < selectorNum; i++) {
+                workers[i] = new Worker(Selector.open());
+            }
+            runningWorkers.set(selectorNum);
+            updateServiceStatus(STATUS_RUNNING);
             readRingBuffers = new RingBuffer[config.getThreadNum()];
             for (int i = 0; i < config.getThreadNum(); i++) {
                 final RingBuffer<UdpReadEvent<Request>> ringBuffer = readRingBuffers[i] = new RingBuffer<>(1024, factory);
@@ -200,15 +257,20 @@ public class UdpBootstrap<Request> implements Runnable {
                             UdpReadEvent<Request> event = ringBuffer.get(index);
                             UdpAioSession<Request> aioSession = event.getAioSession();
                             Request message = event.getMessage();
+                            VirtualBuffer buffer = event.getBuffer();
                             ringBuffer.publishReadIndex(index);
-                            config.getProcessor().process(aioSession, message);
-                            aioSession.writeBuffer().flush();
+                            process(aioSession, message, buffer);
                         } catch (InterruptedException e) {
                             e.printStackTrace();
                         }
                     }
                 }, "UDP-Worker-" + uid + Symbol.HYPHEN + i).start();
             }
+
+            for (int i = 0; i < selectorNum; i++) {
+                new Thread(workers[i], "UDP-Selector-" + uid + Symbol.HYPHEN + i).start();
+            }
+            this.workers = workers;
         }
     }
 
@@ -216,32 +278,20 @@ public class UdpBootstrap<Request> implements Runnable {
         this.status = status;
     }
 
-    @Override
-    public void run() {
-        updateServiceStatus(STATUS_RUNNING);
-        // 通过检查状态使之一直保持服务状态
-        while (STATUS_RUNNING == status) {
-            try {
-                running();
-            } catch (ClosedSelectorException e) {
-                e.printStackTrace();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
-        if (selector != null) {
-            try {
-                selector.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            selector = null;
+    /**
+     * 最后一个Selector线程退出时唤醒并停止业务线程
+     */
+    private void workerStopped() {
+        if (runningWorkers.decrementAndGet() > 0) {
+            return;
         }
         for (int i = 0; i < config.getThreadNum(); i++) {
             RingBuffer<UdpReadEvent<Request>> ringBuffer = readRingBuffers[i];
             try {
                 int index = ringBuffer.tryNextWriteIndex();
-                ringBuffer.publishWriteIndex(index);
+                if (index >= 0) {
+                    ringBuffer.publishWriteIndex(index);
+                }
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
@@ -251,72 +301,41 @@ public class UdpBootstrap<Request> implements Runnable {
     }
 
     /**
-     * 运行channel服务
+     * 处理消息,完成后回收数据包所在的读缓冲区
      *
-     * @throws IOException 异常
-     * @throws Exception   异常
+     * @param aioSession 会话
+     * @param message    消息
+     * @param buffer     消息所在的读缓冲区
      */
-    private void running() throws IOException, Exception {
-        // 优先获取SelectionKey,若无关注事件触发则阻塞在selector.select(),减少select被调用次数
-        Set<SelectionKey> selectionKeys = selector.selectedKeys();
-        if (selectionKeys.isEmpty()) {
-            selector.select();
-        }
-        Iterator<SelectionKey> keyIterator = selectionKeys.iterator();
-        // 执行本次已触发待处理的事件
-        while (keyIterator.hasNext()) {
-            final SelectionKey key = keyIterator.next();
-            UdpChannel<Request> udpChannel = (UdpChannel<Request>) key.attachment();
-            try {
-                if (!key.isValid()) {
-                    udpChannel.close();
-                    continue;
-                }
-                // 读取客户端数据
-                if (key.isReadable()) {
-                    doRead(udpChannel);
-                } else if (key.isWritable()) {
-                    udpChannel.doWrite();
-                } else {
-                    Logger.warn("奇怪了...");
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+    private void process(UdpAioSession<Request> aioSession, Request message, VirtualBuffer buffer) {
+        try {
+            config.getProcessor().process(aioSession, message);
+            aioSession.writeBuffer().flush();
+        } finally {
+            buffer.clean();
         }
-        selectionKeys.clear();
     }
 
     /**
-     * 去读数据
+     * 分发解码后的消息,同一来源地址固定由同一业务线程处理以保证顺序
+     * 解码结果可能引用读缓冲区中的数据,因此读缓冲区随消息一起移交,直至业务处理完毕后回收
      *
-     * @param channel 频道
+     * @param channel    频道
+     * @param aioSession 会话
+     * @param remote     来源地址
+     * @param t          消息
+     * @param buffer     消息所在的读缓冲区
      * @throws IOException          异常
      * @throws InterruptedException 异常
      */
-    private void doRead(UdpChannel channel) throws IOException, InterruptedException {
-        //接收数据
-        ByteBuffer buffer = readBuffer.buffer();
-        SocketAddress remote = channel.getChannel().receive(buffer);
-        buffer.flip();
-        UdpAioSession<Request> aioSession = channel.createAndCacheSession(remote);
-
-        //解码
-        Request t = config.getProtocol().decode(buffer, aioSession);
-        buffer.clear();
-        if (t == null) {
-            Logger.debug("decode null");
-            return;
-        }
-
+    private void dispatch(UdpChannel<Request> channel, UdpAioSession<Request> aioSession, SocketAddress remote, Request t, VirtualBuffer buffer) throws IOException, InterruptedException {
         if (config.getThreadNum() == 0) {
             //非异步则同步处理业务
-            config.getProcessor().process(aioSession, t);
-            aioSession.writeBuffer().flush();
+            process(aioSession, t, buffer);
             return;
         }
 
-        RingBuffer<UdpReadEvent<Request>> ringBuffer = readRingBuffers[remote.hashCode() % config.getThreadNum()];
+        RingBuffer<UdpReadEvent<Request>> ringBuffer = readRingBuffers[Math.floorMod(remote.hashCode(), config.getThreadNum())];
         int index = -1;
         while ((index = ringBuffer.tryNextWriteIndex()) < 0) {
             //读缓冲区已满,尝试清空写缓冲区
@@ -327,20 +346,26 @@ public class UdpBootstrap<Request> implements Runnable {
                 UdpReadEvent<Request> event = ringBuffer.get(readIndex);
                 UdpAioSession<Request> session = event.getAioSession();
                 Request message = event.getMessage();
+                VirtualBuffer messageBuffer = event.getBuffer();
                 ringBuffer.publishReadIndex(readIndex);
-                config.getProcessor().process(session, message);
-                aioSession.writeBuffer().flush();
+                process(session, message, messageBuffer);
             }
         }
         UdpReadEvent<Request> udpEvent = ringBuffer.get(index);
         udpEvent.setAioSession(aioSession);
         udpEvent.setMessage(t);
+        udpEvent.setBuffer(buffer);
         ringBuffer.publishWriteIndex(index);
     }
 
     public void shutdown() {
         status = STATUS_STOPPING;
-        selector.wakeup();
+        Worker[] workers = this.workers;
+        if (workers != null) {
+            for (Worker worker : workers) {
+                worker.selector.wakeup();
+            }
+        }
     }
 
     /**
@@ -365,4 +390,153 @@ public class UdpBootstrap<Request> implements Runnable {
         return this;
     }
 
+    /**
+     * 设置Selector线程数量,大于1时绑定端口的通道通过SO_REUSEPORT在各线程上并行接收
+     *
+     * @param num Selector线程数量
+     * @return the object
+     */
+    public final UdpBootstrap<Request> setSelectorNum(int num) {
+        if (num < 1) {
+            throw new IllegalArgumentException("selectorNum must be positive");
+        }
+        this.selectorNum = num;
+        return this;
+    }
+
+    /**
+     * 设置单次可读事件最多接收的数据包数量
+     *
+     * @param readBatch 数据包数量
+     * @return the object
+     */
+    public final UdpBootstrap<Request> setReadBatch(int readBatch) {
+        if (readBatch < 1) {
+            throw new IllegalArgumentException("readBatch must be positive");
+        }
+        this.readBatch = readBatch;
+        return this;
+    }
+
+    /**
+     * Selector线程
+     */
+    private final class Worker implements Runnable {
+
+        /**
+         * 多路复用器
+         */
+        private final Selector selector;
+        /**
+         * 读缓冲区,解码出的消息连同缓冲区一起分发后重新申请
+         */
+        private VirtualBuffer readBuffer;
+
+        Worker(Selector selector) {
+            this.selector = selector;
+        }
+
+        @Override
+        public void run() {
+            // 通过检查状态使之一直保持服务状态
+            while (STATUS_RUNNING == status) {
+                try {
+                    running();
+                } catch (ClosedSelectorException e) {
+                    e.printStackTrace();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            if (readBuffer != null) {
+                readBuffer.clean();
+                readBuffer = null;
+            }
+            workerStopped();
+        }
+
+        /**
+         * 运行channel服务
+         *
+         * @throws IOException 异常
+         * @throws Exception   异常
+         */
+        private void running() throws IOException, Exception {
+            // 等待注册中的通道完成注册
+            synchronized (this) {
+                // 仅作为注册屏障
+            }
+            // 优先获取SelectionKey,若无关注事件触发则阻塞在selector.select(),减少select被调用次数
+            Set<SelectionKey> selectionKeys = selector.selectedKeys();
+            if (selectionKeys.isEmpty()) {
+                selector.select();
+            }
+            Iterator<SelectionKey> keyIterator = selectionKeys.iterator();
+            // 执行本次已触发待处理的事件
+            while (keyIterator.hasNext()) {
+                final SelectionKey key = keyIterator.next();
+                UdpChannel<Request> udpChannel = (UdpChannel<Request>) key.attachment();
+                try {
+                    if (!key.isValid()) {
+                        udpChannel.close();
+                        continue;
+                    }
+                    // 读取客户端数据
+                    if (key.isReadable()) {
+                        doRead(udpChannel);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        udpChannel.doWrite();
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+            selectionKeys.clear();
+        }
+
+        /**
+         * 批量读取数据,单次最多接收readBatch个数据包
+         *
+         * @param channel 频道
+         * @throws IOException          异常
+         * @throws InterruptedException 异常
+         */
+        private void doRead(UdpChannel<Request> channel) throws IOException, InterruptedException {
+            for (int i = 0; i < readBatch; i++) {
+                if (readBuffer == null) {
+                    readBuffer = bufferPage.allocate(config.getReadBufferSize());
+                }
+                //接收数据
+                ByteBuffer buffer = readBuffer.buffer();
+                buffer.clear();
+                SocketAddress remote = channel.getChannel().receive(buffer);
+                if (remote == null) {
+                    return;
+                }
+                buffer.flip();
+                channel.receivedPackets.increment();
+                channel.receivedBytes.add(buffer.remaining());
+                UdpAioSession<Request> aioSession = channel.createAndCacheSession(remote);
+
+                //解码
+                Request t = config.getProtocol().decode(buffer, aioSession);
+                if (t == null) {
+                    channel.droppedPackets.increment();
+                    Logger.debug("decode null");
+                    continue;
+                }
+                //缓冲区的所有权随消息移交
+                VirtualBuffer messageBuffer = readBuffer;
+                readBuffer = null;
+                dispatch(channel, aioSession, remote, t, messageBuffer);
+            }
+        }
+    }
+
 }
@@ -28,7 +28,6 @@ import org.aoju.bus.core.io.EventFactory;
 import org.aoju.bus.core.io.RingBuffer;
 import org.aoju.bus.core.io.VirtualBuffer;
 import org.aoju.bus.core.lang.Normal;
-import org.aoju.bus.core.lang.Symbol;
 import org.aoju.bus.logger.Logger;
 
 import java.io.IOException;
@@ -38,8 +37,10 @@ import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
-import java.util.Map;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author Kimi Liu
@@ -48,6 +49,11 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public final class UdpChannel<Request> {
 
+    /**
+     * 单次可写事件最多输出的数据包数量,避免单个通道长期占用Selector线程
+     */
+    private static final int WRITE_BATCH = 256;
+
     private BufferPage bufferPage;
     private int writeQueueCapacity;
     /**
@@ -60,21 +66,43 @@ public final class UdpChannel<Request> {
     /**
      * 与当前UDP通道对接的会话
      */
-    private ConcurrentHashMap<String, UdpAioSession<Request>> udpAioSessionConcurrentHashMap = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<SocketAddress, UdpAioSession<Request>> sessions = new ConcurrentHashMap<>();
 
     /**
      * 待输出消息
      */
     private RingBuffer<UdpWriteEvent> writeRingBuffer;
+    /**
+     * 因Socket发送缓冲区已满而未能输出的数据包,仅由Selector线程访问
+     */
+    private VirtualBuffer pendingResponse;
+    private SocketAddress pendingRemote;
     /**
      * 已完成解码待业务处理的消息集合
      */
     private Object lock = new Object();
 
-
     private int writeBacklog = 2048;
 
+    /**
+     * 以SO_REUSEPORT绑定同一端口的其余通道,随当前通道一并关闭
+     */
+    private final List<UdpChannel<Request>> siblings = new CopyOnWriteArrayList<>();
+
+    final LongAdder receivedPackets;
+    final LongAdder receivedBytes;
+    final LongAdder sentPackets;
+    final LongAdder sentBytes;
+    final LongAdder droppedPackets;
+
     UdpChannel(final DatagramChannel channel, SelectionKey selectionKey, int writeQueueCapacity, BufferPage bufferPage) {
+        this(channel, selectionKey, writeQueueCapacity, bufferPage, null);
+    }
+
+    /**
+     * @param parent 共享统计数据的主通道,为null时独立统计
+     */
+    UdpChannel(final DatagramChannel channel, SelectionKey selectionKey, int writeQueueCapacity, BufferPage bufferPage, UdpChannel<Request> parent) {
         this.channel = channel;
         writeRingBuffer = new RingBuffer<>(writeBacklog, new EventFactory<UdpWriteEvent>() {
             @Override
@@ -91,6 +119,11 @@ public final class UdpChannel<Request> {
         this.selectionKey = selectionKey;
         this.writeQueueCapacity = writeQueueCapacity;
         this.bufferPage = bufferPage;
+        this.receivedPackets = parent == null ? new LongAdder() : parent.receivedPackets;
+        this.receivedBytes = parent == null ? new LongAdder() : parent.receivedBytes;
+        this.sentPackets = parent == null ? new LongAdder() : parent.sentPackets;
+        this.sentBytes = parent == null ? new LongAdder() : parent.sentBytes;
+        this.droppedPackets = parent == null ? new LongAdder() : parent.droppedPackets;
     }
 
     private void write(VirtualBuffer virtualBuffer, SocketAddress remote) throws IOException, InterruptedException {
@@ -98,7 +131,9 @@ public final class UdpChannel<Request> {
         //缓存区已满,同步输出确保线程不发送死锁
         if (index < 0) {
             try {
-                channel.send(virtualBuffer.buffer(), remote);
+                if (!send(virtualBuffer.buffer(), remote)) {
+                    droppedPackets.increment();
+                }
             } finally {
                 virtualBuffer.clean();
             }
@@ -117,36 +152,71 @@ public final class UdpChannel<Request> {
         }
     }
 
+    /**
+     * 批量输出待发送的数据包,Socket发送缓冲区已满时保留当前数据包等待下一次可写事件
+     *
+     * @throws IOException 异常
+     */
     void doWrite() throws IOException {
-        int writeSize = -1;
-        do {
-            int index = writeRingBuffer.tryNextReadIndex();
-            //无可写数据,去除写关注
-            if (index < 0) {
-                synchronized (lock) {
-                    selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_WRITE);
-                    selectionKey.selector().wakeup();
-                }
-                index = writeRingBuffer.tryNextReadIndex();
+        for (int i = 0; i < WRITE_BATCH; i++) {
+            if (pendingResponse == null) {
+                int index = writeRingBuffer.tryNextReadIndex();
+                //无可写数据,去除写关注
                 if (index < 0) {
-                    return;
-                } else {
-                    selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_WRITE);
+                    synchronized (lock) {
+                        selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_WRITE);
+                        selectionKey.selector().wakeup();
+                    }
+                    index = writeRingBuffer.tryNextReadIndex();
+                    if (index < 0) {
+                        return;
+                    } else {
+                        selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_WRITE);
+                    }
                 }
+                UdpWriteEvent event = writeRingBuffer.get(index);
+                pendingResponse = event.getResponse();
+                pendingRemote = event.getRemote();
+                writeRingBuffer.publishReadIndex(index);
             }
-
-            UdpWriteEvent event = writeRingBuffer.get(index);
-            VirtualBuffer response = event.getResponse();
-            SocketAddress remote = event.getRemote();
-            writeRingBuffer.publishReadIndex(index);
-
-            ByteBuffer buffer = response.buffer();
-            writeSize = channel.send(buffer, remote);
+            VirtualBuffer response = pendingResponse;
+            boolean sent;
+            try {
+                sent = send(response.buffer(), pendingRemote);
+            } catch (IOException e) {
+                //发送异常的数据包直接丢弃,避免反复重试
+                pendingResponse = null;
+                pendingRemote = null;
+                response.clean();
+                throw e;
+            }
+            if (!sent) {
+                return;
+            }
+            pendingResponse = null;
+            pendingRemote = null;
             response.clean();
-            if (buffer.hasRemaining()) {
-                Logger.error("buffer has remaining!");
+        }
+    }
+
+    /**
+     * 输出单个数据包
+     *
+     * @return false:Socket发送缓冲区已满,数据包未输出
+     */
+    private boolean send(ByteBuffer buffer, SocketAddress remote) throws IOException {
+        int size = buffer.remaining();
+        try {
+            if (channel.send(buffer, remote) == 0 && size > 0) {
+                return false;
             }
-        } while (writeSize > 0);
+        } catch (IOException e) {
+            droppedPackets.increment();
+            throw e;
+        }
+        sentPackets.increment();
+        sentBytes.add(size);
+        return true;
     }
 
     /**
@@ -168,51 +238,57 @@ public final class UdpChannel<Request> {
     UdpAioSession<Request> createAndCacheSession(final SocketAddress remote) {
         if (!(remote instanceof InetSocketAddress)) {
             throw new UnsupportedOperationException();
-
         }
-        InetSocketAddress address = (InetSocketAddress) remote;
-        String key = address.getHostName() + Symbol.COLON + address.getPort();
-        UdpAioSession<Request> session = udpAioSessionConcurrentHashMap.get(key);
+        UdpAioSession<Request> session = sessions.get(remote);
         if (session != null) {
             return session;
         }
-        synchronized (this) {
-            if (session != null) {
-                return session;
-            }
+        return sessions.computeIfAbsent(remote, key -> {
             Function<WriteBuffer, Void> function = writeBuffer -> {
-                VirtualBuffer virtualBuffer = writeBuffer.poll();
-                if (virtualBuffer == null) {
-                    return null;
-                }
-                try {
-                    write(virtualBuffer, remote);
-                } catch (IOException e) {
-                    e.printStackTrace();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+                VirtualBuffer virtualBuffer;
+                while ((virtualBuffer = writeBuffer.poll()) != null) {
+                    try {
+                        write(virtualBuffer, remote);
+                    } catch (IOException e) {
+                        Logger.error("udp write error", e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        virtualBuffer.clean();
+                        droppedPackets.increment();
+                        break;
+                    }
                 }
                 return null;
             };
             WriteBuffer writeBuffer = new WriteBuffer(bufferPage, function, writeQueueCapacity);
-            session = new UdpAioSession<>(this, remote, writeBuffer);
-            udpAioSessionConcurrentHashMap.put(key, session);
-        }
-        return session;
+            return new UdpAioSession<>(this, remote, writeBuffer);
+        });
+    }
+
+    void addSibling(UdpChannel<Request> sibling) {
+        siblings.add(sibling);
     }
 
     /**
      * 关闭当前连接
      */
     public void close() {
+        for (UdpChannel<Request> sibling : siblings) {
+            sibling.close();
+        }
+        siblings.clear();
         if (selectionKey != null) {
             Selector selector = selectionKey.selector();
             selectionKey.cancel();
             selector.wakeup();
             selectionKey = null;
         }
-        for (Map.Entry<String, UdpAioSession<Request>> entry : udpAioSessionConcurrentHashMap.entrySet()) {
-            entry.getValue().close();
+        for (UdpAioSession<Request> session : sessions.values()) {
+            session.close();
+        }
+        if (pendingResponse != null) {
+            pendingResponse.clean();
+            pendingResponse = null;
         }
         try {
             if (channel != null) {
@@ -228,4 +304,49 @@ public final class UdpChannel<Request> {
         return channel;
     }
 
+    /**
+     * 获取累计接收的数据包数量
+     *
+     * @return 数据包数量
+     */
+    public long getReceivedPackets() {
+        return receivedPackets.sum();
+    }
+
+    /**
+     * 获取累计接收的字节数
+     *
+     * @return 字节数
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.sum();
+    }
+
+    /**
+     * 获取累计输出的数据包数量
+     *
+     * @return 数据包数量
+     */
+    public long getSentPackets() {
+        return sentPackets.sum();
+    }
+
+    /**
+     * 获取累计输出的字节数
+     *
+     * @return 字节数
+     */
+    public long getSentBytes() {
+        return sentBytes.sum();
+    }
+
+    /**
+     * 获取累计丢弃的数据包数量,包括解码失败及输出失败的数据包
+     *
+     * @return 数据包数量
+     */
+    public long getDroppedPackets() {
+        return droppedPackets.sum();
+    }
+
 }
@@ -23,6 +23,8 @@
  */
 package org.aoju.bus.socket.origin;
 
+import org.aoju.bus.core.io.VirtualBuffer;
+
 /**
  * @author Kimi Liu
  * @version 5.5.3
@@ -40,6 +42,10 @@ final class UdpReadEvent<Request> {
      */
     private Request message;
 
+    /**
+     * 消息所在的读缓冲区,业务处理完毕后回收
+     */
+    private VirtualBuffer buffer;
 
     public Request getMessage() {
         return message;
@@ -57,4 +63,12 @@ final class UdpReadEvent<Request> {
         this.aioSession = aioSession;
     }
 
+    public VirtualBuffer getBuffer() {
+        return buffer;
+    }
+
+    public void setBuffer(VirtualBuffer buffer) {
+        this.buffer = buffer;
+    }
+
 }
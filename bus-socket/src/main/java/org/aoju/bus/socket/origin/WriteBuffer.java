@@ -29,6 +29,8 @@ import org.aoju.bus.core.io.VirtualBuffer;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -83,6 +85,46 @@ public class WriteBuffer extends OutputStream {
      */
     private boolean closed = false;
     private byte[] cacheByte = new byte[8];
+    /**
+     * 队列中待输出的字节数,仅在持有锁时修改
+     */
+    private volatile long pendingBytes;
+    /**
+     * 当前是否可写,待输出数据超过高水位时为false
+     */
+    private volatile boolean writable = true;
+    private int highWaterMark;
+    private int lowWaterMark;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    /**
+     * 全局输出内存预算及计数,由同一服务的所有会话共享
+     */
+    private long outboundBudget;
+    private AtomicLong outboundBytes;
+    /**
+     * 可写状态变化回调
+     */
+    private Function<WriteBuffer, Void> writabilityFunction;
+    /**
+     * 可写状态已变化、尚未回调,回调在释放锁之后执行,避免在锁内进入业务代码
+     */
+    private final AtomicBoolean writabilityChanged = new AtomicBoolean();
+    /**
+     * 超限且策略为{@link OverflowPolicy#CLOSE}时的回调
+     */
+    private Function<WriteBuffer, Void> overflowFunction;
+    /**
+     * 因超限被丢弃的字节数
+     */
+    private final AtomicLong droppedBytes = new AtomicLong();
+    /**
+     * 流式写入以{@link #flush()}为消息边界,自上次flush以来是否已有写入
+     */
+    private volatile boolean streamStarted;
+    /**
+     * 当前流式消息是否已按{@link OverflowPolicy#DROP}整体丢弃
+     */
+    private volatile boolean streamDropping;
 
     protected WriteBuffer(BufferPage bufferPage, Function<WriteBuffer, Void> flushFunction, int writeQueueSize) {
         this.bufferPage = bufferPage;
@@ -90,6 +132,151 @@ public class WriteBuffer extends OutputStream {
         this.items = new VirtualBuffer[writeQueueSize];
     }
 
+    /**
+     * 配置输出背压
+     *
+     * @param config              服务配置
+     * @param writabilityFunction 可写状态变化回调
+     * @param overflowFunction    超限关闭回调
+     */
+    void backpressure(ServerConfig<?> config, Function<WriteBuffer, Void> writabilityFunction, Function<WriteBuffer, Void> overflowFunction) {
+        this.highWaterMark = config.getWriteHighWaterMark();
+        this.lowWaterMark = config.getWriteLowWaterMark();
+        this.overflowPolicy = config.getOverflowPolicy();
+        this.outboundBudget = config.getOutboundMemoryBudget();
+        this.outboundBytes = config.getOutboundBytes();
+        this.writabilityFunction = writabilityFunction;
+        this.overflowFunction = overflowFunction;
+    }
+
+    /**
+     * 当前会话是否可写,待输出数据超过高水位后返回false,回落至低水位以下恢复为true
+     *
+     * @return true/false
+     */
+    public boolean isWritable() {
+        return writable;
+    }
+
+    /**
+     * 获取队列中待输出的字节数
+     *
+     * @return 字节数
+     */
+    public long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * 获取因超限被丢弃的字节数
+     *
+     * @return 字节数
+     */
+    public long getDroppedBytes() {
+        return droppedBytes.get();
+    }
+
+    /**
+     * 按照超限策略判断流式写入是否允许
+     * <p>
+     * {@link OverflowPolicy#DROP}只在消息的首次写入时判断,被丢弃时直至下一次{@link #flush()}前的写入均一并丢弃,
+     * 保证对端收到的始终是完整的消息
+     * </p>
+     *
+     * @param len 写入长度
+     * @return false:数据被丢弃
+     * @throws IOException 策略为{@link OverflowPolicy#CLOSE}且已超限
+     */
+    private boolean admitStream(int len) throws IOException {
+        if (overflowPolicy != OverflowPolicy.DROP) {
+            return admit(len);
+        }
+        if (!streamStarted) {
+            streamStarted = true;
+            streamDropping = !admit(len);
+            return !streamDropping;
+        }
+        if (streamDropping) {
+            droppedBytes.addAndGet(len);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 按照超限策略判断本次写入是否允许
+     *
+     * @param len 写入长度
+     * @return false:数据被丢弃
+     * @throws IOException 策略为{@link OverflowPolicy#CLOSE}且已超限
+     */
+    private boolean admit(int len) throws IOException {
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            return true;
+        }
+        boolean overWaterMark = highWaterMark > 0 && pendingBytes + len > highWaterMark;
+        if (!overWaterMark && (outboundBudget <= 0 || outboundBytes.get() + len <= outboundBudget)) {
+            return true;
+        }
+        // 被拒绝的数据不会入队,需在此处切换为不可写,待队列回落至低水位后由poll恢复
+        if (overWaterMark && writable) {
+            lock.lock();
+            try {
+                if (writable && !closed && pendingBytes > lowWaterMark) {
+                    writable = false;
+                    writabilityChanged.set(true);
+                }
+            } finally {
+                lock.unlock();
+            }
+            fireWritabilityChanged();
+        }
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            droppedBytes.addAndGet(len);
+            return false;
+        }
+        if (overflowFunction != null) {
+            overflowFunction.apply(this);
+        }
+        throw new IOException("write queue overflow, pendingBytes:" + pendingBytes);
+    }
+
+    /**
+     * 累计待输出字节数并检测水位变化,需持有锁
+     *
+     * @param delta 变化量
+     */
+    private void account(long delta) {
+        pendingBytes += delta;
+        if (outboundBytes != null) {
+            outboundBytes.addAndGet(delta);
+        }
+        if (highWaterMark <= 0 || closed) {
+            return;
+        }
+        if (writable && pendingBytes > highWaterMark) {
+            writable = false;
+        } else if (!writable && pendingBytes <= lowWaterMark) {
+            writable = true;
+        } else {
+            return;
+        }
+        writabilityChanged.set(true);
+    }
+
+    /**
+     * 回调可写状态变化,持有锁时不执行,由最外层释放锁后执行
+     * 连续的多次变化可能合并为一次回调,回调中应以{@link #isWritable()}为准
+     */
+    private void fireWritabilityChanged() {
+        if (lock.isHeldByCurrentThread() || !writabilityChanged.compareAndSet(true, false)) {
+            return;
+        }
+        if (writabilityFunction != null) {
+            writabilityFunction.apply(this);
+        }
+    }
+
     /**
      * 按照{@link OutputStream#write(int)}规范：要写入的字节是参数 b 的八个低位  b 的 24 个高位将被忽略
      * 而使用该接口时容易传入非byte范围内的数据,接口定义与实际使用出现歧义的可能性较大,故建议废弃该方法,选用{@link WriteBuffer#writeByte(byte)}
@@ -108,6 +295,13 @@ public class WriteBuffer extends OutputStream {
     }
 
     public void writeByte(byte b) {
+        try {
+            if (!admitStream(1)) {
+                return;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
         if (writeInBuf == null) {
             writeInBuf = bufferPage.allocate(WRITE_CHUNK_SIZE);
         }
@@ -122,6 +316,7 @@ public class WriteBuffer extends OutputStream {
         } finally {
             lock.unlock();
         }
+        fireWritabilityChanged();
         writeInBuf = null;
         function.apply(this);
     }
@@ -147,15 +342,25 @@ public class WriteBuffer extends OutputStream {
         } else if (len == 0) {
             return;
         }
+        if (!admitStream(len)) {
+            return;
+        }
         lock.lock();
         try {
+            // 快速路径：无等待中的写线程且当前缓存块足以容纳,直接合并写入
+            // 缓存块可能同时被I/O线程的flush取走入队,因此合并写入仍需持有锁；单写线程时锁无竞争,开销仅为一次CAS
+            if (!isWaiting && writeInBuf != null && writeInBuf.buffer().remaining() > len) {
+                writeInBuf.buffer().put(b, off, len);
+                return;
+            }
             waitPreWriteFinish();
+            int end = off + len;
             do {
                 if (writeInBuf == null) {
-                    writeInBuf = bufferPage.allocate(Math.max(WRITE_CHUNK_SIZE, len - off));
+                    writeInBuf = bufferPage.allocate(Math.max(WRITE_CHUNK_SIZE, end - off));
                 }
                 ByteBuffer writeBuffer = writeInBuf.buffer();
-                int minSize = Math.min(writeBuffer.remaining(), len - off);
+                int minSize = Math.min(writeBuffer.remaining(), end - off);
                 if (minSize == 0 || closed) {
                     writeInBuf.clean();
                     throw new IOException("writeBuffer.remaining:" + writeBuffer.remaining() + " closed:" + closed);
@@ -169,10 +374,57 @@ public class WriteBuffer extends OutputStream {
                     this.put(buffer);
                     function.apply(this);
                 }
-            } while (off < len);
+            } while (off < end);
             notifyWaiting();
         } finally {
             lock.unlock();
+            fireWritabilityChanged();
+        }
+    }
+
+    /**
+     * 将一段已编码的数据直接放入输出队列,不复制数据,也不阻塞调用线程
+     * <p>
+     * 适合群发场景：同一份只读数据通过{@link ByteBuffer#duplicate()}投递给多个会话,
+     * 调用方需保证数据投递后不再被修改,数据入队后需调用{@link #flush()}触发输出
+     * </p>
+     *
+     * @param buffer 待输出数据,position至limit之间的内容将被输出
+     * @return 输出队列已满、已关闭或超出水位限制时返回false,未关闭时被拒绝的数据计入{@link #getDroppedBytes()}
+     */
+    public boolean offer(ByteBuffer buffer) {
+        if (!buffer.hasRemaining()) {
+            return true;
+        }
+        try {
+            if (!admit(buffer.remaining())) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        lock.lock();
+        try {
+            boolean pending = writeInBuf != null && writeInBuf.buffer().position() > 0;
+            if (closed) {
+                return false;
+            }
+            if (isWaiting || count + (pending ? 2 : 1) > items.length) {
+                droppedBytes.addAndGet(buffer.remaining());
+                return false;
+            }
+            // 先提交当前未满的缓存块,保证输出顺序
+            if (pending) {
+                VirtualBuffer buf = writeInBuf;
+                writeInBuf = null;
+                buf.buffer().flip();
+                this.put(buf);
+            }
+            this.put(VirtualBuffer.wrap(buffer));
+            return true;
+        } finally {
+            lock.unlock();
+            fireWritabilityChanged();
         }
     }
 
@@ -180,8 +432,10 @@ public class WriteBuffer extends OutputStream {
      * 唤醒处于waiting状态的线程
      */
     private void notifyWaiting() {
-        isWaiting = false;
-        waiting.signal();
+        if (isWaiting) {
+            isWaiting = false;
+            waiting.signal();
+        }
     }
 
     /**
@@ -230,6 +484,8 @@ public class WriteBuffer extends OutputStream {
         if (closed) {
             throw new RuntimeException("OutputStream has closed");
         }
+        streamStarted = false;
+        streamDropping = false;
         int size = this.count;
         if (size > 0) {
             function.apply(this);
@@ -245,6 +501,7 @@ public class WriteBuffer extends OutputStream {
             } finally {
                 lock.unlock();
             }
+            fireWritabilityChanged();
             if (size > 0) {
                 function.apply(this);
             }
@@ -273,6 +530,7 @@ public class WriteBuffer extends OutputStream {
         } finally {
             lock.unlock();
         }
+        fireWritabilityChanged();
     }
 
     boolean isClosed() {
@@ -300,6 +558,7 @@ public class WriteBuffer extends OutputStream {
                 putIndex = 0;
             }
             count++;
+            account(virtualBuffer.buffer().remaining());
             notEmpty.signal();
         } catch (InterruptedException e1) {
             throw new RuntimeException(e1);
@@ -324,9 +583,11 @@ public class WriteBuffer extends OutputStream {
             }
             count--;
             notFull.signal();
+            account(-x.buffer().remaining());
             return x;
         } finally {
             lock.unlock();
+            fireWritabilityChanged();
         }
     }
 
@@ -27,12 +27,23 @@ package org.aoju.bus.socket.origin.plugins;
 import org.aoju.bus.logger.Logger;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 黑名单插件,会拒绝与黑名单中的IP建立连接
+ * <p>
+ * 匹配顺序:白名单放行 → 黑名单拒绝 → 单IP建连速率限制 → 自定义{@link BlackListRule}
+ * 黑白名单基于{@link CidrTrie},匹配代价与前缀长度相关,与规则数量无关;
+ * 规则变更时构建新树并整体替换,连接接入线程无锁读取
+ * </p>
  *
  * @author Kimi Liu
  * @version 5.5.3
@@ -41,6 +52,20 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 public final class BlackListPlugin<T> extends AbstractPlugin<T> {
 
     private ConcurrentLinkedQueue<BlackListRule> ipBlackList = new ConcurrentLinkedQueue<>();
+    /**
+     * 黑名单CIDR规则
+     */
+    private final Set<String> denyRules = new LinkedHashSet<>();
+    /**
+     * 白名单CIDR规则
+     */
+    private final Set<String> allowRules = new LinkedHashSet<>();
+    private volatile CidrTrie denyTrie = CidrTrie.EMPTY;
+    private volatile CidrTrie allowTrie = CidrTrie.EMPTY;
+    /**
+     * 单IP建连速率统计,为null时不限制
+     */
+    private volatile RateSketch rateSketch;
 
     @Override
     public boolean acceptMonitor(AsynchronousSocketChannel channel) {
@@ -53,6 +78,21 @@ public final class BlackListPlugin<T> extends AbstractPlugin<T> {
         if (inetSocketAddress == null) {
             return true;
         }
+        InetAddress address = inetSocketAddress.getAddress();
+        if (address != null) {
+            byte[] ip = address.getAddress();
+            if (allowTrie.contains(ip)) {
+                return true;
+            }
+            if (denyTrie.contains(ip)) {
+                return false;
+            }
+            RateSketch sketch = rateSketch;
+            if (sketch != null && !sketch.tryAcquire(ip)) {
+                Logger.warn("connection rate exceeded, reject " + address.getHostAddress());
+                return false;
+            }
+        }
         for (BlackListRule rule : ipBlackList) {
             if (!rule.access(inetSocketAddress)) {
                 return false;
@@ -79,6 +119,87 @@ public final class BlackListPlugin<T> extends AbstractPlugin<T> {
         ipBlackList.remove(rule);
     }
 
+    /**
+     * 添加黑名单CIDR规则
+     *
+     * @param cidr 如 10.0.0.0/8、2001:db8::/32 或单个IP
+     */
+    public synchronized void deny(String cidr) {
+        CidrTrie trie = denyTrie.add(cidr);
+        denyRules.add(cidr);
+        denyTrie = trie;
+    }
+
+    /**
+     * 添加白名单CIDR规则,白名单优先于黑名单与速率限制
+     *
+     * @param cidr 如 192.168.0.0/16、fd00::/8 或单个IP
+     */
+    public synchronized void allow(String cidr) {
+        CidrTrie trie = allowTrie.add(cidr);
+        allowRules.add(cidr);
+        allowTrie = trie;
+    }
+
+    /**
+     * 移除黑名单CIDR规则
+     *
+     * @param cidr 规则
+     */
+    public synchronized void removeDeny(String cidr) {
+        if (denyRules.remove(cidr)) {
+            denyTrie = CidrTrie.of(denyRules);
+        }
+    }
+
+    /**
+     * 移除白名单CIDR规则
+     *
+     * @param cidr 规则
+     */
+    public synchronized void removeAllow(String cidr) {
+        if (allowRules.remove(cidr)) {
+            allowTrie = CidrTrie.of(allowRules);
+        }
+    }
+
+    /**
+     * 整体替换黑白名单,新规则全部解析成功后才生效
+     *
+     * @param deny  黑名单CIDR规则
+     * @param allow 白名单CIDR规则
+     */
+    public synchronized void reload(Collection<String> deny, Collection<String> allow) {
+        CidrTrie newDeny = CidrTrie.of(deny);
+        CidrTrie newAllow = CidrTrie.of(allow);
+        denyRules.clear();
+        denyRules.addAll(deny);
+        allowRules.clear();
+        allowRules.addAll(allow);
+        denyTrie = newDeny;
+        allowTrie = newAllow;
+    }
+
+    /**
+     * 限制单个IP的建连速率,超出后在当前时间窗口内拒绝该IP的新连接
+     * <p>
+     * 采用Count-Min Sketch统计,内存固定;哈希冲突只会高估,不会漏判
+     * </p>
+     *
+     * @param permits      时间窗口内允许的连接数,小于等于0时关闭限制
+     * @param windowMillis 时间窗口(毫秒)
+     */
+    public void setConnectionRateLimit(int permits, long windowMillis) {
+        if (permits <= 0) {
+            rateSketch = null;
+            return;
+        }
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        rateSketch = new RateSketch(permits, windowMillis);
+    }
+
     /**
      * 黑名单规则定义
      */
@@ -86,4 +207,48 @@ public final class BlackListPlugin<T> extends AbstractPlugin<T> {
         boolean access(InetSocketAddress address);
     }
 
+    /**
+     * 固定窗口的Count-Min Sketch
+     */
+    private static final class RateSketch {
+
+        private static final int DEPTH = 4;
+        private static final int WIDTH = 2048;
+
+        private final int permits;
+        private final long windowMillis;
+        private final AtomicIntegerArray counters = new AtomicIntegerArray(DEPTH * WIDTH);
+        private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
+
+        RateSketch(int permits, long windowMillis) {
+            this.permits = permits;
+            this.windowMillis = windowMillis;
+        }
+
+        boolean tryAcquire(byte[] ip) {
+            long now = System.currentTimeMillis();
+            long start = windowStart.get();
+            if (now - start >= windowMillis && windowStart.compareAndSet(start, now)) {
+                for (int i = 0; i < counters.length(); i++) {
+                    counters.set(i, 0);
+                }
+            }
+            long hash = 0x9E3779B97F4A7C15L;
+            for (byte b : ip) {
+                hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xFF51AFD7ED558CCDL;
+            hash ^= hash >>> 33;
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            int estimate = Integer.MAX_VALUE;
+            for (int i = 0; i < DEPTH; i++) {
+                int index = i * WIDTH + ((h1 + i * h2) & (WIDTH - 1));
+                estimate = Math.min(estimate, counters.incrementAndGet(index));
+            }
+            return estimate <= permits;
+        }
+    }
+
 }
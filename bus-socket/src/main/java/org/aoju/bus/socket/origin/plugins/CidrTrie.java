@@ -0,0 +1,247 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.origin.plugins;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * 不可变的CIDR前缀树(路径压缩二叉树),IPv4与IPv6各自独立成树
+ * <p>
+ * 查找代价与前缀长度成正比,与规则数量无关;
+ * {@link #add(String)}采用路径复制返回新树,原树保持不变,可由持有方以volatile引用原子替换
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public final class CidrTrie {
+
+    /**
+     * 空树
+     */
+    public static final CidrTrie EMPTY = new CidrTrie(null, null, 0);
+
+    private final Node ipv4;
+    private final Node ipv6;
+    private final int size;
+
+    private CidrTrie(Node ipv4, Node ipv6, int size) {
+        this.ipv4 = ipv4;
+        this.ipv6 = ipv6;
+        this.size = size;
+    }
+
+    /**
+     * 由规则集合构建前缀树
+     *
+     * @param cidrs CIDR规则,如 10.0.0.0/8、2001:db8::/32 或单个IP
+     * @return 前缀树
+     */
+    public static CidrTrie of(Iterable<String> cidrs) {
+        CidrTrie trie = EMPTY;
+        for (String cidr : cidrs) {
+            trie = trie.add(cidr);
+        }
+        return trie;
+    }
+
+    /**
+     * 添加一条CIDR规则,返回包含该规则的新树
+     *
+     * @param cidr CIDR规则,如 10.0.0.0/8、2001:db8::/32 或单个IP
+     * @return 新树
+     */
+    public CidrTrie add(String cidr) {
+        String text = cidr.trim();
+        int slash = text.indexOf('/');
+        byte[] key = parseAddress(slash < 0 ? text : text.substring(0, slash));
+        int maxBits = key.length << 3;
+        int bits = slash < 0 ? maxBits : Integer.parseInt(text.substring(slash + 1).trim());
+        if (bits < 0 || bits > maxBits) {
+            throw new IllegalArgumentException("invalid prefix length: " + cidr);
+        }
+        if (key.length == 4) {
+            return new CidrTrie(insert(ipv4, key, bits), ipv6, size + 1);
+        }
+        return new CidrTrie(ipv4, insert(ipv6, key, bits), size + 1);
+    }
+
+    /**
+     * 地址是否命中任一规则
+     *
+     * @param address IP地址
+     * @return true:命中
+     */
+    public boolean contains(InetAddress address) {
+        return contains(address.getAddress());
+    }
+
+    /**
+     * 地址是否命中任一规则
+     *
+     * @param address 4字节IPv4或16字节IPv6地址
+     * @return true:命中
+     */
+    public boolean contains(byte[] address) {
+        Node node = address.length == 4 ? ipv4 : ipv6;
+        int maxBits = address.length << 3;
+        while (node != null) {
+            if (!matches(address, node.key, node.bits)) {
+                return false;
+            }
+            if (node.terminal) {
+                return true;
+            }
+            if (node.bits >= maxBits) {
+                return false;
+            }
+            node = bit(address, node.bits) == 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * 已添加的规则数
+     *
+     * @return 规则数
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static Node insert(Node node, byte[] key, int bits) {
+        if (node == null) {
+            return new Node(key, bits, true, null, null);
+        }
+        int common = commonPrefix(key, bits, node.key, node.bits);
+        if (common == node.bits) {
+            // 已被更短的前缀覆盖
+            if (node.terminal) {
+                return node;
+            }
+            // 新规则覆盖整棵子树
+            if (common == bits) {
+                return new Node(node.key, node.bits, true, null, null);
+            }
+            return bit(key, node.bits) == 0
+                    ? new Node(node.key, node.bits, false, insert(node.left, key, bits), node.right)
+                    : new Node(node.key, node.bits, false, node.left, insert(node.right, key, bits));
+        }
+        // 新规则是当前节点的前缀
+        if (common == bits) {
+            return new Node(key, bits, true, null, null);
+        }
+        // 在分叉位拆分
+        Node leaf = new Node(key, bits, true, null, null);
+        return bit(key, common) == 0
+                ? new Node(key, common, false, leaf, node)
+                : new Node(key, common, false, node, leaf);
+    }
+
+    private static int commonPrefix(byte[] a, int aBits, byte[] b, int bBits) {
+        int max = Math.min(aBits, bBits);
+        int i = 0;
+        while (i < max) {
+            int diff = (a[i >>> 3] ^ b[i >>> 3]) & 0xFF;
+            if (diff == 0) {
+                i = (i & ~7) + 8;
+                continue;
+            }
+            i = (i & ~7) + Integer.numberOfLeadingZeros(diff) - 24;
+            break;
+        }
+        return Math.min(i, max);
+    }
+
+    private static boolean matches(byte[] address, byte[] key, int bits) {
+        int bytes = bits >>> 3;
+        for (int i = 0; i < bytes; i++) {
+            if (address[i] != key[i]) {
+                return false;
+            }
+        }
+        int rest = bits & 7;
+        if (rest == 0) {
+            return true;
+        }
+        int mask = 0xFF00 >>> rest;
+        return ((address[bytes] ^ key[bytes]) & mask) == 0;
+    }
+
+    private static int bit(byte[] key, int index) {
+        return (key[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    /**
+     * 解析IP字面量,拒绝主机名以避免DNS查询
+     */
+    private static byte[] parseAddress(String ip) {
+        if (ip.isEmpty()) {
+            throw new IllegalArgumentException("empty address");
+        }
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (!(c == '.' || c == ':' || (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                throw new IllegalArgumentException("invalid ip address: " + ip);
+            }
+        }
+        if (ip.indexOf(':') < 0 && ip.chars().anyMatch(Character::isLetter)) {
+            throw new IllegalArgumentException("invalid ip address: " + ip);
+        }
+        try {
+            return InetAddress.getByName(ip).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("invalid ip address: " + ip, e);
+        }
+    }
+
+    private static final class Node {
+        /**
+         * 前缀所在的完整地址,仅前bits位有效
+         */
+        final byte[] key;
+        final int bits;
+        /**
+         * 是否为一条规则的终点,终点以下的子树都被覆盖
+         */
+        final boolean terminal;
+        final Node left;
+        final Node right;
+
+        Node(byte[] key, int bits, boolean terminal, Node left, Node right) {
+            this.key = key;
+            this.bits = bits;
+            this.terminal = terminal;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+}
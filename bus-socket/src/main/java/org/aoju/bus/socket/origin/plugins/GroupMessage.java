@@ -23,23 +23,35 @@
  */
 package org.aoju.bus.socket.origin.plugins;
 
+import org.aoju.bus.logger.Logger;
 import org.aoju.bus.socket.origin.AioSession;
 import org.aoju.bus.socket.origin.Message;
+import org.aoju.bus.socket.origin.WriteBuffer;
 
-import java.io.IOException;
-import java.util.HashSet;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * 群组消息处理器
+ * <p>
+ * 群发时消息只编码一次,各会话共享同一份只读数据,
+ * 先将数据投递至所有会话的输出队列,再统一触发输出；
+ * 投递不会阻塞,输出队列已满或超出水位的会话丢弃本条消息,计入其{@link WriteBuffer#getDroppedBytes()}
+ * </p>
+ *
  * @author Kimi Liu
  * @version 5.5.3
  * @since JDK 1.8+
  */
 abstract class GroupMessage<T> implements Message<T> {
 
-    private Map<String, GroupUnit> sessionGroup = new ConcurrentHashMap<>();
+    private final Map<String, Set<AioSession<T>>> sessionGroup = new ConcurrentHashMap<>();
+    /**
+     * 会话所属群组的反向索引,用于会话关闭时快速退出所有群组
+     */
+    private final Map<AioSession<T>, Set<String>> sessionIndex = new ConcurrentHashMap<>();
 
     /**
      * 将AioSession加入群组group
@@ -49,46 +61,91 @@ abstract class GroupMessage<T> implements Message<T> {
      */
     @Override
     public final synchronized void join(String group, AioSession<T> session) {
-        GroupUnit groupUnit = sessionGroup.get(group);
-        if (groupUnit == null) {
-            groupUnit = new GroupUnit();
-            sessionGroup.put(group, groupUnit);
-        }
-        groupUnit.groupList.add(session);
+        sessionGroup.computeIfAbsent(group, key -> ConcurrentHashMap.newKeySet()).add(session);
+        sessionIndex.computeIfAbsent(session, key -> ConcurrentHashMap.newKeySet()).add(group);
     }
 
     @Override
     public final synchronized void remove(String group, AioSession<T> session) {
-        GroupUnit groupUnit = sessionGroup.get(group);
-        if (groupUnit == null) {
-            return;
+        Set<AioSession<T>> sessions = sessionGroup.get(group);
+        if (sessions != null) {
+            sessions.remove(session);
+            if (sessions.isEmpty()) {
+                sessionGroup.remove(group);
+            }
         }
-        groupUnit.groupList.remove(session);
-        if (groupUnit.groupList.isEmpty()) {
-            sessionGroup.remove(group);
+        Set<String> groups = sessionIndex.get(session);
+        if (groups != null) {
+            groups.remove(group);
+            if (groups.isEmpty()) {
+                sessionIndex.remove(session);
+            }
         }
     }
 
     @Override
-    public final void remove(AioSession<T> session) {
-        for (String group : sessionGroup.keySet()) {
-            remove(group, session);
+    public final synchronized void remove(AioSession<T> session) {
+        Set<String> groups = sessionIndex.remove(session);
+        if (groups == null) {
+            return;
+        }
+        for (String group : groups) {
+            Set<AioSession<T>> sessions = sessionGroup.get(group);
+            if (sessions == null) {
+                continue;
+            }
+            sessions.remove(session);
+            if (sessions.isEmpty()) {
+                sessionGroup.remove(group);
+            }
         }
     }
 
     @Override
     public void writeToGroup(String group, byte[] t) {
-        GroupUnit groupUnit = sessionGroup.get(group);
-        for (AioSession<T> aioSession : groupUnit.groupList) {
+        if (t == null || t.length == 0) {
+            return;
+        }
+        writeToGroup(group, ByteBuffer.wrap(t.clone()).asReadOnlyBuffer());
+    }
+
+    /**
+     * 群发已编码的消息,数据不会被复制
+     * <p>
+     * 调用方在投递后不得再修改payload中的内容
+     * </p>
+     *
+     * @param group   分组
+     * @param payload 已编码的消息
+     */
+    public void writeToGroup(String group, ByteBuffer payload) {
+        Set<AioSession<T>> sessions = sessionGroup.get(group);
+        if (sessions == null || sessions.isEmpty()) {
+            return;
+        }
+        // 第一轮仅入队,避免逐个会话触发输出
+        for (AioSession<T> session : sessions) {
+            if (session.isInvalid()) {
+                continue;
+            }
+            try {
+                // 投递失败时丢弃,避免个别慢会话阻塞整个群发
+                session.writeBuffer().offer(payload.duplicate());
+            } catch (RuntimeException e) {
+                Logger.error(e, "write to group {} failed, session:{}", group, session.getSessionID());
+            }
+        }
+        // 第二轮统一触发输出
+        for (AioSession<T> session : sessions) {
+            if (session.isInvalid()) {
+                continue;
+            }
             try {
-                aioSession.writeBuffer().write(t);
-            } catch (IOException e) {
-                e.printStackTrace();
+                session.writeBuffer().flush();
+            } catch (RuntimeException e) {
+                Logger.error(e, "flush to group {} failed, session:{}", group, session.getSessionID());
             }
         }
     }
 
-    private class GroupUnit {
-        Set<AioSession<T>> groupList = new HashSet<>();
-    }
 }
@@ -23,18 +23,24 @@
  */
 package org.aoju.bus.socket.origin.plugins;
 
+import org.aoju.bus.core.thread.NamedThreadFactory;
 import org.aoju.bus.logger.Logger;
 import org.aoju.bus.socket.origin.AioSession;
+import org.aoju.bus.socket.origin.QuickTimer;
 import org.aoju.bus.socket.origin.StateMachine;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 心跳插件
+ * <p>
+ * 会话空闲达到心跳频率时发送心跳请求,若配置了超时时间,则在该时间内未读到任何数据时关闭会话
+ * 检测任务注册在{@link QuickTimer#getWheelTimer()}上,最近活动时间取自{@link AioSession#getLastReadTime()},
+ * 发送心跳与关闭会话可能阻塞,因此交由独立线程池执行,避免单个会话拖慢时间轮上的其他任务
+ * </p>
  *
  * @author Kimi Liu
  * @version 5.5.3
@@ -42,17 +48,39 @@ import java.util.TimerTask;
  */
 public abstract class HeartPlugin<T> extends AbstractPlugin<T> {
 
-    private static Timer timer = new Timer("HeartMonitor Timer", true);
-    private Map<AioSession<T>, Long> sessionMap = new HashMap<>();
-    private int timeout;
+    private static final ExecutorService executor = Executors.newCachedThreadPool(
+            new NamedThreadFactory("bus-socket:Heart-", true));
 
-    public HeartPlugin(int timeout) {
+    /**
+     * 心跳频率(毫秒)
+     */
+    private final int heartRate;
+    /**
+     * 读超时时间(毫秒),小于等于0表示不因空闲关闭会话
+     */
+    private final int timeout;
+
+    /**
+     * @param heartRate 心跳频率(毫秒)
+     */
+    public HeartPlugin(int heartRate) {
+        this(heartRate, 0);
+    }
+
+    /**
+     * @param heartRate 心跳频率(毫秒)
+     * @param timeout   读超时时间(毫秒)
+     */
+    public HeartPlugin(int heartRate, int timeout) {
+        if (heartRate > 0 && timeout > 0 && timeout <= heartRate) {
+            throw new IllegalArgumentException("timeout should be greater than heartRate");
+        }
+        this.heartRate = heartRate;
         this.timeout = timeout;
     }
 
     @Override
     public final boolean preProcess(AioSession<T> session, T t) {
-        sessionMap.put(session, System.currentTimeMillis());
         //是否心跳响应消息
         if (isHeartMessage(session, t)) {
             //延长心跳监测时间
@@ -65,13 +93,11 @@ public abstract class HeartPlugin<T> extends AbstractPlugin<T> {
     public final void stateEvent(StateMachine stateMachineEnum, AioSession<T> session, Throwable throwable) {
         switch (stateMachineEnum) {
             case NEW_SESSION:
-                sessionMap.put(session, System.currentTimeMillis());
-                registerHeart(session, timeout);
                 //注册心跳监测
+                registerHeart(session, heartRate > 0 ? heartRate : timeout);
                 break;
             case SESSION_CLOSED:
-                //移除心跳监测
-                sessionMap.remove(session);
+                //会话失效后检测任务不再续期
                 break;
         }
     }
@@ -94,36 +120,40 @@ public abstract class HeartPlugin<T> extends AbstractPlugin<T> {
      */
     public abstract boolean isHeartMessage(AioSession<T> session, T msg);
 
-    private void registerHeart(final AioSession<T> session, final int timeout) {
-        if (timeout <= 0) {
-            Logger.info("sesssion:{} 因心跳超时时间为:{},终止启动心跳监测任务", session, timeout);
+    private void registerHeart(final AioSession<T> session, final long delay) {
+        if (heartRate <= 0 && timeout <= 0) {
+            Logger.info("sesssion:{} 因心跳频率为:{},终止启动心跳监测任务", session, heartRate);
             return;
         }
-        Logger.info("session:{}注册心跳任务,超时时间:{}", session, timeout);
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                if (session.isInvalid()) {
-                    sessionMap.remove(session);
-                    Logger.info("session:{} 已失效,移除心跳任务", session);
-                    return;
-                }
-                Long lastTime = sessionMap.get(session);
-                if (lastTime == null) {
-                    Logger.warn("session:{} timeout is null", session);
-                    lastTime = System.currentTimeMillis();
-                    sessionMap.put(session, lastTime);
-                }
-                if (System.currentTimeMillis() - lastTime > timeout) {
-                    try {
-                        sendHeartRequest(session);
-                    } catch (IOException e) {
-                        Logger.error("heart exception", e);
-                    }
+        QuickTimer.getWheelTimer().newTimeout(() -> executor.execute(() -> checkHeart(session)), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkHeart(AioSession<T> session) {
+        if (session.isInvalid()) {
+            return;
+        }
+        long idle = System.currentTimeMillis() - session.getLastReadTime();
+        if (timeout > 0 && idle >= timeout) {
+            Logger.info("session:{} 已空闲{}ms,超过超时时间:{},关闭会话", session, idle, timeout);
+            session.close(true);
+            return;
+        }
+        long delay = Long.MAX_VALUE;
+        if (heartRate > 0) {
+            delay = heartRate - idle;
+            if (delay <= 0) {
+                try {
+                    sendHeartRequest(session);
+                } catch (IOException e) {
+                    Logger.error("heart exception", e);
                 }
-                registerHeart(session, timeout);
+                delay = heartRate;
             }
-        }, timeout);
+        }
+        if (timeout > 0) {
+            delay = Math.min(delay, timeout - idle);
+        }
+        registerHeart(session, delay);
     }
 
 }
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.origin.plugins;
+
+import org.aoju.bus.socket.origin.AioSession;
+import org.aoju.bus.socket.origin.CompositeBuffer;
+import org.aoju.bus.socket.origin.CumulativeProtocol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 基于长度字段的帧解码器
+ *
+ * <p>
+ * 帧结构：[lengthFieldOffset字节][长度字段][内容],
+ * 帧总长度 = lengthFieldOffset + lengthFieldLength + 长度字段值 + lengthAdjustment,
+ * 解码结果为去除前initialBytesToStrip字节后的数据
+ * </p>
+ * <p>
+ * 解码结果为读缓冲区的切片,仅在本次{@link org.aoju.bus.socket.origin.Message#process}执行期间有效,
+ * 需保留或异步处理时请自行复制
+ * </p>
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class LengthFieldProtocol extends CumulativeProtocol<ByteBuffer> {
+
+    /**
+     * 长度字段的偏移量
+     */
+    private final int lengthFieldOffset;
+    /**
+     * 长度字段的字节数,可选1、2、3、4、8
+     */
+    private final int lengthFieldLength;
+    /**
+     * 长度字段值的修正量
+     */
+    private final int lengthAdjustment;
+    /**
+     * 解码结果需跳过的起始字节数
+     */
+    private final int initialBytesToStrip;
+
+    /**
+     * 长度字段位于帧首且仅包含内容长度,解码结果为内容部分
+     *
+     * @param lengthFieldLength 长度字段的字节数
+     * @param maxFrameLength    单帧最大长度
+     */
+    public LengthFieldProtocol(int lengthFieldLength, int maxFrameLength) {
+        this(0, lengthFieldLength, 0, lengthFieldLength, maxFrameLength);
+    }
+
+    public LengthFieldProtocol(int lengthFieldOffset, int lengthFieldLength, int lengthAdjustment, int initialBytesToStrip, int maxFrameLength) {
+        super(maxFrameLength);
+        if (lengthFieldLength != 1 && lengthFieldLength != 2 && lengthFieldLength != 3
+                && lengthFieldLength != 4 && lengthFieldLength != 8) {
+            throw new IllegalArgumentException("lengthFieldLength must be either 1, 2, 3, 4, or 8: " + lengthFieldLength);
+        }
+        if (lengthFieldOffset < 0 || initialBytesToStrip < 0) {
+            throw new IllegalArgumentException("lengthFieldOffset and initialBytesToStrip must be a non-negative integer");
+        }
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.lengthAdjustment = lengthAdjustment;
+        this.initialBytesToStrip = initialBytesToStrip;
+    }
+
+    @Override
+    public ByteBuffer decode(CompositeBuffer buffer, AioSession<ByteBuffer> session) {
+        int headerLength = lengthFieldOffset + lengthFieldLength;
+        if (buffer.readableBytes() < headerLength) {
+            return null;
+        }
+        long frameLength = buffer.getUnsigned(lengthFieldOffset, lengthFieldLength) + lengthAdjustment + headerLength;
+        checkFrameLength(frameLength);
+        if (frameLength < headerLength || frameLength < initialBytesToStrip) {
+            throw new IllegalStateException("frame length " + frameLength + " is less than header length " + headerLength);
+        }
+        if (buffer.readableBytes() < frameLength) {
+            return null;
+        }
+        buffer.skip(initialBytesToStrip);
+        return buffer.readSlice((int) frameLength - initialBytesToStrip);
+    }
+
+}
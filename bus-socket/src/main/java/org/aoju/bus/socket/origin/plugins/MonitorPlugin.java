@@ -57,6 +57,11 @@ public final class MonitorPlugin<T> extends TimerTask implements Plugin<T> {
      */
     private AtomicLong outFlow = new AtomicLong(0);
 
+    /**
+     * 当前周期内写操作次数
+     */
+    private AtomicLong writeCount = new AtomicLong(0);
+
     /**
      * 当前周期内处理失败消息数
      */
@@ -124,12 +129,15 @@ public final class MonitorPlugin<T> extends TimerTask implements Plugin<T> {
     public void run() {
         long curInFlow = inFlow.getAndSet(0);
         long curOutFlow = outFlow.getAndSet(0);
+        long curWriteCount = writeCount.getAndSet(0);
         long curDiscardNum = processFailNum.getAndSet(0);
         long curProcessMsgNum = processMsgNum.getAndSet(0);
         int connectCount = newConnect.getAndSet(0);
         int disConnectCount = disConnect.getAndSet(0);
         Logger.info("\r\n-----这" + seconds + "秒发生了什么----\r\n流入流量:\t\t" + curInFlow * 1.0 / (1024 * 1024) + "(MB)"
                 + "\r\n流出流量:\t" + curOutFlow * 1.0 / (1024 * 1024) + "(MB)"
+                + "\r\n写操作次数:\t" + curWriteCount
+                + "\r\nBytes/write:\t" + (curWriteCount == 0 ? 0 : curOutFlow * 1.0 / curWriteCount)
                 + "\r\n处理失败消息数:\t" + curDiscardNum
                 + "\r\n已处理消息量:\t" + curProcessMsgNum
                 + "\r\n已处理消息总量:\t" + totleProcessMsgNum.get()
@@ -158,5 +166,6 @@ public final class MonitorPlugin<T> extends TimerTask implements Plugin<T> {
     @Override
     public void writeMonitor(AioSession<T> session, int writeSize) {
         outFlow.addAndGet(writeSize);
+        writeCount.incrementAndGet();
     }
 }
@@ -23,14 +23,24 @@
  */
 package org.aoju.bus.socket.origin.plugins;
 
+import org.aoju.bus.core.thread.NamedThreadFactory;
+import org.aoju.bus.logger.Logger;
 import org.aoju.bus.socket.origin.AioQuickClient;
 import org.aoju.bus.socket.origin.AioSession;
+import org.aoju.bus.socket.origin.QuickTimer;
 import org.aoju.bus.socket.origin.StateMachine;
 
 import java.nio.channels.AsynchronousChannelGroup;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 断链重连插件
+ * <p>
+ * 会话关闭后立即重连,失败后按指数退避在{@link QuickTimer#getWheelTimer()}上安排下一次重连,
+ * 连接过程本身在独立线程中执行,不占用I/O线程与时间轮线程
+ * </p>
  *
  * @author Kimi Liu
  * @version 5.5.3
@@ -38,26 +48,70 @@ import java.nio.channels.AsynchronousChannelGroup;
  */
 class ReconnectPlugin<T> extends AbstractPlugin<T> {
 
-    private AioQuickClient<T> client;
+    private static final ExecutorService executor = Executors.newCachedThreadPool(
+            new NamedThreadFactory("bus-socket:Reconnect-", true));
 
-    private boolean shutdown = false;
+    private final AioQuickClient<T> client;
 
-    private AsynchronousChannelGroup asynchronousChannelGroup;
+    private final AsynchronousChannelGroup asynchronousChannelGroup;
+
+    /**
+     * 退避基准时长与上限(毫秒)
+     */
+    private final long baseDelay;
+    private final long maxDelay;
+
+    private volatile boolean shutdown = false;
+
+    /**
+     * 连续失败的重连次数
+     */
+    private int attempts;
 
     public ReconnectPlugin(AioQuickClient<T> client) {
         this(client, null);
     }
 
     public ReconnectPlugin(AioQuickClient<T> client, AsynchronousChannelGroup asynchronousChannelGroup) {
+        this(client, asynchronousChannelGroup, 1000, 60000);
+    }
+
+    /**
+     * @param client                   客户端
+     * @param asynchronousChannelGroup 通道组
+     * @param baseDelay                首次失败后的重连间隔(毫秒),之后每次失败翻倍
+     * @param maxDelay                 重连间隔上限(毫秒)
+     */
+    public ReconnectPlugin(AioQuickClient<T> client, AsynchronousChannelGroup asynchronousChannelGroup,
+                           long baseDelay, long maxDelay) {
         this.client = client;
         this.asynchronousChannelGroup = asynchronousChannelGroup;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
     }
 
     @Override
     public void stateEvent(StateMachine stateMachineEnum, AioSession<T> session, Throwable throwable) {
+        if (stateMachineEnum == StateMachine.NEW_SESSION) {
+            synchronized (this) {
+                attempts = 0;
+            }
+            return;
+        }
         if (stateMachineEnum != StateMachine.SESSION_CLOSED || shutdown) {
             return;
         }
+        scheduleReconnect(0);
+    }
+
+    private void scheduleReconnect(long delay) {
+        QuickTimer.getWheelTimer().newTimeout(() -> executor.execute(this::reconnect), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void reconnect() {
+        if (shutdown) {
+            return;
+        }
         try {
             if (asynchronousChannelGroup == null) {
                 client.start();
@@ -65,10 +119,14 @@ class ReconnectPlugin<T> extends AbstractPlugin<T> {
                 client.start(asynchronousChannelGroup);
             }
         } catch (Exception e) {
-            shutdown = true;
-            e.printStackTrace();
+            long delay;
+            synchronized (this) {
+                delay = Math.min(baseDelay << Math.min(attempts, 20), maxDelay);
+                attempts++;
+            }
+            Logger.warn("reconnect failed, retry after {}ms: {}", delay, e.getMessage());
+            scheduleReconnect(delay);
         }
-
     }
 
     public void shutdown() {
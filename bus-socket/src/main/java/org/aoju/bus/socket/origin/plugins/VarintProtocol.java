@@ -0,0 +1,92 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2015-2020 aoju.org All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.aoju.bus.socket.origin.plugins;
+
+import org.aoju.bus.socket.origin.AioSession;
+import org.aoju.bus.socket.origin.CompositeBuffer;
+import org.aoju.bus.socket.origin.CumulativeProtocol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 基于Varint32长度前缀的帧解码器,与Protocol Buffers的writeDelimitedTo格式兼容
+ * 解码结果为读缓冲区的切片,仅在本次{@link org.aoju.bus.socket.origin.Message#process}执行期间有效,
+ * 需保留或异步处理时请自行复制
+ *
+ * @author Kimi Liu
+ * @version 5.5.3
+ * @since JDK 1.8+
+ */
+public class VarintProtocol extends CumulativeProtocol<ByteBuffer> {
+
+    public VarintProtocol(int maxFrameLength) {
+        super(maxFrameLength);
+    }
+
+    /**
+     * 按Varint32格式编码长度前缀
+     *
+     * @param length 内容长度
+     * @return 长度前缀
+     */
+    public static byte[] encodeLength(int length) {
+        byte[] bytes = new byte[5];
+        int index = 0;
+        while ((length & ~0x7F) != 0) {
+            bytes[index++] = (byte) ((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+        bytes[index++] = (byte) length;
+        byte[] result = new byte[index];
+        System.arraycopy(bytes, 0, result, 0, index);
+        return result;
+    }
+
+    @Override
+    public ByteBuffer decode(CompositeBuffer buffer, AioSession<ByteBuffer> session) {
+        int readable = buffer.readableBytes();
+        int length = 0;
+        int headerLength = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (headerLength == readable) {
+                return null;
+            }
+            if (headerLength == 5) {
+                throw new IllegalStateException("malformed varint32 length prefix");
+            }
+            byte b = buffer.getByte(headerLength++);
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        checkFrameLength(length);
+        if (readable - headerLength < length) {
+            return null;
+        }
+        buffer.skip(headerLength);
+        return buffer.readSlice(length);
+    }
+
+}